@@ -21,6 +21,8 @@ package com.asemantics.rdfcoder;
 import com.asemantics.rdfcoder.inspector.Inspector;
 import com.asemantics.rdfcoder.model.CodeModel;
 import com.asemantics.rdfcoder.model.CoderFactory;
+import com.asemantics.rdfcoder.model.QueryCancelledException;
+import com.asemantics.rdfcoder.model.QueryHandle;
 import com.asemantics.rdfcoder.model.QueryResult;
 import com.asemantics.rdfcoder.model.SPARQLException;
 import com.asemantics.rdfcoder.model.SPARQLQuerableCodeModel;
@@ -225,6 +227,11 @@ public abstract class AbstractCommandLine {
      */
     private History history;
 
+    /**
+     * Console terminal.
+     */
+    private Terminal terminal;
+
     /**
      * The current console directory.
      */
@@ -346,7 +353,7 @@ public abstract class AbstractCommandLine {
         }
 
         // Init console reader and history.
-        final Terminal terminal = TerminalBuilder.builder()
+        terminal = TerminalBuilder.builder()
                 .dumb(true)
                 .system(true)
                 .signalHandler(Terminal.SignalHandler.SIG_IGN)
@@ -634,9 +641,29 @@ public abstract class AbstractCommandLine {
      * @param qry
      */
     protected void performQueryOnModel(String modelName, String qry) {
+        performQueryOnModel(modelName, qry, null, QueryResult.NO_LIMIT, QueryHandle.NO_TIMEOUT);
+    }
+
+    /**
+     * Performs a SPARQL query on the specified model streaming at most <code>maxRows</code> rows.
+     * The row limit is not supported by the tabular text output.
+     * The query can be interrupted with <i>Ctrl-C</i> and stops once the timeout expires.
+     *
+     * @param modelName
+     * @param qry
+     * @param format the text output format, <code>null</code> for the tabular view.
+     * @param maxRows the maximum number of printed rows, {@link QueryResult#NO_LIMIT} for all.
+     * @param timeout the query timeout in milliseconds, {@link QueryHandle#NO_TIMEOUT} for none.
+     */
+    protected void performQueryOnModel(
+            String modelName, String qry, QueryResult.DelimitedFormat format, int maxRows, long timeout
+    ) {
         if( ! modelHandlers.containsKey(modelName)) {
             throw new IllegalArgumentException("model with name " + modelName + " doesn't exist.");
         }
+        if(outputType == OutputType.TEXT && format == null && maxRows != QueryResult.NO_LIMIT) {
+            throw new IllegalArgumentException("the row limit requires a delimited output format.");
+        }
 
         ModelHandler mh = modelHandlers.get(modelName);
         CodeModel cm = mh.model.getCodeModelBase();
@@ -644,19 +671,32 @@ public abstract class AbstractCommandLine {
             throw new IllegalArgumentException("code model " + modelName + " is not a QuerableCodeModel instance.");
         }
         SPARQLQuerableCodeModel qcm = (SPARQLQuerableCodeModel) cm;
+        final QueryHandle handle = new QueryHandle(timeout);
+        final Terminal.SignalHandler previousHandler = terminal.handle(
+                Terminal.Signal.INT,
+                new Terminal.SignalHandler() {
+                    public void handle(Terminal.Signal signal) {
+                        handle.cancel();
+                    }
+                }
+        );
         QueryResult qr = null;
         try {
-            qr = qcm.performQuery(qry);
+            qr = qcm.performQuery(qry, handle);
             if (outputType == OutputType.TEXT) {
-                qr.toTabularView(getOutputStream());
+                if(format == null) {
+                    qr.toTabularView(getOutputStream());
+                } else {
+                    qr.toDelimitedView(getOutputStream(), format, maxRows);
+                }
             } else if (outputType == OutputType.JSON) {
                 try {
-                    JsonGenerator generator = jsonFactory.createGenerator(new BufferedOutputStream(getOutputStream()));
+                    JsonGenerator generator = getOutJSONGenerator();
                     generator.writeStartObject();
                     generator.writeFieldName("operation");
                     generator.writeObject("sparql_query");
                     generator.writeFieldName("result");
-                    qr.toJSONView(generator);
+                    qr.toJSONView(generator, maxRows);
                     generator.writeEndObject();
                     generator.flush();
                 } catch (IOException ioe) {
@@ -670,7 +710,10 @@ public abstract class AbstractCommandLine {
             throw new IllegalArgumentException("Error while parsing SPARQL query.", qpe);
         } catch (SPARQLException e) {
             throw new IllegalArgumentException("Cannot perform SPARQL query.", e);
+        } catch (QueryCancelledException qce) {
+            throw new IllegalArgumentException(qce.getMessage(), qce);
         } finally {
+            terminal.handle(Terminal.Signal.INT, previousHandler);
             if (qr != null) {
                 qr.close();
             }
@@ -686,6 +729,18 @@ public abstract class AbstractCommandLine {
         performQueryOnModel(selectedModel, qry);
     }
 
+    /**
+     * Performs a SPARQL query on the selected model streaming at most <code>maxRows</code> rows.
+     *
+     * @param qry
+     * @param format the text output format, <code>null</code> for the tabular view.
+     * @param maxRows the maximum number of printed rows, {@link QueryResult#NO_LIMIT} for all.
+     * @param timeout the query timeout in milliseconds, {@link QueryHandle#NO_TIMEOUT} for none.
+     */
+    protected void performQueryOnModel(String qry, QueryResult.DelimitedFormat format, int maxRows, long timeout) {
+        performQueryOnModel(selectedModel, qry, format, maxRows, timeout);
+    }
+
     /**
      * Inspect the specified model as a bean.
      *
@@ -1041,6 +1096,10 @@ public abstract class AbstractCommandLine {
         }
         Map parameters = new HashMap();
         parameters.put(CodeStorage.FS_FILENAME, fullPath.getAbsolutePath());
+        String format = retrieveParam(CodeStorage.FS_FORMAT, args);
+        if(format != null) {
+            parameters.put(CodeStorage.FS_FORMAT, format);
+        }
         return parameters;
     }
 
@@ -19,6 +19,14 @@
 package com.asemantics.rdfcoder;
 
 import com.asemantics.rdfcoder.inspector.BeanAccessor;
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.ModelStatistics;
+import com.asemantics.rdfcoder.model.QueryHandle;
+import com.asemantics.rdfcoder.model.QueryResult;
+import com.asemantics.rdfcoder.model.java.DependencyAnalysis;
+import com.asemantics.rdfcoder.model.java.DependencyGraph;
+import com.asemantics.rdfcoder.model.java.JavaQueryModel;
 import com.asemantics.rdfcoder.profile.ProfileException;
 import com.asemantics.rdfcoder.storage.CodeStorage;
 import com.asemantics.rdfcoder.storage.CodeStorageException;
@@ -37,6 +45,7 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -46,7 +55,18 @@ import java.util.Map;
  */
 public class CommandLine extends AbstractCommandLine {
 
+    /**
+     * Default maximum number of entities listed by the <i>symbols</i> command.
+     */
+    private static final int MAX_SYMBOLS = 50;
+
+    /**
+     * Number of most coupled nodes listed by the <i>dependencies</i> command.
+     */
+    private static final int TOP_DEPENDENCIES = 10;
+
     private final ModelNameCompleter modelNameCompleter = new ModelNameCompleter(this);
+    private final EntityNameCompleter entityNameCompleter = new EntityNameCompleter(this);
     //private final DescribePathCompleter describePathCompleter = new DescribePathCompleter(this);
 
     /**
@@ -399,8 +419,11 @@ public class CommandLine extends AbstractCommandLine {
                 "\n\t possible values for storagename are: " +
                 "\n\t\t" + CodeStorage.STORAGE_FS  + "==filesystem" +
                 "\n\t\t" + CodeStorage.STORAGE_DB + "==database" +
+                "\n\tthe optional " + CodeStorage.FS_FORMAT + " parameter selects the file format" +
+                " (rdfxml, ntriples, ntriples.gz), otherwise it is guessed by the file extension (.xml, .nt, .nt.gz)" +
                 "\n\texample:" +
-                "\n\tmodel1> savemodel fs filename=/path/to/file.xml";
+                "\n\tmodel1> savemodel fs filename=/path/to/file.xml" +
+                "\n\tmodel1> savemodel fs filename=/path/to/file.nt.gz";
 
     }
 
@@ -536,11 +559,41 @@ public class CommandLine extends AbstractCommandLine {
      * @param args
      */
     public void command_querymodel(String[] args) {
-        if( args.length != 1 ) {
-            throw new IllegalArgumentException();
+        if( args.length < 1 || args.length % 2 != 1 ) {
+            throw new IllegalArgumentException(
+                    "syntax: querymodel <SPARQL_query> [-f table|tsv|csv] [-l <max_rows>] [--timeout <millis>]"
+            );
         }
         String qry = args[0];
-        performQueryOnModel(qry);
+        QueryResult.DelimitedFormat format = null;
+        int maxRows = QueryResult.NO_LIMIT;
+        long timeout = QueryHandle.NO_TIMEOUT;
+        for(int i = 1; i < args.length; i += 2) {
+            if("-f".equals(args[i])) {
+                format = "table".equals(args[i + 1]) ? null : toDelimitedFormat(args[i + 1]);
+            } else if("-l".equals(args[i])) {
+                try {
+                    maxRows = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException nfe) {
+                    throw new IllegalArgumentException("invalid row limit: '" + args[i + 1] + "'");
+                }
+                if(maxRows < 0) {
+                    throw new IllegalArgumentException("the row limit must be >= 0");
+                }
+            } else if("--timeout".equals(args[i])) {
+                try {
+                    timeout = Long.parseLong(args[i + 1]);
+                } catch (NumberFormatException nfe) {
+                    throw new IllegalArgumentException("invalid timeout: '" + args[i + 1] + "'");
+                }
+                if(timeout < 0) {
+                    throw new IllegalArgumentException("the timeout must be >= 0");
+                }
+            } else {
+                throw new IllegalArgumentException("unknown option: '" + args[i] + "'");
+            }
+        }
+        performQueryOnModel(qry, format, maxRows, timeout);
     }
 
     public String __command_querymodel() {
@@ -550,8 +603,21 @@ public class CommandLine extends AbstractCommandLine {
     public String ___command_querymodel() {
         return
                 __command_querymodel() +
-                "\nsyntax: querymodel <SPARQL_query>" +
-                "\n\tperforms the given query on the current query model.";
+                "\nsyntax: querymodel <SPARQL_query> [-f table|tsv|csv] [-l <max_rows>] [--timeout <millis>]" +
+                "\n\tperforms the given query on the current query model." +
+                "\n\t-f prints the result as an aligned table (default) or streams it as TSV or CSV." +
+                "\n\t-l streams at most the given number of rows, requires -f tsv|csv or the JSON output." +
+                "\n\t--timeout interrupts the query after the given milliseconds, 0 for no limit." +
+                "\n\tA running query can be interrupted with Ctrl-C.";
+    }
+
+    private static QueryResult.DelimitedFormat toDelimitedFormat(String format) {
+        for(QueryResult.DelimitedFormat delimitedFormat : QueryResult.DelimitedFormat.values()) {
+            if(delimitedFormat.name().equalsIgnoreCase(format)) {
+                return delimitedFormat;
+            }
+        }
+        throw new IllegalArgumentException("unknown format: '" + format + "'");
     }
 
     public void command_inspect(String[] args) {
@@ -599,6 +665,287 @@ public class CommandLine extends AbstractCommandLine {
 
     }
 
+    /**
+     * Command to list the entities contained in an entity of the active model.
+     *
+     * @param args
+     */
+    public void command_entities(String[] args) {
+        if( args.length < 1 || args.length > 2 || (args.length == 2 && ! "-r".equals(args[1])) ) {
+            throw new IllegalArgumentException("syntax: entities <name> [-r]");
+        }
+        final boolean recursive = args.length == 2;
+        final JavaQueryModel queryModel = getJavaProfile().getQueryModel();
+        final Identifier[] containers = queryModel.findEntities(args[0]);
+        if(containers.length == 0) {
+            throw new IllegalArgumentException("cannot find entity '" + args[0] + "'");
+        }
+        final List<Identifier> entities = new ArrayList<>();
+        for(Identifier container : containers) {
+            entities.addAll(Arrays.asList(
+                    recursive ? queryModel.getEntitiesUnder(container) : queryModel.getEntitiesInto(container)
+            ));
+        }
+        if(getOutputType() == OutputType.TEXT) {
+            for(Identifier entity : entities) {
+                println(entity.getIdentifier());
+            }
+        } else if(getOutputType() == OutputType.JSON) {
+            try {
+                final JsonGenerator generator = getOutJSONGenerator();
+                generator.writeStartObject();
+                generator.writeFieldName("operation");
+                generator.writeObject("entities");
+                generator.writeFieldName("result");
+                generator.writeStartArray();
+                for(Identifier entity : entities) {
+                    generator.writeObject(entity.getIdentifier());
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.flush();
+                println();
+            } catch (IOException ioe) {
+                throw new RuntimeException("Error while generating JSON output.", ioe);
+            }
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    public String __command_entities() {
+        return "List the entities contained in a package or type of the active model";
+    }
+
+    public String ___command_entities() {
+        return
+                __command_entities() +
+                "\nsyntax: entities <name> [-r]" +
+                "\n\tlists the entities directly contained in the entity with the given dotted name," +
+                "\n\tor all the entities under it if -r is specified." +
+                "\n\texample:" +
+                "\n\tentities java.util -r";
+    }
+
+    /**
+     * Command to search the entities of the active model by simple name.
+     *
+     * @param args
+     */
+    public void command_symbols(String[] args) {
+        if( args.length < 1 || args.length > 2 ) {
+            throw new IllegalArgumentException("syntax: symbols <partial_name> [limit]");
+        }
+        final int limit;
+        try {
+            limit = args.length == 2 ? Integer.parseInt(args[1]) : MAX_SYMBOLS;
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("invalid limit '" + args[1] + "'");
+        }
+        final Identifier[] symbols = getJavaProfile().getQueryModel().searchSymbols(args[0], limit);
+        if(getOutputType() == OutputType.TEXT) {
+            for(Identifier symbol : symbols) {
+                println(symbol.getIdentifier());
+            }
+        } else if(getOutputType() == OutputType.JSON) {
+            try {
+                final JsonGenerator generator = getOutJSONGenerator();
+                generator.writeStartObject();
+                generator.writeFieldName("operation");
+                generator.writeObject("symbols");
+                generator.writeFieldName("result");
+                generator.writeStartArray();
+                for(Identifier symbol : symbols) {
+                    generator.writeObject(symbol.getIdentifier());
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.flush();
+                println();
+            } catch (IOException ioe) {
+                throw new RuntimeException("Error while generating JSON output.", ioe);
+            }
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    public String __command_symbols() {
+        return "Search the entities of the active model by simple name";
+    }
+
+    public String ___command_symbols() {
+        return
+                __command_symbols() +
+                "\nsyntax: symbols <partial_name> [limit]" +
+                "\n\tlists the packages, types, methods and attributes whose name contains the given one" +
+                "\n\tor matches its camel case humps, the best matches first." +
+                String.format("\n\tAt most %d entities are listed if no limit is specified.", MAX_SYMBOLS) +
+                "\n\texample:" +
+                "\n\tsymbols HSM";
+    }
+
+    /**
+     * Command to analyze the dependencies among the packages or the classes of the active model.
+     *
+     * @param args
+     */
+    public void command_dependencies(String[] args) {
+        if( args.length != 1 || ! ("packages".equals(args[0]) || "classes".equals(args[0])) ) {
+            throw new IllegalArgumentException("syntax: dependencies <packages|classes>");
+        }
+        final DependencyGraph.Level level =
+                "packages".equals(args[0]) ? DependencyGraph.Level.PACKAGE : DependencyGraph.Level.CLASS;
+        final DependencyGraph graph = getJavaProfile().getQueryModel().getDependencyGraph();
+        final DependencyAnalysis analysis = graph.analyze(level);
+        final String[][] cycles = analysis.getCycles();
+        if(getOutputType() == OutputType.TEXT) {
+            println(
+                    String.format(
+                            "%s: %d, dependencies: %d, cycles: %d, layers: %d",
+                            args[0],
+                            graph.getNodesCount(level),
+                            graph.getEdgesCount(level),
+                            cycles.length,
+                            analysis.getLayersCount()
+                    )
+            );
+            for(String[] cycle : cycles) {
+                println( String.format("cycle [%d]: %s", cycle.length, String.join(" ", cycle)) );
+            }
+            println("most used:");
+            for(String name : analysis.getTopByFanIn(TOP_DEPENDENCIES)) {
+                println( String.format("\t%s (fan-in %d)", name, analysis.getFanIn(name)) );
+            }
+            println("most dependent:");
+            for(String name : analysis.getTopByFanOut(TOP_DEPENDENCIES)) {
+                println( String.format("\t%s (fan-out %d)", name, analysis.getFanOut(name)) );
+            }
+        } else if(getOutputType() == OutputType.JSON) {
+            try {
+                final JsonGenerator generator = getOutJSONGenerator();
+                generator.writeStartObject();
+                generator.writeFieldName("operation");
+                generator.writeObject("dependencies");
+                generator.writeFieldName("result");
+                generator.writeStartObject();
+                generator.writeStringField("level", args[0]);
+                generator.writeNumberField("nodes", graph.getNodesCount(level));
+                generator.writeNumberField("dependencies", graph.getEdgesCount(level));
+                generator.writeNumberField("layers", analysis.getLayersCount());
+                generator.writeFieldName("cycles");
+                generator.writeStartArray();
+                for(String[] cycle : cycles) {
+                    generator.writeStartArray();
+                    for(String name : cycle) {
+                        generator.writeString(name);
+                    }
+                    generator.writeEndArray();
+                }
+                generator.writeEndArray();
+                generator.writeFieldName("metrics");
+                generator.writeStartArray();
+                for(String name : analysis.getNodes()) {
+                    generator.writeStartObject();
+                    generator.writeStringField("name", name);
+                    generator.writeNumberField("layer", analysis.getLayer(name));
+                    generator.writeNumberField("fanIn", analysis.getFanIn(name));
+                    generator.writeNumberField("fanOut", analysis.getFanOut(name));
+                    generator.writeNumberField("instability", analysis.getInstability(name));
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.flush();
+                println();
+            } catch (IOException ioe) {
+                throw new RuntimeException("Error while generating JSON output.", ioe);
+            }
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    public String __command_dependencies() {
+        return "Analyze the dependencies among the packages or the classes of the active model";
+    }
+
+    public String ___command_dependencies() {
+        return
+                __command_dependencies() +
+                "\nsyntax: dependencies <packages|classes>" +
+                "\n\tdetects the dependency cycles, the number of layers and the fan-in and fan-out" +
+                "\n\tof every package or top level type, derived from the supertypes, the attribute," +
+                "\n\tparameter and return types and the thrown exceptions." +
+                String.format("\n\tThe %d most coupled nodes are listed, the JSON output lists them all.", TOP_DEPENDENCIES) +
+                "\n\texample:" +
+                "\n\tdependencies packages";
+    }
+
+    /**
+     * Command to print the number of triples and entities of the active model.
+     *
+     * @param args
+     */
+    public void command_stats(String[] args) {
+        if(args.length > 0) {
+            throw new IllegalArgumentException("syntax: stats");
+        }
+        final ModelStatistics statistics = getJavaProfile().getQueryModel().getModelStatistics();
+        final long triples = statistics.getTriplesCount();
+        final Map<String,Long> entities = statistics.getEntitiesCounts();
+        if(getOutputType() == OutputType.TEXT) {
+            println("triples: " + triples);
+            for(Map.Entry<String,Long> entry : entities.entrySet()) {
+                println( String.format("%s: %d", toTypeName(entry.getKey()), entry.getValue()) );
+            }
+        } else if(getOutputType() == OutputType.JSON) {
+            try {
+                final JsonGenerator generator = getOutJSONGenerator();
+                generator.writeStartObject();
+                generator.writeFieldName("operation");
+                generator.writeObject("stats");
+                generator.writeFieldName("result");
+                generator.writeStartObject();
+                generator.writeNumberField("triples", triples);
+                generator.writeFieldName("entities");
+                generator.writeStartObject();
+                for(Map.Entry<String,Long> entry : entities.entrySet()) {
+                    generator.writeNumberField(toTypeName(entry.getKey()), entry.getValue());
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.flush();
+                println();
+            } catch (IOException ioe) {
+                throw new RuntimeException("Error while generating JSON output.", ioe);
+            }
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    public String __command_stats() {
+        return "Print the number of triples and entities of the active model";
+    }
+
+    public String ___command_stats() {
+        return
+                __command_stats() +
+                "\nsyntax: stats" +
+                "\n\tprints the number of triples and the number of entities of every type," +
+                "\n\tread from counters maintained while loading the model.";
+    }
+
+    /**
+     * Returns the type name without the <i>RDFCoder</i> namespace.
+     */
+    private static String toTypeName(String type) {
+        return type.startsWith(CodeModel.CODER_URI) ? type.substring(CodeModel.CODER_URI.length()) : type;
+    }
+
     /**
      * Command to load a classpath on the active model.
      *
@@ -740,6 +1087,14 @@ public class CommandLine extends AbstractCommandLine {
                 new NullCompleter()
         );
 
+        // entities completer.
+        final ArgumentCompleter entitiesCompleter = new ArgumentCompleter(
+                new StringsCompleter("entities"),
+                entityNameCompleter,
+                new StringsCompleter("-r"),
+                new NullCompleter()
+        );
+
         // help completer.
         final ArgumentCompleter helpCompleter = new ArgumentCompleter(
                 new StringsCompleter("help"),
@@ -800,6 +1155,7 @@ public class CommandLine extends AbstractCommandLine {
                 cdCompleter,
                 debugCompleter,
                 describeCompleter,
+                entitiesCompleter,
                 inspectCompleter,
                 helpCompleter,
                 loadClasspathCompleter,
@@ -852,4 +1208,26 @@ public class CommandLine extends AbstractCommandLine {
         }
     }
 
+    class EntityNameCompleter implements Completer {
+
+        /**
+         * Maximum number of proposed completions.
+         */
+        private static final int MAX_COMPLETIONS = 100;
+
+        private final CommandLine cl;
+
+        EntityNameCompleter(CommandLine cl) {
+            this.cl = cl;
+        }
+
+        @Override
+        public void complete(LineReader reader, ParsedLine line, List<Candidate> candidates) {
+            final String word = line.word().substring(0, line.wordCursor());
+            for(String name : cl.getJavaProfile().getQueryModel().completeEntityName(word, MAX_COMPLETIONS)) {
+                candidates.add(new Candidate(name, name, null, null, null, null, false));
+            }
+        }
+    }
+
 }
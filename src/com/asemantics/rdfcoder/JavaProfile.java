@@ -19,7 +19,9 @@
 package com.asemantics.rdfcoder;
 
 import com.asemantics.rdfcoder.model.CodeModelBase;
+import com.asemantics.rdfcoder.model.java.CachingJavaQueryModel;
 import com.asemantics.rdfcoder.model.java.JavaCodeHandler;
+import com.asemantics.rdfcoder.model.java.JavaCodeHandlerImpl;
 import com.asemantics.rdfcoder.model.java.JavaCoderFactory;
 import com.asemantics.rdfcoder.model.java.JavaOntology;
 import com.asemantics.rdfcoder.model.java.JavaQueryModel;
@@ -76,6 +78,14 @@ public class JavaProfile implements Profile<JavaQueryModel> {
      */
     private static final String JRE_OBJECT_TABLE_PREFIX = "jre_ot_";
 
+    /**
+     * The storage type of the JRE CodeModel snapshot. The snapshot is written once
+     * and loaded at every startup, so it is kept in the compact binary format
+     * regardless of the storage type of the model; snapshots stored in other formats
+     * are still loaded, since the loading detects the resource type.
+     */
+    private static final Repository.ResourceType JRE_MODEL_STORAGE_TYPE = Repository.ResourceType.BINARY_MODEL;
+
     /**
      * JRE lib dir.
      */
@@ -250,10 +260,10 @@ public class JavaProfile implements Profile<JavaQueryModel> {
         try {
             resource = repository.createResource(
                     getJREModelResourceName(pathToJRE.getName()),
-                    Repository.ResourceType.XML
+                    JRE_MODEL_STORAGE_TYPE
             );
             os  = resource.getOutputStream();
-            codeStorage.saveModel(cmb, os);
+            model.getCodeStorage(JRE_MODEL_STORAGE_TYPE).saveModel(cmb, os);
             os.close();
         } catch (Exception e) {
             resource.delete();
@@ -407,11 +417,21 @@ public class JavaProfile implements Profile<JavaQueryModel> {
      */
     private JStatistics loadJava(String libName, String path, FileParser fileParser, FilenameFilter filenameFilter) {
         JavaCodeHandler ch = createCodeHandler();
+        // Unresolved types are resolved by the directory post scan.
+        if(ch instanceof JavaCodeHandlerImpl) {
+            ( (JavaCodeHandlerImpl) ch ).setDeferredTypeResolution(true);
+        }
         DirectoryParser directoryParser = new DirectoryParser( fileParser, filenameFilter );
         JStatistics statistics = new JStatistics();
         JavaCodeHandler sch = statistics.createStatisticsCodeHandler(ch);
         directoryParser.initialize(sch, model.getObjectsTable() );
-        directoryParser.parseDirectory(libName, new File(path) );
+        try {
+            directoryParser.parseDirectory(libName, new File(path) );
+        } finally {
+            if(ch instanceof JavaCodeHandlerImpl) {
+                ( (JavaCodeHandlerImpl) ch ).setDeferredTypeResolution(false);
+            }
+        }
         directoryParser.dispose();
         return statistics;
     }
@@ -498,7 +518,7 @@ public class JavaProfile implements Profile<JavaQueryModel> {
 
     public JavaQueryModel getQueryModel() {
         if( jqmInstance == null ) {
-            jqmInstance = new JavaQueryModelImpl( model.getCodeModelBase() );
+            jqmInstance = new CachingJavaQueryModel( new JavaQueryModelImpl( model.getCodeModelBase() ) );
         }
         return jqmInstance;
     }
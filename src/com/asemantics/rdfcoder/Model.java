@@ -29,7 +29,9 @@ import com.asemantics.rdfcoder.profile.Profile;
 import com.asemantics.rdfcoder.repository.Repository;
 import com.asemantics.rdfcoder.repository.RepositoryException;
 import com.asemantics.rdfcoder.parser.ObjectsTable;
+import com.asemantics.rdfcoder.storage.BinaryCodeStorage;
 import com.asemantics.rdfcoder.storage.CodeStorage;
+import com.asemantics.rdfcoder.storage.JenaCodeStorage;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -99,6 +101,11 @@ public class Model<T extends CoderFactory> {
      */
     private final CodeStorage codeStorage;
 
+    /**
+     * The resource type used to save the model.
+     */
+    private Repository.ResourceType storageType = Repository.ResourceType.XML;
+
     protected Model(String n, RDFCoder c, T cf) {
         name          = n;
         coder         = c;
@@ -127,6 +134,33 @@ public class Model<T extends CoderFactory> {
         validatingModel = f;
     }
 
+    /**
+     * Returns the resource type used when saving this model.
+     *
+     * @return the storage type.
+     */
+    public Repository.ResourceType getStorageType() {
+        return storageType;
+    }
+
+    /**
+     * Sets the resource type used when saving this model, either
+     * {@link Repository.ResourceType#XML}, {@link Repository.ResourceType#BINARY_MODEL},
+     * {@link Repository.ResourceType#N_TRIPLES} for plain <i>N-Triples</i> (<i>.nt</i>)
+     * or {@link Repository.ResourceType#N_TRIPLES_GZIP} for <i>gzip</i> compressed ones (<i>.nt.gz</i>).
+     * Loading always detects the type of the existing resource.
+     *
+     * @param type the storage type.
+     */
+    public void setStorageType(Repository.ResourceType type) {
+        if(type == Repository.ResourceType.N_TRIPLES || type == Repository.ResourceType.N_TRIPLES_GZIP) {
+            getCodeStorage(type); // Checks support.
+        } else if(type != Repository.ResourceType.XML && type != Repository.ResourceType.BINARY_MODEL) {
+            throw new IllegalArgumentException("Unsupported model storage type: " + type);
+        }
+        storageType = type;
+    }
+
     /**
      * Returns the model name.
      *
@@ -197,10 +231,12 @@ public class Model<T extends CoderFactory> {
         if(resource == null) throw new IllegalArgumentException("a valid resource must be specified.");
         // Load model.
         InputStream inputStream = null;
-        CodeStorage codeStorage = getCoderFactory().createCodeStorage();
+        CodeStorage codeStorage = getCodeStorage( resource.getType() );
         try {
             inputStream = resource.getInputStream();
             codeStorage.loadModel(codeModelBase, inputStream);
+            // The index is rebuilt on demand over the loaded content.
+            codeModelBase.getIdentifierIndex().clear();
         } catch (Exception e) {
             throw new RDFCoderException("Cannot load model.", e);
         } finally {
@@ -233,11 +269,11 @@ public class Model<T extends CoderFactory> {
     public void save(String name) {
 
         // Retrieve resource.
-        Repository.Resource resource = retrieveResource( getModelResourceName( name ) );
+        Repository.Resource resource = retrieveResource( getModelResourceName( name ), storageType );
 
         // Save model.
         OutputStream outputStream = null;
-        CodeStorage codeStorage = getCoderFactory().createCodeStorage();
+        CodeStorage codeStorage = getCodeStorage( resource.getType() );
         try {
             outputStream = resource.getOutputStream();
             codeStorage.saveModel(codeModelBase, outputStream);
@@ -293,7 +329,34 @@ public class Model<T extends CoderFactory> {
             if( repository.containsResource( rn ) ) {
                 resource = repository.getResource( rn );
             } else {
-                resource = repository.createResource( rn, Repository.ResourceType.XML );
+                resource = repository.createResource( rn, storageType );
+            }
+        } catch (RepositoryException re) {
+            throw new RDFCoderException("Cannot access resource '" + rn + "'");
+        }
+        return resource;
+    }
+
+    /**
+     * Retrieves the resource with the given name, replacing it
+     * if its type differs from the given one.
+     *
+     * @param rn
+     * @param type
+     * @return retrieved resource.
+     */
+    protected Repository.Resource retrieveResource(String rn, Repository.ResourceType type) {
+        Repository repository = coder.getRepository();
+        Repository.Resource resource;
+        try {
+            if( repository.containsResource( rn ) ) {
+                resource = repository.getResource( rn );
+                if( resource.getType() != type ) {
+                    repository.removeResource( rn );
+                    resource = repository.createResource( rn, type );
+                }
+            } else {
+                resource = repository.createResource( rn, type );
             }
         } catch (RepositoryException re) {
             throw new RDFCoderException("Cannot access resource '" + rn + "'");
@@ -320,6 +383,31 @@ public class Model<T extends CoderFactory> {
         return coderFactory;
     }
 
+    /**
+     * Returns the {@link com.asemantics.rdfcoder.storage.CodeStorage} able to handle
+     * resources of the given type.
+     *
+     * @param type the resource type.
+     * @return code storage instance.
+     */
+    protected CodeStorage getCodeStorage(Repository.ResourceType type) {
+        if(type == Repository.ResourceType.BINARY_MODEL) {
+            return new BinaryCodeStorage();
+        }
+        CodeStorage codeStorage = getCoderFactory().createCodeStorage();
+        if(type == Repository.ResourceType.N_TRIPLES || type == Repository.ResourceType.N_TRIPLES_GZIP) {
+            if( ! (codeStorage instanceof JenaCodeStorage) ) {
+                throw new RDFCoderException("N-Triples resources are not supported by " + codeStorage.getClass());
+            }
+            ( (JenaCodeStorage) codeStorage ).setFormat(
+                    type == Repository.ResourceType.N_TRIPLES
+                            ? JenaCodeStorage.Format.N_TRIPLES
+                            : JenaCodeStorage.Format.N_TRIPLES_GZIP
+            );
+        }
+        return codeStorage;
+    }
+
     /**
      * Returns the objects table associated to this model.
      *
@@ -94,6 +94,20 @@ public class RDFCoder {
      * @param repositoryPath
      */
     public RDFCoder(String repositoryPath) {
+        this(repositoryPath, new JenaCoderFactory());
+    }
+
+    /**
+     * Creates a new RDFCoder instance on the speficied repository
+     * using the given coder factory as model backend.
+     *
+     * @param repositoryPath
+     * @param coderFactory
+     */
+    public RDFCoder(String repositoryPath, CoderFactory coderFactory) {
+        if(coderFactory == null) {
+            throw new NullPointerException("coderFactory cannot be null");
+        }
         File repositoryFile = new File(repositoryPath);
         try {
             repository = Repository.getRepository( repositoryFile );
@@ -102,7 +116,7 @@ public class RDFCoder {
         }
 
         // Factory creation.
-        coderFactory = new JenaCoderFactory();
+        this.coderFactory = coderFactory;
         profiles     = new HashMap<String,Class<Profile>>();
         models       = new HashMap<String,Model>  ();
     }
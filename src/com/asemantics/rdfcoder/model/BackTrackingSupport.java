@@ -18,6 +18,8 @@
 
  package com.asemantics.rdfcoder.model;
 
+import java.util.Map;
+
 /**
  * This class extends <code>CodeHandler</code>
  * to provide a back tracing mechanism able to
@@ -40,4 +42,11 @@ public interface BackTrackingSupport {
      */
     int replaceIdentifierWithQualifiedType(Identifier identifier, Identifier qualifiedType);
 
+    /**
+     * Replaces a set of temporary identifiers with the qualified types in a single pass.
+     * @param replacements map of identifiers to replace to qualified types.
+     * @return number of effected triples.
+     */
+    int replaceIdentifiersWithQualifiedTypes(Map<Identifier,Identifier> replacements);
+
 }
\ No newline at end of file
@@ -75,6 +75,30 @@ public interface CodeModel {
      */
     TripleIterator searchTriples(String subject, String predicate, String object);
 
+    /**
+     * Counts the triples matching the given pattern.
+     * NOTE: a not <code>null</code> object matches only resource objects.
+     *
+     * @param subject the triple subject or {@link #ALL_MATCH}.
+     * @param predicate the triple predicate or {@link #ALL_MATCH}.
+     * @param object the triple object or {@link #ALL_MATCH}.
+     * @return the number of matching triples.
+     * @see #searchTriples(String, String, String)
+     */
+    long countTriples(String subject, String predicate, String object);
+
+    /**
+     * Checks whether at least one triple matches the given pattern.
+     * NOTE: a not <code>null</code> object matches only resource objects.
+     *
+     * @param subject the triple subject or {@link #ALL_MATCH}.
+     * @param predicate the triple predicate or {@link #ALL_MATCH}.
+     * @param object the triple object or {@link #ALL_MATCH}.
+     * @return <code>true</code> if a matching triple exists.
+     * @see #searchTriples(String, String, String)
+     */
+    boolean containsTriple(String subject, String predicate, String object);
+
     /**
      * Allows to add a triple into the model.
      * NOTE: this method accepts only resource objects.
@@ -126,9 +150,26 @@ public interface CodeModel {
      */
     void addTripleCollection(Object subject, String predicate, String[] values);
 
+    /**
+     * Adds all the triples collected into a batch.
+     * Implementations can add them more efficiently than
+     * with a sequence of single calls.
+     *
+     * @param batch the batch of triples to be added.
+     */
+    void addTriples(TripleBatch batch);
+
     /**
      *  Remove the entire content of the model.
      */
     void clearAll();
 
+    /**
+     * Returns a counter incremented every time the content of the model changes,
+     * it can be used to detect whether data derived from the model is stale.
+     *
+     * @return the current modification count.
+     */
+    long getModificationCount();
+
 }
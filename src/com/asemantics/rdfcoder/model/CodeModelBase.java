@@ -18,11 +18,13 @@
 
 package com.asemantics.rdfcoder.model;
 
-import com.asemantics.rdfcoder.model.java.JavaCodeModel;
+import com.asemantics.rdfcoder.model.java.ReferenceIndex;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contains base methods common to every <i>Code Model</i>.
@@ -114,6 +116,54 @@ public abstract class CodeModelBase implements CodeModel, BackTrackingSupport {
      */
     private long _counter = 0;
 
+    /**
+     * Index of the entity identifiers of this model.
+     */
+    private final IdentifierIndex identifierIndex = new IdentifierIndex();
+
+    /**
+     * Reverse index of the type references of this model.
+     */
+    private final ReferenceIndex referenceIndex = new ReferenceIndex();
+
+    /**
+     * Live triples and entities counters of this model.
+     */
+    private final ModelStatistics modelStatistics = new ModelStatistics();
+
+    /**
+     * Returns the index of the entity identifiers defined in this model.
+     * The index is updated by the code handlers and rebuilt by the query models
+     * when not {@link IdentifierIndex#isSynchronized(CodeModel) synchronized}.
+     *
+     * @return the identifier index.
+     */
+    public IdentifierIndex getIdentifierIndex() {
+        return identifierIndex;
+    }
+
+    /**
+     * Returns the reverse index of the type references of this model.
+     * The index is updated by the code handlers and rebuilt by the query models
+     * when not {@link ReferenceIndex#isSynchronized(CodeModel) synchronized}.
+     *
+     * @return the reference index.
+     */
+    public ReferenceIndex getReferenceIndex() {
+        return referenceIndex;
+    }
+
+    /**
+     * Returns the triples and entities counters of this model.
+     * The counters are updated by the model writes and rebuilt by the query models
+     * when not {@link ModelStatistics#isSynchronized(CodeModel) synchronized}.
+     *
+     * @return the model statistics.
+     */
+    public ModelStatistics getModelStatistics() {
+        return modelStatistics;
+    }
+
     /**
      * Generates a temporary unique identifier.
      */
@@ -150,74 +200,111 @@ public abstract class CodeModelBase implements CodeModel, BackTrackingSupport {
     }
 
     /**
-     * Replaces temporary identifiers with final types.
+     * Counts the triples by iterating over a search, subclasses can provide
+     * a more efficient implementation.
+     */
+    public long countTriples(String subject, String predicate, String object) {
+        long count = 0;
+        TripleIterator ti = searchTriples(subject, predicate, object);
+        try {
+            while(ti.next()) {
+                count++;
+            }
+        } finally {
+            ti.close();
+        }
+        return count;
+    }
+
+    /**
+     * Checks the first element of a search, subclasses can provide
+     * a more efficient implementation.
+     */
+    public boolean containsTriple(String subject, String predicate, String object) {
+        TripleIterator ti = searchTriples(subject, predicate, object);
+        try {
+            return ti.next();
+        } finally {
+            ti.close();
+        }
+    }
+
+    /**
+     * Adds the batch triples one by one, subclasses can provide
+     * a more efficient implementation.
+     *
+     * @param batch the batch of triples to be added.
+     */
+    public void addTriples(TripleBatch batch) {
+        batch.replay(this);
+    }
+
+    /**
+     * Replaces a temporary identifier with the final type.
      *
      * @param identifier
      * @param qualifiedType
      * @return the number of replaced identifiers.
      * @see #generateTempUniqueIdentifier()
+     * @see #replaceIdentifiersWithQualifiedTypes(java.util.Map)
      */
     public int replaceIdentifierWithQualifiedType(final Identifier identifier, final Identifier qualifiedType) {
-        int effectedTriples;
-
-        /*
-        if( RDFCoder.assertions() && identifier.indexOf(CodeModel.PREFIX_SEPARATOR) == -1) {
-            throw new IllegalArgumentException("identifier: " + identifier + " qualified type: " + qualifiedType);
-        }
-        */
-
-        final String identifierStr = identifier.getIdentifier();
-
-        List newTriples = new ArrayList();
-        String[] nextTriple;
-
-        // Replacing all subjects.
-
-        // Creates new triples image.
-        TripleIterator ti = searchTriples(identifierStr, CodeModel.ALL_MATCH, JavaCodeModel.ALL_MATCH);
-        while(ti.next()) {
-            newTriples.add( new String[] { ti.getPredicate(), ti.getObject() } );
-        }
-        effectedTriples = newTriples.size();
+        return replaceIdentifiersWithQualifiedTypes( Collections.singletonMap(identifier, qualifiedType) );
+    }
 
-        // Delete old triples.
-        Iterator<String[]> newTriplesIter = newTriples.iterator();
-        while(newTriplesIter.hasNext()) {
-            nextTriple = newTriplesIter.next();
-            removeTriple( identifierStr, nextTriple[0], nextTriple[1] );
+    /**
+     * Replaces a set of temporary identifiers with the final types by rewriting
+     * every triple having one of them as subject or object, literal objects included.
+     * The store is scanned once, the affected triples are removed and their rewritten
+     * images are added as a batch.
+     *
+     * @param replacements map of temporary identifiers to qualified types.
+     * @return the number of effected triples.
+     * @see #generateTempUniqueIdentifier()
+     */
+    public int replaceIdentifiersWithQualifiedTypes(Map<Identifier,Identifier> replacements) {
+        if( replacements.isEmpty() ) {
+            return 0;
         }
-        // Add new ones.
-        newTriplesIter = newTriples.iterator();
-        while(newTriplesIter.hasNext()) {
-            nextTriple = newTriplesIter.next();
-            removeTriple( identifierStr, nextTriple[0], nextTriple[1] );
+        final Map<String,String> replacementStrs = new HashMap<String,String>( replacements.size() * 2 );
+        for(Map.Entry<Identifier,Identifier> entry : replacements.entrySet()) {
+            replacementStrs.put( entry.getKey().getIdentifier(), entry.getValue().getIdentifier() );
         }
 
-        // Replacing all objects.
-
-        newTriples.clear();
-
-        // Creates new triples image.
-        ti = searchTriples(CodeModel.ALL_MATCH, CodeModel.ALL_MATCH, identifierStr);
-        while(ti.next()) {
-            newTriples.add( new String[] {ti.getSubject(), ti.getPredicate() } );
+        // Collects the effected triples.
+        final List<String[]> oldTriples = new ArrayList<String[]>();
+        TripleIterator ti = searchTriples(CodeModel.ALL_MATCH, CodeModel.ALL_MATCH, CodeModel.ALL_MATCH);
+        try {
+            while(ti.next()) {
+                final String subject = ti.getSubject();
+                final String object  = ti.getObject();
+                if( replacementStrs.containsKey(subject) || replacementStrs.containsKey(object) ) {
+                    oldTriples.add( new String[] { subject, ti.getPredicate(), object } );
+                }
+            }
+        } finally {
+            ti.close();
         }
-        effectedTriples += newTriples.size();
 
-        // Delete old triples.
-        newTriplesIter = newTriples.iterator();
-        while(newTriplesIter.hasNext()) {
-            nextTriple = newTriplesIter.next();
-            removeTriple( nextTriple[0], nextTriple[1], identifierStr );
-        }
-        // Add new ones.
-        newTriplesIter = newTriples.iterator();
-        while(newTriplesIter.hasNext()) {
-            nextTriple = newTriplesIter.next();
-            removeTriple( nextTriple[0], nextTriple[1], qualifiedType.getIdentifier() );
+        // Deletes old triples and adds the new ones.
+        final TripleBatch newTriples = new TripleBatch();
+        for(String[] oldTriple : oldTriples) {
+            final String newSubject = replacementStrs.get(oldTriple[0]);
+            final String newObject  = replacementStrs.get(oldTriple[2]);
+            final String subject    = newSubject == null ? oldTriple[0] : newSubject;
+            final String object     = newObject  == null ? oldTriple[2] : newObject;
+            // Search results don't distinguish resource and literal objects.
+            if( containsTriple( oldTriple[0], oldTriple[1], oldTriple[2] ) ) {
+                removeTriple( oldTriple[0], oldTriple[1], oldTriple[2] );
+                newTriples.addTriple(subject, oldTriple[1], object);
+            } else {
+                removeTripleLiteral( oldTriple[0], oldTriple[1], oldTriple[2] );
+                newTriples.addTripleLiteral(subject, oldTriple[1], object);
+            }
         }
+        addTriples(newTriples);
 
-        return effectedTriples;
+        return oldTriples.size();
     }
 
 }
@@ -21,15 +21,17 @@ package com.asemantics.rdfcoder.model;
 import com.asemantics.rdfcoder.model.java.JavaCodeHandler;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
 
 /**
  * Defines the unique context of a resource.
  * Can be used to build a resource identifier.
+ * Identifiers are immutable: the fragments are stored in a shared array,
+ * sub identifiers returned by {@link #getParent()}, {@link #getTail()} and
+ * {@link #getSections(int, int)} are views over the same array.
+ * The string form is rendered once on demand and the hash code is precomputed.
  *
  * @version $Id$
  * @see IdentifierBuilder
@@ -44,12 +46,44 @@ public class Identifier implements Serializable {
     /**
      * The prefix of the identifier.
      */
-    protected String prefix;
+    private final String prefix;
 
     /**
-     * The list of ordered fragments composing the identifier.
+     * The array of ordered fragments, possibly shared with other identifiers.
      */
-    protected List<IdentifierFragment> fragments;
+    private final IdentifierFragment[] fragments;
+
+    /**
+     * Index of the first fragment of this identifier within {@link #fragments}, inclusive.
+     */
+    private final int from;
+
+    /**
+     * Index of the last fragment of this identifier within {@link #fragments}, exclusive.
+     */
+    private final int to;
+
+    /**
+     * The precomputed hash code.
+     */
+    private final int hash;
+
+    /**
+     * The rendered identifier, computed on first request.
+     */
+    private transient String identifier;
+
+    /**
+     * Creates an identifier over the given fragments array without copying it.
+     * The array must not be modified after this call.
+     *
+     * @param prefix
+     * @param fs
+     * @return the new identifier.
+     */
+    static Identifier wrap(String prefix, IdentifierFragment[] fs) {
+        return new Identifier(prefix, fs, 0, fs.length);
+    }
 
     /**
      * Constructor.
@@ -58,8 +92,7 @@ public class Identifier implements Serializable {
      * @param fs
      */
     protected Identifier(String prefix, List<IdentifierFragment> fs) {
-        this.prefix = prefix;
-        fragments   = new ArrayList<IdentifierFragment>(fs);
+        this(prefix, fs.toArray( new IdentifierFragment[fs.size()] ));
     }
 
     /**
@@ -69,7 +102,18 @@ public class Identifier implements Serializable {
      * @param fs
      */
     protected Identifier(String prefix, IdentifierFragment[] fs) {
-        this(prefix, Arrays.asList(fs));
+        this(prefix, fs.clone(), 0, fs.length);
+    }
+
+    private Identifier(String prefix, IdentifierFragment[] fs, int from, int to) {
+        if(prefix == null) {
+            throw new NullPointerException("Prefix cannot be null.");
+        }
+        this.prefix    = prefix;
+        this.fragments = fs;
+        this.from      = from;
+        this.to        = to;
+        this.hash      = computeHash();
     }
 
     /**
@@ -79,7 +123,10 @@ public class Identifier implements Serializable {
      * @return the identifier fragment.
      */
     public IdentifierFragment getFragment(int f) {
-        return fragments.get(f);
+        if(f < 0 || f >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + f + ", Size: " + size());
+        }
+        return fragments[from + f];
     }
 
     /**
@@ -93,51 +140,39 @@ public class Identifier implements Serializable {
      * @return the identifier as string.
      */
     public String getIdentifier() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(prefix);
-        String currentQualifier = null;
-        IdentifierFragment cf;
-        final int lastIndex = fragments.size() - 2;
-        for(int i = 0; i < fragments.size(); i++) {
-            cf = fragments.get(i);
-            if( ! cf.getQualifier().equals(currentQualifier) ) {
-                currentQualifier = cf.getQualifier();
-                sb.append(currentQualifier).append(QUALIFIER_SEPARATOR).append(cf.getFragment());
-            } else {
-                sb.append(cf.getFragment());
-            }
-            if(i <= lastIndex) {
-                sb.append(JavaCodeHandler.PACKAGE_SEPARATOR);
-            }
+        String result = identifier;
+        if(result == null) {
+            result = render();
+            identifier = result;
         }
-        return sb.toString();
+        return result;
     }
 
     /**
      * @return the last fragment of the identifier.
      */
     public Identifier getTail() {
-        if(fragments.size() > 0) {
-            return new Identifier( prefix, Arrays.asList( fragments.get( fragments.size() - 1) ) );
+        if(to > from) {
+            return new Identifier(prefix, fragments, to - 1, to);
         }
-        return new Identifier( prefix, Collections.<IdentifierFragment>emptyList() );
+        return this;
     }
 
     /**
      * @return all but the last fragment of the identifier.
      */
     public Identifier getParent() {
-        if(fragments.size() > 0) {
-            return new Identifier( prefix, fragments.subList(0, fragments.size() - 1) );
+        if(to > from) {
+            return new Identifier(prefix, fragments, from, to - 1);
         }
-        return new Identifier( prefix, Collections.<IdentifierFragment>emptyList() );
+        return this;
     }
 
     /**
      * @return the first fragment of the identifier.
      */
     public Identifier getHead() {
-        return new Identifier( prefix, Arrays.asList( fragments.get(0) ) );
+        return getSections(0, 1);
     }
 
     /**
@@ -148,7 +183,15 @@ public class Identifier implements Serializable {
      * @return the sub identifier.
      */
     public Identifier getSections(int from, int to) {
-        return new Identifier( prefix, fragments.subList(from, to) );
+        if(from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Invalid sections [%d, %d) for size %d", from, to, size())
+            );
+        }
+        if(from == 0 && to == size()) {
+            return this;
+        }
+        return new Identifier(prefix, fragments, this.from + from, this.from + to);
     }
 
     /**
@@ -168,9 +211,9 @@ public class Identifier implements Serializable {
      * @return the fragment found if any, <code>null</code> otherwise.
      */
     public String getFirstFragmentWithQualifier(String qualifier) {
-        for(IdentifierFragment fragment : fragments) {
-            if(fragment.getQualifier().equals(qualifier)) {
-                return fragment.getFragment();
+        for(int i = from; i < to; i++) {
+            if(fragments[i].getQualifier().equals(qualifier)) {
+                return fragments[i].getFragment();
             }
         }
         return null;
@@ -182,7 +225,7 @@ public class Identifier implements Serializable {
      * @return the tail fragment.
      */
     public IdentifierFragment getTailFragment() {
-        return fragments.get( fragments.size() - 1 );
+        return getFragment( size() - 1 );
     }
 
     /**
@@ -192,12 +235,9 @@ public class Identifier implements Serializable {
      * @return the fragment found if any, <code>null</code> otherwise.
      */
     public String getLastFragmentWithQualifier(String qualifier) {
-        ListIterator<IdentifierFragment> fragmentsIterator = fragments.listIterator( fragments.size() );
-        IdentifierFragment fragment;
-        while( fragmentsIterator.hasPrevious() ) {
-            fragment = fragmentsIterator.previous();
-            if(fragment.getQualifier().equals(qualifier)) {
-                return fragment.getFragment();
+        for(int i = to - 1; i >= from; i--) {
+            if(fragments[i].getQualifier().equals(qualifier)) {
+                return fragments[i].getFragment();
             }
         }
         return null;
@@ -207,11 +247,10 @@ public class Identifier implements Serializable {
      * @return The qualifier of the last fragment.
      */
     public String getStrongestQualifier() {
-        final int fragmentsSize = fragments.size();
-        if(fragmentsSize == 0) {
+        if(to == from) {
             throw new UnsupportedOperationException("Invalid identifier size to perform this operation.");
         }
-        return fragments.get(fragmentsSize - 1).getQualifier();
+        return fragments[to - 1].getQualifier();
     }
 
     /**
@@ -227,7 +266,14 @@ public class Identifier implements Serializable {
      * @return the number of fragments defined in this identifier.
      */
     public int size() {
-        return fragments.size();
+        return to - from;
+    }
+
+    /**
+     * @return a read only view of the fragments of this identifier.
+     */
+    List<IdentifierFragment> getFragments() {
+        return Collections.unmodifiableList( Arrays.asList(fragments).subList(from, to) );
     }
 
     @Override
@@ -240,21 +286,73 @@ public class Identifier implements Serializable {
         }
         if(obj instanceof Identifier) {
             Identifier other = (Identifier) obj;
-            return
-                    prefix.equals( other.prefix )
-                        &&
-                    fragments.equals( other.fragments );
+            if(hash != other.hash || size() != other.size() || ! prefix.equals(other.prefix)) {
+                return false;
+            }
+            if(identifier != null && other.identifier != null) {
+                return identifier.equals(other.identifier);
+            }
+            for(int i = from, j = other.from; i < to; i++, j++) {
+                if( ! fragments[i].equals(other.fragments[j]) ) {
+                    return false;
+                }
+            }
+            return true;
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return prefix.hashCode() * fragments.hashCode() * 2;
+        return hash;
     }
 
     @Override
     public String toString() {
         return String.format( "%s<%s>", getClass().getSimpleName(), getIdentifier() );
     }
+
+    /**
+     * Renders the identifier string.
+     */
+    private String render() {
+        int length = prefix.length();
+        for(int i = from; i < to; i++) {
+            length += fragments[i].getQualifier().length() + fragments[i].getFragment().length() + 2;
+        }
+        StringBuilder sb = new StringBuilder(length);
+        sb.append(prefix);
+        String currentQualifier = null;
+        IdentifierFragment cf;
+        for(int i = from; i < to; i++) {
+            cf = fragments[i];
+            if( ! cf.getQualifier().equals(currentQualifier) ) {
+                currentQualifier = cf.getQualifier();
+                sb.append(currentQualifier).append(QUALIFIER_SEPARATOR).append(cf.getFragment());
+            } else {
+                sb.append(cf.getFragment());
+            }
+            if(i < to - 1) {
+                sb.append(JavaCodeHandler.PACKAGE_SEPARATOR);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Combines prefix and fragment hashes and spreads the result
+     * with the <i>MurmurHash3</i> finalizer.
+     */
+    private int computeHash() {
+        int h = prefix.hashCode();
+        for(int i = from; i < to; i++) {
+            h = 31 * h + fragments[i].hashCode();
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
 }
@@ -53,7 +53,7 @@ public class IdentifierBuilder {
         private IdentifierBuilderInstance(Identifier identifier) {
             prefix = identifier.getPrefix();
             stack = new Stack<IdentifierFragment>();
-            stack.addAll(identifier.fragments);
+            stack.addAll( identifier.getFragments() );
         }
 
         public IdentifierBuilderInstance setPrefix(String prefix) {
@@ -80,7 +80,7 @@ public class IdentifierBuilder {
         }
 
         public Identifier build() {
-            return new Identifier( prefix, stack.toArray( new IdentifierFragment[stack.size()] ));
+            return Identifier.wrap( prefix, stack.toArray( new IdentifierFragment[stack.size()] ) );
         }
 
     }
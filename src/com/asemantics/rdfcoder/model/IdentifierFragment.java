@@ -37,12 +37,12 @@ public class IdentifierFragment implements Serializable {
     /**
      * Fragment.
      */
-    private String fragment;
+    private final String fragment;
 
     /**
      * Fragment qualifier.
      */
-    private String qualifier;
+    private final String qualifier;
 
     /**
      * Constructor.
@@ -89,7 +89,7 @@ public class IdentifierFragment implements Serializable {
 
     @Override
     public int hashCode() {
-        return fragment.hashCode() * 2 * qualifier.hashCode();
+        return 31 * fragment.hashCode() + qualifier.hashCode();
     }
 
     @Override
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model;
+
+import com.asemantics.rdfcoder.model.java.JavaCodeHandler;
+import com.asemantics.rdfcoder.model.java.JavaCodeModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Trie of the {@link Identifier}s of the entities of a model, indexed fragment by fragment.
+ * Allows to retrieve the entities under a given path and to complete partial entity names
+ * in a time proportional to the size of the result.
+ * The index is updated by the code handlers while writing into the model
+ * and keeps track of the model {@link CodeModel#getModificationCount() modification count}:
+ * when the model is modified by other means, i.e. when entities are removed,
+ * the index is no longer {@link #isSynchronized(CodeModel) synchronized} and must be
+ * {@link #rebuild(CodeModel, java.util.Collection) rebuilt}.
+ * The simple names of the indexed entities are also kept in a {@link SymbolIndex}.
+ *
+ * @see CodeModelBase#getIdentifierIndex()
+ */
+public class IdentifierIndex {
+
+    /**
+     * Separator of the sections of entity names.
+     */
+    private static final char NAME_SEPARATOR = JavaCodeHandler.PACKAGE_SEPARATOR.charAt(0);
+
+    /**
+     * Root nodes by identifier prefix.
+     */
+    private final Map<String,Node> roots = new HashMap<String,Node>();
+
+    /**
+     * Name search index of the indexed entities.
+     */
+    private final SymbolIndex symbolIndex = new SymbolIndex(JavaCodeModel.SYMBOL_QUALIFIERS);
+
+    /**
+     * Number of indexed entities.
+     */
+    private int size;
+
+    /**
+     * Modification count of the model the index is synchronized with, <code>-1</code> if none.
+     */
+    private long modificationCount = -1;
+
+    /**
+     * Checks whether the index reflects the current content of a model.
+     *
+     * @param model the indexed model.
+     * @return <code>true</code> if no modifications happened since the last update.
+     */
+    public synchronized boolean isSynchronized(CodeModel model) {
+        return modificationCount == model.getModificationCount();
+    }
+
+    /**
+     * Adds the entities typed by the given triples just written into a model,
+     * if the index was synchronized before the write.
+     *
+     * @param model the model containing the triples.
+     * @param synchronizedBefore the result of {@link #isSynchronized(CodeModel)} before the write.
+     * @param batch the written triples.
+     * @param types the types of the entities to be indexed.
+     */
+    public synchronized void update(
+            CodeModel model, boolean synchronizedBefore, TripleBatch batch, Collection<String> types
+    ) {
+        if( ! synchronizedBefore ) {
+            return;
+        }
+        for(int i = 0; i < batch.size(); i++) {
+            if(batch.getKind(i) == TripleBatch.Kind.RESOURCE) {
+                add( batch.getSubject(i), batch.getPredicate(i), batch.getObject(i), types );
+            }
+        }
+        modificationCount = model.getModificationCount();
+    }
+
+    /**
+     * Adds the entity typed by a single triple just written into a model,
+     * if the index was synchronized before the write.
+     *
+     * @param model the model containing the triple.
+     * @param synchronizedBefore the result of {@link #isSynchronized(CodeModel)} before the write.
+     * @param subject the triple subject.
+     * @param predicate the triple predicate.
+     * @param object the triple object.
+     * @param types the types of the entities to be indexed.
+     */
+    public synchronized void update(
+            CodeModel model, boolean synchronizedBefore,
+            String subject, String predicate, String object, Collection<String> types
+    ) {
+        if( ! synchronizedBefore ) {
+            return;
+        }
+        add(subject, predicate, object, types);
+        modificationCount = model.getModificationCount();
+    }
+
+    /**
+     * Adds an entity identifier to the index.
+     *
+     * @param identifier the entity identifier.
+     * @return <code>true</code> if the identifier was not indexed yet.
+     */
+    public synchronized boolean add(Identifier identifier) {
+        Node root = roots.get( identifier.getPrefix() );
+        if(root == null) {
+            root = new Node(null);
+            roots.put(identifier.getPrefix(), root);
+        }
+        Node current = root;
+        for(int i = 0; i < identifier.size(); i++) {
+            current = current.getOrCreateChild( identifier.getFragment(i) );
+        }
+        if(current.identifier != null) {
+            return false;
+        }
+        current.identifier = identifier;
+        size++;
+        symbolIndex.add(identifier);
+        return true;
+    }
+
+    /**
+     * Checks whether an identifier has been indexed.
+     *
+     * @param identifier the entity identifier.
+     * @return <code>true</code> if indexed.
+     */
+    public synchronized boolean contains(Identifier identifier) {
+        final Node node = findNode(identifier);
+        return node != null && node.identifier != null;
+    }
+
+    /**
+     * @return the number of indexed entities.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return <code>true</code> if no entities have been indexed.
+     */
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the indexed entities, the index is no longer synchronized.
+     */
+    public synchronized void clear() {
+        roots.clear();
+        size = 0;
+        symbolIndex.clear();
+        modificationCount = -1;
+    }
+
+    /**
+     * @return the name search index of the indexed entities.
+     */
+    public SymbolIndex getSymbolIndex() {
+        return symbolIndex;
+    }
+
+    /**
+     * Returns the entities directly contained in the given path,
+     * that is the nearest indexed entities below it.
+     *
+     * @param path the container path.
+     * @return the list of children, sorted by fragment.
+     */
+    public synchronized List<Identifier> getChildren(Identifier path) {
+        final Node node = findNode(path);
+        if(node == null) {
+            return Collections.emptyList();
+        }
+        final List<Identifier> result = new ArrayList<Identifier>();
+        for(Node child : node.children()) {
+            child.collectNearest(result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all the entities under the given path, the path itself excluded.
+     *
+     * @param path the container path.
+     * @return the list of entities in depth first order.
+     */
+    public synchronized List<Identifier> getDescendants(Identifier path) {
+        final Node node = findNode(path);
+        if(node == null) {
+            return Collections.emptyList();
+        }
+        final List<Identifier> result = new ArrayList<Identifier>();
+        for(Node child : node.children()) {
+            child.collectAll(result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the entities matching the given dotted name,
+     * i.e. <i>java.util.List</i>. The qualifiers are ignored.
+     *
+     * @param name the entity name.
+     * @return the matching identifiers.
+     */
+    public synchronized List<Identifier> find(String name) {
+        final List<Identifier> result = new ArrayList<Identifier>();
+        for(Node node : matchSections(name, splitName(name).size())) {
+            if(node.identifier != null) {
+                result.add(node.identifier);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Completes a partial dotted name: all the sections but the last
+     * must match exactly, the last one is matched as a prefix.
+     *
+     * @param partialName the name to be completed, i.e. <i>java.util.Has</i>.
+     * @param limit the maximum number of completions.
+     * @return the sorted completed names.
+     */
+    public synchronized List<String> complete(String partialName, int limit) {
+        final List<String> sections = splitName(partialName);
+        final String last = sections.get(sections.size() - 1);
+        final int lastSeparator = partialName.lastIndexOf(NAME_SEPARATOR);
+        final String base = lastSeparator == -1 ? "" : partialName.substring(0, lastSeparator + 1);
+        final TreeSet<String> result = new TreeSet<String>();
+        for(Node node : matchSections(partialName, sections.size() - 1)) {
+            if(node.children == null) {
+                continue;
+            }
+            for(Node child : prefixMatch(node.children, last).values()) {
+                result.add( base + child.fragment.getFragment() );
+                if(result.size() > limit) {
+                    result.pollLast();
+                }
+            }
+        }
+        return new ArrayList<String>(result);
+    }
+
+    /**
+     * Fills the index again with the subjects of the model having one of the given types.
+     *
+     * @param model the model to be scanned.
+     * @param types the types of the entities to be indexed.
+     * @return the number of indexed entities.
+     */
+    public synchronized int rebuild(CodeModel model, Collection<String> types) {
+        final long currentModificationCount = model.getModificationCount();
+        clear();
+        TripleIterator ti = model.searchTriples(CodeModel.ALL_MATCH, CodeModel.TYPE, CodeModel.ALL_MATCH);
+        try {
+            while(ti.next()) {
+                add( ti.getSubject(), CodeModel.TYPE, ti.getObject(), types );
+            }
+        } finally {
+            ti.close();
+        }
+        modificationCount = currentModificationCount;
+        return size;
+    }
+
+    /**
+     * Adds the subject of a triple declaring an entity of one of the given types.
+     */
+    private void add(String subject, String predicate, String object, Collection<String> types) {
+        if( CodeModel.TYPE.equals(predicate) && types.contains(object) ) {
+            add( IdentifierReader.readIdentifier(subject) );
+        }
+    }
+
+    /**
+     * Finds the node addressed by an identifier.
+     */
+    private Node findNode(Identifier identifier) {
+        Node current = roots.get( identifier.getPrefix() );
+        for(int i = 0; current != null && i < identifier.size(); i++) {
+            current = current.children == null ? null : current.children.get( toKey(identifier.getFragment(i)) );
+        }
+        return current;
+    }
+
+    /**
+     * Returns the nodes matching exactly the first <code>count</code> sections of the given name.
+     */
+    private List<Node> matchSections(String name, int count) {
+        final List<String> sections = splitName(name);
+        List<Node> current = new ArrayList<Node>(roots.values());
+        for(int i = 0; i < count && ! current.isEmpty(); i++) {
+            final List<Node> next = new ArrayList<Node>();
+            for(Node node : current) {
+                if(node.children != null) {
+                    next.addAll( prefixMatch(node.children, sections.get(i) + Identifier.QUALIFIER_SEPARATOR).values() );
+                }
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static SortedMap<String,Node> prefixMatch(TreeMap<String,Node> map, String prefix) {
+        return map.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private static List<String> splitName(String name) {
+        final List<String> sections = new ArrayList<String>();
+        int begin = 0;
+        int end;
+        while( (end = name.indexOf(NAME_SEPARATOR, begin)) != -1 ) {
+            sections.add( name.substring(begin, end) );
+            begin = end + 1;
+        }
+        sections.add( name.substring(begin) );
+        return sections;
+    }
+
+    /**
+     * Children keys sort by fragment first, fragments cannot contain the qualifier separator.
+     */
+    private static String toKey(IdentifierFragment fragment) {
+        return fragment.getFragment() + Identifier.QUALIFIER_SEPARATOR + fragment.getQualifier();
+    }
+
+    /**
+     * Node of the trie.
+     */
+    private static class Node {
+
+        private final IdentifierFragment fragment;
+
+        private TreeMap<String,Node> children;
+
+        /**
+         * The entity identifier, <code>null</code> for intermediate nodes.
+         */
+        private Identifier identifier;
+
+        Node(IdentifierFragment fragment) {
+            this.fragment = fragment;
+        }
+
+        Node getOrCreateChild(IdentifierFragment childFragment) {
+            if(children == null) {
+                children = new TreeMap<String,Node>();
+            }
+            final String key = toKey(childFragment);
+            Node child = children.get(key);
+            if(child == null) {
+                child = new Node(childFragment);
+                children.put(key, child);
+            }
+            return child;
+        }
+
+        Collection<Node> children() {
+            return children == null ? Collections.<Node>emptyList() : children.values();
+        }
+
+        void collectNearest(List<Identifier> result) {
+            if(identifier != null) {
+                result.add(identifier);
+                return;
+            }
+            for(Node child : children()) {
+                child.collectNearest(result);
+            }
+        }
+
+        void collectAll(List<Identifier> result) {
+            if(identifier != null) {
+                result.add(identifier);
+            }
+            for(Node child : children()) {
+                child.collectAll(result);
+            }
+        }
+    }
+
+}
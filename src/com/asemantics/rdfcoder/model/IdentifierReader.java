@@ -23,6 +23,7 @@ import com.asemantics.rdfcoder.model.java.JavaCodeModel;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class provides facility methods to read a <i>context</i>
@@ -33,8 +34,25 @@ import java.util.List;
  */
 public class IdentifierReader {
 
+    private static final char URI_PREFIX_SEPARATOR = CodeModel.URI_PREFIX_SEPARATOR.charAt(0);
+
+    private static final char PREFIX_SEPARATOR = CodeModel.PREFIX_SEPARATOR.charAt(0);
+
+    private static final char PACKAGE_SEPARATOR = JavaCodeHandler.PACKAGE_SEPARATOR.charAt(0);
+
+    /**
+     * Maximum number of parsed identifiers kept by the cache.
+     */
+    public static final int CACHE_SIZE = 32 * 1024;
+
+    /**
+     * Cache of the identifiers parsed by {@link #readIdentifier(String)}.
+     */
+    private static final IdentifierCache cache = new IdentifierCache(CACHE_SIZE);
+
     /**
      * Reads an identifier generated by the {@link com.asemantics.rdfcoder.model.IdentifierBuilder}.
+     * The parsed identifiers are cached, being immutable they can be safely shared.
      *
      * @param identifier
      * @return the parsed identifier.
@@ -42,49 +60,19 @@ public class IdentifierReader {
      * @see com.asemantics.rdfcoder.model.IdentifierBuilder
      */
     public static Identifier readIdentifier(String identifier) {
-        final int endPrefixIndex = identifier.indexOf(CodeModel.URI_PREFIX_SEPARATOR);
-        final String prefix = identifier.substring(0, endPrefixIndex + 1);
-        final String postfix = identifier.substring(endPrefixIndex + 1);
-        final String[] sections = postfix.split("\\" + JavaCodeHandler.PACKAGE_SEPARATOR);
-        IdentifierFragment[] fragments = new IdentifierFragment[sections.length];
-        int i = 0;
-        String[]  sectionSplit;
-        String currentQualifier = null;
-        for(String section : sections) {
-            sectionSplit = section.split(CodeModel.PREFIX_SEPARATOR);
-            if(section.lastIndexOf(CodeModel.PREFIX_SEPARATOR) == section.length() - 1) {
-                final int sectionSplitLength = sectionSplit.length;
-                String[] newSectionSplit = new String[sectionSplitLength + 1];
-                System.arraycopy(sectionSplit, 0, newSectionSplit, 0, sectionSplitLength);
-                newSectionSplit[newSectionSplit.length - 1] = "";
-                sectionSplit = newSectionSplit;
-            }
-            if(sectionSplit.length > 2) {
-                throw new IllegalArgumentException(
-                        String.format("Invalid section [%s] in identifier [%s] ", section, identifier)
-                );
-            }
-            if(sectionSplit.length == 2) {
-                currentQualifier = sectionSplit[0];
-                if(currentQualifier.length() == 0) {
-                    throw new IllegalArgumentException(
-                        String.format("Invalid 0 length section qualifier in identifier [%s]", identifier)
-                    );
-                }
-            } else {
-                if(currentQualifier == null) {
-                    throw new IllegalArgumentException(
-                        String.format("Invalid identifier [%s]: must start with a qualifier.", identifier)
-                    );
-                }
-            }
-            fragments[i] = new IdentifierFragment(
-                    sectionSplit.length == 2 ? sectionSplit[1] : sectionSplit[0],
-                    currentQualifier
-            );
-            i++;
+        Identifier result = cache.get(identifier);
+        if(result == null) {
+            result = parseIdentifier(identifier);
+            cache.put(identifier, result);
         }
-        return new Identifier(prefix, fragments);
+        return result;
+    }
+
+    /**
+     * Clears the cache of the parsed identifiers.
+     */
+    public static void clearCache() {
+        cache.clear();
     }
 
     /**
@@ -95,17 +83,24 @@ public class IdentifierReader {
      * @throws IllegalArgumentException if an error occurred during parsing.
      */
     public static Identifier readPackage(String pack) {
-        if(pack.contains(CodeModel.PREFIX_SEPARATOR)) {
+        if(pack.indexOf(PREFIX_SEPARATOR) != -1) {
             throw new IllegalArgumentException("Invalid package: " + pack);
         }
-        String[] sections = pack.split("\\" + JavaCodeHandler.PACKAGE_SEPARATOR);
-        IdentifierFragment[] fragments = new IdentifierFragment[sections.length];
-        int i = 0;
-        for(String section : sections) {
-            fragments[i] = new IdentifierFragment(section, JavaCodeModel.PACKAGE_KEY);
-            i++;
+        final int end = trimTrailingSeparators(pack);
+        if(end == 0 && pack.length() > 0) {
+            return Identifier.wrap(CodeModel.CODER_URI, new IdentifierFragment[0]);
         }
-        return new Identifier(CodeModel.CODER_URI, fragments);
+        IdentifierFragment[] fragments = new IdentifierFragment[countSections(pack, 0, end)];
+        int sectionBegin = 0;
+        for(int i = 0; i < fragments.length; i++) {
+            int sectionEnd = pack.indexOf(PACKAGE_SEPARATOR, sectionBegin);
+            if(sectionEnd == -1 || sectionEnd > end) {
+                sectionEnd = end;
+            }
+            fragments[i] = new IdentifierFragment(pack.substring(sectionBegin, sectionEnd), JavaCodeModel.PACKAGE_KEY);
+            sectionBegin = sectionEnd + 1;
+        }
+        return Identifier.wrap(CodeModel.CODER_URI, fragments);
     }
 
     /**
@@ -190,7 +185,7 @@ public class IdentifierReader {
         int fromIndex = pathToType.length();
         final String[] segments = new String[qualifier.length];
         for(int i = 0; i < qualifier.length; i++) {
-            packageEnd = pathToType.lastIndexOf(JavaCodeHandler.PACKAGE_SEPARATOR, fromIndex - 1);
+            packageEnd = pathToType.lastIndexOf(PACKAGE_SEPARATOR, fromIndex - 1);
             if(packageEnd == -1) {
                 break;
             }
@@ -202,12 +197,141 @@ public class IdentifierReader {
             fragments.add( new IdentifierFragment("", JavaCodeModel.PACKAGE_KEY) );
         } else {
             Identifier packageIdentifier = IdentifierReader.readPackage(pathToType.substring(0, packageEnd));
-            fragments.addAll( packageIdentifier.fragments );
+            fragments.addAll( packageIdentifier.getFragments() );
         }
         for(int i = 0; i < qualifier.length; i++) {
             fragments.add( new IdentifierFragment(segments[i], qualifier[i]) );
         }
-        return new Identifier(CodeModel.CODER_URI, fragments);
+        return Identifier.wrap(CodeModel.CODER_URI, fragments.toArray(new IdentifierFragment[fragments.size()]));
+    }
+
+    /**
+     * Parses an identifier string in a single pass.
+     *
+     * @param identifier
+     * @return the parsed identifier.
+     * @throws IllegalArgumentException if an error occurred during parsing.
+     */
+    private static Identifier parseIdentifier(String identifier) {
+        final int postfixBegin = identifier.indexOf(URI_PREFIX_SEPARATOR) + 1;
+        final String prefix = identifier.substring(0, postfixBegin);
+        final int end = postfixBegin + trimTrailingSeparators( identifier.substring(postfixBegin) );
+        if(end == postfixBegin && identifier.length() > postfixBegin) {
+            return Identifier.wrap(prefix, new IdentifierFragment[0]);
+        }
+        IdentifierFragment[] fragments = new IdentifierFragment[countSections(identifier, postfixBegin, end)];
+        String currentQualifier = null;
+        int sectionBegin = postfixBegin;
+        for(int i = 0; i < fragments.length; i++) {
+            int sectionEnd = identifier.indexOf(PACKAGE_SEPARATOR, sectionBegin);
+            if(sectionEnd == -1 || sectionEnd > end) {
+                sectionEnd = end;
+            }
+            final int qualifierEnd = identifier.indexOf(PREFIX_SEPARATOR, sectionBegin);
+            final String fragment;
+            if(qualifierEnd != -1 && qualifierEnd < sectionEnd) {
+                final int nextSeparator = identifier.indexOf(PREFIX_SEPARATOR, qualifierEnd + 1);
+                if(nextSeparator != -1 && nextSeparator < sectionEnd) {
+                    throw new IllegalArgumentException(
+                            String.format(
+                                    "Invalid section [%s] in identifier [%s] ",
+                                    identifier.substring(sectionBegin, sectionEnd), identifier
+                            )
+                    );
+                }
+                if(qualifierEnd == sectionBegin) {
+                    throw new IllegalArgumentException(
+                        String.format("Invalid 0 length section qualifier in identifier [%s]", identifier)
+                    );
+                }
+                currentQualifier = identifier.substring(sectionBegin, qualifierEnd);
+                fragment = identifier.substring(qualifierEnd + 1, sectionEnd);
+            } else {
+                if(currentQualifier == null) {
+                    throw new IllegalArgumentException(
+                        String.format("Invalid identifier [%s]: must start with a qualifier.", identifier)
+                    );
+                }
+                fragment = identifier.substring(sectionBegin, sectionEnd);
+            }
+            fragments[i] = new IdentifierFragment(fragment, currentQualifier);
+            sectionBegin = sectionEnd + 1;
+        }
+        return Identifier.wrap(prefix, fragments);
+    }
+
+    /**
+     * Returns the length of the given string without the trailing package separators,
+     * which are ignored as done by {@link String#split(String)}.
+     */
+    private static int trimTrailingSeparators(String str) {
+        int end = str.length();
+        while(end > 0 && str.charAt(end - 1) == PACKAGE_SEPARATOR) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Counts the package sections within the given range.
+     */
+    private static int countSections(String str, int begin, int end) {
+        int count = 1;
+        for(int i = begin; i < end; i++) {
+            if(str.charAt(i) == PACKAGE_SEPARATOR) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Bounded concurrent cache made of two generations: entries are looked up in the
+     * young generation first and promoted from the old one; when the young generation is full
+     * it replaces the old one, discarding the entries not used since the last switch.
+     */
+    private static class IdentifierCache {
+
+        private final int generationSize;
+
+        private volatile ConcurrentHashMap<String,Identifier> young;
+
+        private volatile ConcurrentHashMap<String,Identifier> old;
+
+        IdentifierCache(int size) {
+            generationSize = Math.max(1, size / 2);
+            young = new ConcurrentHashMap<String,Identifier>();
+            old   = new ConcurrentHashMap<String,Identifier>();
+        }
+
+        Identifier get(String key) {
+            Identifier value = young.get(key);
+            if(value == null) {
+                value = old.get(key);
+                if(value != null) {
+                    put(key, value);
+                }
+            }
+            return value;
+        }
+
+        void put(String key, Identifier value) {
+            final ConcurrentHashMap<String,Identifier> current = young;
+            if(current.size() >= generationSize) {
+                synchronized (this) {
+                    if(young == current) {
+                        old   = current;
+                        young = new ConcurrentHashMap<String,Identifier>();
+                    }
+                }
+            }
+            young.put(key, value);
+        }
+
+        synchronized void clear() {
+            young = new ConcurrentHashMap<String,Identifier>();
+            old   = new ConcurrentHashMap<String,Identifier>();
+        }
     }
 
-}
\ No newline at end of file
+}
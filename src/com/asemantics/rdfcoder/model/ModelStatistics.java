@@ -0,0 +1,173 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Live counters of the triples of a model and of its entities by {@link CodeModel#TYPE type},
+ * so that the model size can be read without scanning it.
+ * The counters are updated by the models while writing and keep track of the model
+ * {@link CodeModel#getModificationCount() modification count}: when the model is modified by other means
+ * the counters are no longer {@link #isSynchronized(CodeModel) synchronized} and must be
+ * {@link #rebuild(CodeModel) rebuilt}.
+ *
+ * @see CodeModelBase#getModelStatistics()
+ */
+public class ModelStatistics {
+
+    /**
+     * Entities count by type.
+     */
+    private final Map<String,Long> entities = new HashMap<String,Long>();
+
+    private long triples;
+
+    /**
+     * Modification count of the model the counters are synchronized with, <code>-1</code> if none.
+     */
+    private long modificationCount = -1;
+
+    /**
+     * Checks whether the counters reflect the current content of a model.
+     *
+     * @param model the counted model.
+     * @return <code>true</code> if no modifications happened since the last update.
+     */
+    public synchronized boolean isSynchronized(CodeModel model) {
+        return modificationCount == model.getModificationCount();
+    }
+
+    /**
+     * Applies the effect of adding or removing a single triple,
+     * if the counters were synchronized before the write.
+     *
+     * @param model the written model.
+     * @param synchronizedBefore the result of {@link #isSynchronized(CodeModel)} before the write.
+     * @param triplesDelta the change of the model size, <code>0</code> if the model didn't change.
+     * @param predicate the triple predicate.
+     * @param object the triple object.
+     */
+    public synchronized void update(
+            CodeModel model, boolean synchronizedBefore, long triplesDelta, String predicate, String object
+    ) {
+        if( ! synchronizedBefore ) {
+            return;
+        }
+        triples += triplesDelta;
+        if( triplesDelta != 0 && CodeModel.TYPE.equals(predicate) ) {
+            addEntities(object, triplesDelta);
+        }
+        modificationCount = model.getModificationCount();
+    }
+
+    /**
+     * Applies the effect of adding a batch of triples,
+     * if the counters were synchronized before the write.
+     *
+     * @param model the written model.
+     * @param synchronizedBefore the result of {@link #isSynchronized(CodeModel)} before the write.
+     * @param triplesDelta the change of the model size.
+     * @param entitiesDelta the number of new {@link CodeModel#TYPE} triples by type.
+     */
+    public synchronized void update(
+            CodeModel model, boolean synchronizedBefore, long triplesDelta, Map<String,Long> entitiesDelta
+    ) {
+        if( ! synchronizedBefore ) {
+            return;
+        }
+        triples += triplesDelta;
+        for(Map.Entry<String,Long> entry : entitiesDelta.entrySet()) {
+            addEntities(entry.getKey(), entry.getValue());
+        }
+        modificationCount = model.getModificationCount();
+    }
+
+    /**
+     * Counts again all the triples and entities of a model.
+     *
+     * @param model the model to be scanned.
+     */
+    public synchronized void rebuild(CodeModel model) {
+        final long currentModificationCount = model.getModificationCount();
+        entities.clear();
+        triples = model.countTriples(CodeModel.ALL_MATCH, CodeModel.ALL_MATCH, CodeModel.ALL_MATCH);
+        final TripleIterator ti = model.searchTriples(CodeModel.ALL_MATCH, CodeModel.TYPE, CodeModel.ALL_MATCH);
+        try {
+            while(ti.next()) {
+                addEntities(ti.getObject(), 1);
+            }
+        } finally {
+            ti.close();
+        }
+        modificationCount = currentModificationCount;
+    }
+
+    /**
+     * Resets the counters, they are no longer synchronized.
+     */
+    public synchronized void clear() {
+        entities.clear();
+        triples = 0;
+        modificationCount = -1;
+    }
+
+    /**
+     * @return the number of triples of the model.
+     */
+    public synchronized long getTriplesCount() {
+        return triples;
+    }
+
+    /**
+     * @param type the entity type, i.e. {@link com.asemantics.rdfcoder.model.java.JavaCodeModel#JCLASS}.
+     * @return the number of entities of the given type.
+     */
+    public synchronized long getEntitiesCount(String type) {
+        final Long count = entities.get(type);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return a snapshot of the entities count by type, sorted by type.
+     */
+    public synchronized Map<String,Long> getEntitiesCounts() {
+        return Collections.unmodifiableMap( new TreeMap<String,Long>(entities) );
+    }
+
+    public synchronized String toString() {
+        return String.format(
+                "%s{triples: %d, types: %d}", this.getClass().getName(), triples, entities.size()
+        );
+    }
+
+    private void addEntities(String type, long delta) {
+        final Long count = entities.get(type);
+        final long newCount = (count == null ? 0 : count) + delta;
+        if(newCount == 0) {
+            entities.remove(type);
+        } else {
+            entities.put(type, newCount);
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model;
+
+/**
+ * Exception raised during the execution of a <i>SPARQL</i> query, or while reading its results,
+ * when its {@link QueryHandle} has been cancelled or has expired.
+ * It is unchecked since it is thrown from within the result iteration.
+ */
+public class QueryCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean timedOut;
+
+    public QueryCancelledException(String msg, boolean timedOut) {
+        super(msg);
+        this.timedOut = timedOut;
+    }
+
+    /**
+     * @return <code>true</code> if the query expired, <code>false</code> if it was explicitly cancelled.
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+}
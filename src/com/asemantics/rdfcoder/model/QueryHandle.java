@@ -0,0 +1,117 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model;
+
+/**
+ * Controls the execution of a <i>SPARQL</i> query, from its start to the consumption of its results.
+ * The execution cooperatively checks the handle while reading the model and fails with a
+ * {@link QueryCancelledException} once the handle is {@link #cancel() cancelled} or its timeout has expired.
+ * A handle can be cancelled from any thread and controls a single execution.
+ *
+ * @see SPARQLQuerableCodeModel#performQuery(String, QueryHandle)
+ */
+public class QueryHandle {
+
+    /**
+     * Timeout value meaning that the execution never expires.
+     */
+    public static final long NO_TIMEOUT = 0;
+
+    private final long timeout;
+
+    /**
+     * Expiration time in nanoseconds, meaningful only if a timeout is set.
+     */
+    private final long deadline;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor.
+     *
+     * @param timeout the maximum execution time in milliseconds, starting now,
+     *        {@link #NO_TIMEOUT} for no limit.
+     */
+    public QueryHandle(long timeout) {
+        if(timeout < 0) {
+            throw new IllegalArgumentException("timeout must be >= 0");
+        }
+        this.timeout  = timeout;
+        this.deadline = System.nanoTime() + timeout * 1000000L;
+    }
+
+    /**
+     * Constructor for a handle without timeout.
+     */
+    public QueryHandle() {
+        this(NO_TIMEOUT);
+    }
+
+    /**
+     * @return the timeout in milliseconds, {@link #NO_TIMEOUT} if none.
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Requests the interruption of the execution, the executing thread stops at the next check.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return <code>true</code> if {@link #cancel()} has been invoked.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return <code>true</code> if the timeout has expired.
+     */
+    public boolean isExpired() {
+        return timeout != NO_TIMEOUT && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Interrupts the execution if the handle has been cancelled or has expired.
+     *
+     * @throws QueryCancelledException if the execution must stop.
+     */
+    public void check() {
+        if(cancelled) {
+            throw new QueryCancelledException("Query cancelled.", false);
+        }
+        if( isExpired() ) {
+            throw new QueryCancelledException(
+                    String.format("Query timed out after %d ms.", timeout), true
+            );
+        }
+    }
+
+    public String toString() {
+        return String.format(
+                "%s{timeout: %d, cancelled: %b, expired: %b}",
+                this.getClass().getName(), timeout, cancelled, isExpired()
+        );
+    }
+
+}
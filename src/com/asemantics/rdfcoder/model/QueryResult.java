@@ -29,6 +29,25 @@ import java.io.PrintStream;
  */
 public interface QueryResult {
 
+    /**
+     * Value of <code>maxRows</code> meaning that all the rows must be written.
+     */
+    int NO_LIMIT = -1;
+
+    /**
+     * The delimited text formats of the result set.
+     */
+    enum DelimitedFormat {
+        /**
+         * Tab separated values, tabs, new lines and backslashes within the values are escaped.
+         */
+        TSV,
+        /**
+         * Comma separated values, values containing separators or quotes are quoted.
+         */
+        CSV
+    }
+
     /**
      * Returns all the variables involved in the query.
      *
@@ -70,6 +89,8 @@ public interface QueryResult {
 
     /**
      * Prints a tabular view of the result set on the given out stream.
+     * The whole result set is read before printing to align the columns,
+     * see {@link #toDelimitedView(PrintStream, DelimitedFormat, int)} for large results.
      * @param ps
      */
     void toTabularView(PrintStream ps);
@@ -79,5 +100,27 @@ public interface QueryResult {
      * @param generator used to compose valid JSON data output.
      */
     void toJSONView(JsonGenerator generator) throws IOException;
+
+    /**
+     * Streams a JSON view of at most <code>maxRows</code> rows of the result set,
+     * the generator is flushed periodically while writing the rows.
+     *
+     * @param generator used to compose valid JSON data output.
+     * @param maxRows the maximum number of written rows, {@link #NO_LIMIT} to write all of them.
+     * @return the number of written rows.
+     * @throws IOException
+     */
+    int toJSONView(JsonGenerator generator, int maxRows) throws IOException;
+
+    /**
+     * Streams a delimited text view of at most <code>maxRows</code> rows of the result set,
+     * preceded by a header line with the variable names. Unbound values are written as empty fields.
+     *
+     * @param ps the out stream.
+     * @param format the output format.
+     * @param maxRows the maximum number of written rows, {@link #NO_LIMIT} to write all of them.
+     * @return the number of written rows.
+     */
+    int toDelimitedView(PrintStream ps, DelimitedFormat format, int maxRows);
     
 }
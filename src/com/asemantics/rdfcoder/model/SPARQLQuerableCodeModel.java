@@ -23,6 +23,26 @@ package com.asemantics.rdfcoder.model;
  */
 public abstract class SPARQLQuerableCodeModel extends CodeModelBase {
 
-    public abstract QueryResult performQuery(String sparqlQry) throws SPARQLException;
+    /**
+     * Performs a <i>SPARQL</i> query without time limits.
+     *
+     * @param sparqlQry the query text.
+     * @return the query result, to be closed.
+     * @throws SPARQLException if the query cannot be executed.
+     */
+    public QueryResult performQuery(String sparqlQry) throws SPARQLException {
+        return performQuery(sparqlQry, null);
+    }
+
+    /**
+     * Performs a <i>SPARQL</i> query controlled by a handle: the execution and the reading of the result
+     * fail with a {@link QueryCancelledException} once the handle is cancelled or expires.
+     *
+     * @param sparqlQry the query text.
+     * @param handle the execution handle, <code>null</code> for no control.
+     * @return the query result, to be closed.
+     * @throws SPARQLException if the query cannot be executed.
+     */
+    public abstract QueryResult performQuery(String sparqlQry, QueryHandle handle) throws SPARQLException;
 
 }
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Search index over the simple names of the entities of a model.
+ * Names are matched by substring through an inverted index of their lower case trigrams,
+ * and by camel case humps through the index of their hump initials,
+ * so that i.e. <i>HSM</i>, <i>HaSeMa</i> and <i>HS</i> match <i>HashSetMap</i>:
+ * the query humps must be prefixes of the leading humps of the name.
+ * Only the entities whose last qualifier is among the given ones are indexed.
+ * The index has no removal path: it is cleared and filled again together with
+ * the owning {@link IdentifierIndex} when the model is no longer
+ * {@link IdentifierIndex#isSynchronized(CodeModel) synchronized}.
+ *
+ * @see IdentifierIndex#getSymbolIndex()
+ */
+public class SymbolIndex {
+
+    /**
+     * Qualifiers of the indexed entities.
+     */
+    private final Set<String> qualifiers;
+
+    /**
+     * Distinct names, numbered in insertion order.
+     */
+    private final List<String> names = new ArrayList<String>();
+
+    /**
+     * Lower case names, by name number.
+     */
+    private final List<String> lowerNames = new ArrayList<String>();
+
+    /**
+     * Entities by name number.
+     */
+    private final List<List<Identifier>> entities = new ArrayList<List<Identifier>>();
+
+    private final Map<String,Integer> nameIds = new HashMap<String,Integer>();
+
+    /**
+     * Sorted name numbers by lower case trigram.
+     */
+    private final Map<String,IntList> trigrams = new HashMap<String,IntList>();
+
+    /**
+     * Name numbers by upper case hump initials.
+     */
+    private final TreeMap<String,IntList> humps = new TreeMap<String,IntList>();
+
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param qualifiers the qualifiers of the entities to be indexed.
+     */
+    public SymbolIndex(Collection<String> qualifiers) {
+        this.qualifiers = Collections.unmodifiableSet( new LinkedHashSet<String>(qualifiers) );
+    }
+
+    /**
+     * Adds a new entity to the index, if its qualifier is indexed.
+     * The entities are added by the {@link IdentifierIndex} only once.
+     *
+     * @param identifier the entity identifier.
+     * @return <code>true</code> if the entity has been added.
+     */
+    synchronized boolean add(Identifier identifier) {
+        final IdentifierFragment tail = identifier.getTailFragment();
+        if( ! qualifiers.contains(tail.getQualifier()) ) {
+            return false;
+        }
+        final String name = tail.getFragment();
+        Integer id = nameIds.get(name);
+        if(id == null) {
+            id = names.size();
+            nameIds.put(name, id);
+            names.add(name);
+            final String lowerName = name.toLowerCase(Locale.ROOT);
+            lowerNames.add(lowerName);
+            entities.add( new ArrayList<Identifier>(1) );
+            for(String trigram : trigrams(lowerName)) {
+                IntList postings = trigrams.get(trigram);
+                if(postings == null) {
+                    postings = new IntList();
+                    trigrams.put(trigram, postings);
+                }
+                postings.add(id);
+            }
+            final String initials = initials( splitHumps(name, false) );
+            IntList postings = humps.get(initials);
+            if(postings == null) {
+                postings = new IntList();
+                humps.put(initials, postings);
+            }
+            postings.add(id);
+        }
+        entities.get(id).add(identifier);
+        size++;
+        return true;
+    }
+
+    /**
+     * @return the number of indexed entities.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of distinct indexed names.
+     */
+    public synchronized int getNamesCount() {
+        return names.size();
+    }
+
+    /**
+     * Removes all the indexed entities.
+     */
+    synchronized void clear() {
+        names.clear();
+        lowerNames.clear();
+        entities.clear();
+        nameIds.clear();
+        trigrams.clear();
+        humps.clear();
+        size = 0;
+    }
+
+    /**
+     * Searches the entities whose simple name matches the given query.
+     * The exact matches come first, followed by the prefix, camel case hump and substring matches,
+     * each group sorted by name length and name. The match is case insensitive,
+     * the humps of the query are delimited by its upper case letters.
+     *
+     * @param query the partial name.
+     * @param limit the maximum number of returned entities.
+     * @return the matching entities.
+     */
+    public synchronized List<Identifier> search(String query, int limit) {
+        if(query.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        final String lowerQuery = query.toLowerCase(Locale.ROOT);
+        final List<Integer> exact = new ArrayList<Integer>();
+        final List<Integer> prefix = new ArrayList<Integer>();
+        final List<Integer> hump = new ArrayList<Integer>();
+        final List<Integer> substring = new ArrayList<Integer>();
+        final Set<Integer> matched = new HashSet<Integer>();
+        for(int id : substringCandidates(lowerQuery)) {
+            final String lowerName = lowerNames.get(id);
+            if(lowerName.equals(lowerQuery)) {
+                exact.add(id);
+            } else if(lowerName.startsWith(lowerQuery)) {
+                prefix.add(id);
+            } else if(lowerName.contains(lowerQuery)) {
+                substring.add(id);
+                continue;
+            } else {
+                continue;
+            }
+            matched.add(id);
+        }
+        final List<String> querySegments = splitHumps(query, true);
+        final String queryInitials = initials(querySegments);
+        for(IntList postings : humps.subMap(queryInitials, queryInitials + Character.MAX_VALUE).values()) {
+            for(int i = 0; i < postings.size; i++) {
+                final int id = postings.values[i];
+                if( ! matched.contains(id) && matchHumps(querySegments, splitHumps(names.get(id), false)) ) {
+                    hump.add(id);
+                    matched.add(id);
+                }
+            }
+        }
+        substring.removeAll(matched);
+
+        final List<Identifier> result = new ArrayList<Identifier>();
+        for(List<Integer> group : Arrays.asList(exact, prefix, hump, substring)) {
+            sortByName(group);
+            for(int id : group) {
+                for(Identifier identifier : entities.get(id)) {
+                    if(result.size() == limit) {
+                        return result;
+                    }
+                    result.add(identifier);
+                }
+            }
+        }
+        return result;
+    }
+
+    public synchronized String toString() {
+        return String.format(
+                "%s{entities: %d, names: %d, trigrams: %d}",
+                this.getClass().getName(), size, names.size(), trigrams.size()
+        );
+    }
+
+    /**
+     * Returns the names possibly containing the given lower case query,
+     * intersecting the postings of its trigrams.
+     * Queries shorter than a trigram are checked against all the names.
+     */
+    private int[] substringCandidates(String lowerQuery) {
+        if(lowerQuery.length() < 3) {
+            final int[] all = new int[names.size()];
+            for(int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        final List<IntList> postings = new ArrayList<IntList>();
+        for(String trigram : trigrams(lowerQuery)) {
+            final IntList trigramPostings = trigrams.get(trigram);
+            if(trigramPostings == null) {
+                return new int[0];
+            }
+            postings.add(trigramPostings);
+        }
+        // Intersecting from the shortest list.
+        IntList shortest = postings.get(0);
+        for(IntList candidate : postings) {
+            if(candidate.size < shortest.size) {
+                shortest = candidate;
+            }
+        }
+        int[] result = Arrays.copyOf(shortest.values, shortest.size);
+        for(IntList candidate : postings) {
+            if(candidate != shortest) {
+                result = intersect(result, candidate);
+            }
+        }
+        return result;
+    }
+
+    private void sortByName(List<Integer> ids) {
+        Collections.sort(ids, new Comparator<Integer>() {
+            public int compare(Integer id1, Integer id2) {
+                final String name1 = names.get(id1);
+                final String name2 = names.get(id2);
+                final int lengthDiff = name1.length() - name2.length();
+                return lengthDiff != 0 ? lengthDiff : name1.compareTo(name2);
+            }
+        });
+    }
+
+    /**
+     * Intersects a sorted array with sorted postings.
+     */
+    private static int[] intersect(int[] ids, IntList postings) {
+        final int[] result = new int[Math.min(ids.length, postings.size)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while(i < ids.length && j < postings.size) {
+            if(ids[i] < postings.values[j]) {
+                i++;
+            } else if(ids[i] > postings.values[j]) {
+                j++;
+            } else {
+                result[size++] = ids[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static Set<String> trigrams(String lowerName) {
+        final Set<String> result = new LinkedHashSet<String>();
+        for(int i = 0; i + 3 <= lowerName.length(); i++) {
+            result.add( lowerName.substring(i, i + 3) );
+        }
+        return result;
+    }
+
+    /**
+     * Splits a name in camel case humps: a hump starts at the first character,
+     * at every upper case letter following a lower case one, at the last upper case letter
+     * of an acronym followed by a lower case one (<i>URL|Connection</i>) and
+     * after underscores and digit sequences.
+     * In queries every upper case letter starts a hump.
+     */
+    static List<String> splitHumps(String name, boolean query) {
+        final List<String> result = new ArrayList<String>();
+        int begin = 0;
+        for(int i = 1; i < name.length(); i++) {
+            final char current  = name.charAt(i);
+            final char previous = name.charAt(i - 1);
+            final boolean upperCase = Character.isUpperCase(current);
+            if(
+                    (upperCase && (query || ! Character.isUpperCase(previous)))
+                            ||
+                    (
+                            upperCase && i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1))
+                    )
+                            ||
+                    (previous == '_' && current != '_')
+                            ||
+                    (Character.isDigit(previous) && ! Character.isDigit(current))
+            ) {
+                result.add( name.substring(begin, i) );
+                begin = i;
+            }
+        }
+        result.add( name.substring(begin) );
+        return result;
+    }
+
+    private static String initials(List<String> humps) {
+        final StringBuilder sb = new StringBuilder();
+        for(String hump : humps) {
+            sb.append( Character.toUpperCase(hump.charAt(0)) );
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Checks that every query segment is a case insensitive prefix of the corresponding name hump.
+     */
+    private static boolean matchHumps(List<String> querySegments, List<String> nameHumps) {
+        if(querySegments.size() > nameHumps.size()) {
+            return false;
+        }
+        for(int i = 0; i < querySegments.size(); i++) {
+            final String segment = querySegments.get(i);
+            if( ! nameHumps.get(i).regionMatches(true, 0, segment, 0, segment.length()) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Growing list of sorted name numbers.
+     */
+    private static class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+}
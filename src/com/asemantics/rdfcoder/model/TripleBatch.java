@@ -0,0 +1,210 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model;
+
+import java.util.Arrays;
+
+/**
+ * Collects resource, literal and collection triples to be added
+ * to a {@link com.asemantics.rdfcoder.model.CodeModel} with a single
+ * {@link CodeModel#addTriples(TripleBatch)} call.
+ * A batch can be cleared and reused.
+ *
+ * @author Michele Mostarda (michele.mostarda@gmail.com)
+ */
+public class TripleBatch {
+
+    /**
+     * The kind of a batch entry.
+     */
+    public enum Kind {
+        /**
+         * Triple with resource object.
+         */
+        RESOURCE,
+        /**
+         * Triple with literal object.
+         */
+        LITERAL,
+        /**
+         * Triple with collection object.
+         */
+        COLLECTION
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Kind[] kinds;
+
+    private String[] subjects;
+
+    private String[] predicates;
+
+    /**
+     * Objects, either <code>String</code> or <code>String[]</code>.
+     */
+    private Object[] objects;
+
+    private int size;
+
+    public TripleBatch() {
+        kinds      = new Kind[INITIAL_CAPACITY];
+        subjects   = new String[INITIAL_CAPACITY];
+        predicates = new String[INITIAL_CAPACITY];
+        objects    = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a triple with a resource object.
+     *
+     * @see CodeModel#addTriple(String, String, String)
+     */
+    public void addTriple(String subject, String predicate, String object) {
+        add(Kind.RESOURCE, subject, predicate, object);
+    }
+
+    /**
+     * Adds a triple with a literal object.
+     *
+     * @see CodeModel#addTripleLiteral(String, String, String)
+     */
+    public void addTripleLiteral(String subject, String predicate, String literal) {
+        add(Kind.LITERAL, subject, predicate, literal);
+    }
+
+    /**
+     * Adds a triple with a collection object.
+     *
+     * @see CodeModel#addTripleCollection(Object, String, String[])
+     */
+    public void addTripleCollection(String subject, String predicate, String[] values) {
+        add(Kind.COLLECTION, subject, predicate, values);
+    }
+
+    /**
+     * @return the number of collected triples.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return <code>true</code> if no triples have been collected.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the collected triples.
+     */
+    public void clear() {
+        Arrays.fill(subjects  , 0, size, null);
+        Arrays.fill(predicates, 0, size, null);
+        Arrays.fill(objects   , 0, size, null);
+        size = 0;
+    }
+
+    public Kind getKind(int i) {
+        checkIndex(i);
+        return kinds[i];
+    }
+
+    public String getSubject(int i) {
+        checkIndex(i);
+        return subjects[i];
+    }
+
+    public String getPredicate(int i) {
+        checkIndex(i);
+        return predicates[i];
+    }
+
+    /**
+     * @param i entry index.
+     * @return the object of a {@link Kind#RESOURCE} or {@link Kind#LITERAL} entry.
+     */
+    public String getObject(int i) {
+        checkIndex(i);
+        if(kinds[i] == Kind.COLLECTION) {
+            throw new IllegalArgumentException("Entry " + i + " is a collection.");
+        }
+        return (String) objects[i];
+    }
+
+    /**
+     * @param i entry index.
+     * @return the values of a {@link Kind#COLLECTION} entry.
+     */
+    public String[] getValues(int i) {
+        checkIndex(i);
+        if(kinds[i] != Kind.COLLECTION) {
+            throw new IllegalArgumentException("Entry " + i + " is not a collection.");
+        }
+        return (String[]) objects[i];
+    }
+
+    /**
+     * Adds the collected triples one by one to the given model.
+     *
+     * @param model the target model.
+     */
+    public void replay(CodeModel model) {
+        for(int i = 0; i < size; i++) {
+            switch(kinds[i]) {
+                case RESOURCE:
+                    model.addTriple(subjects[i], predicates[i], (String) objects[i]);
+                    break;
+                case LITERAL:
+                    model.addTripleLiteral(subjects[i], predicates[i], (String) objects[i]);
+                    break;
+                case COLLECTION:
+                    model.addTripleCollection(subjects[i], predicates[i], (String[]) objects[i]);
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+    }
+
+    private void add(Kind kind, String subject, String predicate, Object object) {
+        if(subject == null || predicate == null || object == null) {
+            throw new NullPointerException("Triple elements cannot be null.");
+        }
+        if(size == kinds.length) {
+            final int capacity = size * 2;
+            kinds      = Arrays.copyOf(kinds     , capacity);
+            subjects   = Arrays.copyOf(subjects  , capacity);
+            predicates = Arrays.copyOf(predicates, capacity);
+            objects    = Arrays.copyOf(objects   , capacity);
+        }
+        kinds[size]      = kind;
+        subjects[size]   = subject;
+        predicates[size] = predicate;
+        objects[size]    = object;
+        size++;
+    }
+
+    private void checkIndex(int i) {
+        if(i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Invalid index: " + i);
+        }
+    }
+
+}
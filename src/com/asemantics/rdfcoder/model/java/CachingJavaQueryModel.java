@@ -0,0 +1,651 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.Asset;
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.ModelStatistics;
+import com.asemantics.rdfcoder.model.QueryModelException;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link JavaQueryModel} decorator memoizing the results of a {@link JavaQueryModelImpl}.
+ * The cache is bounded by weight, where the weight of a result is one plus
+ * the length of the returned array or the number of entities of a {@link TypeDescription},
+ * and the least recently used results are evicted first.
+ * All the results are discarded as soon as the
+ * {@link com.asemantics.rdfcoder.model.CodeModel#getModificationCount() modification count}
+ * of the underlying code model changes.
+ * The objects returned by the decorated model refer to this cache for their queries.
+ * The lazy iterators are not cached.
+ *
+ * @see JavaQueryModelImpl
+ */
+public class CachingJavaQueryModel implements JavaQueryModel {
+
+    /**
+     * Default maximum weight of the cached results.
+     */
+    public static final int DEFAULT_MAX_WEIGHT = 64 * 1024;
+
+    /**
+     * Computes a result on the decorated model.
+     */
+    private interface Loader<T> {
+        T load() throws QueryModelException;
+    }
+
+    /**
+     * A cached result with its weight.
+     */
+    private static class Entry {
+
+        private final Object value;
+
+        private final int weight;
+
+        Entry(Object value, int weight) {
+            this.value  = value;
+            this.weight = weight;
+        }
+    }
+
+    private final JavaQueryModelImpl decorated;
+
+    private final CodeModel codeModel;
+
+    private final int maxWeight;
+
+    /**
+     * Results in access order.
+     */
+    private final LinkedHashMap<List<Object>,Entry> cache = new LinkedHashMap<List<Object>,Entry>(256, 0.75f, true);
+
+    /**
+     * Modification count of the code model the cached results refer to.
+     */
+    private long version;
+
+    private int weight;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * Constructor.
+     *
+     * @param decorated the decorated query model, the objects it returns will refer to this instance.
+     * @param maxWeight the maximum weight of the cached results.
+     */
+    public CachingJavaQueryModel(JavaQueryModelImpl decorated, int maxWeight) {
+        if(decorated == null) {
+            throw new NullPointerException("decorated cannot be null.");
+        }
+        if(maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be >= 1");
+        }
+        this.decorated = decorated;
+        this.codeModel = decorated.getCodeModel();
+        this.maxWeight = maxWeight;
+        this.version   = codeModel.getModificationCount();
+        decorated.setOwner(this);
+    }
+
+    /**
+     * Constructor with default maximum weight.
+     *
+     * @param decorated the decorated query model.
+     */
+    public CachingJavaQueryModel(JavaQueryModelImpl decorated) {
+        this(decorated, DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @return the number of calls answered by the cache.
+     */
+    public synchronized long getCacheHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of calls forwarded to the decorated model.
+     */
+    public synchronized long getCacheMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of cached results.
+     */
+    public synchronized int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * @return the total weight of the cached results.
+     */
+    public synchronized int getCacheWeight() {
+        return weight;
+    }
+
+    /**
+     * Discards all the cached results.
+     */
+    public synchronized void clearCache() {
+        cache.clear();
+        weight = 0;
+    }
+
+    public Asset getAsset() {
+        return JavaCoderFactory.createJAsset(this);
+    }
+
+    public String[] getLibraries() {
+        return getUnchecked("getLibraries", null, new Loader<String[]>() {
+            public String[] load() {
+                return decorated.getLibraries();
+            }
+        });
+    }
+
+    public String getLibraryLocation(final String library) {
+        return getUnchecked("getLibraryLocation", library, new Loader<String>() {
+            public String load() {
+                return decorated.getLibraryLocation(library);
+            }
+        });
+    }
+
+    public Date getLibraryDateTime(final String library) {
+        final Date date = getUnchecked("getLibraryDateTime", library, new Loader<Date>() {
+            public Date load() {
+                return decorated.getLibraryDateTime(library);
+            }
+        });
+        return date == null ? null : new Date( date.getTime() );
+    }
+
+    public boolean packageExists(final Identifier pathToPackage) {
+        return getUnchecked("packageExists", pathToPackage, new Loader<Boolean>() {
+            public Boolean load() {
+                return decorated.packageExists(pathToPackage);
+            }
+        });
+    }
+
+    public boolean classExists(final Identifier pathToClass) {
+        return getUnchecked("classExists", pathToClass, new Loader<Boolean>() {
+            public Boolean load() {
+                return decorated.classExists(pathToClass);
+            }
+        });
+    }
+
+    public boolean interfaceExists(final Identifier pathToInterface) {
+        return getUnchecked("interfaceExists", pathToInterface, new Loader<Boolean>() {
+            public Boolean load() {
+                return decorated.interfaceExists(pathToInterface);
+            }
+        });
+    }
+
+    public boolean enumerationExists(final Identifier pathToEnumeration) {
+        return getUnchecked("enumerationExists", pathToEnumeration, new Loader<Boolean>() {
+            public Boolean load() {
+                return decorated.enumerationExists(pathToEnumeration);
+            }
+        });
+    }
+
+    public boolean attributeExists(final Identifier pathToAttribute) {
+        return getUnchecked("attributeExists", pathToAttribute, new Loader<Boolean>() {
+            public Boolean load() {
+                return decorated.attributeExists(pathToAttribute);
+            }
+        });
+    }
+
+    public boolean methodExists(final Identifier pathToMethod) {
+        return getUnchecked("methodExists", pathToMethod, new Loader<Boolean>() {
+            public Boolean load() {
+                return decorated.methodExists(pathToMethod);
+            }
+        });
+    }
+
+    public boolean signatureExists(final Identifier pathToSignature) {
+        return getUnchecked("signatureExists", pathToSignature, new Loader<Boolean>() {
+            public Boolean load() {
+                return decorated.signatureExists(pathToSignature);
+            }
+        });
+    }
+
+    public JPackage[] getPackages() {
+        return getUnchecked("getPackages", null, new Loader<JPackage[]>() {
+            public JPackage[] load() {
+                return decorated.getPackages();
+            }
+        });
+    }
+
+    public JPackage getPackage(final Identifier pathToPackage) throws QueryModelException {
+        return get("getPackage", pathToPackage, new Loader<JPackage>() {
+            public JPackage load() throws QueryModelException {
+                return decorated.getPackage(pathToPackage);
+            }
+        });
+    }
+
+    public JPackage[] getPackagesInto(final Identifier pathToPackage) throws QueryModelException {
+        return get("getPackagesInto", pathToPackage, new Loader<JPackage[]>() {
+            public JPackage[] load() throws QueryModelException {
+                return decorated.getPackagesInto(pathToPackage);
+            }
+        });
+    }
+
+    public JInterface[] getInterfaces() {
+        return getUnchecked("getInterfaces", null, new Loader<JInterface[]>() {
+            public JInterface[] load() {
+                return decorated.getInterfaces();
+            }
+        });
+    }
+
+    public JInterface getInterface(final Identifier pathToInterface) throws QueryModelException {
+        return get("getInterface", pathToInterface, new Loader<JInterface>() {
+            public JInterface load() throws QueryModelException {
+                return decorated.getInterface(pathToInterface);
+            }
+        });
+    }
+
+    public JInterface[] getInterfacesInto(final Identifier pathToContainer) throws QueryModelException {
+        return get("getInterfacesInto", pathToContainer, new Loader<JInterface[]>() {
+            public JInterface[] load() throws QueryModelException {
+                return decorated.getInterfacesInto(pathToContainer);
+            }
+        });
+    }
+
+    public JClass[] getClasses() {
+        return getUnchecked("getClasses", null, new Loader<JClass[]>() {
+            public JClass[] load() {
+                return decorated.getClasses();
+            }
+        });
+    }
+
+    public JClass getClazz(final Identifier pathToClass) throws QueryModelException {
+        return get("getClazz", pathToClass, new Loader<JClass>() {
+            public JClass load() throws QueryModelException {
+                return decorated.getClazz(pathToClass);
+            }
+        });
+    }
+
+    public JClass[] getClassesInto(final Identifier pathToContainer) throws QueryModelException {
+        return get("getClassesInto", pathToContainer, new Loader<JClass[]>() {
+            public JClass[] load() throws QueryModelException {
+                return decorated.getClassesInto(pathToContainer);
+            }
+        });
+    }
+
+    public JAttribute[] getAttributesInto(final Identifier pathToContainer) throws QueryModelException {
+        return get("getAttributesInto", pathToContainer, new Loader<JAttribute[]>() {
+            public JAttribute[] load() throws QueryModelException {
+                return decorated.getAttributesInto(pathToContainer);
+            }
+        });
+    }
+
+    public JAttribute getAttribute(final Identifier pathToAttribute) throws QueryModelException {
+        return get("getAttribute", pathToAttribute, new Loader<JAttribute>() {
+            public JAttribute load() throws QueryModelException {
+                return decorated.getAttribute(pathToAttribute);
+            }
+        });
+    }
+
+    public JavaCodeModel.JType getAttributeType(final Identifier pathToAttribute) throws QueryModelException {
+        return get("getAttributeType", pathToAttribute, new Loader<JavaCodeModel.JType>() {
+            public JavaCodeModel.JType load() throws QueryModelException {
+                return decorated.getAttributeType(pathToAttribute);
+            }
+        });
+    }
+
+    public JMethod[] getMethodsInto(final Identifier pathToContainer) throws QueryModelException {
+        return get("getMethodsInto", pathToContainer, new Loader<JMethod[]>() {
+            public JMethod[] load() throws QueryModelException {
+                return decorated.getMethodsInto(pathToContainer);
+            }
+        });
+    }
+
+    public JMethod getMethod(final Identifier pathToMethod) throws QueryModelException {
+        return get("getMethod", pathToMethod, new Loader<JMethod>() {
+            public JMethod load() throws QueryModelException {
+                return decorated.getMethod(pathToMethod);
+            }
+        });
+    }
+
+    public JEnumeration[] getEnumerations() {
+        return getUnchecked("getEnumerations", null, new Loader<JEnumeration[]>() {
+            public JEnumeration[] load() {
+                return decorated.getEnumerations();
+            }
+        });
+    }
+
+    public JEnumeration[] getEnumerationsInto(final Identifier pathToContainer) throws QueryModelException {
+        return get("getEnumerationsInto", pathToContainer, new Loader<JEnumeration[]>() {
+            public JEnumeration[] load() throws QueryModelException {
+                return decorated.getEnumerationsInto(pathToContainer);
+            }
+        });
+    }
+
+    public JEnumeration getEnumeration(final Identifier pathToEnumeration) throws QueryModelException {
+        return get("getEnumeration", pathToEnumeration, new Loader<JEnumeration>() {
+            public JEnumeration load() throws QueryModelException {
+                return decorated.getEnumeration(pathToEnumeration);
+            }
+        });
+    }
+
+    public String[] getElements(final Identifier pathToEnumeration) {
+        return getUnchecked("getElements", pathToEnumeration, new Loader<String[]>() {
+            public String[] load() {
+                return decorated.getElements(pathToEnumeration);
+            }
+        });
+    }
+
+    public JSignature[] getSignatures(final Identifier pathToMethod) throws QueryModelException {
+        return get("getSignatures", pathToMethod, new Loader<JSignature[]>() {
+            public JSignature[] load() throws QueryModelException {
+                return decorated.getSignatures(pathToMethod);
+            }
+        });
+    }
+
+    public JavaCodeModel.JType[] getParameters(final Identifier pathToSignature) throws QueryModelException {
+        return get("getParameters", pathToSignature, new Loader<JavaCodeModel.JType[]>() {
+            public JavaCodeModel.JType[] load() throws QueryModelException {
+                return decorated.getParameters(pathToSignature);
+            }
+        });
+    }
+
+    public JavaCodeModel.JType getReturnType(final Identifier pathToSignature) throws QueryModelException {
+        return get("getReturnType", pathToSignature, new Loader<JavaCodeModel.JType>() {
+            public JavaCodeModel.JType load() throws QueryModelException {
+                return decorated.getReturnType(pathToSignature);
+            }
+        });
+    }
+
+    public JavaCodeModel.JVisibility getVisibility(final Identifier pathToEntity) throws QueryModelException {
+        return get("getVisibility", pathToEntity, new Loader<JavaCodeModel.JVisibility>() {
+            public JavaCodeModel.JVisibility load() throws QueryModelException {
+                return decorated.getVisibility(pathToEntity);
+            }
+        });
+    }
+
+    public JavaCodeModel.JModifier[] getModifiers(final Identifier pathToEntity) throws QueryModelException {
+        return get("getModifiers", pathToEntity, new Loader<JavaCodeModel.JModifier[]>() {
+            public JavaCodeModel.JModifier[] load() throws QueryModelException {
+                return decorated.getModifiers(pathToEntity);
+            }
+        });
+    }
+
+    public Identifier[] getEntitiesInto(final Identifier path) {
+        return getUnchecked("getEntitiesInto", path, new Loader<Identifier[]>() {
+            public Identifier[] load() {
+                return decorated.getEntitiesInto(path);
+            }
+        });
+    }
+
+    public Identifier[] getEntitiesUnder(final Identifier path) {
+        return getUnchecked("getEntitiesUnder", path, new Loader<Identifier[]>() {
+            public Identifier[] load() {
+                return decorated.getEntitiesUnder(path);
+            }
+        });
+    }
+
+    public Identifier[] findEntities(final String name) {
+        return getUnchecked("findEntities", name, new Loader<Identifier[]>() {
+            public Identifier[] load() {
+                return decorated.findEntities(name);
+            }
+        });
+    }
+
+    public String[] completeEntityName(final String partialName, final int limit) {
+        return getUnchecked("completeEntityName", Arrays.asList(partialName, limit), new Loader<String[]>() {
+            public String[] load() {
+                return decorated.completeEntityName(partialName, limit);
+            }
+        });
+    }
+
+    public Identifier[] searchSymbols(final String query, final int limit) {
+        return getUnchecked("searchSymbols", Arrays.asList(query, limit), new Loader<Identifier[]>() {
+            public Identifier[] load() {
+                return decorated.searchSymbols(query, limit);
+            }
+        });
+    }
+
+    public Identifier[] getAllSubtypes(final Identifier pathToType) {
+        return getUnchecked("getAllSubtypes", pathToType, new Loader<Identifier[]>() {
+            public Identifier[] load() {
+                return decorated.getAllSubtypes(pathToType);
+            }
+        });
+    }
+
+    public Identifier[] getAllSupertypes(final Identifier pathToType) {
+        return getUnchecked("getAllSupertypes", pathToType, new Loader<Identifier[]>() {
+            public Identifier[] load() {
+                return decorated.getAllSupertypes(pathToType);
+            }
+        });
+    }
+
+    public Identifier[] getAllImplementors(final Identifier pathToInterface) {
+        return getUnchecked("getAllImplementors", pathToInterface, new Loader<Identifier[]>() {
+            public Identifier[] load() {
+                return decorated.getAllImplementors(pathToInterface);
+            }
+        });
+    }
+
+    public TypeReference[] getReferencesTo(final Identifier pathToType) {
+        return getUnchecked("getReferencesTo", pathToType, new Loader<TypeReference[]>() {
+            public TypeReference[] load() {
+                return decorated.getReferencesTo(pathToType);
+            }
+        });
+    }
+
+    public DependencyGraph getDependencyGraph() {
+        return decorated.getDependencyGraph();
+    }
+
+    public ModelStatistics getModelStatistics() {
+        return decorated.getModelStatistics();
+    }
+
+    public TypeDescription describeClass(final Identifier pathToType) throws QueryModelException {
+        return get("describeClass", pathToType, new Loader<TypeDescription>() {
+            public TypeDescription load() throws QueryModelException {
+                return decorated.describeClass(pathToType);
+            }
+        });
+    }
+
+    public QueryIterator<JPackage> iteratePackages(int offset, int limit) {
+        return decorated.iteratePackages(offset, limit);
+    }
+
+    public QueryIterator<JPackage> iteratePackagesInto(Identifier pathToContainer, int offset, int limit) {
+        return decorated.iteratePackagesInto(pathToContainer, offset, limit);
+    }
+
+    public QueryIterator<JInterface> iterateInterfaces(int offset, int limit) {
+        return decorated.iterateInterfaces(offset, limit);
+    }
+
+    public QueryIterator<JInterface> iterateInterfacesInto(Identifier pathToContainer, int offset, int limit) {
+        return decorated.iterateInterfacesInto(pathToContainer, offset, limit);
+    }
+
+    public QueryIterator<JClass> iterateClasses(int offset, int limit) {
+        return decorated.iterateClasses(offset, limit);
+    }
+
+    public QueryIterator<JClass> iterateClassesInto(Identifier pathToContainer, int offset, int limit) {
+        return decorated.iterateClassesInto(pathToContainer, offset, limit);
+    }
+
+    public QueryIterator<JAttribute> iterateAttributesInto(Identifier pathToContainer, int offset, int limit) {
+        return decorated.iterateAttributesInto(pathToContainer, offset, limit);
+    }
+
+    public QueryIterator<JMethod> iterateMethodsInto(Identifier pathToContainer, int offset, int limit) {
+        return decorated.iterateMethodsInto(pathToContainer, offset, limit);
+    }
+
+    public QueryIterator<JEnumeration> iterateEnumerations(int offset, int limit) {
+        return decorated.iterateEnumerations(offset, limit);
+    }
+
+    public QueryIterator<JEnumeration> iterateEnumerationsInto(Identifier pathToContainer, int offset, int limit) {
+        return decorated.iterateEnumerationsInto(pathToContainer, offset, limit);
+    }
+
+    public String toString() {
+        return decorated.toString();
+    }
+
+    /**
+     * Returns the cached result of a call, computing it if missing.
+     * Failures are not cached.
+     *
+     * @param method the name of the called method.
+     * @param argument the call argument, can be <code>null</code>.
+     * @param loader the loader of the result.
+     * @return the result, arrays are copied.
+     * @throws QueryModelException if raised by the loader.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T get(String method, Object argument, Loader<T> loader) throws QueryModelException {
+        final List<Object> key = Arrays.asList(method, argument);
+        final long currentVersion;
+        synchronized (this) {
+            currentVersion = validate();
+            final Entry entry = cache.get(key);
+            if(entry != null) {
+                hits++;
+                return (T) copy(entry.value);
+            }
+            misses++;
+        }
+        final T value = loader.load();
+        put(key, value, currentVersion);
+        return (T) copy(value);
+    }
+
+    /**
+     * As {@link #get(String, Object, Loader)} for loaders not throwing checked exceptions.
+     */
+    private <T> T getUnchecked(String method, Object argument, Loader<T> loader) {
+        try {
+            return get(method, argument, loader);
+        } catch (QueryModelException qme) {
+            throw new IllegalStateException("Unexpected error.", qme);
+        }
+    }
+
+    /**
+     * Discards the cached results if the code model has changed.
+     *
+     * @return the current modification count.
+     */
+    private long validate() {
+        final long current = codeModel.getModificationCount();
+        if(current != version) {
+            clearCache();
+            version = current;
+        }
+        return current;
+    }
+
+    /**
+     * Caches a result computed on the given model version, evicting the least recently used ones.
+     */
+    private synchronized void put(List<Object> key, Object value, long loadVersion) {
+        if(validate() != loadVersion) {
+            return;
+        }
+        final int valueWeight;
+        if(value instanceof Object[]) {
+            valueWeight = 1 + ((Object[]) value).length;
+        } else if(value instanceof TypeDescription) {
+            valueWeight = ((TypeDescription) value).size();
+        } else {
+            valueWeight = 1;
+        }
+        if(valueWeight > maxWeight) {
+            return;
+        }
+        final Entry previous = cache.put(key, new Entry(value, valueWeight));
+        if(previous != null) {
+            weight -= previous.weight;
+        }
+        weight += valueWeight;
+        final Iterator<Map.Entry<List<Object>,Entry>> iterator = cache.entrySet().iterator();
+        while(weight > maxWeight && iterator.hasNext()) {
+            weight -= iterator.next().getValue().weight;
+            iterator.remove();
+        }
+    }
+
+    private static Object copy(Object value) {
+        return value instanceof Object[] ? ((Object[]) value).clone() : value;
+    }
+
+}
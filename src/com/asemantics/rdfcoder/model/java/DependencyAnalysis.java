@@ -0,0 +1,281 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cycles, layers and coupling metrics of a level of a {@link DependencyGraph}.
+ * A cycle is a strongly connected component with more than one node.
+ * Layers are computed on the graph of the components: the nodes without dependencies
+ * are in layer <code>0</code>, every other node is one layer above its highest dependency
+ * and all the nodes of a cycle share the same layer.
+ *
+ * @see DependencyGraph#analyze(DependencyGraph.Level)
+ */
+public final class DependencyAnalysis {
+
+    private final DependencyGraph.Level level;
+
+    private final String[] names;
+
+    private final Map<String,Integer> ids;
+
+    private final int[] fanIn;
+
+    private final int[] fanOut;
+
+    private final int[] layers;
+
+    private final int layersCount;
+
+    private final int componentsCount;
+
+    /**
+     * Cycles sorted by decreasing size, each one sorted by name.
+     */
+    private final String[][] cycles;
+
+    DependencyAnalysis(
+            DependencyGraph.Level level,
+            String[] names,
+            Map<String,Integer> ids,
+            int[] offsets,
+            int[] reverseOffsets,
+            int[] reverseTargets,
+            int[] components,
+            int componentsCount
+    ) {
+        this.level = level;
+        this.names = names;
+        this.ids   = ids;
+        this.componentsCount = componentsCount;
+        final int size = names.length;
+        fanIn  = new int[size];
+        fanOut = new int[size];
+        for(int n = 0; n < size; n++) {
+            fanOut[n] = offsets[n + 1] - offsets[n];
+            fanIn[n]  = reverseOffsets[n + 1] - reverseOffsets[n];
+        }
+
+        // Nodes grouped by component.
+        final int[] memberOffsets = new int[componentsCount + 1];
+        for(int n = 0; n < size; n++) {
+            memberOffsets[ components[n] + 1 ]++;
+        }
+        for(int c = 1; c <= componentsCount; c++) {
+            memberOffsets[c] += memberOffsets[c - 1];
+        }
+        final int[] members = new int[size];
+        final int[] cursor = Arrays.copyOf(memberOffsets, componentsCount);
+        for(int n = 0; n < size; n++) {
+            members[ cursor[components[n]]++ ] = n;
+        }
+
+        // Layers from the components without outgoing dependencies.
+        final int[] pending = new int[componentsCount];
+        for(int n = 0; n < size; n++) {
+            for(int e = reverseOffsets[n]; e < reverseOffsets[n + 1]; e++) {
+                final int dependent = reverseTargets[e];
+                if(components[dependent] != components[n]) {
+                    pending[ components[dependent] ]++;
+                }
+            }
+        }
+        final int[] componentLayers = new int[componentsCount];
+        final int[] queue = new int[componentsCount];
+        int head = 0;
+        int tail = 0;
+        for(int c = 0; c < componentsCount; c++) {
+            if(pending[c] == 0) {
+                queue[tail++] = c;
+            }
+        }
+        int maxLayer = -1;
+        while(head < tail) {
+            final int c = queue[head++];
+            maxLayer = Math.max(maxLayer, componentLayers[c]);
+            for(int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                final int n = members[m];
+                for(int e = reverseOffsets[n]; e < reverseOffsets[n + 1]; e++) {
+                    final int dependent = components[ reverseTargets[e] ];
+                    if(dependent == c) {
+                        continue;
+                    }
+                    componentLayers[dependent] = Math.max(componentLayers[dependent], componentLayers[c] + 1);
+                    if(--pending[dependent] == 0) {
+                        queue[tail++] = dependent;
+                    }
+                }
+            }
+        }
+        layersCount = maxLayer + 1;
+        layers = new int[size];
+        for(int n = 0; n < size; n++) {
+            layers[n] = componentLayers[ components[n] ];
+        }
+
+        final List<String[]> cycleList = new ArrayList<String[]>();
+        for(int c = 0; c < componentsCount; c++) {
+            final int cycleSize = memberOffsets[c + 1] - memberOffsets[c];
+            if(cycleSize > 1) {
+                final String[] cycle = new String[cycleSize];
+                for(int m = 0; m < cycleSize; m++) {
+                    cycle[m] = names[ members[memberOffsets[c] + m] ];
+                }
+                Arrays.sort(cycle);
+                cycleList.add(cycle);
+            }
+        }
+        Collections.sort(cycleList, new Comparator<String[]>() {
+            public int compare(String[] cycle1, String[] cycle2) {
+                final int sizeDiff = cycle2.length - cycle1.length;
+                return sizeDiff != 0 ? sizeDiff : cycle1[0].compareTo(cycle2[0]);
+            }
+        });
+        cycles = cycleList.toArray( new String[cycleList.size()][] );
+    }
+
+    public DependencyGraph.Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the sorted names of the analyzed packages or types.
+     */
+    public String[] getNodes() {
+        final String[] result = names.clone();
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * @return the number of strongly connected components, single nodes included.
+     */
+    public int getComponentsCount() {
+        return componentsCount;
+    }
+
+    /**
+     * @return the dependency cycles sorted by decreasing size, the names of every cycle are sorted.
+     */
+    public String[][] getCycles() {
+        final String[][] result = new String[cycles.length][];
+        for(int i = 0; i < cycles.length; i++) {
+            result[i] = cycles[i].clone();
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of layers.
+     */
+    public int getLayersCount() {
+        return layersCount;
+    }
+
+    /**
+     * @param name the package or type name.
+     * @return the layer of the node, <code>-1</code> if unknown.
+     */
+    public int getLayer(String name) {
+        final Integer id = ids.get(name);
+        return id == null ? -1 : layers[id];
+    }
+
+    /**
+     * @param name the package or type name.
+     * @return the number of nodes depending on the given one, <code>-1</code> if unknown.
+     */
+    public int getFanIn(String name) {
+        final Integer id = ids.get(name);
+        return id == null ? -1 : fanIn[id];
+    }
+
+    /**
+     * @param name the package or type name.
+     * @return the number of nodes the given one depends on, <code>-1</code> if unknown.
+     */
+    public int getFanOut(String name) {
+        final Integer id = ids.get(name);
+        return id == null ? -1 : fanOut[id];
+    }
+
+    /**
+     * Returns the instability of a node, the ratio between its fan-out and its total coupling.
+     *
+     * @param name the package or type name.
+     * @return a value between <code>0</code> (stable) and <code>1</code> (unstable),
+     *         <code>-1</code> if unknown.
+     */
+    public double getInstability(String name) {
+        final Integer id = ids.get(name);
+        if(id == null) {
+            return -1;
+        }
+        return (double) fanOut[id] / (fanIn[id] + fanOut[id]);
+    }
+
+    /**
+     * @param limit the maximum number of returned names.
+     * @return the most used nodes, by decreasing fan-in.
+     */
+    public String[] getTopByFanIn(int limit) {
+        return top(fanIn, limit);
+    }
+
+    /**
+     * @param limit the maximum number of returned names.
+     * @return the nodes using most nodes, by decreasing fan-out.
+     */
+    public String[] getTopByFanOut(int limit) {
+        return top(fanOut, limit);
+    }
+
+    public String toString() {
+        return String.format(
+                "%s{level: %s, nodes: %d, cycles: %d, layers: %d}",
+                this.getClass().getName(), level, names.length, cycles.length, layersCount
+        );
+    }
+
+    private String[] top(final int[] metric, int limit) {
+        final List<Integer> sorted = new ArrayList<Integer>(names.length);
+        for(int n = 0; n < names.length; n++) {
+            sorted.add(n);
+        }
+        Collections.sort(sorted, new Comparator<Integer>() {
+            public int compare(Integer n1, Integer n2) {
+                final int diff = metric[n2] - metric[n1];
+                return diff != 0 ? diff : names[n1].compareTo(names[n2]);
+            }
+        });
+        final String[] result = new String[ Math.max(0, Math.min(limit, names.length)) ];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = names[ sorted.get(i) ];
+        }
+        return result;
+    }
+
+}
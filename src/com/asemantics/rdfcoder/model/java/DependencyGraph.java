@@ -0,0 +1,389 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.model.TripleIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Snapshot of the dependencies among the packages and among the top level types of a model,
+ * derived from the {@link TypeReference.Kind} relations: supertypes, attribute, parameter and return types
+ * and thrown exceptions. Nested types are collapsed into their top level type.
+ * Nodes are numbered with dense integers and the deduplicated edges are stored as adjacency arrays,
+ * the {@link #analyze(Level) analysis} of every level is computed once per snapshot.
+ *
+ * @see JavaQueryModel#getDependencyGraph()
+ */
+public class DependencyGraph {
+
+    /**
+     * The granularity of the graph nodes.
+     */
+    public enum Level {
+        PACKAGE,
+        CLASS
+    }
+
+    private static final String[] EMPTY = new String[0];
+
+    /**
+     * Modification count of the model at build time.
+     */
+    private final long modificationCount;
+
+    private final Graph packages;
+
+    private final Graph classes;
+
+    /**
+     * Analysis of every level, computed on demand.
+     */
+    private final DependencyAnalysis[] analyses = new DependencyAnalysis[Level.values().length];
+
+    /**
+     * Builds the dependency graph of a model.
+     *
+     * @param model the model to be scanned.
+     * @return the built graph.
+     */
+    public static DependencyGraph build(CodeModel model) {
+        final long modificationCount = model.getModificationCount();
+        final GraphBuilder packages = new GraphBuilder();
+        final GraphBuilder classes  = new GraphBuilder();
+        for(TypeReference.Kind kind : TypeReference.Kind.values()) {
+            final TripleIterator ti = model.searchTriples(CodeModel.ALL_MATCH, kind.getPredicate(), CodeModel.ALL_MATCH);
+            try {
+                while(ti.next()) {
+                    addDependency(kind, ti.getSubject(), ti.getObject(), packages, classes);
+                }
+            } finally {
+                ti.close();
+            }
+        }
+        return new DependencyGraph(modificationCount, packages.build(), classes.build());
+    }
+
+    private DependencyGraph(long modificationCount, Graph packages, Graph classes) {
+        this.modificationCount = modificationCount;
+        this.packages = packages;
+        this.classes  = classes;
+    }
+
+    /**
+     * @return the modification count of the model when the graph was built.
+     * @see com.asemantics.rdfcoder.model.CodeModel#getModificationCount()
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * @param level the graph level.
+     * @return the number of packages or types involved in at least one dependency.
+     */
+    public int getNodesCount(Level level) {
+        return getGraph(level).names.length;
+    }
+
+    /**
+     * @param level the graph level.
+     * @return the number of distinct dependencies.
+     */
+    public int getEdgesCount(Level level) {
+        return getGraph(level).targets.length;
+    }
+
+    /**
+     * Checks whether a package or type is involved in at least one dependency.
+     *
+     * @param level the graph level.
+     * @param name the dotted package or top level type name.
+     * @return <code>true</code> if the node exists.
+     */
+    public boolean contains(Level level, String name) {
+        return getGraph(level).ids.containsKey(name);
+    }
+
+    /**
+     * Returns the packages or types directly used by the given one.
+     *
+     * @param level the graph level.
+     * @param name the dotted package or top level type name.
+     * @return the sorted names of the dependencies.
+     */
+    public String[] getDependencies(Level level, String name) {
+        final Graph graph = getGraph(level);
+        return graph.toNames(name, graph.offsets, graph.targets);
+    }
+
+    /**
+     * Returns the packages or types directly using the given one.
+     *
+     * @param level the graph level.
+     * @param name the dotted package or top level type name.
+     * @return the sorted names of the dependents.
+     */
+    public String[] getDependents(Level level, String name) {
+        final Graph graph = getGraph(level);
+        return graph.toNames(name, graph.reverseOffsets, graph.reverseTargets);
+    }
+
+    /**
+     * Returns the cycles, layers and coupling metrics of a level,
+     * computing them with the common fork/join pool the first time.
+     *
+     * @param level the graph level.
+     * @return the analysis result.
+     */
+    public synchronized DependencyAnalysis analyze(Level level) {
+        DependencyAnalysis analysis = analyses[level.ordinal()];
+        if(analysis == null) {
+            analysis = analyze(level, ForkJoinPool.commonPool());
+            analyses[level.ordinal()] = analysis;
+        }
+        return analysis;
+    }
+
+    /**
+     * Computes the cycles, layers and coupling metrics of a level with the given pool.
+     *
+     * @param level the graph level.
+     * @param pool the pool running the strongly connected components detection.
+     * @return the analysis result.
+     */
+    public DependencyAnalysis analyze(Level level, ForkJoinPool pool) {
+        final Graph graph = getGraph(level);
+        final StronglyConnectedComponents components = StronglyConnectedComponents.compute(
+                graph.offsets, graph.targets, graph.reverseOffsets, graph.reverseTargets, pool
+        );
+        return new DependencyAnalysis(
+                level,
+                graph.names,
+                graph.ids,
+                graph.offsets,
+                graph.reverseOffsets,
+                graph.reverseTargets,
+                components.getComponents(),
+                components.getComponentsCount()
+        );
+    }
+
+    public String toString() {
+        return String.format(
+                "%s{packages: %d, package dependencies: %d, classes: %d, class dependencies: %d}",
+                this.getClass().getName(),
+                getNodesCount(Level.PACKAGE),
+                getEdgesCount(Level.PACKAGE),
+                getNodesCount(Level.CLASS),
+                getEdgesCount(Level.CLASS)
+        );
+    }
+
+    private Graph getGraph(Level level) {
+        return level == Level.PACKAGE ? packages : classes;
+    }
+
+    /**
+     * Adds the dependency between the top level types and packages of a referencing relation.
+     */
+    private static void addDependency(
+            TypeReference.Kind kind, String subject, String object, GraphBuilder packages, GraphBuilder classes
+    ) {
+        final Identifier referrer;
+        final Identifier type;
+        try {
+            referrer = IdentifierReader.readIdentifier(subject);
+            type     = IdentifierReader.readIdentifier(object);
+        } catch (IllegalArgumentException iae) {
+            // Not an entity reference.
+            return;
+        }
+        if( JavaCodeModel.PRIMITIVE_KEY.equals( type.getTailFragment().getQualifier() ) ) {
+            return;
+        }
+        final Identifier container = ReferenceIndex.toContainer(kind, ReferenceIndex.toMember(kind, referrer));
+        final int fromType = topLevelTypeIndex(container);
+        final int toType   = topLevelTypeIndex(type);
+        if(fromType == -1 || toType == -1) {
+            return;
+        }
+        classes.addEdge(
+                toName(container, 0, fromType + 1),
+                toName(type, 0, toType + 1)
+        );
+        packages.addEdge(
+                toName(container, 0, fromType),
+                toName(type, 0, toType)
+        );
+    }
+
+    /**
+     * Returns the index of the first fragment of an identifier which is not a package,
+     * <code>-1</code> if none.
+     */
+    private static int topLevelTypeIndex(Identifier identifier) {
+        for(int i = 0; i < identifier.size(); i++) {
+            if( ! JavaCodeModel.PACKAGE_KEY.equals( identifier.getFragment(i).getQualifier() ) ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the dotted name of a range of fragments.
+     */
+    private static String toName(Identifier identifier, int from, int to) {
+        final StringBuilder sb = new StringBuilder();
+        for(int i = from; i < to; i++) {
+            if(i > from) {
+                sb.append('.');
+            }
+            sb.append( identifier.getFragment(i).getFragment() );
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The nodes and the adjacency arrays of a level.
+     */
+    private static class Graph {
+
+        private final String[] names;
+
+        private final Map<String,Integer> ids;
+
+        /**
+         * Dependencies of node <i>n</i>: <code>targets[offsets[n] .. offsets[n + 1]]</code>.
+         */
+        private final int[] offsets;
+        private final int[] targets;
+
+        /**
+         * Dependents of node <i>n</i>: <code>reverseTargets[reverseOffsets[n] .. reverseOffsets[n + 1]]</code>.
+         */
+        private final int[] reverseOffsets;
+        private final int[] reverseTargets;
+
+        Graph(
+                String[] names,
+                Map<String,Integer> ids,
+                int[] offsets,
+                int[] targets,
+                int[] reverseOffsets,
+                int[] reverseTargets
+        ) {
+            this.names          = names;
+            this.ids            = ids;
+            this.offsets        = offsets;
+            this.targets        = targets;
+            this.reverseOffsets = reverseOffsets;
+            this.reverseTargets = reverseTargets;
+        }
+
+        String[] toNames(String name, int[] adjacencyOffsets, int[] adjacency) {
+            final Integer id = ids.get(name);
+            if(id == null) {
+                return EMPTY;
+            }
+            final String[] result = new String[ adjacencyOffsets[id + 1] - adjacencyOffsets[id] ];
+            for(int i = 0; i < result.length; i++) {
+                result[i] = names[ adjacency[adjacencyOffsets[id] + i] ];
+            }
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    /**
+     * Collects the nodes and the edges of a level, packing every edge in a <code>long</code>.
+     */
+    private static class GraphBuilder {
+
+        private final Map<String,Integer> ids = new HashMap<String,Integer>();
+
+        private final List<String> names = new ArrayList<String>();
+
+        private long[] edges = new long[256];
+
+        private int size;
+
+        void addEdge(String from, String to) {
+            if(from.equals(to)) {
+                return;
+            }
+            if(size == edges.length) {
+                edges = Arrays.copyOf(edges, size * 2);
+            }
+            edges[size++] = ((long) toId(from) << 32) | toId(to);
+        }
+
+        Graph build() {
+            // Sorting groups the edges by source and makes the duplicates adjacent.
+            Arrays.sort(edges, 0, size);
+            int distinct = 0;
+            for(int i = 0; i < size; i++) {
+                if(i == 0 || edges[i] != edges[i - 1]) {
+                    edges[distinct++] = edges[i];
+                }
+            }
+            final int nodes = names.size();
+            final int[] offsets        = new int[nodes + 1];
+            final int[] targets        = new int[distinct];
+            final int[] reverseOffsets = new int[nodes + 1];
+            final int[] reverseTargets = new int[distinct];
+            for(int i = 0; i < distinct; i++) {
+                offsets[ (int) (edges[i] >>> 32) + 1 ]++;
+                reverseOffsets[ (int) edges[i] + 1 ]++;
+                targets[i] = (int) edges[i];
+            }
+            for(int n = 1; n <= nodes; n++) {
+                offsets[n]        += offsets[n - 1];
+                reverseOffsets[n] += reverseOffsets[n - 1];
+            }
+            final int[] cursor = Arrays.copyOf(reverseOffsets, nodes);
+            for(int i = 0; i < distinct; i++) {
+                reverseTargets[ cursor[(int) edges[i]]++ ] = (int) (edges[i] >>> 32);
+            }
+            return new Graph(
+                    names.toArray( new String[nodes] ), ids, offsets, targets, reverseOffsets, reverseTargets
+            );
+        }
+
+        private int toId(String name) {
+            Integer id = ids.get(name);
+            if(id == null) {
+                id = names.size();
+                ids.put(name, id);
+                names.add(name);
+            }
+            return id;
+        }
+    }
+
+}
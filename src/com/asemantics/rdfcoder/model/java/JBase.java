@@ -36,9 +36,11 @@ public abstract class JBase {
     private JavaQueryModel queryModel;
 
     /**
-     * The parent container.
+     * The parent container, resolved on first access.
      */
-    protected JBase parent;
+    private JBase parent;
+
+    private boolean parentResolved;
 
     /**
      * The name of the container.
@@ -60,7 +62,6 @@ public abstract class JBase {
 
         queryModel = qm;
         this.identifier = identifier;
-        parent = makeHierarchy(qm, identifier);
     }
 
     public Identifier getIdentifier() {
@@ -82,7 +83,38 @@ public abstract class JBase {
      * @return the parent, <code>null</code> if none.
      */
     public JContainer getParent() {
-        return (JContainer) parent;
+        return (JContainer) getParentBase();
+    }
+
+    /**
+     * Returns the parent element, creating it on first access.
+     *
+     * @return the parent, <code>null</code> if none.
+     */
+    protected final JBase getParentBase() {
+        if( ! parentResolved ) {
+            try {
+                parent = makeHierarchy(queryModel, identifier);
+            } catch (QueryModelException qme) {
+                throw new IllegalStateException("Cannot resolve the parent of '" + identifier + "'.", qme);
+            }
+            parentResolved = true;
+        }
+        return parent;
+    }
+
+    /**
+     * Creates the whole parent hierarchy of this element.
+     *
+     * @throws QueryModelException if an element of the hierarchy cannot be created.
+     */
+    final void resolveHierarchy() throws QueryModelException {
+        JBase current = this;
+        while(current != null && ! current.parentResolved) {
+            current.parent = current.makeHierarchy(current.queryModel, current.identifier);
+            current.parentResolved = true;
+            current = current.parent;
+        }
     }
 
     /**
@@ -59,6 +59,7 @@ public class JClass extends JObject {
      * @return <code>true</code> if inner.
      */
     public boolean isInnerClass() {
+        final JBase parent = getParentBase();
         return parent instanceof JClass || parent instanceof JInterface;
     }
 
@@ -69,6 +70,7 @@ public class JClass extends JObject {
      * @return the class of the parent.
      */
     public JClass getParentClass() {
+        final JBase parent = getParentBase();
         if(parent instanceof JClass) {
             return (JClass) parent;
         }
@@ -83,6 +85,7 @@ public class JClass extends JObject {
      */
 
     public JPackage getParentPackage() {
+        final JBase parent = getParentBase();
         if(parent instanceof JPackage) {
             return (JPackage) parent;
         }
@@ -55,6 +55,7 @@ public class JInterface extends JObject {
      * @return <code>true</code> if inner.
      */
     public boolean isInnerInterface() {
+        final JBase parent = getParentBase();
         return parent instanceof JClass || parent instanceof JInterface;
     }
 
@@ -65,6 +66,7 @@ public class JInterface extends JObject {
      * @return the parent class.
      */
     public JClass getParentClass() {
+        final JBase parent = getParentBase();
         if(parent instanceof JClass) {
             return (JClass) parent;
         }
@@ -79,6 +81,7 @@ public class JInterface extends JObject {
      */
 
     public JPackage getParentPackage() {
+        final JBase parent = getParentBase();
         if(parent instanceof JPackage) {
             return (JPackage) parent;
         }
@@ -27,6 +27,8 @@ import com.asemantics.rdfcoder.parser.javadoc.MethodJavadoc;
 import com.asemantics.rdfcoder.parser.ObjectsTable;
 import org.apache.log4j.Logger;
 
+import java.util.Map;
+
 /**
  * A <code>CodeHandler</code> implementation used to perform debugging.
  */
@@ -276,6 +278,13 @@ public class JavaCodeHandlerDebugImpl implements JavaCodeHandler {
         return 0;
     }
 
+    public int replaceIdentifiersWithQualifiedTypes(Map<Identifier,Identifier> replacements) {
+        if(logger.isDebugEnabled()) {
+            logger.debug("replaceIdentifiersWithQualifiedTypes " + replacements);
+        }
+        return 0;
+    }
+
     private void printParameters(String[] names, JavaCodeModel.JType[] types) {
         if(logger.isDebugEnabled()) {
             for(int i = 0; i < names.length; i++) {
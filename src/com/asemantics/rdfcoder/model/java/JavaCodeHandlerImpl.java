@@ -25,7 +25,9 @@ import com.asemantics.rdfcoder.model.CodeModelBase;
 import com.asemantics.rdfcoder.model.ErrorListener;
 import com.asemantics.rdfcoder.model.Identifier;
 import com.asemantics.rdfcoder.model.IdentifierBuilder;
+import com.asemantics.rdfcoder.model.IdentifierIndex;
 import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.model.TripleBatch;
 import com.asemantics.rdfcoder.model.TripleIterator;
 import com.asemantics.rdfcoder.parser.ObjectsTable;
 import com.asemantics.rdfcoder.parser.javadoc.ClassJavadoc;
@@ -38,8 +40,13 @@ import org.apache.log4j.Logger;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 
 /**
@@ -67,6 +74,16 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
      */
     private final CodeModelBase model;
 
+    /**
+     * The index of the entities of the model, updated as triples are written.
+     */
+    private final IdentifierIndex identifierIndex;
+
+    /**
+     * The index of the type references of the model, updated as triples are written.
+     */
+    private final ReferenceIndex referenceIndex;
+
     /**
      * The library name.
      */
@@ -102,6 +119,27 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
      */
     private boolean compilationUnitStarted = false;
 
+    /**
+     * Collects the triples generated inside a compilation unit.
+     */
+    private final TripleBatch compilationUnitBatch = new TripleBatch();
+
+    /**
+     * If <code>true</code> the triples referring temporary identifiers are
+     * kept out of the model until the identifiers are resolved.
+     */
+    private boolean deferredTypeResolution = false;
+
+    /**
+     * Temporary identifiers generated in deferred type resolution mode and not yet resolved.
+     */
+    private final Set<String> pendingTempIdentifiers = new HashSet<String>();
+
+    /**
+     * Collects the triples referring pending temporary identifiers.
+     */
+    private TripleBatch deferredBatch = new TripleBatch();
+
     /**
      * The list of error listeners.
      */
@@ -129,6 +167,8 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
             throw new NullPointerException();
         }
         model           = cmb;
+        identifierIndex = cmb.getIdentifierIndex();
+        referenceIndex  = cmb.getReferenceIndex();
         containersStack = new Stack<Identifier>();
     }
 
@@ -139,7 +179,55 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
         return model;
     }
 
+    /**
+     * @return <code>true</code> if deferred type resolution is enabled.
+     */
+    public boolean isDeferredTypeResolution() {
+        return deferredTypeResolution;
+    }
+
+    /**
+     * Enables or disables the deferred type resolution. When enabled, the triples
+     * referring an identifier generated by {@link #generateTempUniqueIdentifier()}
+     * are buffered and written to the model only once
+     * {@link #replaceIdentifiersWithQualifiedTypes(java.util.Map)} provides the final type,
+     * so the model never contains temporary identifiers.
+     * Disabling it writes the pending triples as they are.
+     *
+     * @param f
+     */
+    public void setDeferredTypeResolution(boolean f) {
+        if( ! f ) {
+            flushDeferredTriples();
+        }
+        deferredTypeResolution = f;
+    }
+
+    /**
+     * @return the number of triples waiting for type resolution.
+     */
+    public int getDeferredTriplesCount() {
+        return deferredBatch.size();
+    }
+
+    /**
+     * Writes to the model the triples waiting for type resolution,
+     * with their temporary identifiers.
+     */
+    public void flushDeferredTriples() {
+        pendingTempIdentifiers.clear();
+        if( deferredBatch.isEmpty() ) {
+            return;
+        }
+        try {
+            addTriplesToModel(deferredBatch);
+        } finally {
+            deferredBatch.clear();
+        }
+    }
+
     protected void checkLibraryName(String name) {
+        flushCompilationUnitBatch();
         TripleIterator ti = model.searchTriples(JavaCodeModel.ASSET, JavaCodeModel.CONTAINS_LIBRARY, CodeModel.ALL_MATCH);
         final String targetLibraryName = CodeModelBase.prefixFullyQualifiedName(JavaCodeModel.ASSET_PREFIX, name);
         try {
@@ -162,6 +250,13 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
         }
 
         checkLibraryName(libraryName);
+        flushDeferredTriples();
+        if( ! identifierIndex.isSynchronized(model) ) {
+            identifierIndex.rebuild(model, JavaCodeModel.INDEXED_CLASSES);
+        }
+        if( ! referenceIndex.isSynchronized(model) ) {
+            referenceIndex.rebuild(model);
+        }
 
         this.libraryName     = libraryName;
         this.libraryLocation = libraryLocation;
@@ -187,12 +282,13 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
             throw new CodeHandlerException("There are some packages opened but not closed.");
         }
         parsingStarted = false;
+        flushCompilationUnitBatch();
 
         String prefixedlibraryName = CodeModelBase.prefixFullyQualifiedName(JavaCodeModel.ASSET_PREFIX, libraryName);
         String formattedDate = formatLibraryDatetime( new Date() );        
-        model.addTriple(JavaCodeModel.ASSET, JavaCodeModel.CONTAINS_LIBRARY,  prefixedlibraryName);
-        model.addTripleLiteral(prefixedlibraryName, CodeModelBase.LIBRARY_LOCATION, libraryLocation);
-        model.addTripleLiteral(prefixedlibraryName, CodeModelBase.LIBRARY_DATETIME, formattedDate);
+        addTriple(JavaCodeModel.ASSET, JavaCodeModel.CONTAINS_LIBRARY,  prefixedlibraryName);
+        addTripleLiteral(prefixedlibraryName, CodeModelBase.LIBRARY_LOCATION, libraryLocation);
+        addTripleLiteral(prefixedlibraryName, CodeModelBase.LIBRARY_DATETIME, formattedDate);
     }
 
     public void startCompilationUnit(String identifier) {
@@ -207,6 +303,7 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
              throw new CodeHandlerException("Ended compilation unit without start it first.");
         }
         compilationUnitStarted = false;
+        flushCompilationUnitBatch();
     }
 
     public void startPackage(Identifier pathToPackage) {
@@ -235,12 +332,12 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
 
         checkPackageDiscrepancy(pathToInterface);
 
-        model.addTriple(pathToInterfaceIdentifier, CodeModel.TYPE, JavaCodeModel.JINTERFACE);
+        addTriple(pathToInterfaceIdentifier, CodeModel.TYPE, JavaCodeModel.JINTERFACE);
         Identifier parentClass = peekContainer();
-        model.addTriple(parentClass.getIdentifier(), JavaCodeModel.CONTAINS_INTERFACE, pathToInterfaceIdentifier);
+        addTriple(parentClass.getIdentifier(), JavaCodeModel.CONTAINS_INTERFACE, pathToInterfaceIdentifier);
         if(extendedInterfaces != null) {
             for(int i = 0; i < extendedInterfaces.length; i++) {
-                model.addTriple(
+                addTriple(
                         pathToInterfaceIdentifier,
                         JavaCodeModel.EXTENDS_INT,
                         extendedInterfaces[i].getIdentifier()
@@ -273,15 +370,15 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
 
         checkPackageDiscrepancy(pathToClass);
 
-        model.addTriple(pathToClassIdentifier, CodeModel.TYPE, JavaCodeModel.JCLASS);
-        model.addTripleLiteral(
+        addTriple(pathToClassIdentifier, CodeModel.TYPE, JavaCodeModel.JCLASS);
+        addTripleLiteral(
                 pathToClassIdentifier,
                 JavaCodeModel.HAS_MODIFIERS,
                 JavaCodeModel.JModifier.toByte(modifiers).toString()
         );
-        model.addTripleLiteral(pathToClassIdentifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
+        addTripleLiteral(pathToClassIdentifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
         if(extededClass != null) {
-            model.addTriple(
+            addTriple(
                     pathToClassIdentifier,
                     JavaCodeModel.EXTENDS_CLASS,
                     extededClass.getIdentifier()
@@ -289,7 +386,7 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
         }
         if(implementedInterfaces != null) {
             for(int i = 0; i < implementedInterfaces.length; i++) {
-                model.addTriple(
+                addTriple(
                         pathToClassIdentifier,
                         JavaCodeModel.IMPLEMENTS_INT,
                         implementedInterfaces[i].getIdentifier()
@@ -297,7 +394,7 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
             }
         }
         Identifier parentClass = peekContainer();
-        model.addTriple(parentClass.getIdentifier(), JavaCodeModel.CONTAINS_CLASS, pathToClassIdentifier);
+        addTriple(parentClass.getIdentifier(), JavaCodeModel.CONTAINS_CLASS, pathToClassIdentifier);
         pushInterfaceOrClass(pathToClass);
     }
 
@@ -323,22 +420,22 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
 
         checkPackageDiscrepancy(pathToEnumeration);
 
-        model.addTriple(pathToEnumerationIdentifier, CodeModel.TYPE, JavaCodeModel.JENUMERATION);
-        model.addTripleLiteral(
+        addTriple(pathToEnumerationIdentifier, CodeModel.TYPE, JavaCodeModel.JENUMERATION);
+        addTripleLiteral(
                 pathToEnumerationIdentifier,
                 JavaCodeModel.HAS_MODIFIERS,
                 JavaCodeModel.JModifier.toByte(modifiers).toString()
         );
-        model.addTripleLiteral(pathToEnumerationIdentifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
+        addTripleLiteral(pathToEnumerationIdentifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
         for(int i = 0; i < elements.length; i++) {
-            model.addTriple(
+            addTriple(
                 pathToEnumerationIdentifier,
                 JavaCodeModel.CONTAINS_ELEMENT,
                 IdentifierBuilder.create().pushFragment( elements[i], JavaCodeModel.ELEMENT_KEY).build().getIdentifier()
             );
         }
         Identifier parentClass = peekContainer();
-        model.addTriple(parentClass.getIdentifier(), JavaCodeModel.CONTAINS_ENUMERATION, pathToEnumerationIdentifier);
+        addTriple(parentClass.getIdentifier(), JavaCodeModel.CONTAINS_ENUMERATION, pathToEnumerationIdentifier);
         pushInterfaceOrClass(pathToEnumeration);
     }
 
@@ -365,17 +462,17 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
         }
 
         final String identifier = pathToAttribute.getIdentifier();
-        model.addTriple(identifier, CodeModel.TYPE, JavaCodeModel.JATTRIBUTE);
-        model.addTripleLiteral(
+        addTriple(identifier, CodeModel.TYPE, JavaCodeModel.JATTRIBUTE);
+        addTripleLiteral(
                 identifier, JavaCodeModel.HAS_MODIFIERS, JavaCodeModel.JModifier.toByte(modifiers).toString()
         );
-        model.addTripleLiteral(identifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
-        model.addTripleLiteral(identifier, JavaCodeModel.ATTRIBUTE_TYPE,  type.getIdentifier().getIdentifier());
+        addTripleLiteral(identifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
+        addTripleLiteral(identifier, JavaCodeModel.ATTRIBUTE_TYPE,  type.getIdentifier().getIdentifier());
         if(value != null) { // Default value defined.
-            model.addTripleLiteral(identifier, JavaCodeModel.ATTRIBUTE_VALUE, value);
+            addTripleLiteral(identifier, JavaCodeModel.ATTRIBUTE_VALUE, value);
         }
         Identifier parentClass = peekContainer();
-        model.addTriple(parentClass.getIdentifier(), JavaCodeModel.CONTAINS_ATTRIBUTE, identifier);
+        addTriple(parentClass.getIdentifier(), JavaCodeModel.CONTAINS_ATTRIBUTE, identifier);
     }
 
     public void constructor(
@@ -434,38 +531,38 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
         final String identifier = pathToMethod.getIdentifier();
 
         // Creating structure.
-        model.addTriple(identifier, CodeModel.TYPE, JavaCodeModel.JMETHOD);
-        model.addTripleLiteral(
+        addTriple(identifier, CodeModel.TYPE, JavaCodeModel.JMETHOD);
+        addTripleLiteral(
                 identifier,
                 JavaCodeModel.HAS_MODIFIERS,
                 JavaCodeModel.JModifier.toByte(modifiers).toString()
         );
-        model.addTripleLiteral(identifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
+        addTripleLiteral(identifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
 //        String signature = JavaCodeModel.SIGNATURE_PREFIX + generateSignatureIdentifier(parameterTypes);
         String signature = IdentifierBuilder
                 .create(pathToMethod)
                 .pushFragment( "_" + signatureHashCode, JavaCodeModel.SIGNATURE_KEY)
                 .build()
                 .getIdentifier();
-        model.addTriple(signature, CodeModel.TYPE, JavaCodeModel.JSIGNATURE);
+        addTriple(signature, CodeModel.TYPE, JavaCodeModel.JSIGNATURE);
         String qualifiedParameter; 
         for(int i = 0; i < paramNamesSize; i++) {
             qualifiedParameter = qualifyParameterName(pathToMethod, parameterNames[i]);
-            model.addTriple( qualifiedParameter, CodeModel.TYPE, JavaCodeModel.JPARAMETER);
-            model.addTripleLiteral(
+            addTriple( qualifiedParameter, CodeModel.TYPE, JavaCodeModel.JPARAMETER);
+            addTripleLiteral(
                     qualifiedParameter,
                     JavaCodeModel.PARAMETER_TYPE,
                     parameterTypes[i].getIdentifier().getIdentifier()
             );
-            model.addTriple( signature, JavaCodeModel.CONTAINS_PARAMETER, qualifiedParameter);
+            addTriple( signature, JavaCodeModel.CONTAINS_PARAMETER, qualifiedParameter);
         }
-        model.addTripleLiteral(signature, JavaCodeModel.RETURN_TYPE, returnType.getIdentifier().getIdentifier());
-        model.addTriple(identifier, JavaCodeModel.CONTAINS_SIGNATURE, signature);
+        addTripleLiteral(signature, JavaCodeModel.RETURN_TYPE, returnType.getIdentifier().getIdentifier());
+        addTriple(identifier, JavaCodeModel.CONTAINS_SIGNATURE, signature);
         for(int i = 0; i < exceptionsSize; i++) {
-            model.addTriple(identifier, JavaCodeModel.THROWS, exceptions[i].getIdentifier().getIdentifier());
+            addTriple(identifier, JavaCodeModel.THROWS, exceptions[i].getIdentifier().getIdentifier());
         }
         Identifier parentContainer = peekContainer();
-        model.addTriple(parentContainer.getIdentifier(), JavaCodeModel.CONTAINS_METHOD, identifier);
+        addTriple(parentContainer.getIdentifier(), JavaCodeModel.CONTAINS_METHOD, identifier);
     }
 
     public void parseError(String location, String description) {
@@ -480,6 +577,7 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
         if(objectsTable == null) {
             throw new CodeHandlerException("objectsTable cannot be null.");
         }
+        flushCompilationUnitBatch();
 
         // Preloading classes.
         TripleIterator t1 = model.searchTriples(
@@ -584,11 +682,39 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
     }
 
     public Identifier generateTempUniqueIdentifier() {
-        return model.generateTempUniqueIdentifier();
+        final Identifier tempIdentifier = model.generateTempUniqueIdentifier();
+        if(deferredTypeResolution) {
+            pendingTempIdentifiers.add( tempIdentifier.getIdentifier() );
+        }
+        return tempIdentifier;
     }
 
     public int replaceIdentifierWithQualifiedType(Identifier identifier, Identifier qualifiedType) {
-        return model.replaceIdentifierWithQualifiedType(identifier, qualifiedType);
+        return replaceIdentifiersWithQualifiedTypes( Collections.singletonMap(identifier, qualifiedType) );
+    }
+
+    public int replaceIdentifiersWithQualifiedTypes(Map<Identifier,Identifier> replacements) {
+        flushCompilationUnitBatch();
+        if( pendingTempIdentifiers.isEmpty() ) {
+            return model.replaceIdentifiersWithQualifiedTypes(replacements);
+        }
+
+        // Pending identifiers are resolved in the buffer, the other ones in the model.
+        final Map<String,String> deferredReplacements = new HashMap<String,String>();
+        final Map<Identifier,Identifier> modelReplacements = new HashMap<Identifier,Identifier>();
+        for(Map.Entry<Identifier,Identifier> entry : replacements.entrySet()) {
+            final String tempIdentifier = entry.getKey().getIdentifier();
+            if( pendingTempIdentifiers.remove(tempIdentifier) ) {
+                deferredReplacements.put( tempIdentifier, entry.getValue().getIdentifier() );
+            } else {
+                modelReplacements.put( entry.getKey(), entry.getValue() );
+            }
+        }
+        int effectedTriples = resolveDeferredTriples(deferredReplacements);
+        if( ! modelReplacements.isEmpty() ) {
+            effectedTriples += model.replaceIdentifiersWithQualifiedTypes(modelReplacements);
+        }
+        return effectedTriples;
     }
 
     /**
@@ -613,9 +739,9 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
         Identifier current = cp;
         do {
             currentStr = current.getIdentifier();
-            model.addTriple(currentStr, CodeModel.TYPE, JavaCodeModel.JPACKAGE);
+            addTriple(currentStr, CodeModel.TYPE, JavaCodeModel.JPACKAGE);
             parent = current.getParent();
-            model.addTriple(parent.getIdentifier(), JavaCodeModel.CONTAINS_PACKAGE, currentStr);
+            addTriple(parent.getIdentifier(), JavaCodeModel.CONTAINS_PACKAGE, currentStr);
             current = parent;
         } while (current.size() > 1);
     }
@@ -707,31 +833,197 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
         int exceptionsSize = exceptions == null ? 0 : exceptions.length;
 
         String classIdentifier = pathToClass.getIdentifier();
-        String identifier = IdentifierBuilder
+        Identifier pathToConstructor = IdentifierBuilder
                 .create(pathToClass)
-                .pushFragment( "_" + signatureHashCode, JavaCodeModel.CONSTRUCTOR_KEY).build().getIdentifier();
-        model.addTriple(identifier, CodeModel.TYPE, JavaCodeModel.JCONSTRUCTOR);
-        model.addTripleLiteral(
+                .pushFragment( "_" + signatureHashCode, JavaCodeModel.CONSTRUCTOR_KEY).build();
+        String identifier = pathToConstructor.getIdentifier();
+        addTriple(identifier, CodeModel.TYPE, JavaCodeModel.JCONSTRUCTOR);
+        addTripleLiteral(
                 identifier,
                 JavaCodeModel.HAS_MODIFIERS,
                 JavaCodeModel.JModifier.toByte(modifiers).toString()
         );
-        model.addTripleLiteral(identifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
+        addTripleLiteral(identifier, JavaCodeModel.HAS_VISIBILITY, visibility.getIdentifier());
         String qualifiedParameter;
         for(int i = 0; i < paramNamesSize; i++) {
             qualifiedParameter = qualifyParameterName( pathToClass, parameterNames[i]);
-            model.addTriple( qualifiedParameter, CodeModel.TYPE, JavaCodeModel.JPARAMETER);
-            model.addTripleLiteral(
+            addTriple( qualifiedParameter, CodeModel.TYPE, JavaCodeModel.JPARAMETER);
+            addTripleLiteral(
                     qualifiedParameter,
                     JavaCodeModel.PARAMETER_TYPE,
                     parameterTypes[i].getIdentifier().getIdentifier()
             );
-            model.addTriple( identifier, JavaCodeModel.CONTAINS_PARAMETER, qualifiedParameter);
+            addTriple( identifier, JavaCodeModel.CONTAINS_PARAMETER, qualifiedParameter);
         }
         for(int i = 0; i < exceptionsSize; i++) {
-            model.addTriple(identifier, JavaCodeModel.THROWS, exceptions[i].getIdentifier().getIdentifier());
+            addTriple(identifier, JavaCodeModel.THROWS, exceptions[i].getIdentifier().getIdentifier());
         }
-        model.addTriple(classIdentifier, JavaCodeModel.CONTAINS_CONSTRUCTOR, identifier);
+        addTriple(classIdentifier, JavaCodeModel.CONTAINS_CONSTRUCTOR, identifier);
+    }
+
+    /**
+     * Adds a triple to the compilation unit batch if inside a compilation unit,
+     * directly to the model otherwise.
+     */
+    private void addTriple(String subject, String predicate, String object) {
+        if( isPending(subject) || isPending(object) ) {
+            deferredBatch.addTriple(subject, predicate, object);
+        } else if(compilationUnitStarted) {
+            compilationUnitBatch.addTriple(subject, predicate, object);
+        } else {
+            final boolean synchronizedIndex = referenceIndex.isSynchronized(model);
+            final boolean synchronizedIdentifiers = identifierIndex.isSynchronized(model);
+            model.addTriple(subject, predicate, object);
+            referenceIndex.update(model, synchronizedIndex, subject, predicate, object);
+            identifierIndex.update(
+                    model, synchronizedIdentifiers, subject, predicate, object, JavaCodeModel.INDEXED_CLASSES
+            );
+        }
+    }
+
+    /**
+     * @see #addTriple(String, String, String)
+     */
+    private void addTripleLiteral(String subject, String predicate, String literal) {
+        if( isPending(subject) || isPending(literal) ) {
+            deferredBatch.addTripleLiteral(subject, predicate, literal);
+        } else if(compilationUnitStarted) {
+            compilationUnitBatch.addTripleLiteral(subject, predicate, literal);
+        } else {
+            final boolean synchronizedIndex = referenceIndex.isSynchronized(model);
+            final boolean synchronizedIdentifiers = identifierIndex.isSynchronized(model);
+            model.addTripleLiteral(subject, predicate, literal);
+            referenceIndex.update(model, synchronizedIndex, subject, predicate, literal);
+            identifierIndex.update(
+                    model, synchronizedIdentifiers, subject, predicate, literal, JavaCodeModel.INDEXED_CLASSES
+            );
+        }
+    }
+
+    /**
+     * @see #addTriple(String, String, String)
+     */
+    private void addTripleCollection(String subject, String predicate, String[] values) {
+        if( isPending(subject) || isPending(values) ) {
+            deferredBatch.addTripleCollection(subject, predicate, values);
+        } else if(compilationUnitStarted) {
+            compilationUnitBatch.addTripleCollection(subject, predicate, values);
+        } else {
+            model.addTripleCollection(subject, predicate, values);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the value is a temporary identifier waiting for resolution.
+     */
+    private boolean isPending(String value) {
+        return ! pendingTempIdentifiers.isEmpty() && pendingTempIdentifiers.contains(value);
+    }
+
+    /**
+     * @see #isPending(String)
+     */
+    private boolean isPending(String[] values) {
+        if( pendingTempIdentifiers.isEmpty() ) {
+            return false;
+        }
+        for(String value : values) {
+            if( pendingTempIdentifiers.contains(value) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rewrites the buffered triples with the given replacements and adds to the model
+     * the ones no longer referring pending identifiers.
+     *
+     * @param replacements map of temporary identifiers to qualified types.
+     * @return the number of rewritten triples.
+     */
+    private int resolveDeferredTriples(Map<String,String> replacements) {
+        if( replacements.isEmpty() ) {
+            return 0;
+        }
+        final TripleBatch resolved  = new TripleBatch();
+        final TripleBatch remaining = new TripleBatch();
+        int effectedTriples = 0;
+        for(int i = 0; i < deferredBatch.size(); i++) {
+            final String subject   = deferredBatch.getSubject(i);
+            final String predicate = deferredBatch.getPredicate(i);
+            final String newSubject = replace(replacements, subject);
+            boolean effected = newSubject != subject;
+            switch( deferredBatch.getKind(i) ) {
+                case RESOURCE: {
+                    final String object = deferredBatch.getObject(i);
+                    final String newObject = replace(replacements, object);
+                    effected |= newObject != object;
+                    final TripleBatch target = isPending(newSubject) || isPending(newObject) ? remaining : resolved;
+                    target.addTriple(newSubject, predicate, newObject);
+                    break;
+                }
+                case LITERAL: {
+                    final String literal = deferredBatch.getObject(i);
+                    final String newLiteral = replace(replacements, literal);
+                    effected |= newLiteral != literal;
+                    final TripleBatch target = isPending(newSubject) || isPending(newLiteral) ? remaining : resolved;
+                    target.addTripleLiteral(newSubject, predicate, newLiteral);
+                    break;
+                }
+                case COLLECTION: {
+                    final String[] values = deferredBatch.getValues(i);
+                    final String[] newValues = new String[values.length];
+                    for(int v = 0; v < values.length; v++) {
+                        newValues[v] = replace(replacements, values[v]);
+                        effected |= newValues[v] != values[v];
+                    }
+                    final TripleBatch target = isPending(newSubject) || isPending(newValues) ? remaining : resolved;
+                    target.addTripleCollection(newSubject, predicate, newValues);
+                    break;
+                }
+                default:
+                    throw new IllegalStateException();
+            }
+            if(effected) {
+                effectedTriples++;
+            }
+        }
+        deferredBatch = remaining;
+        if( ! resolved.isEmpty() ) {
+            addTriplesToModel(resolved);
+        }
+        return effectedTriples;
+    }
+
+    private static String replace(Map<String,String> replacements, String value) {
+        final String replacement = replacements.get(value);
+        return replacement == null ? value : replacement;
+    }
+
+    /**
+     * Commits the triples collected in the current compilation unit to the model.
+     */
+    private void flushCompilationUnitBatch() {
+        if( compilationUnitBatch.isEmpty() ) {
+            return;
+        }
+        try {
+            addTriplesToModel(compilationUnitBatch);
+        } finally {
+            compilationUnitBatch.clear();
+        }
+    }
+
+    /**
+     * Writes a batch of triples to the model, updating the reference and identifier indexes.
+     */
+    private void addTriplesToModel(TripleBatch batch) {
+        final boolean synchronizedIndex = referenceIndex.isSynchronized(model);
+        final boolean synchronizedIdentifiers = identifierIndex.isSynchronized(model);
+        model.addTriples(batch);
+        referenceIndex.update(model, synchronizedIndex, batch);
+        identifierIndex.update(model, synchronizedIdentifiers, batch, JavaCodeModel.INDEXED_CLASSES);
     }
 
     /**
@@ -827,14 +1119,14 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
         final String identifier = javadocEntry.getIdentifier().getIdentifier();
         String shortDescription = javadocEntry.getShortDescription();
         if(shortDescription.length() > 0)
-            model.addTripleLiteral(
+            addTripleLiteral(
                     identifier,
                     JavaCodeModel.HAS_SHORT_COMMENT,
                     shortDescription
             );
         String longDescription = javadocEntry.getLongDescription();
         if(longDescription.length() > 0)
-            model.addTripleLiteral(
+            addTripleLiteral(
                     identifier,
                     JavaCodeModel.HAS_LONG_COMMENT,
                     longDescription
@@ -845,16 +1137,16 @@ public class JavaCodeHandlerImpl implements JavaCodeHandler {
                     .pushFragment(attributeName, JavaCodeModel.JDOC_ATTRIBUTE_PREFIX)
                     .build()
                     .getIdentifier();
-            model.addTriple(identifier, JavaCodeModel.HAS_JDOC_ATTR, attributeId);
-            model.addTripleCollection(
+            addTriple(identifier, JavaCodeModel.HAS_JDOC_ATTR, attributeId);
+            addTripleCollection(
                     attributeId,
                     JavaCodeModel.HAS_JDOC_ATTR_VALUE,
                     javadocEntry.getAttributeValues(attributeName)
             );
         }
 
-        model.addTripleLiteral(identifier, JavaCodeModel.HAS_ROW   , Integer.toString(javadocEntry.getRow()));
-        model.addTripleLiteral(identifier, JavaCodeModel.HAS_COLUMN, Integer.toString(javadocEntry.getCol()));
+        addTripleLiteral(identifier, JavaCodeModel.HAS_ROW   , Integer.toString(javadocEntry.getRow()));
+        addTripleLiteral(identifier, JavaCodeModel.HAS_COLUMN, Integer.toString(javadocEntry.getCol()));
     }
 
 }
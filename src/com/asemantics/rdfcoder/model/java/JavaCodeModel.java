@@ -25,7 +25,11 @@ import com.asemantics.rdfcoder.model.IdentifierReader;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This abstract class describes a <i>Java Code Model</i>.
@@ -647,6 +651,24 @@ public abstract class JavaCodeModel extends CodeModelBase {
 
     public static final String JPARAMETER   = toClassURI(PARAMETER_KEY);
 
+    /**
+     * Classes of the entities kept in the {@link com.asemantics.rdfcoder.model.IdentifierIndex}.
+     */
+    public static final Set<String> INDEXED_CLASSES = Collections.unmodifiableSet(
+            new HashSet<String>(
+                    Arrays.asList(JPACKAGE, JINTERFACE, JCLASS, JATTRIBUTE, JCONSTRUCTOR, JMETHOD, JENUMERATION)
+            )
+    );
+
+    /**
+     * Qualifiers of the entities searchable by name in the {@link com.asemantics.rdfcoder.model.SymbolIndex}.
+     */
+    public static final Set<String> SYMBOL_QUALIFIERS = Collections.unmodifiableSet(
+            new HashSet<String>(
+                    Arrays.asList(PACKAGE_KEY, INTERFACE_KEY, CLASS_KEY, ATTRIBUTE_KEY, METHOD_KEY, ENUMERATION_KEY)
+            )
+    );
+
     /* END:   Vocabulary classes. */
 
 
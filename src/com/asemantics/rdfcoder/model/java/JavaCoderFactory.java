@@ -65,7 +65,7 @@ public abstract class JavaCoderFactory implements CoderFactory<JavaCodeHandler>
      */
     public static final JPackage createJPackage(JavaQueryModel qm, Identifier identifier)
     throws QueryModelException {
-        return new JPackage(qm, identifier);
+        return withHierarchy( new JPackage(qm, identifier) );
     }
 
    /**
@@ -74,9 +74,9 @@ public abstract class JavaCoderFactory implements CoderFactory<JavaCodeHandler>
      * @param pathToInterface
      * @return the created object.
      */
-    public static JInterface createJInterface(JavaQueryModelImpl qm, Identifier pathToInterface)
+    public static JInterface createJInterface(JavaQueryModel qm, Identifier pathToInterface)
    throws QueryModelException {
-        return new JInterface(qm, pathToInterface);
+        return withHierarchy( new JInterface(qm, pathToInterface) );
     }
 
     /**
@@ -87,7 +87,7 @@ public abstract class JavaCoderFactory implements CoderFactory<JavaCodeHandler>
      */
     public static final JClass createJClass(JavaQueryModel qm, Identifier identifier)
     throws QueryModelException {
-        return new JClass(qm, identifier);
+        return withHierarchy( new JClass(qm, identifier) );
     }
 
     /**
@@ -98,7 +98,7 @@ public abstract class JavaCoderFactory implements CoderFactory<JavaCodeHandler>
      */
     public static final JAttribute createJAttribute(JavaQueryModel qm, Identifier pathToAttribute)
     throws QueryModelException {
-        return new JAttribute(qm, pathToAttribute);
+        return withHierarchy( new JAttribute(qm, pathToAttribute) );
     }
 
     /**
@@ -109,7 +109,7 @@ public abstract class JavaCoderFactory implements CoderFactory<JavaCodeHandler>
      */
     public static final JMethod createJMethod(JavaQueryModel qm, Identifier pathToMethod)
     throws QueryModelException {
-        return new JMethod(qm, pathToMethod);
+        return withHierarchy( new JMethod(qm, pathToMethod) );
     }
 
     /**
@@ -119,7 +119,7 @@ public abstract class JavaCoderFactory implements CoderFactory<JavaCodeHandler>
      */
     public static final JEnumeration createJEnumeration(JavaQueryModel qm, Identifier pathToEnumeration)
     throws QueryModelException {
-        return new JEnumeration(qm, pathToEnumeration);
+        return withHierarchy( new JEnumeration(qm, pathToEnumeration) );
     }
 
     /**
@@ -136,12 +136,59 @@ public abstract class JavaCoderFactory implements CoderFactory<JavaCodeHandler>
              Identifier pathToSignature,
              JavaCodeModel.JType[] parameterTypes,
              JavaCodeModel.JType returnType
+    ) throws QueryModelException {
+        return withHierarchy( new JSignature(qm, pathToSignature, parameterTypes, returnType) );
+    }
+
+    /* BEGIN: Trusted construction, for identifiers read from the model. */
+
+    /*
+     * The trusted methods don't build the parent hierarchy, it is resolved on first access.
+     */
+
+    static JPackage createTrustedJPackage(JavaQueryModel qm, Identifier identifier)
+    throws QueryModelException {
+        return new JPackage(qm, identifier);
+    }
+
+    static JInterface createTrustedJInterface(JavaQueryModel qm, Identifier pathToInterface)
+    throws QueryModelException {
+        return new JInterface(qm, pathToInterface);
+    }
+
+    static JClass createTrustedJClass(JavaQueryModel qm, Identifier pathToClass)
+    throws QueryModelException {
+        return new JClass(qm, pathToClass);
+    }
+
+    static JAttribute createTrustedJAttribute(JavaQueryModel qm, Identifier pathToAttribute)
+    throws QueryModelException {
+        return new JAttribute(qm, pathToAttribute);
+    }
+
+    static JMethod createTrustedJMethod(JavaQueryModel qm, Identifier pathToMethod)
+    throws QueryModelException {
+        return new JMethod(qm, pathToMethod);
+    }
+
+    static JEnumeration createTrustedJEnumeration(JavaQueryModel qm, Identifier pathToEnumeration)
+    throws QueryModelException {
+        return new JEnumeration(qm, pathToEnumeration);
+    }
+
+    static JSignature createTrustedJSignature(
+             JavaQueryModel qm,
+             Identifier pathToSignature,
+             JavaCodeModel.JType[] parameterTypes,
+             JavaCodeModel.JType returnType
     ) throws QueryModelException {
         return new JSignature(qm, pathToSignature, parameterTypes, returnType);
     }
 
+    /* END: Trusted construction. */
+
     /**
-     * Creates a base object over an RDF class.
+     * Creates a base object over an RDF class, the object parent is resolved lazily.
      *
      * @param qm the query manager used to perform the processing.
      * @param entity the entity that must be created.
@@ -152,18 +199,29 @@ public abstract class JavaCoderFactory implements CoderFactory<JavaCodeHandler>
     throws QueryModelException {
         final String rdfClass = entity.getStrongestQualifier();
         if(JavaCodeModel.PACKAGE_KEY.equals(rdfClass)) {
-            return createJPackage(qm, entity);
+            return createTrustedJPackage(qm, entity);
         } else if( JavaCodeModel.CLASS_KEY.equals(rdfClass) ) {
-            return createJClass(qm, entity);
+            return createTrustedJClass(qm, entity);
+        } else if( JavaCodeModel.INTERFACE_KEY.equals(rdfClass) ) {
+            return createTrustedJInterface(qm, entity);
         } else if( JavaCodeModel.ATTRIBUTE_KEY.equals(rdfClass)) {
-            return createJAttribute(qm, entity);
+            return createTrustedJAttribute(qm, entity);
         } else if( JavaCodeModel.METHOD_KEY.equals(rdfClass) ) {
-            return createJMethod(qm, entity);
+            return createTrustedJMethod(qm, entity);
         } else if( JavaCodeModel.ENUMERATION_KEY.equals(rdfClass) ) {
-            return createJEnumeration(qm, entity);
+            return createTrustedJEnumeration(qm, entity);
         } else {
             throw new IllegalArgumentException( String.format("Unknown rdfClass: '%s'", rdfClass) );
         }
     }
 
+    /**
+     * Resolves the whole parent hierarchy of an entity created from an external identifier,
+     * reporting invalid paths at creation time.
+     */
+    private static <T extends JBase> T withHierarchy(T entity) throws QueryModelException {
+        entity.resolveHierarchy();
+        return entity;
+    }
+
 }
@@ -19,6 +19,7 @@
 package com.asemantics.rdfcoder.model.java;
 
 import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.ModelStatistics;
 import com.asemantics.rdfcoder.model.QueryModel;
 import com.asemantics.rdfcoder.model.QueryModelException;
 
@@ -284,4 +285,206 @@ public interface JavaQueryModel extends QueryModel {
      */
     JavaCodeModel.JModifier[] getModifiers(Identifier pathToEntity) throws QueryModelException;
 
+    /**
+     * Returns the entities directly contained in the given path.
+     *
+     * @param path the container path, i.e. a package or a class.
+     * @return the identifiers of the contained entities.
+     */
+    Identifier[] getEntitiesInto(Identifier path);
+
+    /**
+     * Returns all the entities defined under the given path, at any depth.
+     *
+     * @param path the container path, i.e. a package or a class.
+     * @return the identifiers of the entities found.
+     */
+    Identifier[] getEntitiesUnder(Identifier path);
+
+    /**
+     * Returns the entities with the given dotted name.
+     *
+     * @param name the name of the entity, i.e. <i>java.util.List</i>.
+     * @return the identifiers of the matching entities.
+     */
+    Identifier[] findEntities(String name);
+
+    /**
+     * Completes a partial entity name.
+     *
+     * @param partialName the partial dotted name, i.e. <i>java.util.Has</i>.
+     * @param limit the maximum number of completions to return.
+     * @return the completed names.
+     */
+    String[] completeEntityName(String partialName, int limit);
+
+    /**
+     * Searches the packages, classes, interfaces, enumerations, methods and attributes
+     * by simple name, matching substrings and camel case humps, i.e. <i>HSM</i> for <i>HashSetMap</i>.
+     *
+     * @param query the partial name.
+     * @param limit the maximum number of results.
+     * @return the matching entities, the best matches first.
+     */
+    Identifier[] searchSymbols(String query, int limit);
+
+    /**
+     * Returns all the classes and interfaces extending or implementing
+     * the given type, directly or transitively.
+     *
+     * @param pathToType the path to the class or interface.
+     * @return the identifiers of the subtypes.
+     */
+    Identifier[] getAllSubtypes(Identifier pathToType);
+
+    /**
+     * Returns all the classes and interfaces extended or implemented
+     * by the given type, directly or transitively.
+     *
+     * @param pathToType the path to the class or interface.
+     * @return the identifiers of the supertypes.
+     */
+    Identifier[] getAllSupertypes(Identifier pathToType);
+
+    /**
+     * Returns all the classes implementing the given interface, directly,
+     * through a subinterface or through a superclass.
+     *
+     * @param pathToInterface the path to the interface.
+     * @return the identifiers of the implementing classes.
+     */
+    Identifier[] getAllImplementors(Identifier pathToInterface);
+
+    /**
+     * Returns all the places referencing a type as attribute, parameter or return type,
+     * as thrown exception or as supertype.
+     *
+     * @param pathToType the path to the class, interface or enumeration.
+     * @return the references sorted by containing type and member.
+     */
+    TypeReference[] getReferencesTo(Identifier pathToType);
+
+    /**
+     * Returns the dependencies among the packages and among the top level types of this model,
+     * built again when the model changes.
+     *
+     * @return the dependency graph snapshot.
+     */
+    DependencyGraph getDependencyGraph();
+
+    /**
+     * Returns the number of triples and of entities by type of this model,
+     * i.e. <code>getModelStatistics().getEntitiesCount(JavaCodeModel.JCLASS)</code>.
+     * The counters are maintained while writing, so reading them doesn't scan the model.
+     *
+     * @return the live model statistics.
+     */
+    ModelStatistics getModelStatistics();
+
+    /**
+     * Returns an immutable snapshot of a class, interface or enumeration
+     * with its supertypes, attributes, constructors and methods.
+     *
+     * @param pathToType the path to the type.
+     * @return the type description.
+     * @throws QueryModelException if the type doesn't exist.
+     */
+    TypeDescription describeClass(Identifier pathToType) throws QueryModelException;
+
+    /**
+     * Lazily iterates the packages defined within this model.
+     *
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JPackage> iteratePackages(int offset, int limit);
+
+    /**
+     * Lazily iterates the packages into a package path.
+     *
+     * @param pathToContainer the path to the container.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JPackage> iteratePackagesInto(Identifier pathToContainer, int offset, int limit);
+
+    /**
+     * Lazily iterates the interfaces defined within this model.
+     *
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JInterface> iterateInterfaces(int offset, int limit);
+
+    /**
+     * Lazily iterates the interfaces into a container path.
+     *
+     * @param pathToContainer the path to the container.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JInterface> iterateInterfacesInto(Identifier pathToContainer, int offset, int limit);
+
+    /**
+     * Lazily iterates the classes defined within this model.
+     *
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JClass> iterateClasses(int offset, int limit);
+
+    /**
+     * Lazily iterates the classes into a container path.
+     *
+     * @param pathToContainer the path to the container.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JClass> iterateClassesInto(Identifier pathToContainer, int offset, int limit);
+
+    /**
+     * Lazily iterates the attributes into a container path.
+     *
+     * @param pathToContainer the path to the container.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JAttribute> iterateAttributesInto(Identifier pathToContainer, int offset, int limit);
+
+    /**
+     * Lazily iterates the methods into a container path.
+     *
+     * @param pathToContainer the path to the container.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JMethod> iterateMethodsInto(Identifier pathToContainer, int offset, int limit);
+
+    /**
+     * Lazily iterates the enumerations defined within this model.
+     *
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JEnumeration> iterateEnumerations(int offset, int limit);
+
+    /**
+     * Lazily iterates the enumerations into a container path.
+     *
+     * @param pathToContainer the path to the container.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results, {@link QueryIterator#NO_LIMIT} for all.
+     * @return the iterator, to be closed if not fully consumed.
+     */
+    QueryIterator<JEnumeration> iterateEnumerationsInto(Identifier pathToContainer, int offset, int limit);
+
 }
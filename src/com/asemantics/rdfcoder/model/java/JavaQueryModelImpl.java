@@ -22,13 +22,18 @@ import com.asemantics.rdfcoder.model.Asset;
 import com.asemantics.rdfcoder.model.CodeModel;
 import com.asemantics.rdfcoder.model.CodeModelBase;
 import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierIndex;
 import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.model.ModelStatistics;
 import com.asemantics.rdfcoder.model.QueryModelException;
 import com.asemantics.rdfcoder.model.TripleIterator;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Default implementation of {@link JavaQueryModel}.
@@ -41,12 +46,157 @@ public class JavaQueryModelImpl implements JavaQueryModel {
 
     private CodeModel codeModel;
 
+    /**
+     * Index used when the code model doesn't provide one.
+     */
+    private IdentifierIndex localIndex;
+
+    /**
+     * The query model referenced by the created objects.
+     */
+    private JavaQueryModel owner = this;
+
+    /**
+     * Type hierarchy of the code model, rebuilt when the model changes.
+     */
+    private TypeHierarchyIndex typeHierarchyIndex;
+
+    /**
+     * Dependency graph of the code model, rebuilt when the model changes.
+     */
+    private DependencyGraph dependencyGraph;
+
+    /**
+     * Reference index used when the code model doesn't provide one.
+     */
+    private ReferenceIndex localReferenceIndex;
+
+    /**
+     * Statistics used when the code model doesn't provide them.
+     */
+    private ModelStatistics localModelStatistics;
+
     public JavaQueryModelImpl(CodeModel codeModel) {
         this.codeModel = codeModel;
     }
 
+    /**
+     * @return the underlying code model.
+     */
+    public CodeModel getCodeModel() {
+        return codeModel;
+    }
+
+    /**
+     * Sets the query model referenced by the objects returned by this instance,
+     * used by the decorators to receive the calls performed by the objects.
+     *
+     * @param owner the decorating query model.
+     */
+    void setOwner(JavaQueryModel owner) {
+        if(owner == null) {
+            throw new NullPointerException("owner cannot be null.");
+        }
+        this.owner = owner;
+    }
+
+    /**
+     * Returns the identifier index of the code model,
+     * rebuilding it if the model has been modified by other means than the code handlers.
+     *
+     * @return the index instance.
+     */
+    protected IdentifierIndex getIdentifierIndex() {
+        final IdentifierIndex index;
+        synchronized (this) {
+            if(codeModel instanceof CodeModelBase) {
+                index = ((CodeModelBase) codeModel).getIdentifierIndex();
+            } else {
+                if(localIndex == null) {
+                    localIndex = new IdentifierIndex();
+                }
+                index = localIndex;
+            }
+        }
+        synchronized (index) {
+            if( ! index.isSynchronized(codeModel) ) {
+                index.rebuild(codeModel, JavaCodeModel.INDEXED_CLASSES);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the type hierarchy index of the code model,
+     * building it again if the model has changed.
+     *
+     * @return the index instance.
+     */
+    public synchronized TypeHierarchyIndex getTypeHierarchyIndex() {
+        if(
+                typeHierarchyIndex == null
+                        ||
+                typeHierarchyIndex.getModificationCount() != codeModel.getModificationCount()
+        ) {
+            typeHierarchyIndex = TypeHierarchyIndex.build(codeModel);
+        }
+        return typeHierarchyIndex;
+    }
+
+    /**
+     * Returns the reference index of the code model,
+     * rebuilding it if the model has been modified by other means than the code handlers.
+     *
+     * @return the index instance.
+     */
+    public ReferenceIndex getReferenceIndex() {
+        final ReferenceIndex index;
+        synchronized (this) {
+            if(codeModel instanceof CodeModelBase) {
+                index = ((CodeModelBase) codeModel).getReferenceIndex();
+            } else {
+                if(localReferenceIndex == null) {
+                    localReferenceIndex = new ReferenceIndex();
+                }
+                index = localReferenceIndex;
+            }
+        }
+        synchronized (index) {
+            if( ! index.isSynchronized(codeModel) ) {
+                index.rebuild(codeModel);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the statistics of the code model,
+     * counting them again if the model has been modified by other means than the model writes.
+     *
+     * @return the statistics instance.
+     */
+    public ModelStatistics getModelStatistics() {
+        final ModelStatistics statistics;
+        synchronized (this) {
+            if(codeModel instanceof CodeModelBase) {
+                statistics = ((CodeModelBase) codeModel).getModelStatistics();
+            } else {
+                if(localModelStatistics == null) {
+                    localModelStatistics = new ModelStatistics();
+                }
+                statistics = localModelStatistics;
+            }
+        }
+        synchronized (statistics) {
+            if( ! statistics.isSynchronized(codeModel) ) {
+                statistics.rebuild(codeModel);
+            }
+        }
+        return statistics;
+    }
+
     public Asset getAsset() {
-        return JavaCoderFactory.createJAsset(this);
+        return JavaCoderFactory.createJAsset(owner);
     }
 
     public String[] getLibraries() {
@@ -92,94 +242,59 @@ public class JavaQueryModelImpl implements JavaQueryModel {
     }
 
     public boolean packageExists(Identifier pathToPackage) {
-        TripleIterator ti = codeModel.searchTriples(
+        return codeModel.containsTriple(
                 pathToPackage.getIdentifier(),
                 CodeModel.TYPE,
                 JavaCodeModel.JPACKAGE
         );
-        try {
-            return ti.next();
-        } finally {
-            ti.close();
-        }
     }
 
     public boolean classExists(Identifier pathToClass) {
-        TripleIterator ti = codeModel.searchTriples(
+        return codeModel.containsTriple(
                 pathToClass.getIdentifier(),
                 JavaCodeModel.TYPE,
                 JavaCodeModel.JCLASS
         );
-        try {
-            return ti.next();
-        } finally {
-            ti.close();
-        }
     }
 
     public boolean interfaceExists(Identifier pathToInterface) {
-        TripleIterator ti = codeModel.searchTriples(
+        return codeModel.containsTriple(
                 pathToInterface.getIdentifier(),
                 JavaCodeModel.TYPE,
                 JavaCodeModel.JINTERFACE
         );
-        try {
-            return ti.next();
-        } finally {
-            ti.close();
-        }
     }
 
     public boolean attributeExists(Identifier pathToAttribute) {
-        TripleIterator ti = codeModel.searchTriples(
+        return codeModel.containsTriple(
                 pathToAttribute.getIdentifier(),
                 JavaCodeModel.TYPE,
                 JavaCodeModel.JATTRIBUTE
         );
-        try {
-            return ti.next();
-        } finally {
-            ti.close();
-        }
     }
 
     public boolean methodExists(Identifier pathToMethod) {
-        TripleIterator ti = codeModel.searchTriples(
+        return codeModel.containsTriple(
                 pathToMethod.getIdentifier(),
                 JavaCodeModel.TYPE,
                 JavaCodeModel.JMETHOD
         );
-        try {
-            return ti.next();
-        } finally {
-            ti.close();
-        }
     }
 
     public boolean signatureExists(Identifier pathToSignature) {
-        TripleIterator ti = codeModel.searchTriples(
+        return codeModel.containsTriple(
                 pathToSignature.getIdentifier(),
                 JavaCodeModel.TYPE,
                 JavaCodeModel.JSIGNATURE
         );
-        try {
-            return ti.next();
-        } finally {
-            ti.close();
-        }
     }
 
     public boolean enumerationExists(Identifier pathToEnumeration) {
-        TripleIterator ti = codeModel.searchTriples(
+        return codeModel.containsTriple(
                 pathToEnumeration.getIdentifier(),
                 JavaCodeModel.TYPE,
                 JavaCodeModel.JENUMERATION
         );
-        try {
-            return ti.next();
-        } finally {
-            ti.close();
-        }
     }
 
     public JPackage[] getPackages() {
@@ -194,7 +309,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
             while(t1.next()) {
                 subject = t1.getSubject();
                 try {
-                    packages.add( JavaCoderFactory.createJPackage(this, IdentifierReader.readIdentifier( subject) ));
+                    packages.add( JavaCoderFactory.createTrustedJPackage(owner, IdentifierReader.readIdentifier( subject) ));
                 } catch (QueryModelException cme) {
                     throw new RuntimeException("Error while retrieving packages.", cme);
                 }
@@ -214,7 +329,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
         List<JPackage> packages = new ArrayList<JPackage>();
         try {
             while(t1.next()) {
-                packages.add( JavaCoderFactory.createJPackage(this, IdentifierReader.readIdentifier( t1.getObject()) ));
+                packages.add( JavaCoderFactory.createTrustedJPackage(owner, IdentifierReader.readIdentifier( t1.getObject()) ));
             } 
         }finally {
             t1.close();
@@ -223,7 +338,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
     }
 
     public JPackage getPackage(Identifier pathToPackage) throws QueryModelException {
-        return JavaCoderFactory.createJPackage(this, pathToPackage);
+        return JavaCoderFactory.createJPackage(owner, pathToPackage);
     }
 
     public JInterface[] getInterfaces() {
@@ -236,8 +351,8 @@ public class JavaQueryModelImpl implements JavaQueryModel {
         try {
             while(t1.next()) {
                 try {
-                    interfaces.add( JavaCoderFactory.createJInterface(
-                            this,
+                    interfaces.add( JavaCoderFactory.createTrustedJInterface(
+                            owner,
                             IdentifierReader.readIdentifier( t1.getSubject() ))
                     );
                 } catch (QueryModelException qme) {
@@ -251,7 +366,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
     }
 
     public JInterface getInterface(Identifier pathToInterface) throws QueryModelException {
-        return JavaCoderFactory.createJInterface(this, pathToInterface);
+        return JavaCoderFactory.createJInterface(owner, pathToInterface);
     }
 
     public JClass[] getClasses() {
@@ -264,7 +379,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
         try {
             while(t1.next()) {
                 try {
-                    classes.add( JavaCoderFactory.createJClass(this, IdentifierReader.readIdentifier( t1.getSubject() )));
+                    classes.add( JavaCoderFactory.createTrustedJClass(owner, IdentifierReader.readIdentifier( t1.getSubject() )));
                 } catch (QueryModelException qme) {
                     throw new RuntimeException(qme);
                 }
@@ -276,7 +391,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
     }
 
     public JClass getClazz(Identifier pathToClass) throws QueryModelException {
-        return JavaCoderFactory.createJClass(this, pathToClass);
+        return JavaCoderFactory.createJClass(owner, pathToClass);
     }
 
     public JInterface[] getInterfacesInto(Identifier pathToContainer) throws QueryModelException {
@@ -290,7 +405,9 @@ public class JavaQueryModelImpl implements JavaQueryModel {
             while(t1.next()) {
                 try {
                     interfaces.add(
-                            JavaCoderFactory.createJInterface(this, IdentifierReader.readIdentifier( t1.getObject() ))
+                            JavaCoderFactory.createTrustedJInterface(
+                                    owner, IdentifierReader.readIdentifier( t1.getObject() )
+                            )
                     );
                 } catch (QueryModelException qme) {
                     throw new RuntimeException(qme);
@@ -312,7 +429,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
         try {
             while(t1.next()) {
                 try {
-                    classes.add(JavaCoderFactory.createJClass(this, IdentifierReader.readIdentifier( t1.getObject() )));
+                    classes.add(JavaCoderFactory.createTrustedJClass(owner, IdentifierReader.readIdentifier( t1.getObject() )));
                 } catch (QueryModelException qme) {
                     throw new RuntimeException(qme);
                 }
@@ -332,7 +449,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
         );
         try {
             while(t1.next()) {
-                attributes.add( JavaCoderFactory.createJAttribute(this, IdentifierReader.readIdentifier( t1.getObject()) ));
+                attributes.add( JavaCoderFactory.createTrustedJAttribute(owner, IdentifierReader.readIdentifier( t1.getObject()) ));
             }
         } finally {
             t1.close();
@@ -343,7 +460,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
     public JAttribute getAttribute(Identifier pathToAttribute) throws QueryModelException {
         // Creating the attribute type.
         return JavaCoderFactory.createJAttribute(
-                this,
+                owner,
                 pathToAttribute
         );
     }
@@ -372,7 +489,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
         );
         try {
             while(t1.next()) {
-                methods.add( JavaCoderFactory.createJMethod(this, IdentifierReader.readIdentifier(t1.getObject()) ));
+                methods.add( JavaCoderFactory.createTrustedJMethod(owner, IdentifierReader.readIdentifier(t1.getObject()) ));
             }
         } finally {
             t1.close();
@@ -381,7 +498,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
     }
 
     public JMethod getMethod(Identifier pathToMethod) throws QueryModelException {
-        return JavaCoderFactory.createJMethod(this, pathToMethod);
+        return JavaCoderFactory.createJMethod(owner, pathToMethod);
     }
 
     public JEnumeration[] getEnumerations() {
@@ -397,7 +514,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
                 subject = t1.getSubject();
                 try {
                     packages.add(
-                            JavaCoderFactory.createJEnumeration(this, IdentifierReader.readIdentifier( subject) )
+                            JavaCoderFactory.createTrustedJEnumeration(owner, IdentifierReader.readIdentifier( subject) )
                     );
                 } catch (QueryModelException cme) {
                     throw new RuntimeException("Error while retrieving enumerations.", cme);
@@ -419,7 +536,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
         try {
             while(t1.next()) {
                 enumerations.add(
-                        JavaCoderFactory.createJEnumeration(this, IdentifierReader.readIdentifier(t1.getObject() ))
+                        JavaCoderFactory.createTrustedJEnumeration(owner, IdentifierReader.readIdentifier(t1.getObject() ))
                 );
             }
         } finally {
@@ -429,7 +546,7 @@ public class JavaQueryModelImpl implements JavaQueryModel {
     }
 
     public JEnumeration getEnumeration(Identifier pathToEnumeration) throws QueryModelException {
-        return JavaCoderFactory.createJEnumeration(this, pathToEnumeration);
+        return JavaCoderFactory.createJEnumeration(owner, pathToEnumeration);
     }
 
     public String[] getElements(Identifier pathToEnumeration) {
@@ -478,8 +595,8 @@ public class JavaQueryModelImpl implements JavaQueryModel {
                         );
                     }
                     signatures.add(
-                        JavaCoderFactory.createJSignature(
-                                this,
+                        JavaCoderFactory.createTrustedJSignature(
+                                owner,
                                 IdentifierReader.readIdentifier(t1.getObject()),
                                 ( parametersIntoSignature.toArray(new JavaCodeModel.JType[parametersIntoSignature.size()]) ),
                                 JavaCodeModel.rdfTypeToJType( t3.getObject() )
@@ -582,15 +699,366 @@ public class JavaQueryModelImpl implements JavaQueryModel {
         return result == null ? EMPTY_MODIFIERS_LIST : JavaCodeModel.JModifier.toModifiers( result );
     }
 
+    public Identifier[] getEntitiesInto(Identifier path) {
+        final List<Identifier> result = getIdentifierIndex().getChildren(path);
+        return result.toArray( new Identifier[result.size()] );
+    }
+
+    public Identifier[] getEntitiesUnder(Identifier path) {
+        final List<Identifier> result = getIdentifierIndex().getDescendants(path);
+        return result.toArray( new Identifier[result.size()] );
+    }
+
+    public Identifier[] findEntities(String name) {
+        final List<Identifier> result = getIdentifierIndex().find(name);
+        return result.toArray( new Identifier[result.size()] );
+    }
+
+    public String[] completeEntityName(String partialName, int limit) {
+        final List<String> result = getIdentifierIndex().complete(partialName, limit);
+        return result.toArray( new String[result.size()] );
+    }
+
+    public Identifier[] searchSymbols(String query, int limit) {
+        final List<Identifier> result = getIdentifierIndex().getSymbolIndex().search(query, limit);
+        return result.toArray( new Identifier[result.size()] );
+    }
+
+    public Identifier[] getAllSubtypes(Identifier pathToType) {
+        return getTypeHierarchyIndex().getAllSubtypes(pathToType);
+    }
+
+    public Identifier[] getAllSupertypes(Identifier pathToType) {
+        return getTypeHierarchyIndex().getAllSupertypes(pathToType);
+    }
+
+    public Identifier[] getAllImplementors(Identifier pathToInterface) {
+        return getTypeHierarchyIndex().getAllImplementors(pathToInterface);
+    }
+
+    public TypeReference[] getReferencesTo(Identifier pathToType) {
+        return getReferenceIndex().getReferencesTo(pathToType);
+    }
+
+    public synchronized DependencyGraph getDependencyGraph() {
+        if(
+                dependencyGraph == null
+                        ||
+                dependencyGraph.getModificationCount() != codeModel.getModificationCount()
+        ) {
+            dependencyGraph = DependencyGraph.build(codeModel);
+        }
+        return dependencyGraph;
+    }
+
+    /**
+     * Builds the description with a single search for every described entity,
+     * collecting all the properties of the entity at once.
+     */
+    public TypeDescription describeClass(Identifier pathToType) throws QueryModelException {
+        final Map<String,List<String>> properties = getProperties( pathToType.getIdentifier() );
+        String rdfType = null;
+        for(String type : getAll(properties, JavaCodeModel.TYPE)) {
+            if(
+                    JavaCodeModel.JCLASS.equals(type)
+                            ||
+                    JavaCodeModel.JINTERFACE.equals(type)
+                            ||
+                    JavaCodeModel.JENUMERATION.equals(type)
+            ) {
+                rdfType = type;
+                break;
+            }
+        }
+        if(rdfType == null) {
+            throw new QueryModelException("Cannot find type '" + pathToType + "'.");
+        }
+
+        final List<Identifier> superInterfaces = new ArrayList<Identifier>();
+        for(String superInterface : getAll(properties, JavaCodeModel.IMPLEMENTS_INT)) {
+            superInterfaces.add( IdentifierReader.readIdentifier(superInterface) );
+        }
+        for(String superInterface : getAll(properties, JavaCodeModel.EXTENDS_INT)) {
+            superInterfaces.add( IdentifierReader.readIdentifier(superInterface) );
+        }
+        final String superClass = getFirst(properties, JavaCodeModel.EXTENDS_CLASS);
+
+        final List<TypeDescription.Attribute> attributes = new ArrayList<TypeDescription.Attribute>();
+        for(String attribute : getAllSorted(properties, JavaCodeModel.CONTAINS_ATTRIBUTE)) {
+            final Map<String,List<String>> attributeProperties = getProperties(attribute);
+            attributes.add(
+                    new TypeDescription.Attribute(
+                            IdentifierReader.readIdentifier(attribute),
+                            toVisibility(attributeProperties, JavaCodeModel.JVisibility.DEFAULT),
+                            toModifiers(attributeProperties),
+                            toType( getFirst(attributeProperties, JavaCodeModel.ATTRIBUTE_TYPE) ),
+                            getFirst(attributeProperties, JavaCodeModel.ATTRIBUTE_VALUE)
+                    )
+            );
+        }
+
+        final Map<String,TypeDescription.Parameter> parameters = new HashMap<String,TypeDescription.Parameter>();
+        final List<TypeDescription.Method> constructors = new ArrayList<TypeDescription.Method>();
+        for(String constructor : getAllSorted(properties, JavaCodeModel.CONTAINS_CONSTRUCTOR)) {
+            final Map<String,List<String>> constructorProperties = getProperties(constructor);
+            final Identifier constructorIdentifier = IdentifierReader.readIdentifier(constructor);
+            constructors.add(
+                    new TypeDescription.Method(
+                            constructorIdentifier,
+                            toVisibility(constructorProperties, JavaCodeModel.JVisibility.DEFAULT),
+                            toModifiers(constructorProperties),
+                            toIdentifiers( getAll(constructorProperties, JavaCodeModel.THROWS) ),
+                            new TypeDescription.Signature[] {
+                                    new TypeDescription.Signature(
+                                            constructorIdentifier,
+                                            toParameters(constructorProperties, parameters),
+                                            null
+                                    )
+                            }
+                    )
+            );
+        }
+
+        final List<TypeDescription.Method> methods = new ArrayList<TypeDescription.Method>();
+        for(String method : getAllSorted(properties, JavaCodeModel.CONTAINS_METHOD)) {
+            final Map<String,List<String>> methodProperties = getProperties(method);
+            final List<TypeDescription.Signature> signatures = new ArrayList<TypeDescription.Signature>();
+            for(String signature : getAllSorted(methodProperties, JavaCodeModel.CONTAINS_SIGNATURE)) {
+                final Map<String,List<String>> signatureProperties = getProperties(signature);
+                signatures.add(
+                        new TypeDescription.Signature(
+                                IdentifierReader.readIdentifier(signature),
+                                toParameters(signatureProperties, parameters),
+                                toType( getFirst(signatureProperties, JavaCodeModel.RETURN_TYPE) )
+                        )
+                );
+            }
+            methods.add(
+                    new TypeDescription.Method(
+                            IdentifierReader.readIdentifier(method),
+                            toVisibility(methodProperties, JavaCodeModel.JVisibility.DEFAULT),
+                            toModifiers(methodProperties),
+                            toIdentifiers( getAll(methodProperties, JavaCodeModel.THROWS) ),
+                            signatures.toArray( new TypeDescription.Signature[signatures.size()] )
+                    )
+            );
+        }
+
+        return new TypeDescription(
+                pathToType,
+                rdfType,
+                toVisibility(
+                        properties,
+                        JavaCodeModel.JINTERFACE.equals(rdfType)
+                                ? JavaCodeModel.JVisibility.PUBLIC : JavaCodeModel.JVisibility.DEFAULT
+                ),
+                toModifiers(properties),
+                superClass == null ? null : IdentifierReader.readIdentifier(superClass),
+                superInterfaces.toArray( new Identifier[superInterfaces.size()] ),
+                attributes.toArray( new TypeDescription.Attribute[attributes.size()] ),
+                constructors.toArray( new TypeDescription.Method[constructors.size()] ),
+                methods.toArray( new TypeDescription.Method[methods.size()] )
+        );
+    }
+
+    public QueryIterator<JPackage> iteratePackages(int offset, int limit) {
+        return new QueryIterator<JPackage>(
+                codeModel.searchTriples(JavaCodeModel.ALL_MATCH, JavaCodeModel.TYPE, JavaCodeModel.JPACKAGE), true, offset, limit
+        ) {
+            protected JPackage create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJPackage(owner, identifier);
+            }
+        };
+    }
+
+    public QueryIterator<JPackage> iteratePackagesInto(Identifier pathToContainer, int offset, int limit) {
+        return new QueryIterator<JPackage>(
+                codeModel.searchTriples(pathToContainer.getIdentifier(), JavaCodeModel.CONTAINS_PACKAGE, JavaCodeModel.ALL_MATCH), false, offset, limit
+        ) {
+            protected JPackage create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJPackage(owner, identifier);
+            }
+        };
+    }
+
+    public QueryIterator<JInterface> iterateInterfaces(int offset, int limit) {
+        return new QueryIterator<JInterface>(
+                codeModel.searchTriples(JavaCodeModel.ALL_MATCH, JavaCodeModel.TYPE, JavaCodeModel.JINTERFACE), true, offset, limit
+        ) {
+            protected JInterface create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJInterface(owner, identifier);
+            }
+        };
+    }
+
+    public QueryIterator<JInterface> iterateInterfacesInto(Identifier pathToContainer, int offset, int limit) {
+        return new QueryIterator<JInterface>(
+                codeModel.searchTriples(pathToContainer.getIdentifier(), JavaCodeModel.CONTAINS_INTERFACE, JavaCodeModel.ALL_MATCH), false, offset, limit
+        ) {
+            protected JInterface create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJInterface(owner, identifier);
+            }
+        };
+    }
+
+    public QueryIterator<JClass> iterateClasses(int offset, int limit) {
+        return new QueryIterator<JClass>(
+                codeModel.searchTriples(JavaCodeModel.ALL_MATCH, JavaCodeModel.TYPE, JavaCodeModel.JCLASS), true, offset, limit
+        ) {
+            protected JClass create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJClass(owner, identifier);
+            }
+        };
+    }
+
+    public QueryIterator<JClass> iterateClassesInto(Identifier pathToContainer, int offset, int limit) {
+        return new QueryIterator<JClass>(
+                codeModel.searchTriples(pathToContainer.getIdentifier(), JavaCodeModel.CONTAINS_CLASS, JavaCodeModel.ALL_MATCH), false, offset, limit
+        ) {
+            protected JClass create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJClass(owner, identifier);
+            }
+        };
+    }
+
+    public QueryIterator<JAttribute> iterateAttributesInto(Identifier pathToContainer, int offset, int limit) {
+        return new QueryIterator<JAttribute>(
+                codeModel.searchTriples(pathToContainer.getIdentifier(), JavaCodeModel.CONTAINS_ATTRIBUTE, JavaCodeModel.ALL_MATCH), false, offset, limit
+        ) {
+            protected JAttribute create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJAttribute(owner, identifier);
+            }
+        };
+    }
+
+    public QueryIterator<JMethod> iterateMethodsInto(Identifier pathToContainer, int offset, int limit) {
+        return new QueryIterator<JMethod>(
+                codeModel.searchTriples(pathToContainer.getIdentifier(), JavaCodeModel.CONTAINS_METHOD, JavaCodeModel.ALL_MATCH), false, offset, limit
+        ) {
+            protected JMethod create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJMethod(owner, identifier);
+            }
+        };
+    }
+
+    public QueryIterator<JEnumeration> iterateEnumerations(int offset, int limit) {
+        return new QueryIterator<JEnumeration>(
+                codeModel.searchTriples(JavaCodeModel.ALL_MATCH, JavaCodeModel.TYPE, JavaCodeModel.JENUMERATION), true, offset, limit
+        ) {
+            protected JEnumeration create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJEnumeration(owner, identifier);
+            }
+        };
+    }
+
+    public QueryIterator<JEnumeration> iterateEnumerationsInto(Identifier pathToContainer, int offset, int limit) {
+        return new QueryIterator<JEnumeration>(
+                codeModel.searchTriples(pathToContainer.getIdentifier(), JavaCodeModel.CONTAINS_ENUMERATION, JavaCodeModel.ALL_MATCH), false, offset, limit
+        ) {
+            protected JEnumeration create(Identifier identifier) throws QueryModelException {
+                return JavaCoderFactory.createTrustedJEnumeration(owner, identifier);
+            }
+        };
+    }
+
     public String toString() {
+        final ModelStatistics statistics = getModelStatistics();
         return String.format(
                 "%s{packages: %s, classes: %s, interfaces: %s, enumerations: %s}",
                 this.getClass().getName(),
-                getPackages().length,
-                getClasses().length,
-                getInterfaces().length,
-                getEnumerations().length
+                statistics.getEntitiesCount(JavaCodeModel.JPACKAGE),
+                statistics.getEntitiesCount(JavaCodeModel.JCLASS),
+                statistics.getEntitiesCount(JavaCodeModel.JINTERFACE),
+                statistics.getEntitiesCount(JavaCodeModel.JENUMERATION)
         );
     }
 
+    /**
+     * Returns all the properties of a subject with a single search.
+     *
+     * @param subject the subject of the properties.
+     * @return the map of the objects by predicate.
+     */
+    private Map<String,List<String>> getProperties(String subject) {
+        final Map<String,List<String>> properties = new HashMap<String,List<String>>();
+        TripleIterator t1 = codeModel.searchTriples(subject, JavaCodeModel.ALL_MATCH, JavaCodeModel.ALL_MATCH);
+        try {
+            while(t1.next()) {
+                List<String> objects = properties.get( t1.getPredicate() );
+                if(objects == null) {
+                    objects = new ArrayList<String>(1);
+                    properties.put(t1.getPredicate(), objects);
+                }
+                objects.add( t1.getObject() );
+            }
+        } finally {
+            t1.close();
+        }
+        return properties;
+    }
+
+    private static List<String> getAll(Map<String,List<String>> properties, String predicate) {
+        final List<String> objects = properties.get(predicate);
+        return objects == null ? Collections.<String>emptyList() : objects;
+    }
+
+    private static List<String> getAllSorted(Map<String,List<String>> properties, String predicate) {
+        final List<String> objects = new ArrayList<String>( getAll(properties, predicate) );
+        Collections.sort(objects);
+        return objects;
+    }
+
+    private static String getFirst(Map<String,List<String>> properties, String predicate) {
+        final List<String> objects = properties.get(predicate);
+        return objects == null ? null : objects.get(0);
+    }
+
+    private static JavaCodeModel.JVisibility toVisibility(
+            Map<String,List<String>> properties, JavaCodeModel.JVisibility defaultVisibility
+    ) {
+        final String visibility = getFirst(properties, JavaCodeModel.HAS_VISIBILITY);
+        return visibility == null ? defaultVisibility : JavaCodeModel.JVisibility.toJVisibility(visibility);
+    }
+
+    private static JavaCodeModel.JModifier[] toModifiers(Map<String,List<String>> properties) {
+        final String modifiers = getFirst(properties, JavaCodeModel.HAS_MODIFIERS);
+        return modifiers == null ? EMPTY_MODIFIERS_LIST : JavaCodeModel.JModifier.toModifiers(modifiers);
+    }
+
+    private static JavaCodeModel.JType toType(String rdfType) {
+        return rdfType == null ? null : JavaCodeModel.rdfTypeToJType(rdfType);
+    }
+
+    private static Identifier[] toIdentifiers(List<String> identifiers) {
+        final Identifier[] result = new Identifier[identifiers.size()];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = IdentifierReader.readIdentifier( identifiers.get(i) );
+        }
+        return result;
+    }
+
+    /**
+     * Describes the parameters of a signature, the parameters of the overloaded
+     * methods are shared so their descriptions are reused.
+     */
+    private TypeDescription.Parameter[] toParameters(
+            Map<String,List<String>> signatureProperties, Map<String,TypeDescription.Parameter> described
+    ) {
+        final List<String> parameters = getAll(signatureProperties, JavaCodeModel.CONTAINS_PARAMETER);
+        final TypeDescription.Parameter[] result = new TypeDescription.Parameter[parameters.size()];
+        for(int i = 0; i < result.length; i++) {
+            final String parameter = parameters.get(i);
+            TypeDescription.Parameter description = described.get(parameter);
+            if(description == null) {
+                description = new TypeDescription.Parameter(
+                        IdentifierReader.readIdentifier(parameter).getTailFragment().getFragment(),
+                        toType( getFirst(getProperties(parameter), JavaCodeModel.PARAMETER_TYPE) )
+                );
+                described.put(parameter, description);
+            }
+            result[i] = description;
+        }
+        return result;
+    }
+
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.model.QueryModelException;
+import com.asemantics.rdfcoder.model.TripleIterator;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy iterator over the entities matched by a triple search.
+ * Entities are created on demand while the underlying {@link TripleIterator} is consumed,
+ * the search is closed as soon as the results are exhausted or the limit is reached.
+ * Iterators not fully consumed must be explicitly {@link #close() closed}.
+ *
+ * @param <T> the type of the returned entities.
+ */
+public abstract class QueryIterator<T> implements Iterator<T>, Closeable {
+
+    /**
+     * Limit value to return all the results.
+     */
+    public static final int NO_LIMIT = -1;
+
+    private final TripleIterator tripleIterator;
+
+    private final boolean fromSubject;
+
+    private int toSkip;
+
+    private int remaining;
+
+    private T nextEntity;
+
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param tripleIterator the search to be consumed.
+     * @param fromSubject if <code>true</code> the entities are read from the triple subjects,
+     *        from the triple objects otherwise.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results to return, {@link #NO_LIMIT} for all.
+     */
+    protected QueryIterator(TripleIterator tripleIterator, boolean fromSubject, int offset, int limit) {
+        if(offset < 0 || (limit < 0 && limit != NO_LIMIT)) {
+            tripleIterator.close();
+            throw new IllegalArgumentException("Invalid offset " + offset + " or limit " + limit + ".");
+        }
+        this.tripleIterator = tripleIterator;
+        this.fromSubject    = fromSubject;
+        this.toSkip         = offset;
+        this.remaining      = limit;
+        if(remaining == 0) {
+            close();
+        }
+    }
+
+    /**
+     * Creates the entity for a matched identifier.
+     *
+     * @param identifier the identifier read from the triple.
+     * @return the entity instance.
+     * @throws QueryModelException if the entity cannot be created.
+     */
+    protected abstract T create(Identifier identifier) throws QueryModelException;
+
+    public boolean hasNext() {
+        if(nextEntity != null) {
+            return true;
+        }
+        if(closed) {
+            return false;
+        }
+        while(tripleIterator.next()) {
+            if(toSkip > 0) {
+                toSkip--;
+                continue;
+            }
+            final String identifier = fromSubject ? tripleIterator.getSubject() : tripleIterator.getObject();
+            try {
+                nextEntity = create( IdentifierReader.readIdentifier(identifier) );
+            } catch (QueryModelException qme) {
+                close();
+                throw new RuntimeException("Error while creating entity '" + identifier + "'.", qme);
+            }
+            if(remaining != NO_LIMIT && --remaining == 0) {
+                close();
+            }
+            return true;
+        }
+        close();
+        return false;
+    }
+
+    public T next() {
+        if( ! hasNext() ) {
+            throw new NoSuchElementException();
+        }
+        final T result = nextEntity;
+        nextEntity = null;
+        return result;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Closes the underlying search, the already fetched entity is still returned.
+     */
+    public void close() {
+        if( ! closed ) {
+            closed = true;
+            tripleIterator.close();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the underlying search has been closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns a sequential stream over the remaining entities,
+     * closing the stream closes this iterator.
+     *
+     * @return the stream instance.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ).onClose(new Runnable() {
+            public void run() {
+                close();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.model.TripleBatch;
+import com.asemantics.rdfcoder.model.TripleIterator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index from the types to the places of the model referencing them
+ * through the {@link TypeReference.Kind} relations.
+ * Types are matched by qualified name, so a reference to a type parsed as a class
+ * is found also when asking for the interface with the same name.
+ * The index is updated by the code handlers while writing into the model
+ * and keeps track of the model {@link CodeModel#getModificationCount() modification count}:
+ * when the model is modified by other means the index is no longer
+ * {@link #isSynchronized(CodeModel) synchronized} and must be
+ * {@link #rebuild(CodeModel) rebuilt}.
+ *
+ * @see com.asemantics.rdfcoder.model.CodeModelBase#getReferenceIndex()
+ */
+public class ReferenceIndex {
+
+    private static final TypeReference[] EMPTY = new TypeReference[0];
+
+    /**
+     * References by referenced type name.
+     */
+    private final Map<String,Set<TypeReference>> references = new HashMap<String,Set<TypeReference>>();
+
+    /**
+     * Modification count of the model the index is synchronized with, <code>-1</code> if none.
+     */
+    private long modificationCount = -1;
+
+    private int size;
+
+    /**
+     * Checks whether the index reflects the current content of a model.
+     *
+     * @param model the indexed model.
+     * @return <code>true</code> if no modifications happened since the last update.
+     */
+    public synchronized boolean isSynchronized(CodeModel model) {
+        return modificationCount == model.getModificationCount();
+    }
+
+    /**
+     * Adds the references of the given triples just written into a model,
+     * if the index was synchronized before the write.
+     *
+     * @param model the model containing the triples.
+     * @param synchronizedBefore the result of {@link #isSynchronized(CodeModel)} before the write.
+     * @param batch the written triples.
+     */
+    public synchronized void update(CodeModel model, boolean synchronizedBefore, TripleBatch batch) {
+        if( ! synchronizedBefore ) {
+            return;
+        }
+        for(int i = 0; i < batch.size(); i++) {
+            if(batch.getKind(i) != TripleBatch.Kind.COLLECTION) {
+                add( batch.getSubject(i), batch.getPredicate(i), batch.getObject(i) );
+            }
+        }
+        modificationCount = model.getModificationCount();
+    }
+
+    /**
+     * Adds the reference of a single triple just written into a model,
+     * if the index was synchronized before the write.
+     *
+     * @param model the model containing the triple.
+     * @param synchronizedBefore the result of {@link #isSynchronized(CodeModel)} before the write.
+     * @param subject the triple subject.
+     * @param predicate the triple predicate.
+     * @param object the triple object or literal.
+     */
+    public synchronized void update(
+            CodeModel model, boolean synchronizedBefore, String subject, String predicate, String object
+    ) {
+        if( ! synchronizedBefore ) {
+            return;
+        }
+        add(subject, predicate, object);
+        modificationCount = model.getModificationCount();
+    }
+
+    /**
+     * Fills the index again with all the references of a model.
+     *
+     * @param model the model to be scanned.
+     */
+    public synchronized void rebuild(CodeModel model) {
+        final long currentModificationCount = model.getModificationCount();
+        clear();
+        for(TypeReference.Kind kind : TypeReference.Kind.values()) {
+            TripleIterator ti = model.searchTriples(CodeModel.ALL_MATCH, kind.getPredicate(), CodeModel.ALL_MATCH);
+            try {
+                while(ti.next()) {
+                    add( ti.getSubject(), kind.getPredicate(), ti.getObject() );
+                }
+            } finally {
+                ti.close();
+            }
+        }
+        modificationCount = currentModificationCount;
+    }
+
+    /**
+     * Removes all the references, the index is no longer synchronized.
+     */
+    public synchronized void clear() {
+        references.clear();
+        size = 0;
+        modificationCount = -1;
+    }
+
+    /**
+     * @return the number of indexed references.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the references to a type.
+     *
+     * @param type the class, interface or enumeration identifier.
+     * @return the references sorted by container and member.
+     */
+    public synchronized TypeReference[] getReferencesTo(Identifier type) {
+        final Set<TypeReference> typeReferences = references.get( toTypeName(type) );
+        if(typeReferences == null) {
+            return EMPTY;
+        }
+        final TypeReference[] result = typeReferences.toArray( new TypeReference[typeReferences.size()] );
+        Arrays.sort(result);
+        return result;
+    }
+
+    public synchronized String toString() {
+        return String.format(
+                "%s{types: %d, references: %d}", this.getClass().getName(), references.size(), size
+        );
+    }
+
+    private void add(String subject, String predicate, String object) {
+        final TypeReference.Kind kind = TypeReference.Kind.toKind(predicate);
+        if(kind == null) {
+            return;
+        }
+        final Identifier type;
+        final Identifier referrer;
+        try {
+            type     = IdentifierReader.readIdentifier(object);
+            referrer = IdentifierReader.readIdentifier(subject);
+        } catch (IllegalArgumentException iae) {
+            // Not an entity reference.
+            return;
+        }
+        if( JavaCodeModel.PRIMITIVE_KEY.equals( type.getTailFragment().getQualifier() ) ) {
+            return;
+        }
+        final Identifier member    = toMember(kind, referrer);
+        final Identifier container = toContainer(kind, member);
+        final String typeName = toTypeName(type);
+        Set<TypeReference> typeReferences = references.get(typeName);
+        if(typeReferences == null) {
+            typeReferences = new LinkedHashSet<TypeReference>();
+            references.put(typeName, typeReferences);
+        }
+        if( typeReferences.add( new TypeReference(kind, referrer, member, container) ) ) {
+            size++;
+        }
+    }
+
+    /**
+     * Returns the attribute, method, constructor or type holding a reference.
+     *
+     * @param kind the kind of reference.
+     * @param referrer the subject of the referencing relation.
+     * @return the member identifier.
+     */
+    static Identifier toMember(TypeReference.Kind kind, Identifier referrer) {
+        switch (kind) {
+            case RETURN_TYPE:
+            case PARAMETER_TYPE:
+                // The signature or parameter parent, constructor parameters are qualified by the class.
+                return referrer.getParent();
+            default:
+                return referrer;
+        }
+    }
+
+    /**
+     * Returns the type containing a member holding a reference.
+     *
+     * @param kind the kind of reference.
+     * @param member the member returned by {@link #toMember(TypeReference.Kind, Identifier)}.
+     * @return the container identifier.
+     */
+    static Identifier toContainer(TypeReference.Kind kind, Identifier member) {
+        switch (kind) {
+            case ATTRIBUTE_TYPE:
+            case THROWS:
+            case RETURN_TYPE:
+                return member.getParent();
+            case PARAMETER_TYPE:
+                return JavaCodeModel.METHOD_KEY.equals( member.getTailFragment().getQualifier() )
+                        ? member.getParent() : member;
+            default:
+                return member;
+        }
+    }
+
+    /**
+     * Returns the qualified name of a type, ignoring the qualifiers.
+     */
+    private static String toTypeName(Identifier type) {
+        final StringBuilder sb = new StringBuilder( type.getPrefix() );
+        for(int i = 0; i < type.size(); i++) {
+            if(i > 0) {
+                sb.append('.');
+            }
+            sb.append( type.getFragment(i).getFragment() );
+        }
+        return sb.toString();
+    }
+
+}
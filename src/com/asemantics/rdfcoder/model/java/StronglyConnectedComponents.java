@@ -0,0 +1,387 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel detection of the strongly connected components of a graph stored as adjacency arrays.
+ * The nodes without predecessors or successors within a node set are first trimmed away as single node
+ * components, then large node sets are split with the <i>forward-backward</i> algorithm: the nodes both
+ * reachable from and reaching a pivot form a component, the forward only and backward only nodes are
+ * independent subproblems solved as parallel fork/join tasks and the remaining nodes are split again.
+ * Small node sets, the sets where splitting makes little progress and too deeply nested subproblems
+ * are solved with the iterative Tarjan algorithm, so that the stack depth doesn't depend on the graph.
+ */
+final class StronglyConnectedComponents {
+
+    /**
+     * Node sets up to this size are solved sequentially.
+     */
+    static final int SEQUENTIAL_THRESHOLD = 2048;
+
+    /**
+     * Nesting level of the subproblems beyond which they are solved sequentially.
+     */
+    static final int MAX_DEPTH = 32;
+
+    /**
+     * Partition of an already assigned node.
+     */
+    private static final int ASSIGNED = -1;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] reverseOffsets;
+    private final int[] reverseTargets;
+
+    /**
+     * Subproblem of every node, each subproblem owns its nodes exclusively.
+     */
+    private final int[] partition;
+
+    private final int[] component;
+
+    /**
+     * Tarjan visit state, indexed by node.
+     */
+    private final int[] index;
+    private final int[] lowLink;
+    private final boolean[] onStack;
+
+    /**
+     * Trimming state, number of predecessors and successors of a node within its partition.
+     */
+    private final int[] inDegree;
+    private final int[] outDegree;
+
+    private final AtomicInteger partitions = new AtomicInteger(1);
+    private final AtomicInteger components = new AtomicInteger();
+
+    /**
+     * Computes the components of a graph.
+     *
+     * @param offsets the successors of node <i>n</i> are <code>targets[offsets[n] .. offsets[n + 1]]</code>.
+     * @param targets the successors.
+     * @param reverseOffsets the predecessors offsets.
+     * @param reverseTargets the predecessors.
+     * @param pool the pool running the tasks.
+     * @return the finder holding the result.
+     */
+    static StronglyConnectedComponents compute(
+            int[] offsets, int[] targets, int[] reverseOffsets, int[] reverseTargets, ForkJoinPool pool
+    ) {
+        final StronglyConnectedComponents finder =
+                new StronglyConnectedComponents(offsets, targets, reverseOffsets, reverseTargets);
+        final int size = offsets.length - 1;
+        if(size > 0) {
+            final int[] nodes = new int[size];
+            for(int n = 0; n < size; n++) {
+                nodes[n] = n;
+            }
+            pool.invoke( finder.new Task(0, nodes, 0) );
+        }
+        return finder;
+    }
+
+    private StronglyConnectedComponents(int[] offsets, int[] targets, int[] reverseOffsets, int[] reverseTargets) {
+        this.offsets        = offsets;
+        this.targets        = targets;
+        this.reverseOffsets = reverseOffsets;
+        this.reverseTargets = reverseTargets;
+        final int size = offsets.length - 1;
+        partition = new int[size];
+        component = new int[size];
+        index     = new int[size];
+        lowLink   = new int[size];
+        onStack   = new boolean[size];
+        inDegree  = new int[size];
+        outDegree = new int[size];
+    }
+
+    /**
+     * @return the component of every node.
+     */
+    int[] getComponents() {
+        return component;
+    }
+
+    /**
+     * @return the number of components.
+     */
+    int getComponentsCount() {
+        return components.get();
+    }
+
+    /**
+     * Solves a set of nodes not connected in cycles with the nodes outside it.
+     */
+    private class Task extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int id;
+        private final int[] nodes;
+        private final int depth;
+
+        Task(int id, int[] nodes, int depth) {
+            this.id    = id;
+            this.nodes = nodes;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            final List<Task> subtasks = new ArrayList<Task>();
+            int[] remaining = nodes;
+            while(true) {
+                remaining = trim(id, remaining);
+                if(remaining.length <= SEQUENTIAL_THRESHOLD || depth >= MAX_DEPTH) {
+                    tarjan(id, remaining);
+                    break;
+                }
+                final int size = remaining.length;
+                final int pivot = remaining[0];
+
+                // Forward closure of the pivot.
+                final int forwardId = partitions.getAndIncrement();
+                final IntQueue forward = new IntQueue();
+                partition[pivot] = forwardId;
+                forward.add(pivot);
+                for(int i = 0; i < forward.size; i++) {
+                    final int n = forward.values[i];
+                    for(int e = offsets[n]; e < offsets[n + 1]; e++) {
+                        final int next = targets[e];
+                        if(partition[next] == id) {
+                            partition[next] = forwardId;
+                            forward.add(next);
+                        }
+                    }
+                }
+
+                // Backward closure of the pivot, the forward nodes found are in the pivot component.
+                final int pivotComponent = components.getAndIncrement();
+                final int backwardId = partitions.getAndIncrement();
+                final IntQueue backward = new IntQueue();
+                partition[pivot] = ASSIGNED;
+                component[pivot] = pivotComponent;
+                backward.add(pivot);
+                final IntQueue backwardOnly = new IntQueue();
+                for(int i = 0; i < backward.size; i++) {
+                    final int n = backward.values[i];
+                    for(int e = reverseOffsets[n]; e < reverseOffsets[n + 1]; e++) {
+                        final int previous = reverseTargets[e];
+                        if(partition[previous] == forwardId) {
+                            partition[previous] = ASSIGNED;
+                            component[previous] = pivotComponent;
+                            backward.add(previous);
+                        } else if(partition[previous] == id) {
+                            partition[previous] = backwardId;
+                            backward.add(previous);
+                            backwardOnly.add(previous);
+                        }
+                    }
+                }
+
+                fork(subtasks, forwardId, select(forward.toArray(), forwardId));
+                fork(subtasks, backwardId, backwardOnly.toArray());
+                remaining = select(remaining, id);
+                if(remaining.length > size - size / 8) {
+                    // Splitting the remaining nodes would be too slow.
+                    tarjan(id, remaining);
+                    break;
+                }
+            }
+            for(Task subtask : subtasks) {
+                subtask.join();
+            }
+        }
+
+        private void fork(List<Task> subtasks, int partitionId, int[] partitionNodes) {
+            if(partitionNodes.length > 0) {
+                final Task subtask = new Task(partitionId, partitionNodes, depth + 1);
+                subtask.fork();
+                subtasks.add(subtask);
+            }
+        }
+
+        private int[] select(int[] candidates, int partitionId) {
+            final IntQueue result = new IntQueue();
+            for(int n : candidates) {
+                if(partition[n] == partitionId) {
+                    result.add(n);
+                }
+            }
+            return result.toArray();
+        }
+    }
+
+    /**
+     * Repeatedly assigns a single node component to the nodes of a partition
+     * without predecessors or without successors within the partition.
+     *
+     * @return the nodes left in the partition.
+     */
+    private int[] trim(int partitionId, int[] nodes) {
+        final IntQueue trimmed = new IntQueue();
+        for(int n : nodes) {
+            int in = 0;
+            for(int e = reverseOffsets[n]; e < reverseOffsets[n + 1]; e++) {
+                if(partition[ reverseTargets[e] ] == partitionId) {
+                    in++;
+                }
+            }
+            int out = 0;
+            for(int e = offsets[n]; e < offsets[n + 1]; e++) {
+                if(partition[ targets[e] ] == partitionId) {
+                    out++;
+                }
+            }
+            inDegree[n]  = in;
+            outDegree[n] = out;
+            if(in == 0 || out == 0) {
+                trimmed.add(n);
+            }
+        }
+        if(trimmed.size == 0) {
+            return nodes;
+        }
+        for(int i = 0; i < trimmed.size; i++) {
+            final int n = trimmed.values[i];
+            if(partition[n] != partitionId) {
+                continue;
+            }
+            partition[n] = ASSIGNED;
+            component[n] = components.getAndIncrement();
+            for(int e = offsets[n]; e < offsets[n + 1]; e++) {
+                final int next = targets[e];
+                if(partition[next] == partitionId && --inDegree[next] == 0) {
+                    trimmed.add(next);
+                }
+            }
+            for(int e = reverseOffsets[n]; e < reverseOffsets[n + 1]; e++) {
+                final int previous = reverseTargets[e];
+                if(partition[previous] == partitionId && --outDegree[previous] == 0) {
+                    trimmed.add(previous);
+                }
+            }
+        }
+        final IntQueue result = new IntQueue();
+        for(int n : nodes) {
+            if(partition[n] == partitionId) {
+                result.add(n);
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Iterative Tarjan visit of the nodes of a partition.
+     */
+    private void tarjan(int partitionId, int[] nodes) {
+        for(int n : nodes) {
+            index[n] = -1;
+        }
+        int counter = 0;
+        final IntQueue stack = new IntQueue();
+        int[] callNodes = new int[16];
+        int[] callEdges = new int[16];
+        for(int root : nodes) {
+            if(index[root] != -1) {
+                continue;
+            }
+            int depth = 0;
+            callNodes[0] = root;
+            callEdges[0] = offsets[root];
+            index[root] = lowLink[root] = counter++;
+            stack.add(root);
+            onStack[root] = true;
+            while(depth >= 0) {
+                final int n = callNodes[depth];
+                if(callEdges[depth] < offsets[n + 1]) {
+                    final int next = targets[ callEdges[depth]++ ];
+                    if(partition[next] != partitionId) {
+                        continue;
+                    }
+                    if(index[next] == -1) {
+                        index[next] = lowLink[next] = counter++;
+                        stack.add(next);
+                        onStack[next] = true;
+                        depth++;
+                        if(depth == callNodes.length) {
+                            callNodes = Arrays.copyOf(callNodes, depth * 2);
+                            callEdges = Arrays.copyOf(callEdges, depth * 2);
+                        }
+                        callNodes[depth] = next;
+                        callEdges[depth] = offsets[next];
+                    } else if(onStack[next] && index[next] < lowLink[n]) {
+                        lowLink[n] = index[next];
+                    }
+                    continue;
+                }
+                // All the successors visited.
+                if(lowLink[n] == index[n]) {
+                    final int c = components.getAndIncrement();
+                    int member;
+                    do {
+                        member = stack.values[--stack.size];
+                        onStack[member] = false;
+                        component[member] = c;
+                    } while(member != n);
+                }
+                depth--;
+                if(depth >= 0) {
+                    final int caller = callNodes[depth];
+                    if(lowLink[n] < lowLink[caller]) {
+                        lowLink[caller] = lowLink[n];
+                    }
+                }
+            }
+        }
+        for(int n : nodes) {
+            partition[n] = ASSIGNED;
+        }
+    }
+
+    /**
+     * Growing list of nodes.
+     */
+    private static class IntQueue {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+}
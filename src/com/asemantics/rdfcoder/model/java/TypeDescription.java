@@ -0,0 +1,323 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.Identifier;
+
+/**
+ * Immutable snapshot of a class, interface or enumeration with all its members.
+ *
+ * @see JavaQueryModel#describeClass(com.asemantics.rdfcoder.model.Identifier)
+ */
+public final class TypeDescription {
+
+    private final Identifier identifier;
+    private final String rdfType;
+    private final JavaCodeModel.JVisibility visibility;
+    private final JavaCodeModel.JModifier[] modifiers;
+    private final Identifier superClass;
+    private final Identifier[] superInterfaces;
+    private final Attribute[] attributes;
+    private final Method[] constructors;
+    private final Method[] methods;
+
+    TypeDescription(
+            Identifier identifier,
+            String rdfType,
+            JavaCodeModel.JVisibility visibility,
+            JavaCodeModel.JModifier[] modifiers,
+            Identifier superClass,
+            Identifier[] superInterfaces,
+            Attribute[] attributes,
+            Method[] constructors,
+            Method[] methods
+    ) {
+        this.identifier      = identifier;
+        this.rdfType         = rdfType;
+        this.visibility      = visibility;
+        this.modifiers       = modifiers;
+        this.superClass      = superClass;
+        this.superInterfaces = superInterfaces;
+        this.attributes      = attributes;
+        this.constructors    = constructors;
+        this.methods         = methods;
+    }
+
+    public Identifier getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return the type name.
+     */
+    public String getName() {
+        return identifier.getTailFragment().getFragment();
+    }
+
+    /**
+     * @return the RDF class of the type, one of {@link JavaCodeModel#JCLASS},
+     *         {@link JavaCodeModel#JINTERFACE} and {@link JavaCodeModel#JENUMERATION}.
+     */
+    public String getRdfType() {
+        return rdfType;
+    }
+
+    public JavaCodeModel.JVisibility getVisibility() {
+        return visibility;
+    }
+
+    public JavaCodeModel.JModifier[] getModifiers() {
+        return modifiers.clone();
+    }
+
+    /**
+     * @return the extended class, <code>null</code> if not defined.
+     */
+    public Identifier getSuperClass() {
+        return superClass;
+    }
+
+    /**
+     * @return the implemented interfaces of a class or the extended interfaces of an interface.
+     */
+    public Identifier[] getSuperInterfaces() {
+        return superInterfaces.clone();
+    }
+
+    /**
+     * @return the attributes sorted by name.
+     */
+    public Attribute[] getAttributes() {
+        return attributes.clone();
+    }
+
+    /**
+     * @return the constructors, each one with a single signature.
+     */
+    public Method[] getConstructors() {
+        return constructors.clone();
+    }
+
+    /**
+     * @return the methods sorted by name.
+     */
+    public Method[] getMethods() {
+        return methods.clone();
+    }
+
+    /**
+     * @return the number of described entities.
+     */
+    int size() {
+        int size = 1 + attributes.length + constructors.length;
+        for(Method method : methods) {
+            size += 1 + method.signatures.length;
+        }
+        return size;
+    }
+
+    public String toString() {
+        return String.format(
+                "%s{type: %s, attributes: %d, constructors: %d, methods: %d}",
+                this.getClass().getName(), identifier, attributes.length, constructors.length, methods.length
+        );
+    }
+
+    /**
+     * Snapshot of an attribute.
+     */
+    public static final class Attribute {
+
+        private final Identifier identifier;
+        private final JavaCodeModel.JVisibility visibility;
+        private final JavaCodeModel.JModifier[] modifiers;
+        private final JavaCodeModel.JType type;
+        private final String value;
+
+        Attribute(
+                Identifier identifier,
+                JavaCodeModel.JVisibility visibility,
+                JavaCodeModel.JModifier[] modifiers,
+                JavaCodeModel.JType type,
+                String value
+        ) {
+            this.identifier = identifier;
+            this.visibility = visibility;
+            this.modifiers  = modifiers;
+            this.type       = type;
+            this.value      = value;
+        }
+
+        public Identifier getIdentifier() {
+            return identifier;
+        }
+
+        public String getName() {
+            return identifier.getLastFragmentWithQualifier(JavaCodeModel.ATTRIBUTE_KEY);
+        }
+
+        public JavaCodeModel.JVisibility getVisibility() {
+            return visibility;
+        }
+
+        public JavaCodeModel.JModifier[] getModifiers() {
+            return modifiers.clone();
+        }
+
+        /**
+         * @return the attribute type, <code>null</code> if not defined.
+         */
+        public JavaCodeModel.JType getType() {
+            return type;
+        }
+
+        /**
+         * @return the attribute constant value, <code>null</code> if not defined.
+         */
+        public String getValue() {
+            return value;
+        }
+
+        public String toString() {
+            return identifier.toString();
+        }
+    }
+
+    /**
+     * Snapshot of a method or a constructor.
+     */
+    public static final class Method {
+
+        private final Identifier identifier;
+        private final JavaCodeModel.JVisibility visibility;
+        private final JavaCodeModel.JModifier[] modifiers;
+        private final Identifier[] exceptions;
+        private final Signature[] signatures;
+
+        Method(
+                Identifier identifier,
+                JavaCodeModel.JVisibility visibility,
+                JavaCodeModel.JModifier[] modifiers,
+                Identifier[] exceptions,
+                Signature[] signatures
+        ) {
+            this.identifier = identifier;
+            this.visibility = visibility;
+            this.modifiers  = modifiers;
+            this.exceptions = exceptions;
+            this.signatures = signatures;
+        }
+
+        public Identifier getIdentifier() {
+            return identifier;
+        }
+
+        public String getName() {
+            return identifier.getTailFragment().getFragment();
+        }
+
+        public JavaCodeModel.JVisibility getVisibility() {
+            return visibility;
+        }
+
+        public JavaCodeModel.JModifier[] getModifiers() {
+            return modifiers.clone();
+        }
+
+        /**
+         * @return the types of the thrown exceptions.
+         */
+        public Identifier[] getExceptions() {
+            return exceptions.clone();
+        }
+
+        public Signature[] getSignatures() {
+            return signatures.clone();
+        }
+
+        public String toString() {
+            return identifier.toString();
+        }
+    }
+
+    /**
+     * Snapshot of a signature.
+     */
+    public static final class Signature {
+
+        private final Identifier identifier;
+        private final Parameter[] parameters;
+        private final JavaCodeModel.JType returnType;
+
+        Signature(Identifier identifier, Parameter[] parameters, JavaCodeModel.JType returnType) {
+            this.identifier = identifier;
+            this.parameters = parameters;
+            this.returnType = returnType;
+        }
+
+        public Identifier getIdentifier() {
+            return identifier;
+        }
+
+        public Parameter[] getParameters() {
+            return parameters.clone();
+        }
+
+        /**
+         * @return the return type, <code>null</code> for constructors.
+         */
+        public JavaCodeModel.JType getReturnType() {
+            return returnType;
+        }
+
+        public String toString() {
+            return identifier.toString();
+        }
+    }
+
+    /**
+     * Snapshot of a parameter.
+     */
+    public static final class Parameter {
+
+        private final String name;
+        private final JavaCodeModel.JType type;
+
+        Parameter(String name, JavaCodeModel.JType type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the parameter type, <code>null</code> if not defined.
+         */
+        public JavaCodeModel.JType getType() {
+            return type;
+        }
+
+        public String toString() {
+            return name + ": " + type;
+        }
+    }
+
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.model.TripleIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the type hierarchy of a model, built from the
+ * {@link JavaCodeModel#EXTENDS_CLASS}, {@link JavaCodeModel#IMPLEMENTS_INT}
+ * and {@link JavaCodeModel#EXTENDS_INT} triples.
+ * Types are numbered with dense integers and the relations are stored
+ * as adjacency arrays, so the transitive queries cost a visit of the result.
+ * The subtype closures can be optionally {@link #precomputeClosures() precomputed}
+ * as bit sets.
+ *
+ * @see JavaQueryModel#getAllSubtypes(com.asemantics.rdfcoder.model.Identifier)
+ */
+public class TypeHierarchyIndex {
+
+    private static final Identifier[] EMPTY = new Identifier[0];
+
+    /**
+     * Modification count of the model at build time.
+     */
+    private final long modificationCount;
+
+    private final Map<String,Integer> ids;
+
+    private final String[] names;
+
+    /**
+     * The types known as interfaces.
+     */
+    private final BitSet interfaces;
+
+    /**
+     * Direct supertypes of type <i>t</i>: <code>superTargets[superOffsets[t] .. superOffsets[t + 1]]</code>.
+     */
+    private final int[] superOffsets;
+    private final int[] superTargets;
+
+    /**
+     * Direct subtypes of type <i>t</i>: <code>subTargets[subOffsets[t] .. subOffsets[t + 1]]</code>.
+     */
+    private final int[] subOffsets;
+    private final int[] subTargets;
+
+    /**
+     * Precomputed subtype closures, <code>null</code> if not computed.
+     */
+    private volatile BitSet[] subtypeClosures;
+
+    /**
+     * Builds the index of the hierarchy defined in a model.
+     *
+     * @param model the model to be scanned.
+     * @return the built index.
+     */
+    public static TypeHierarchyIndex build(CodeModel model) {
+        final long modificationCount = model.getModificationCount();
+        final Map<String,Integer> ids = new HashMap<String,Integer>();
+        final List<String> names = new ArrayList<String>();
+        final BitSet interfaces = new BitSet();
+        final EdgeList edges = new EdgeList();
+        addEdges(model, JavaCodeModel.EXTENDS_CLASS , false, false, ids, names, interfaces, edges);
+        addEdges(model, JavaCodeModel.IMPLEMENTS_INT, false, true , ids, names, interfaces, edges);
+        addEdges(model, JavaCodeModel.EXTENDS_INT   , true , true , ids, names, interfaces, edges);
+        return new TypeHierarchyIndex(
+                modificationCount, ids, names.toArray( new String[names.size()] ), interfaces, edges
+        );
+    }
+
+    private TypeHierarchyIndex(
+            long modificationCount, Map<String,Integer> ids, String[] names, BitSet interfaces, EdgeList edges
+    ) {
+        this.modificationCount = modificationCount;
+        this.ids        = ids;
+        this.names      = names;
+        this.interfaces = interfaces;
+        superOffsets = new int[names.length + 1];
+        superTargets = new int[edges.size];
+        subOffsets   = new int[names.length + 1];
+        subTargets   = new int[edges.size];
+        toAdjacency(edges.from, edges.to, edges.size, superOffsets, superTargets);
+        toAdjacency(edges.to, edges.from, edges.size, subOffsets, subTargets);
+    }
+
+    /**
+     * @return the modification count of the model when the index was built.
+     * @see com.asemantics.rdfcoder.model.CodeModel#getModificationCount()
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * @return the number of types involved in at least one relation.
+     */
+    public int getTypesCount() {
+        return names.length;
+    }
+
+    /**
+     * @return the number of direct relations.
+     */
+    public int getRelationsCount() {
+        return superTargets.length;
+    }
+
+    /**
+     * Checks whether a type is involved in at least one relation.
+     *
+     * @param type the type identifier.
+     * @return <code>true</code> if indexed.
+     */
+    public boolean contains(Identifier type) {
+        return ids.containsKey( type.getIdentifier() );
+    }
+
+    /**
+     * Returns all the classes and interfaces extending or implementing the given type,
+     * directly or transitively.
+     *
+     * @param type the class or interface identifier.
+     * @return the subtypes, the type itself excluded.
+     */
+    public Identifier[] getAllSubtypes(Identifier type) {
+        return toIdentifiers( subtypes(type), null );
+    }
+
+    /**
+     * Returns all the classes and interfaces extended or implemented by the given type,
+     * directly or transitively.
+     *
+     * @param type the class or interface identifier.
+     * @return the supertypes, the type itself excluded.
+     */
+    public Identifier[] getAllSupertypes(Identifier type) {
+        final Integer id = ids.get( type.getIdentifier() );
+        if(id == null) {
+            return EMPTY;
+        }
+        return toIdentifiers( visit(id, superOffsets, superTargets), null );
+    }
+
+    /**
+     * Returns all the classes implementing the given interface, directly,
+     * through a subinterface or through a superclass.
+     *
+     * @param pathToInterface the interface identifier.
+     * @return the implementing classes.
+     */
+    public Identifier[] getAllImplementors(Identifier pathToInterface) {
+        return toIdentifiers( subtypes(pathToInterface), interfaces );
+    }
+
+    /**
+     * Computes and keeps the subtype closure of every type as a bit set,
+     * so that the subtype queries don't need to visit the hierarchy.
+     * Types involved in cyclic relations are still visited.
+     * The required memory grows with the square of the number of types in the worst case.
+     */
+    public synchronized void precomputeClosures() {
+        if(subtypeClosures != null) {
+            return;
+        }
+        final int size = names.length;
+        final BitSet[] closures = new BitSet[size];
+        // Topological order from the leaves: a type is closed once all its subtypes are.
+        final int[] pending = new int[size];
+        final int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        for(int t = 0; t < size; t++) {
+            pending[t] = subOffsets[t + 1] - subOffsets[t];
+            if(pending[t] == 0) {
+                queue[tail++] = t;
+            }
+        }
+        while(head < tail) {
+            final int t = queue[head++];
+            final BitSet closure = new BitSet();
+            for(int i = subOffsets[t]; i < subOffsets[t + 1]; i++) {
+                final int sub = subTargets[i];
+                closure.set(sub);
+                closure.or(closures[sub]);
+            }
+            closures[t] = closure;
+            for(int i = superOffsets[t]; i < superOffsets[t + 1]; i++) {
+                final int sup = superTargets[i];
+                if(--pending[sup] == 0) {
+                    queue[tail++] = sup;
+                }
+            }
+        }
+        subtypeClosures = closures;
+    }
+
+    /**
+     * @return <code>true</code> if the subtype closures have been precomputed.
+     */
+    public boolean isClosuresPrecomputed() {
+        return subtypeClosures != null;
+    }
+
+    public String toString() {
+        return String.format(
+                "%s{types: %d, relations: %d, closures: %b}",
+                this.getClass().getName(), getTypesCount(), getRelationsCount(), isClosuresPrecomputed()
+        );
+    }
+
+    private BitSet subtypes(Identifier type) {
+        final Integer id = ids.get( type.getIdentifier() );
+        if(id == null) {
+            return new BitSet();
+        }
+        final BitSet[] closures = subtypeClosures;
+        if(closures != null && closures[id] != null) {
+            return closures[id];
+        }
+        return visit(id, subOffsets, subTargets);
+    }
+
+    /**
+     * Breadth first visit of the given adjacency, the start type excluded.
+     */
+    private BitSet visit(int start, int[] offsets, int[] targets) {
+        final BitSet visited = new BitSet();
+        int[] queue = new int[16];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while(head < tail) {
+            final int t = queue[head++];
+            for(int i = offsets[t]; i < offsets[t + 1]; i++) {
+                final int next = targets[i];
+                if(next != start && ! visited.get(next)) {
+                    visited.set(next);
+                    if(tail == queue.length) {
+                        queue = Arrays.copyOf(queue, queue.length * 2);
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Converts a set of types to identifiers, skipping the excluded ones.
+     */
+    private Identifier[] toIdentifiers(BitSet types, BitSet excluded) {
+        final List<Identifier> result = new ArrayList<Identifier>( types.cardinality() );
+        for(int t = types.nextSetBit(0); t >= 0; t = types.nextSetBit(t + 1)) {
+            if(excluded == null || ! excluded.get(t)) {
+                result.add( IdentifierReader.readIdentifier(names[t]) );
+            }
+        }
+        return result.toArray( new Identifier[result.size()] );
+    }
+
+    /**
+     * Adds the relations defined by a predicate,
+     * marking subjects and objects as interfaces if required.
+     */
+    private static void addEdges(
+            CodeModel model,
+            String predicate,
+            boolean subjectIsInterface,
+            boolean objectIsInterface,
+            Map<String,Integer> ids,
+            List<String> names,
+            BitSet interfaces,
+            EdgeList edges
+    ) {
+        final TripleIterator ti = model.searchTriples(CodeModel.ALL_MATCH, predicate, CodeModel.ALL_MATCH);
+        try {
+            while(ti.next()) {
+                final int subject = toId(ti.getSubject(), ids, names);
+                final int object  = toId(ti.getObject() , ids, names);
+                if(subjectIsInterface) {
+                    interfaces.set(subject);
+                }
+                if(objectIsInterface) {
+                    interfaces.set(object);
+                }
+                edges.add(subject, object);
+            }
+        } finally {
+            ti.close();
+        }
+    }
+
+    private static int toId(String name, Map<String,Integer> ids, List<String> names) {
+        Integer id = ids.get(name);
+        if(id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    /**
+     * Fills the adjacency arrays of the given edges grouped by source.
+     */
+    private static void toAdjacency(int[] sources, int[] targets, int size, int[] offsets, int[] adjacency) {
+        for(int i = 0; i < size; i++) {
+            offsets[ sources[i] + 1 ]++;
+        }
+        for(int t = 1; t < offsets.length; t++) {
+            offsets[t] += offsets[t - 1];
+        }
+        final int[] cursor = Arrays.copyOf(offsets, offsets.length - 1);
+        for(int i = 0; i < size; i++) {
+            adjacency[ cursor[sources[i]]++ ] = targets[i];
+        }
+    }
+
+    /**
+     * Growing list of <i>subtype -&gt; supertype</i> edges.
+     */
+    private static class EdgeList {
+
+        private int[] from = new int[256];
+        private int[] to   = new int[256];
+        private int size;
+
+        void add(int subtype, int supertype) {
+            if(size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to   = Arrays.copyOf(to  , size * 2);
+            }
+            from[size] = subtype;
+            to[size]   = supertype;
+            size++;
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.Identifier;
+
+/**
+ * A place of the model referencing a type.
+ *
+ * @see JavaQueryModel#getReferencesTo(com.asemantics.rdfcoder.model.Identifier)
+ */
+public final class TypeReference implements Comparable<TypeReference> {
+
+    /**
+     * The kinds of reference, one for every referencing relation.
+     */
+    public enum Kind {
+        ATTRIBUTE_TYPE       (JavaCodeModel.ATTRIBUTE_TYPE),
+        PARAMETER_TYPE       (JavaCodeModel.PARAMETER_TYPE),
+        RETURN_TYPE          (JavaCodeModel.RETURN_TYPE),
+        THROWS               (JavaCodeModel.THROWS),
+        EXTENDS_CLASS        (JavaCodeModel.EXTENDS_CLASS),
+        EXTENDS_INTERFACE    (JavaCodeModel.EXTENDS_INT),
+        IMPLEMENTS_INTERFACE (JavaCodeModel.IMPLEMENTS_INT);
+
+        private final String predicate;
+
+        Kind(String predicate) {
+            this.predicate = predicate;
+        }
+
+        /**
+         * @return the predicate of the referencing relation.
+         */
+        public String getPredicate() {
+            return predicate;
+        }
+
+        /**
+         * Returns the kind of reference of a predicate.
+         *
+         * @param predicate the relation predicate.
+         * @return the kind, <code>null</code> if the predicate is not a reference.
+         */
+        public static Kind toKind(String predicate) {
+            for(Kind kind : values()) {
+                if(kind.predicate.equals(predicate)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Kind kind;
+
+    private final Identifier referrer;
+
+    private final Identifier member;
+
+    private final Identifier container;
+
+    TypeReference(Kind kind, Identifier referrer, Identifier member, Identifier container) {
+        this.kind      = kind;
+        this.referrer  = referrer;
+        this.member    = member;
+        this.container = container;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the subject of the referencing relation:
+     *         an attribute, a parameter, a signature, a method, a constructor or a type.
+     */
+    public Identifier getReferrer() {
+        return referrer;
+    }
+
+    /**
+     * @return the attribute, method or constructor holding the reference,
+     *         the container itself for the type relations and the constructor parameters.
+     */
+    public Identifier getMember() {
+        return member;
+    }
+
+    /**
+     * @return the class, interface or enumeration holding the reference.
+     */
+    public Identifier getContainer() {
+        return container;
+    }
+
+    public int compareTo(TypeReference other) {
+        int result = container.getIdentifier().compareTo( other.container.getIdentifier() );
+        if(result == 0) {
+            result = member.getIdentifier().compareTo( other.member.getIdentifier() );
+        }
+        if(result == 0) {
+            result = kind.compareTo(other.kind);
+        }
+        if(result == 0) {
+            result = referrer.getIdentifier().compareTo( other.referrer.getIdentifier() );
+        }
+        return result;
+    }
+
+    public boolean equals(Object obj) {
+        if(obj == this) {
+            return true;
+        }
+        if( ! (obj instanceof TypeReference) ) {
+            return false;
+        }
+        final TypeReference other = (TypeReference) obj;
+        return kind == other.kind && referrer.equals(other.referrer);
+    }
+
+    public int hashCode() {
+        return kind.hashCode() * 31 + referrer.hashCode();
+    }
+
+    public String toString() {
+        return String.format("%s{%s: %s}", container, kind, member);
+    }
+
+}
@@ -20,7 +20,11 @@ package com.asemantics.rdfcoder.model.ontology;
 
 import com.asemantics.rdfcoder.model.CodeModel;
 import com.asemantics.rdfcoder.model.CodeModelBase;
+import com.asemantics.rdfcoder.model.IdentifierIndex;
+import com.asemantics.rdfcoder.model.ModelStatistics;
+import com.asemantics.rdfcoder.model.TripleBatch;
 import com.asemantics.rdfcoder.model.TripleIterator;
+import com.asemantics.rdfcoder.model.java.ReferenceIndex;
 
 /**
  * This decorator validates addition of model triples over a given
@@ -54,6 +58,14 @@ public class ValidatingCodeModel extends CodeModelBase {
         return decorated.searchTriples(subject, predicate, object);
     }
 
+    public long countTriples(String subject, String predicate, String object) {
+        return decorated.countTriples(subject, predicate, object);
+    }
+
+    public boolean containsTriple(String subject, String predicate, String object) {
+        return decorated.containsTriple(subject, predicate, object);
+    }
+
     public void addTriple(String subject, String predicate, String object) {
         try {
             ontology.validateTriple(subject, predicate, object);
@@ -92,10 +104,68 @@ public class ValidatingCodeModel extends CodeModelBase {
         decorated.addTripleCollection(subject, predicate, list);
     }
 
+    public void addTriples(TripleBatch batch) {
+        for(int i = 0; i < batch.size(); i++) {
+            final String subject   = batch.getSubject(i);
+            final String predicate = batch.getPredicate(i);
+            try {
+                switch(batch.getKind(i)) {
+                    case RESOURCE:
+                        ontology.validateTriple(subject, predicate, batch.getObject(i));
+                        break;
+                    case LITERAL:
+                        ontology.validateTripleLiteral(subject, predicate);
+                        break;
+                    case COLLECTION:
+                        ontology.validateTriple(subject, predicate, batch.getValues(i));
+                        break;
+                    default:
+                        throw new IllegalStateException();
+                }
+            } catch (OntologyException oe) {
+                throw createException(
+                        oe,
+                        subject,
+                        predicate,
+                        batch.getKind(i) == TripleBatch.Kind.COLLECTION ? batch.getValues(i) : batch.getObject(i)
+                );
+            }
+        }
+        decorated.addTriples(batch);
+    }
+
     public void clearAll() {
         decorated.clearAll();
     }
 
+    public long getModificationCount() {
+        return decorated.getModificationCount();
+    }
+
+    @Override
+    public IdentifierIndex getIdentifierIndex() {
+        if(decorated instanceof CodeModelBase) {
+            return ((CodeModelBase) decorated).getIdentifierIndex();
+        }
+        return super.getIdentifierIndex();
+    }
+
+    @Override
+    public ReferenceIndex getReferenceIndex() {
+        if(decorated instanceof CodeModelBase) {
+            return ((CodeModelBase) decorated).getReferenceIndex();
+        }
+        return super.getReferenceIndex();
+    }
+
+    @Override
+    public ModelStatistics getModelStatistics() {
+        if(decorated instanceof CodeModelBase) {
+            return ((CodeModelBase) decorated).getModelStatistics();
+        }
+        return super.getModelStatistics();
+    }
+
     private RuntimeException createException(OntologyException cause, String s, String p, Object o) {
         return new RuntimeException(
                 String.format("An error occurred while validating triple { %s %s %s }", s, p, o),
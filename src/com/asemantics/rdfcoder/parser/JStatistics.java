@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Decorator class collecting some statistics related to the processing
@@ -544,5 +545,12 @@ public class JStatistics {
             replacedEntries += replaced;
             return replaced;
         }
+
+        public int replaceIdentifiersWithQualifiedTypes(Map<Identifier,Identifier> replacements) {
+            if(wrapped == null) { throw new IllegalStateException(); }
+            int replaced = wrapped.replaceIdentifiersWithQualifiedTypes(replacements);
+            replacedEntries += replaced;
+            return replaced;
+        }
     }
 }
\ No newline at end of file
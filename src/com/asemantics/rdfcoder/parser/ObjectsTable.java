@@ -213,21 +213,23 @@ public class ObjectsTable implements Serializable {
         UnresolvedTypeEntry ue;
         Identifier qualifiedType;
         Set<String> definitivelyUnresolved = new HashSet<String>();
+        Map<Identifier,Identifier> replacements = new HashMap<Identifier,Identifier>();
         while(uei.hasNext()) {
             ue = uei.next();
             qualifiedType = ue.importsContext.qualifyType(this, ue.typeName);
             Identifier prefixedIdentifier = ue.type.getIdentifier();
             if(qualifiedType != null) {
-                ch.replaceIdentifierWithQualifiedType(prefixedIdentifier, qualifiedType);
+                replacements.put(prefixedIdentifier, qualifiedType);
                 uei.remove();
             } else {
-                ch.replaceIdentifierWithQualifiedType(
+                replacements.put(
                         prefixedIdentifier,
                         IdentifierBuilder.create().pushFragment(ue.typeName, JavaCodeModel.UNQUALIFIED_PREFIX).build()
                 );
                 definitivelyUnresolved.add( ue.typeName );
             }
         }
+        ch.replaceIdentifiersWithQualifiedTypes(replacements);
         return definitivelyUnresolved;
     }
 
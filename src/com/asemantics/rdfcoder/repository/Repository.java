@@ -54,22 +54,51 @@ public class Repository {
             String getExtension() {
                 return "xml";
             }
+        },
+
+        BINARY_MODEL {
+
+            String getExtension() {
+                return "rdfbin";
+            }
+        },
+
+        N_TRIPLES {
+
+            String getExtension() {
+                return "nt";
+            }
+        },
+
+        N_TRIPLES_GZIP {
+
+            String getExtension() {
+                return "nt.gz";
+            }
         };
 
         /**
-         * Returns the type of the file name on the basis of the extension,
+         * Returns the type of the file name on the basis of the longest matching extension,
          * <code>null</code> if no extension matches.
          *
          * @param fileName
          * @return
          */
         static ResourceType getType(String fileName) {
+            ResourceType result = null;
             for(ResourceType rt : ResourceType.values()) {
-                if(fileName.indexOf(rt.getExtension()) != -1 ) {
-                    return rt;
+                final String extension = rt.getExtension();
+                if(
+                        fileName.endsWith("." + extension)
+                        &&
+                        fileName.length() > extension.length() + 1
+                        &&
+                        (result == null || extension.length() > result.getExtension().length())
+                ) {
+                    result = rt;
                 }
             }
-            return null;
+            return result;
         }
 
         /**
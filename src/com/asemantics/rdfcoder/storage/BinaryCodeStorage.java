@@ -0,0 +1,443 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.AnonId;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Represents a {@link com.asemantics.rdfcoder.storage.CodeStorage} writing
+ * a compact binary snapshot of a {@link com.asemantics.rdfcoder.storage.JenaCodeModel}
+ * or a {@link com.asemantics.rdfcoder.storage.DictionaryCodeModel}.
+ * <p>
+ * The snapshot is composed of a header (magic, version, flags), a dictionary
+ * section listing every node label once and a triples section with the
+ * node identifiers sorted in <i>SPO</i> order and delta encoded in blocks.
+ * The sections following the header can be <i>deflate</i> compressed.
+ * Literals are stored by lexical form only, as the code models never
+ * produce typed or language tagged literals.
+ * </p>
+ */
+public class BinaryCodeStorage extends CodeStorage {
+
+    /**
+     * Magic number, <i>"RDCB"</i>.
+     */
+    private static final int MAGIC = 0x52444342;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Flag set when the payload is deflate compressed.
+     */
+    private static final int FLAG_COMPRESSED = 1;
+
+    /**
+     * Maximum number of triples in a delta encoded block.
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * If <code>true</code> the payload is compressed on save.
+     */
+    private final boolean compressed;
+
+    /**
+     * Constructor.
+     *
+     * @param compressed if <code>true</code> the snapshot payload is deflate compressed.
+     */
+    public BinaryCodeStorage(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    /**
+     * Constructor, produces compressed snapshots.
+     */
+    public BinaryCodeStorage() {
+        this(true);
+    }
+
+    /**
+     * @return <code>true</code> if the saved snapshots are compressed.
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void loadModel(CodeModel codeModel, InputStream inputStream) throws CodeStorageException {
+        checkModel(codeModel);
+        try {
+            final DataInputStream header = new DataInputStream(inputStream);
+            if(header.readInt() != MAGIC) {
+                throw new CodeStorageException("The stream doesn't contain a binary model snapshot.");
+            }
+            final int version = header.readUnsignedByte();
+            if(version != VERSION) {
+                throw new CodeStorageException("Unsupported binary model snapshot version: " + version);
+            }
+            final int flags = header.readUnsignedByte();
+            InputStream payload = new BufferedInputStream(inputStream, BUFFER_SIZE);
+            if( (flags & FLAG_COMPRESSED) != 0 ) {
+                payload = new BufferedInputStream( new InflaterInputStream(payload), BUFFER_SIZE );
+            }
+            final DataInputStream dis = new DataInputStream(payload);
+            if(codeModel instanceof DictionaryCodeModel) {
+                readDictionaryModel( (DictionaryCodeModel) codeModel, dis );
+            } else {
+                readJenaModel( (JenaCodeModel) codeModel, dis );
+            }
+        } catch (CodeStorageException cse) {
+            throw cse;
+        } catch (Exception e) {
+            throw new CodeStorageException("Error while reading model.", e);
+        }
+    }
+
+    public void saveModel(CodeModel codeModel, OutputStream outputStream) throws CodeStorageException {
+        checkModel(codeModel);
+        final NodeDictionary dictionary;
+        final TripleTable table;
+        if(codeModel instanceof DictionaryCodeModel) {
+            dictionary = ( (DictionaryCodeModel) codeModel ).getDictionary();
+            table      = ( (DictionaryCodeModel) codeModel ).getTable();
+        } else {
+            dictionary = new NodeDictionary();
+            table      = new TripleTable();
+            encodeJenaModel( (JenaCodeModel) codeModel, dictionary, table );
+        }
+        table.optimize();
+
+        try {
+            final DataOutputStream header = new DataOutputStream(outputStream);
+            header.writeInt(MAGIC);
+            header.writeByte(VERSION);
+            header.writeByte(compressed ? FLAG_COMPRESSED : 0);
+            header.flush();
+
+            DeflaterOutputStream deflater = null;
+            OutputStream payload = outputStream;
+            if(compressed) {
+                deflater = new DeflaterOutputStream(outputStream, new Deflater(Deflater.BEST_SPEED), BUFFER_SIZE);
+                payload  = deflater;
+            }
+            final DataOutputStream dos = new DataOutputStream( new BufferedOutputStream(payload, BUFFER_SIZE) );
+            writeDictionary(dictionary, dos);
+            writeTriples(table, dos);
+            dos.flush();
+            if(deflater != null) {
+                deflater.finish();
+            }
+            outputStream.flush();
+        } catch (IOException ioe) {
+            throw new CodeStorageException("Error while writing model.", ioe);
+        }
+    }
+
+    public void saveModel(CodeModel codeModel, Map<String, String> parameters) throws CodeStorageException {
+        if(parameters == null) {
+            throw new NullPointerException("parameters cannot be null");
+        }
+        FileOutputStream fos = openFileOutputStream(parameters);
+        try {
+            saveModel(codeModel, fos);
+        } finally {
+            try {
+                fos.close();
+            } catch (IOException ioe) {
+                ioe.printStackTrace();
+            }
+        }
+    }
+
+    public void loadModel(CodeModel codeModel, Map parameters) throws CodeStorageException {
+        if(parameters == null) {
+            throw new NullPointerException("parameters cannot be null");
+        }
+        FileInputStream fis = openFileInputStream(parameters);
+        try {
+            loadModel(codeModel, fis);
+        } finally {
+            try {
+                fis.close();
+            } catch (IOException ioe) {
+                ioe.printStackTrace();
+            }
+        }
+    }
+
+    public boolean supportsDatabase() {
+        return false;
+    }
+
+    public boolean supportsFile() {
+        return true;
+    }
+
+    private static void checkModel(CodeModel codeModel) throws CodeStorageException {
+        if( ! (codeModel instanceof JenaCodeModel) && ! (codeModel instanceof DictionaryCodeModel) ) {
+            throw new CodeStorageException(
+                    "Expected " + JenaCodeModel.class + " or " + DictionaryCodeModel.class + " here, found " +
+                    (codeModel == null ? null : codeModel.getClass())
+            );
+        }
+    }
+
+    /**
+     * Encodes the content of a Jena model into the given dictionary and table.
+     */
+    private static void encodeJenaModel(JenaCodeModel codeModel, NodeDictionary dictionary, TripleTable table)
+    throws CodeStorageException {
+        final ExtendedIterator iterator = codeModel.getJenaModel().getGraph().find(Node.ANY, Node.ANY, Node.ANY);
+        try {
+            while(iterator.hasNext()) {
+                final Triple triple = (Triple) iterator.next();
+                table.add(
+                        encode(dictionary, triple.getSubject()),
+                        encode(dictionary, triple.getPredicate()),
+                        encode(dictionary, triple.getObject())
+                );
+            }
+        } finally {
+            iterator.close();
+        }
+    }
+
+    private static int encode(NodeDictionary dictionary, Node node) throws CodeStorageException {
+        if(node.isURI()) {
+            return dictionary.encode(node.getURI(), NodeDictionary.RESOURCE);
+        }
+        if(node.isLiteral()) {
+            return dictionary.encode(node.getLiteralLexicalForm(), NodeDictionary.LITERAL);
+        }
+        if(node.isBlank()) {
+            return dictionary.encode(node.getBlankNodeLabel(), NodeDictionary.BLANK);
+        }
+        throw new CodeStorageException("Unsupported node: " + node);
+    }
+
+    private static void writeDictionary(NodeDictionary dictionary, DataOutputStream dos) throws IOException {
+        final int size = dictionary.size();
+        writeVarInt(dos, size);
+        for(int id = 0; id < size; id++) {
+            dos.writeByte( dictionary.kind(id) );
+            final byte[] label = dictionary.label(id).getBytes("UTF-8");
+            writeVarInt(dos, label.length);
+            dos.write(label);
+        }
+    }
+
+    /**
+     * Writes the triples in blocks of at most {@link #BLOCK_SIZE} entries.
+     * Within a block every triple is encoded as the subject delta, then the
+     * predicate delta if the subject is unchanged or the raw predicate otherwise,
+     * then the object delta if subject and predicate are unchanged or the raw object otherwise.
+     */
+    private static void writeTriples(TripleTable table, DataOutputStream dos) throws IOException {
+        final int size = table.size();
+        writeVarInt(dos, size);
+        final TripleTable.Cursor cursor = table.search(TripleTable.ANY, TripleTable.ANY, TripleTable.ANY);
+        int remaining = size;
+        while(remaining > 0) {
+            final int block = Math.min(remaining, BLOCK_SIZE);
+            writeVarInt(dos, block);
+            int ps = 0, pp = 0, po = 0;
+            for(int i = 0; i < block; i++) {
+                if( ! cursor.next() ) {
+                    throw new IllegalStateException("Triple table size mismatch.");
+                }
+                final int s = cursor.subject();
+                final int p = cursor.predicate();
+                final int o = cursor.object();
+                final int ds = s - ps;
+                writeVarInt(dos, ds);
+                if(ds != 0) {
+                    writeVarInt(dos, p);
+                    writeVarInt(dos, o);
+                } else {
+                    final int dp = p - pp;
+                    writeVarInt(dos, dp);
+                    writeVarInt(dos, dp != 0 ? o : o - po);
+                }
+                ps = s;
+                pp = p;
+                po = o;
+            }
+            remaining -= block;
+        }
+    }
+
+    private static void readDictionaryModel(DictionaryCodeModel codeModel, DataInputStream dis) throws IOException {
+        final NodeDictionary dictionary = codeModel.getDictionary();
+        final int nodes = readVarInt(dis);
+        final int[] ids = new int[nodes];
+        for(int i = 0; i < nodes; i++) {
+            final byte kind = dis.readByte();
+            ids[i] = dictionary.encode( readLabel(dis), kind );
+        }
+        final TripleTable table = codeModel.getTable();
+        final TripleReader reader = new TripleReader(dis, nodes);
+        while(reader.next()) {
+            table.add( ids[reader.s], ids[reader.p], ids[reader.o] );
+        }
+    }
+
+    private static void readJenaModel(JenaCodeModel codeModel, DataInputStream dis) throws IOException {
+        final int size = readVarInt(dis);
+        final Node[] nodes = new Node[size];
+        for(int i = 0; i < size; i++) {
+            final byte kind = dis.readByte();
+            final String label = readLabel(dis);
+            switch(kind) {
+                case NodeDictionary.RESOURCE:
+                    nodes[i] = JenaCodeModel.toURINode(label);
+                    break;
+                case NodeDictionary.LITERAL:
+                    nodes[i] = Node.createLiteral(label);
+                    break;
+                case NodeDictionary.BLANK:
+                    nodes[i] = Node.createAnon( new AnonId(label) );
+                    break;
+                default:
+                    throw new IOException("Unknown node kind: " + kind);
+            }
+        }
+        final Graph graph = codeModel.getJenaModel().getGraph();
+        final TripleReader reader = new TripleReader(dis, size);
+        final List<Triple> block = new ArrayList<Triple>(BLOCK_SIZE);
+        while(reader.next()) {
+            block.add( new Triple(nodes[reader.s], nodes[reader.p], nodes[reader.o]) );
+            if(block.size() == BLOCK_SIZE) {
+                graph.getBulkUpdateHandler().add(block);
+                block.clear();
+            }
+        }
+        if( ! block.isEmpty() ) {
+            graph.getBulkUpdateHandler().add(block);
+        }
+    }
+
+    /**
+     * Decodes the triples section written by {@link BinaryCodeStorage#writeTriples(TripleTable, DataOutputStream)}.
+     */
+    private static class TripleReader {
+
+        private final DataInputStream dis;
+
+        private final int nodes;
+
+        private int remaining;
+
+        private int blockRemaining;
+
+        int s, p, o;
+
+        TripleReader(DataInputStream dis, int nodes) throws IOException {
+            this.dis   = dis;
+            this.nodes = nodes;
+            remaining  = readVarInt(dis);
+        }
+
+        boolean next() throws IOException {
+            if(remaining == 0) {
+                return false;
+            }
+            if(blockRemaining == 0) {
+                blockRemaining = readVarInt(dis);
+                if(blockRemaining == 0 || blockRemaining > remaining) {
+                    throw new IOException("Invalid block size: " + blockRemaining);
+                }
+                s = p = o = 0;
+            }
+            final int ds = readVarInt(dis);
+            if(ds != 0) {
+                s += ds;
+                p = readVarInt(dis);
+                o = readVarInt(dis);
+            } else {
+                final int dp = readVarInt(dis);
+                if(dp != 0) {
+                    p += dp;
+                    o = readVarInt(dis);
+                } else {
+                    o += readVarInt(dis);
+                }
+            }
+            if(s >= nodes || p >= nodes || o >= nodes) {
+                throw new IOException("Invalid node identifier in triple (" + s + ", " + p + ", " + o + ")");
+            }
+            blockRemaining--;
+            remaining--;
+            return true;
+        }
+    }
+
+    private static String readLabel(DataInputStream dis) throws IOException {
+        final byte[] label = new byte[readVarInt(dis)];
+        dis.readFully(label);
+        return new String(label, "UTF-8");
+    }
+
+    private static void writeVarInt(DataOutputStream dos, int value) throws IOException {
+        while( (value & ~0x7F) != 0 ) {
+            dos.writeByte( (value & 0x7F) | 0x80 );
+            value >>>= 7;
+        }
+        dos.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream dis) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7) {
+            final int b = dis.read();
+            if(b == -1) {
+                throw new EOFException("Unexpected end of binary model snapshot.");
+            }
+            value |= (b & 0x7F) << shift;
+            if( (b & 0x80) == 0 ) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer.");
+    }
+
+}
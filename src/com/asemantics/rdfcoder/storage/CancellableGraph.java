@@ -0,0 +1,81 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.QueryHandle;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.TripleMatch;
+import com.hp.hpl.jena.graph.impl.GraphBase;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import com.hp.hpl.jena.util.iterator.NiceIterator;
+
+/**
+ * Read only view of a {@link Graph} checking a {@link QueryHandle} for every matched triple,
+ * so that a query evaluated on it stops as soon as the handle is cancelled or expires,
+ * even while scanning triples which don't produce any result.
+ */
+class CancellableGraph extends GraphBase {
+
+    private final Graph base;
+
+    private final QueryHandle handle;
+
+    /**
+     * Returns a model reading the given one under the control of a handle.
+     *
+     * @param model the queried model.
+     * @param handle the execution handle.
+     * @return the checked view.
+     */
+    static Model wrap(Model model, QueryHandle handle) {
+        return ModelFactory.createModelForGraph( new CancellableGraph(model.getGraph(), handle) );
+    }
+
+    CancellableGraph(Graph base, QueryHandle handle) {
+        this.base   = base;
+        this.handle = handle;
+    }
+
+    protected ExtendedIterator graphBaseFind(TripleMatch match) {
+        handle.check();
+        final ExtendedIterator triples = base.find(match);
+        return new NiceIterator() {
+
+            public boolean hasNext() {
+                handle.check();
+                return triples.hasNext();
+            }
+
+            public Object next() {
+                return triples.next();
+            }
+
+            public void close() {
+                triples.close();
+            }
+        };
+    }
+
+    protected int graphBaseSize() {
+        return base.size();
+    }
+
+}
@@ -36,6 +36,7 @@ public abstract class CodeStorage {
 
     public static final String STORAGE_FS  = "fs";
     public static final String FS_FILENAME = "filename";
+    public static final String FS_FORMAT   = "format";
 
     public static final String STORAGE_DB  = "db";
     public static final String DB_SERVER   = "server";
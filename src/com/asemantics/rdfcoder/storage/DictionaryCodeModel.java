@@ -0,0 +1,513 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.RDFCoder;
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.CodeModelDebugException;
+import com.asemantics.rdfcoder.model.ModelStatistics;
+import com.asemantics.rdfcoder.model.QueryCancelledException;
+import com.asemantics.rdfcoder.model.QueryHandle;
+import com.asemantics.rdfcoder.model.QueryResult;
+import com.asemantics.rdfcoder.model.SPARQLException;
+import com.asemantics.rdfcoder.model.SPARQLQuerableCodeModel;
+import com.asemantics.rdfcoder.model.TripleBatch;
+import com.asemantics.rdfcoder.model.TripleIterator;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.graph.TripleMatch;
+import com.hp.hpl.jena.graph.impl.GraphBase;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.AnonId;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import com.hp.hpl.jena.util.iterator.NiceIterator;
+import com.hp.hpl.jena.vocabulary.RDF;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link com.asemantics.rdfcoder.model.CodeModel} implementation
+ * storing every node as an <i>int</i> identifier of a {@link NodeDictionary}
+ * and every triple into the primitive indexes of a {@link TripleTable}.
+ * <p>
+ * <i>SPARQL</i> queries are performed by <i>ARQ</i> over a read-write
+ * {@link com.hp.hpl.jena.graph.Graph} view of the indexes.
+ */
+public class DictionaryCodeModel extends SPARQLQuerableCodeModel {
+
+    private static final String RDF_TYPE = RDF.type.getURI();
+
+    private static final String RDF_BAG  = RDF.Bag.getURI();
+
+    /**
+     * Node dictionary.
+     */
+    private final NodeDictionary dictionary = new NodeDictionary();
+
+    /**
+     * Encoded triples.
+     */
+    private final TripleTable table = new TripleTable();
+
+    /**
+     * Jena view on this model.
+     */
+    private final Model jenaView;
+
+    /**
+     * Parsed queries by text.
+     */
+    private final SPARQLQueryCache queryCache = new SPARQLQueryCache();
+
+    /**
+     * Optional cache of the query results, <code>null</code> if disabled.
+     */
+    private volatile SPARQLResultCache resultCache;
+
+    protected DictionaryCodeModel() {
+        jenaView = ModelFactory.createModelForGraph( new DictionaryGraph() );
+    }
+
+    /**
+     * Returns a Jena model backed by this code model.
+     *
+     * @return the Jena view.
+     */
+    protected Model getJenaView() {
+        return jenaView;
+    }
+
+    /**
+     * @return the node dictionary of this model.
+     */
+    NodeDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return the encoded triples of this model.
+     */
+    TripleTable getTable() {
+        return table;
+    }
+
+    /**
+     * @return the number of distinct nodes.
+     */
+    public int getNodesCount() {
+        return dictionary.size();
+    }
+
+    /**
+     * @return the number of triples.
+     */
+    public int getTriplesCount() {
+        return table.size();
+    }
+
+    class InternalTripleIterator implements TripleIterator {
+
+        private final TripleTable.Cursor cursor;
+
+        InternalTripleIterator(TripleTable.Cursor cursor) {
+            this.cursor = cursor;
+        }
+
+        public boolean next() {
+            return cursor != null && cursor.next();
+        }
+
+        public String getSubject() {
+            return dictionary.label( cursor.subject() );
+        }
+
+        public String getPredicate() {
+            return dictionary.label( cursor.predicate() );
+        }
+
+        public String getObject() {
+            return dictionary.label( cursor.object() );
+        }
+
+        public void close() {
+            // Empty.
+        }
+    }
+
+    public TripleIterator searchTriples(String subject, String predicate, String object) {
+        final int s = subject   == null ? TripleTable.ANY : dictionary.lookup(subject  , NodeDictionary.RESOURCE);
+        final int p = predicate == null ? TripleTable.ANY : dictionary.lookup(predicate, NodeDictionary.RESOURCE);
+        final int o = object    == null ? TripleTable.ANY : dictionary.lookup(object   , NodeDictionary.RESOURCE);
+        if(
+                (subject   != null && s == NodeDictionary.NOT_FOUND) ||
+                (predicate != null && p == NodeDictionary.NOT_FOUND) ||
+                (object    != null && o == NodeDictionary.NOT_FOUND)
+        ) {
+            return new InternalTripleIterator(null);
+        }
+        return new InternalTripleIterator( table.search(s, p, o) );
+    }
+
+    public long countTriples(String subject, String predicate, String object) {
+        final int s = subject   == null ? TripleTable.ANY : dictionary.lookup(subject  , NodeDictionary.RESOURCE);
+        final int p = predicate == null ? TripleTable.ANY : dictionary.lookup(predicate, NodeDictionary.RESOURCE);
+        final int o = object    == null ? TripleTable.ANY : dictionary.lookup(object   , NodeDictionary.RESOURCE);
+        if(s == NodeDictionary.NOT_FOUND || p == NodeDictionary.NOT_FOUND || o == NodeDictionary.NOT_FOUND) {
+            return 0;
+        }
+        return table.count(s, p, o);
+    }
+
+    public boolean containsTriple(String subject, String predicate, String object) {
+        final int s = subject   == null ? TripleTable.ANY : dictionary.lookup(subject  , NodeDictionary.RESOURCE);
+        final int p = predicate == null ? TripleTable.ANY : dictionary.lookup(predicate, NodeDictionary.RESOURCE);
+        final int o = object    == null ? TripleTable.ANY : dictionary.lookup(object   , NodeDictionary.RESOURCE);
+        if(s == NodeDictionary.NOT_FOUND || p == NodeDictionary.NOT_FOUND || o == NodeDictionary.NOT_FOUND) {
+            return false;
+        }
+        if(s != TripleTable.ANY && p != TripleTable.ANY && o != TripleTable.ANY) {
+            return table.contains(s, p, o);
+        }
+        return table.search(s, p, o).next();
+    }
+
+    public void addTriple(String subject, String predicate, String object) {
+        checkTriple(subject, predicate, object);
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final boolean added = table.add(
+                dictionary.encode(subject  , NodeDictionary.RESOURCE),
+                dictionary.encode(predicate, NodeDictionary.RESOURCE),
+                dictionary.encode(object   , NodeDictionary.RESOURCE)
+        );
+        statistics.update(this, synchronizedBefore, added ? 1 : 0, predicate, object);
+    }
+
+    public void removeTriple(String subject, String predicate, String object) {
+        remove(subject, predicate, object, NodeDictionary.RESOURCE);
+    }
+
+    public void addTripleLiteral(String subject, String predicate, String literal) {
+        checkTriple(subject, predicate, literal);
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final boolean added = table.add(
+                dictionary.encode(subject  , NodeDictionary.RESOURCE),
+                dictionary.encode(predicate, NodeDictionary.RESOURCE),
+                dictionary.encode(literal  , NodeDictionary.LITERAL )
+        );
+        statistics.update(this, synchronizedBefore, added ? 1 : 0, null, null);
+    }
+
+    public void removeTripleLiteral(String subject, String predicate, String object) {
+        remove(subject, predicate, object, NodeDictionary.LITERAL);
+    }
+
+    public void addTripleCollection(Object subject, String predicate, String[] values) {
+        if( ! (subject instanceof String) ) {
+            throw new IllegalArgumentException("Invalid subject.");
+        }
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final int sizeBefore = table.size();
+        addCollection((String) subject, predicate, values);
+        statistics.update(this, synchronizedBefore, table.size() - sizeBefore, null, null);
+    }
+
+    /**
+     * Encodes the batch triples directly, resolving the identifier
+     * of a subject or predicate once for consecutive repetitions.
+     *
+     * @param batch the batch of triples to be added.
+     */
+    public void addTriples(TripleBatch batch) {
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final int sizeBefore = table.size();
+        final int type = dictionary.encode(CodeModel.TYPE, NodeDictionary.RESOURCE);
+        final Map<String,Long> newEntities = new HashMap<String,Long>();
+        String lastSubject   = null;
+        String lastPredicate = null;
+        int s = NodeDictionary.NOT_FOUND;
+        int p = NodeDictionary.NOT_FOUND;
+        for(int i = 0; i < batch.size(); i++) {
+            final String subject   = batch.getSubject(i);
+            final String predicate = batch.getPredicate(i);
+            if( ! subject.equals(lastSubject) ) {
+                s = dictionary.encode(subject, NodeDictionary.RESOURCE);
+                lastSubject = subject;
+            }
+            if( ! predicate.equals(lastPredicate) ) {
+                p = dictionary.encode(predicate, NodeDictionary.RESOURCE);
+                lastPredicate = predicate;
+            }
+            switch( batch.getKind(i) ) {
+                case RESOURCE:
+                    checkTriple(subject, predicate, batch.getObject(i));
+                    if(
+                            table.add(s, p, dictionary.encode(batch.getObject(i), NodeDictionary.RESOURCE))
+                                    &&
+                            p == type
+                    ) {
+                        final Long count = newEntities.get( batch.getObject(i) );
+                        newEntities.put( batch.getObject(i), count == null ? 1 : count + 1 );
+                    }
+                    break;
+                case LITERAL:
+                    checkTriple(subject, predicate, batch.getObject(i));
+                    table.add(s, p, dictionary.encode(batch.getObject(i), NodeDictionary.LITERAL));
+                    break;
+                case COLLECTION:
+                    addCollection(subject, predicate, batch.getValues(i));
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+        statistics.update(this, synchronizedBefore, table.size() - sizeBefore, newEntities);
+    }
+
+    public void clearAll() {
+        table.clear();
+        dictionary.clear();
+        getIdentifierIndex().clear();
+    }
+
+    public long getModificationCount() {
+        return table.getModificationCount();
+    }
+
+    /**
+     * @return the cache of the queries parsed by {@link #performQuery(String)}.
+     */
+    public SPARQLQueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * @return the cache of the results of {@link #performQuery(String)}, <code>null</code> if disabled.
+     */
+    public SPARQLResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Enables or disables the caching of the query results.
+     * The cached results are discarded every time the model changes.
+     *
+     * @param resultCache the cache instance, to be used only by this model, <code>null</code> to disable it.
+     */
+    public void setResultCache(SPARQLResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public QueryResult performQuery(String sparqlQry, QueryHandle handle) throws SPARQLException {
+        Query query = queryCache.getQuery(sparqlQry);
+        final SPARQLResultCache currentResultCache = resultCache;
+        final long version = getModificationCount();
+        if(currentResultCache != null) {
+            final ResultSet cached = currentResultCache.get(sparqlQry, version);
+            if(cached != null) {
+                return new JenaQueryResult(null, query, cached);
+            }
+        }
+        QueryExecution queryExecution = QueryExecutionFactory.create(
+                query, handle == null ? jenaView : CancellableGraph.wrap(jenaView, handle)
+        );
+        try {
+            ResultSet results = queryExecution.execSelect();
+            if(currentResultCache != null) {
+                results = currentResultCache.put(sparqlQry, version, results);
+            }
+            return new JenaQueryResult(queryExecution, query, results);
+        } catch(Throwable t) {
+            final QueryCancelledException qce = JenaQueryResult.getCancellation(t);
+            if(qce != null) {
+                JenaQueryResult.abort(queryExecution);
+                throw qce;
+            }
+            queryExecution.close(); // Query execution is closed only if an error occurs during query excution.
+            throw new SPARQLException("Error during execution of SPARQL query: '" + sparqlQry + "'", t);
+        }
+    }
+
+    public String toString() {
+        return this.getClass().getName() + "{nodes: " + dictionary.size() + ", triples: " + table.size() + "}";
+    }
+
+    private void remove(String subject, String predicate, String object, byte objectKind) {
+        final int s = dictionary.lookup(subject  , NodeDictionary.RESOURCE);
+        final int p = dictionary.lookup(predicate, NodeDictionary.RESOURCE);
+        final int o = dictionary.lookup(object   , objectKind);
+        if(s != NodeDictionary.NOT_FOUND && p != NodeDictionary.NOT_FOUND && o != NodeDictionary.NOT_FOUND) {
+            final ModelStatistics statistics = getModelStatistics();
+            final boolean synchronizedBefore = statistics.isSynchronized(this);
+            final boolean removed = table.remove(s, p, o);
+            statistics.update(
+                    this,
+                    synchronizedBefore,
+                    removed ? -1 : 0,
+                    objectKind == NodeDictionary.RESOURCE ? predicate : null,
+                    object
+            );
+        }
+    }
+
+    private void addCollection(String subject, String predicate, String[] values) {
+        final int bag = dictionary.encode( new AnonId().getLabelString(), NodeDictionary.BLANK );
+        table.add(
+                dictionary.encode(subject, NodeDictionary.RESOURCE),
+                dictionary.encode(predicate, NodeDictionary.RESOURCE),
+                bag
+        );
+        table.add(
+                bag,
+                dictionary.encode(RDF_TYPE, NodeDictionary.RESOURCE),
+                dictionary.encode(RDF_BAG , NodeDictionary.RESOURCE)
+        );
+        for(int i = 0; i < values.length; i++) {
+            table.add(
+                    bag,
+                    dictionary.encode(RDF.li(i + 1).getURI(), NodeDictionary.RESOURCE),
+                    dictionary.encode(values[i], NodeDictionary.LITERAL)
+            );
+        }
+    }
+
+    private void checkTriple(String subject, String predicate, String object) {
+        if( RDFCoder.assertions() ) {
+            if(subject.length() == 0 ) {
+                throw new CodeModelDebugException("invalid 0 length subject.");
+            }
+            if( predicate.length() == 0) {
+                throw new CodeModelDebugException("invalid 0 length predicate.");
+            }
+            if( object.length() == 0) {
+                throw new CodeModelDebugException("invalid 0 length object.");
+            }
+        }
+    }
+
+    /**
+     * {@link com.hp.hpl.jena.graph.Graph} adapter on the dictionary and the triple table.
+     */
+    class DictionaryGraph extends GraphBase {
+
+        protected ExtendedIterator graphBaseFind(TripleMatch match) {
+            final int s = lookup( match.getMatchSubject()   );
+            final int p = lookup( match.getMatchPredicate() );
+            final int o = lookup( match.getMatchObject()    );
+            if(s == NodeDictionary.NOT_FOUND || p == NodeDictionary.NOT_FOUND || o == NodeDictionary.NOT_FOUND) {
+                return NiceIterator.emptyIterator();
+            }
+            final TripleTable.Cursor cursor = table.search(s, p, o);
+            return new NiceIterator() {
+
+                private Triple nextTriple;
+
+                public boolean hasNext() {
+                    if(nextTriple == null && cursor.next()) {
+                        nextTriple = new Triple(
+                                toNode( cursor.subject()   ),
+                                toNode( cursor.predicate() ),
+                                toNode( cursor.object()    )
+                        );
+                    }
+                    return nextTriple != null;
+                }
+
+                public Object next() {
+                    ensureHasNext();
+                    final Triple result = nextTriple;
+                    nextTriple = null;
+                    return result;
+                }
+            };
+        }
+
+        public void performAdd(Triple triple) {
+            table.add(
+                    encode( triple.getSubject()   ),
+                    encode( triple.getPredicate() ),
+                    encode( triple.getObject()    )
+            );
+        }
+
+        public void performDelete(Triple triple) {
+            final int s = lookup( triple.getSubject()   );
+            final int p = lookup( triple.getPredicate() );
+            final int o = lookup( triple.getObject()    );
+            if(s >= 0 && p >= 0 && o >= 0) {
+                table.remove(s, p, o);
+            }
+        }
+
+        protected int graphBaseSize() {
+            return table.size();
+        }
+
+        /**
+         * @return the identifier of a node, {@link TripleTable#ANY} for wildcards.
+         */
+        private int lookup(Node node) {
+            if(node == null || ! node.isConcrete()) {
+                return TripleTable.ANY;
+            }
+            if(node.isURI()) {
+                return dictionary.lookup(node.getURI(), NodeDictionary.RESOURCE);
+            }
+            if(node.isLiteral()) {
+                return dictionary.lookup(node.getLiteralLexicalForm(), NodeDictionary.LITERAL);
+            }
+            return dictionary.lookup(node.getBlankNodeLabel(), NodeDictionary.BLANK);
+        }
+
+        private int encode(Node node) {
+            if(node.isURI()) {
+                return dictionary.encode(node.getURI(), NodeDictionary.RESOURCE);
+            }
+            if(node.isLiteral()) {
+                return dictionary.encode(node.getLiteralLexicalForm(), NodeDictionary.LITERAL);
+            }
+            if(node.isBlank()) {
+                return dictionary.encode(node.getBlankNodeLabel(), NodeDictionary.BLANK);
+            }
+            throw new IllegalArgumentException("Unsupported node: " + node);
+        }
+
+        private Node toNode(int id) {
+            final String label = dictionary.label(id);
+            switch( dictionary.kind(id) ) {
+                case NodeDictionary.LITERAL:
+                    return Node.createLiteral(label);
+                case NodeDictionary.BLANK:
+                    return Node.createAnon( new AnonId(label) );
+                default:
+                    return Node.createURI(label);
+            }
+        }
+    }
+
+}
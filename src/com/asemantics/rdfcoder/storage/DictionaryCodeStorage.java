@@ -0,0 +1,110 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.hp.hpl.jena.rdf.model.Model;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Represents a {@link com.asemantics.rdfcoder.storage.CodeStorage}
+ * for the {@link com.asemantics.rdfcoder.storage.DictionaryCodeModel}.
+ * The model is serialized as <i>RDF/XML</i>, so the produced files are
+ * interchangeable with the ones of {@link com.asemantics.rdfcoder.storage.JenaCodeStorage}.
+ */
+public class DictionaryCodeStorage extends CodeStorage {
+
+    /**
+     * Constructor.
+     */
+    protected DictionaryCodeStorage() {}  // Protecting instantiation.
+
+    public void loadModel(CodeModel codeModel, InputStream inputStream) throws CodeStorageException {
+        Model jenaView = getJenaView(codeModel);
+        try {
+            jenaView.getReader().read(jenaView, inputStream, null);
+        } catch (Exception e) {
+            throw new CodeStorageException("Error while reading model.", e);
+        }
+    }
+
+    public void saveModel(CodeModel codeModel, OutputStream outputStream) throws CodeStorageException {
+        Model jenaView = getJenaView(codeModel);
+        try {
+            jenaView.getWriter().write(jenaView, outputStream, null);
+        } catch (Exception e) {
+            throw new CodeStorageException("Error while writing model.", e);
+        }
+    }
+
+    public void saveModel(CodeModel codeModel, Map<String, String> parameters) throws CodeStorageException {
+        if(parameters == null) {
+            throw new NullPointerException("parameters cannot be null");
+        }
+        FileOutputStream fos = openFileOutputStream(parameters);
+        try {
+            saveModel(codeModel, fos);
+        } finally {
+            try {
+                fos.close();
+            } catch (IOException ioe) {
+                ioe.printStackTrace();
+            }
+        }
+    }
+
+    public void loadModel(CodeModel codeModel, Map parameters) throws CodeStorageException {
+        if(parameters == null) {
+            throw new NullPointerException("parameters cannot be null");
+        }
+        FileInputStream fis = openFileInputStream(parameters);
+        try {
+            loadModel(codeModel, fis);
+        } finally {
+            try {
+                fis.close();
+            } catch (IOException ioe) {
+                ioe.printStackTrace();
+            }
+        }
+    }
+
+    public boolean supportsDatabase() {
+        return false;
+    }
+
+    public boolean supportsFile() {
+        return true;
+    }
+
+    private Model getJenaView(CodeModel codeModel) throws CodeStorageException {
+        try {
+            return ((DictionaryCodeModel) codeModel).getJenaView();
+        } catch (ClassCastException cce) {
+            throw new CodeStorageException("Expected " + DictionaryCodeModel.class + " here", cce);
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.java.JavaCoderFactory;
+
+/**
+ * The {@link com.asemantics.rdfcoder.model.CoderFactory}
+ * implementation for the <i>dictionary encoded</i> backend.
+ *
+ * @see com.asemantics.rdfcoder.storage.DictionaryCodeModel
+ */
+public class DictionaryCoderFactory extends JavaCoderFactory {
+
+    public DictionaryCodeModel createCodeModel() {
+        return new DictionaryCodeModel();
+    }
+
+    public DictionaryCodeStorage createCodeStorage() {
+        return new DictionaryCodeStorage();
+    }
+
+}
@@ -21,14 +21,22 @@ package com.asemantics.rdfcoder.storage;
 import com.asemantics.rdfcoder.RDFCoder;
 import com.asemantics.rdfcoder.model.CodeModel;
 import com.asemantics.rdfcoder.model.CodeModelDebugException;
+import com.asemantics.rdfcoder.model.ModelStatistics;
+import com.asemantics.rdfcoder.model.QueryCancelledException;
+import com.asemantics.rdfcoder.model.QueryHandle;
 import com.asemantics.rdfcoder.model.QueryResult;
 import com.asemantics.rdfcoder.model.SPARQLException;
 import com.asemantics.rdfcoder.model.SPARQLQuerableCodeModel;
+import com.asemantics.rdfcoder.model.TripleBatch;
 import com.asemantics.rdfcoder.model.TripleIterator;
+import com.asemantics.rdfcoder.model.java.JavaCodeModel;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.GraphListener;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
 import com.hp.hpl.jena.query.Query;
 import com.hp.hpl.jena.query.QueryExecution;
 import com.hp.hpl.jena.query.QueryExecutionFactory;
-import com.hp.hpl.jena.query.QueryFactory;
 import com.hp.hpl.jena.query.ResultSet;
 import com.hp.hpl.jena.rdf.model.Bag;
 import com.hp.hpl.jena.rdf.model.Literal;
@@ -39,11 +47,24 @@ import com.hp.hpl.jena.rdf.model.Resource;
 import com.hp.hpl.jena.rdf.model.SimpleSelector;
 import com.hp.hpl.jena.rdf.model.Statement;
 import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import com.hp.hpl.jena.vocabulary.RDF;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The {@link com.asemantics.rdfcoder.model.CodeModel}
@@ -59,22 +80,186 @@ public class JenaCodeModel extends SPARQLQuerableCodeModel {
 
     private static Model m = ModelFactory.createDefaultModel();
 
+    /**
+     * Interned nodes for the constant URIs defined by {@link JavaCodeModel}.
+     */
+    private static final Map<String,Node> CONSTANT_NODES = createConstantNodes();
+
+    /**
+     * Creates the nodes for all the URI constants defined in {@link JavaCodeModel}
+     * and its super types.
+     *
+     * @return the map of constant nodes.
+     */
+    private static Map<String,Node> createConstantNodes() {
+        Map<String,Node> nodes = new HashMap<String,Node>();
+        for(Field field : JavaCodeModel.class.getFields()) {
+            if( ! Modifier.isStatic(field.getModifiers()) || field.getType() != String.class ) {
+                continue;
+            }
+            try {
+                final String value = (String) field.get(null);
+                if(value != null && value.indexOf("://") != -1) {
+                    nodes.put(value, Node.createURI(value));
+                }
+            } catch (IllegalAccessException iae) {
+                throw new IllegalStateException("Cannot access constant " + field, iae);
+            }
+        }
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    /**
+     * Returns the URI node for the given string, the interned one for constant URIs.
+     *
+     * @param uri the node URI.
+     * @return the URI node.
+     */
+    protected static Node toURINode(String uri) {
+        Node node = CONSTANT_NODES.get(uri);
+        return node != null ? node : Node.createURI(uri);
+    }
+
     /**
      * Internal Jena org.asemantics.model.
      */
     private Model jenaModel;
 
+    /**
+     * If <code>true</code> the search iterators work directly on graph triples.
+     */
+    private boolean flyweightIteration = true;
+
+    /**
+     * Counts the changes notified by the graph, including the ones
+     * performed directly on it by the storages.
+     */
+    private final ModificationCounter modificationCounter = new ModificationCounter();
+
+    /**
+     * Parsed queries by text.
+     */
+    private final SPARQLQueryCache queryCache = new SPARQLQueryCache();
+
+    /**
+     * Optional cache of the query results, <code>null</code> if disabled.
+     */
+    private volatile SPARQLResultCache resultCache;
+
     protected JenaCodeModel(Model model) {
         if(model == null) {
             throw new NullPointerException();
         }
         this.jenaModel = model;
+        model.getGraph().getEventManager().register(modificationCounter);
     }
 
     protected Model getJenaModel() {
         return jenaModel;
     }
 
+    /**
+     * @return <code>true</code> if flyweight iterators are used.
+     * @see #setFlyweightIteration(boolean)
+     */
+    public boolean isFlyweightIteration() {
+        return flyweightIteration;
+    }
+
+    /**
+     * Enables or disables flyweight iteration. When enabled {@link #searchTriples(String, String, String)}
+     * walks the graph {@link Triple}s without creating <i>Statement</i>s and returns cached node labels,
+     * otherwise it iterates over model statements.
+     *
+     * @param flyweightIteration the flyweight iteration flag.
+     */
+    public void setFlyweightIteration(boolean flyweightIteration) {
+        this.flyweightIteration = flyweightIteration;
+    }
+
+    /**
+     * Iterator over the graph triples. Labels are computed once per distinct node
+     * and no objects are allocated per triple other than the ones created by the graph.
+     */
+    class FlyweightTripleIterator implements TripleIterator {
+
+        private final ExtendedIterator iter;
+
+        private Triple triple;
+
+        private Node subjectNode;
+        private String subjectLabel;
+
+        private Node predicateNode;
+        private String predicateLabel;
+
+        private Node objectNode;
+        private String objectLabel;
+
+        FlyweightTripleIterator(ExtendedIterator iter) {
+            this.iter = iter;
+        }
+
+        public boolean next() {
+            if(iter.hasNext()) {
+                triple = (Triple) iter.next();
+                return true;
+            }
+            return false;
+        }
+
+        public String getSubject() {
+            final Node node = triple.getSubject();
+            if(node != subjectNode) {
+                subjectNode  = node;
+                subjectLabel = toLabel(node);
+            }
+            return subjectLabel;
+        }
+
+        public String getPredicate() {
+            final Node node = triple.getPredicate();
+            if(node != predicateNode) {
+                predicateNode  = node;
+                predicateLabel = toLabel(node);
+            }
+            return predicateLabel;
+        }
+
+        public String getObject() {
+            final Node node = triple.getObject();
+            if(node != objectNode) {
+                objectNode  = node;
+                objectLabel = toLabel(node);
+            }
+            return objectLabel;
+        }
+
+        public void close() {
+            iter.close();
+        }
+    }
+
+    /**
+     * Returns the same label of the corresponding model <i>RDFNode</i> <code>toString()</code>,
+     * avoiding any allocation for URIs and plain literals.
+     */
+    private String toLabel(Node node) {
+        if(node.isURI()) {
+            return node.getURI();
+        }
+        if(
+                node.isLiteral()
+                &&
+                node.getLiteralDatatypeURI() == null
+                &&
+                (node.getLiteralLanguage() == null || node.getLiteralLanguage().length() == 0)
+        ) {
+            return node.getLiteralLexicalForm();
+        }
+        return jenaModel.asRDFNode(node).toString();
+    }
+
     class InternalTripleIterator implements TripleIterator {
 
         private StmtIterator iter;
@@ -110,7 +295,71 @@ public class JenaCodeModel extends SPARQLQuerableCodeModel {
         }
     }
 
+    /**
+     * Graph listener incrementing a counter on every notified change.
+     * The notified iterators are not consumed.
+     * The raw types are imposed by the {@link GraphListener} signatures.
+     */
+    @SuppressWarnings("rawtypes")
+    private static class ModificationCounter implements GraphListener {
+
+        private final AtomicLong count = new AtomicLong();
+
+        public void notifyAddTriple(Graph graph, Triple triple) {
+            count.incrementAndGet();
+        }
+
+        public void notifyAddArray(Graph graph, Triple[] triples) {
+            count.incrementAndGet();
+        }
+
+        public void notifyAddList(Graph graph, List triples) {
+            count.incrementAndGet();
+        }
+
+        public void notifyAddIterator(Graph graph, Iterator iterator) {
+            count.incrementAndGet();
+        }
+
+        public void notifyAddGraph(Graph graph, Graph added) {
+            count.incrementAndGet();
+        }
+
+        public void notifyDeleteTriple(Graph graph, Triple triple) {
+            count.incrementAndGet();
+        }
+
+        public void notifyDeleteList(Graph graph, List triples) {
+            count.incrementAndGet();
+        }
+
+        public void notifyDeleteArray(Graph graph, Triple[] triples) {
+            count.incrementAndGet();
+        }
+
+        public void notifyDeleteIterator(Graph graph, Iterator iterator) {
+            count.incrementAndGet();
+        }
+
+        public void notifyDeleteGraph(Graph graph, Graph removed) {
+            count.incrementAndGet();
+        }
+
+        public void notifyEvent(Graph graph, Object event) {
+            count.incrementAndGet();
+        }
+    }
+
     public TripleIterator searchTriples(final String subject, final String predicate, final String object) {
+        if(flyweightIteration) {
+            return new FlyweightTripleIterator(
+                    jenaModel.getGraph().find(
+                            subject   != null ? toURINode(subject)   : Node.ANY,
+                            predicate != null ? toURINode(predicate) : Node.ANY,
+                            object    != null ? toURINode(object)    : Node.ANY
+                    )
+            );
+        }
         StmtIterator iter = jenaModel.listStatements(new SimpleSelector(
                 subject   != null ? jenaModel.createResource(subject)   : null,
                 predicate != null ? jenaModel.createProperty(predicate) : null,
@@ -119,35 +368,85 @@ public class JenaCodeModel extends SPARQLQuerableCodeModel {
         return new InternalTripleIterator(iter);
     }
 
+    /**
+     * Returns the graph size for the full pattern, counts the
+     * matching graph triples without creating statements otherwise.
+     */
+    public long countTriples(String subject, String predicate, String object) {
+        final Graph graph = jenaModel.getGraph();
+        if(subject == null && predicate == null && object == null) {
+            return graph.size();
+        }
+        ExtendedIterator iter = graph.find(
+                subject   != null ? toURINode(subject)   : Node.ANY,
+                predicate != null ? toURINode(predicate) : Node.ANY,
+                object    != null ? toURINode(object)    : Node.ANY
+        );
+        long count = 0;
+        try {
+            while(iter.hasNext()) {
+                iter.next();
+                count++;
+            }
+        } finally {
+            iter.close();
+        }
+        return count;
+    }
+
+    public boolean containsTriple(String subject, String predicate, String object) {
+        return jenaModel.getGraph().contains(
+                subject   != null ? toURINode(subject)   : Node.ANY,
+                predicate != null ? toURINode(predicate) : Node.ANY,
+                object    != null ? toURINode(object)    : Node.ANY
+        );
+    }
+
     public void addTriple(String subject, String predicate, String object) {
         checkTriple(subject, predicate, object);
         
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final long sizeBefore = jenaModel.getGraph().size();
         Resource s = jenaModel.createResource(subject);
         Property p = jenaModel.createProperty(predicate);
         Resource o = jenaModel.createResource(object);
         s.addProperty(p, o);
+        statistics.update(this, synchronizedBefore, jenaModel.getGraph().size() - sizeBefore, predicate, object);
     }
 
     public void removeTriple(String subject, String predicate, String object) {
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final long sizeBefore = jenaModel.getGraph().size();
         Resource s = jenaModel.createResource(subject);
         Property p = jenaModel.createProperty(predicate);
         Resource o = jenaModel.createResource(object);
         jenaModel.remove(s, p, o);
+        statistics.update(this, synchronizedBefore, jenaModel.getGraph().size() - sizeBefore, predicate, object);
     }
 
     public void addTripleLiteral(String subject, String predicate, String literal) {
         checkTriple(subject, predicate, literal);
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final long sizeBefore = jenaModel.getGraph().size();
         Resource s = jenaModel.createResource(subject);
         Property p = jenaModel.createProperty(predicate);
         Literal  l = jenaModel.createLiteral(literal);
         s.addProperty(p, l);
+        statistics.update(this, synchronizedBefore, jenaModel.getGraph().size() - sizeBefore, null, null);
     }
 
     public void removeTripleLiteral(String subject, String predicate, String object) {
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final long sizeBefore = jenaModel.getGraph().size();
         Resource s = jenaModel.createResource(subject);
         Property p = jenaModel.createProperty(predicate);
         Literal  l = jenaModel.createLiteral(object);
         jenaModel.remove(s, p, l);
+        statistics.update(this, synchronizedBefore, jenaModel.getGraph().size() - sizeBefore, null, null);
     }
 
     public void addTripleCollection(Object subject, String predicate, String[] object) {
@@ -159,16 +458,94 @@ public class JenaCodeModel extends SPARQLQuerableCodeModel {
         } else {
             throw new IllegalArgumentException("Invalid subject.");
         }
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final long sizeBefore = jenaModel.getGraph().size();
         Property p = jenaModel.createProperty(predicate);
         Bag      b = jenaModel.createBag();
         for(String bagElem : object) {
             b.add(bagElem);
         }
         jenaModel.add(s, p, b);
+        statistics.update(this, synchronizedBefore, jenaModel.getGraph().size() - sizeBefore, null, null);
+    }
+
+    /**
+     * Converts the batch directly into graph {@link Triple}s, sharing the
+     * {@link Node}s of repeated subjects and predicates, and adds them
+     * with a single bulk update.
+     * The new {@link CodeModel#TYPE} triples are detected before the update
+     * to keep the {@link ModelStatistics} synchronized.
+     *
+     * @param batch the batch of triples to be added.
+     */
+    public void addTriples(TripleBatch batch) {
+        final ModelStatistics statistics = getModelStatistics();
+        final boolean synchronizedBefore = statistics.isSynchronized(this);
+        final Graph graph = jenaModel.getGraph();
+        final Map<String,Node> uriNodes = new HashMap<String,Node>();
+        final List<Triple> triples = new ArrayList<Triple>( batch.size() );
+        final Set<Triple> newTypeTriples = new HashSet<Triple>();
+        final Map<String,Long> newEntities = new HashMap<String,Long>();
+        for(int i = 0; i < batch.size(); i++) {
+            final Node s = toURINode( uriNodes, batch.getSubject(i)   );
+            final Node p = toURINode( uriNodes, batch.getPredicate(i) );
+            switch( batch.getKind(i) ) {
+                case RESOURCE:
+                    checkTriple(batch.getSubject(i), batch.getPredicate(i), batch.getObject(i));
+                    final Triple triple = new Triple(s, p, toURINode(uriNodes, batch.getObject(i)));
+                    triples.add(triple);
+                    if(
+                            synchronizedBefore
+                                    &&
+                            CodeModel.TYPE.equals( batch.getPredicate(i) )
+                                    &&
+                            ! graph.contains(triple)
+                                    &&
+                            newTypeTriples.add(triple)
+                    ) {
+                        final Long count = newEntities.get( batch.getObject(i) );
+                        newEntities.put( batch.getObject(i), count == null ? 1 : count + 1 );
+                    }
+                    break;
+                case LITERAL:
+                    checkTriple(batch.getSubject(i), batch.getPredicate(i), batch.getObject(i));
+                    triples.add( new Triple(s, p, Node.createLiteral(batch.getObject(i))) );
+                    break;
+                case COLLECTION:
+                    final Node bag = Node.createAnon();
+                    triples.add( new Triple(s, p, bag) );
+                    triples.add( new Triple(bag, RDF.type.asNode(), RDF.Bag.asNode()) );
+                    final String[] values = batch.getValues(i);
+                    for(int v = 0; v < values.length; v++) {
+                        triples.add( new Triple(bag, RDF.li(v + 1).asNode(), Node.createLiteral(values[v])) );
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+        final long sizeBefore = graph.size();
+        graph.getBulkUpdateHandler().add(triples);
+        statistics.update(this, synchronizedBefore, graph.size() - sizeBefore, newEntities);
+    }
+
+    private static Node toURINode(Map<String,Node> uriNodes, String uri) {
+        Node node = uriNodes.get(uri);
+        if(node == null) {
+            node = toURINode(uri);
+            uriNodes.put(uri, node);
+        }
+        return node;
     }
 
     public void clearAll() {
         jenaModel.removeAll();
+        getIdentifierIndex().clear();
+    }
+
+    public long getModificationCount() {
+        return modificationCounter.count.get();
     }
 
     /**
@@ -275,17 +652,58 @@ public class JenaCodeModel extends SPARQLQuerableCodeModel {
         iterator.close();
     }
 
-    public QueryResult performQuery(String sparqlQry) throws SPARQLException {
-        Query query = QueryFactory.create(sparqlQry);
-        QueryExecution queryExecution = QueryExecutionFactory.create(query, jenaModel);
-          try {
-            ResultSet results = queryExecution.execSelect() ;
-            QueryResult queryResult = new JenaQueryResult(queryExecution, query, results);
-            return queryResult;
-          } catch(Throwable t) {
-              queryExecution.close(); // Query execution is closed only if an error occurs during query excution.
-              throw new SPARQLException("Error during execution of SPARQL query: '" + sparqlQry + "'", t);
-          }
+    /**
+     * @return the cache of the queries parsed by {@link #performQuery(String)}.
+     */
+    public SPARQLQueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * @return the cache of the results of {@link #performQuery(String)}, <code>null</code> if disabled.
+     */
+    public SPARQLResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Enables or disables the caching of the query results.
+     * The cached results are discarded every time the model changes.
+     *
+     * @param resultCache the cache instance, to be used only by this model, <code>null</code> to disable it.
+     */
+    public void setResultCache(SPARQLResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public QueryResult performQuery(String sparqlQry, QueryHandle handle) throws SPARQLException {
+        Query query = queryCache.getQuery(sparqlQry);
+        final SPARQLResultCache currentResultCache = resultCache;
+        final long version = getModificationCount();
+        if(currentResultCache != null) {
+            final ResultSet cached = currentResultCache.get(sparqlQry, version);
+            if(cached != null) {
+                return new JenaQueryResult(null, query, cached);
+            }
+        }
+        QueryExecution queryExecution = QueryExecutionFactory.create(
+                query, handle == null ? jenaModel : CancellableGraph.wrap(jenaModel, handle)
+        );
+        try {
+            ResultSet results = queryExecution.execSelect();
+            if(currentResultCache != null) {
+                results = currentResultCache.put(sparqlQry, version, results);
+            }
+            return new JenaQueryResult(queryExecution, query, results);
+        } catch(Throwable t) {
+            final QueryCancelledException qce = JenaQueryResult.getCancellation(t);
+            if(qce != null) {
+                JenaQueryResult.abort(queryExecution);
+                throw qce;
+            }
+            queryExecution.close(); // Query execution is closed only if an error occurs during query excution.
+            throw new SPARQLException("Error during execution of SPARQL query: '" + sparqlQry + "'", t);
+        }
     }
     
 }
@@ -24,31 +24,186 @@ import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.RDFReader;
 import com.hp.hpl.jena.rdf.model.RDFWriter;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Represents a {@link com.asemantics.rdfcoder.storage.CodeStorage}
  * for the Jena {@link com.asemantics.rdfcoder.model.CodeModel}.
+ * Models can be stored as <i>RDF/XML</i> or streamed as
+ * (optionally <i>gzip</i> compressed) <i>N-Triples</i>.
  */
 public class JenaCodeStorage extends CodeStorage {
 
+    /**
+     * Serialization formats.
+     */
+    public enum Format {
+        /**
+         * <i>RDF/XML</i> format.
+         */
+        RDF_XML("rdfxml"),
+        /**
+         * Line oriented <i>N-Triples</i> format.
+         */
+        N_TRIPLES("ntriples"),
+        /**
+         * <i>N-Triples</i> format with <i>gzip</i> compression.
+         */
+        N_TRIPLES_GZIP("ntriples.gz");
+
+        private final String id;
+
+        Format(String id) {
+            this.id = id;
+        }
+
+        /**
+         * @return the format identifier used for the {@link CodeStorage#FS_FORMAT} parameter.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Returns the format with the given identifier.
+         *
+         * @param id
+         * @return the format.
+         * @throws IllegalArgumentException if the identifier is unknown.
+         */
+        public static Format getFormat(String id) {
+            for(Format format : values()) {
+                if(format.id.equals(id)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown format: '" + id + "'");
+        }
+
+        /**
+         * Guesses the format from the file name extension:
+         * <i>.nt</i> and <i>.nt.gz</i> are <i>N-Triples</i>, every other one is <i>RDF/XML</i>.
+         *
+         * @param fileName
+         * @return the format.
+         */
+        public static Format guessFormat(String fileName) {
+            if(fileName.endsWith(".nt.gz")) {
+                return N_TRIPLES_GZIP;
+            }
+            if(fileName.endsWith(".nt")) {
+                return N_TRIPLES;
+            }
+            return RDF_XML;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The format used by stream based methods.
+     */
+    private Format format = Format.RDF_XML;
+
+    /**
+     * Number of threads parsing <i>N-Triples</i> streams.
+     */
+    private int loaderThreads = Runtime.getRuntime().availableProcessors();
+
     /**
      * Constructor.
      */
     protected JenaCodeStorage() {}  // Protecting instantiation.
 
+    /**
+     * @return the format used by the stream based methods.
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Sets the format used by the stream based methods.
+     *
+     * @param format
+     */
+    public void setFormat(Format format) {
+        if(format == null) {
+            throw new NullPointerException("format cannot be null");
+        }
+        this.format = format;
+    }
+
+    /**
+     * @return the number of threads used to parse <i>N-Triples</i> streams.
+     */
+    public int getLoaderThreads() {
+        return loaderThreads;
+    }
+
+    /**
+     * Sets the number of threads used to parse <i>N-Triples</i> streams,
+     * with <code>1</code> the stream is parsed by the calling thread.
+     * Defaults to the number of available processors.
+     *
+     * @param loaderThreads
+     */
+    public void setLoaderThreads(int loaderThreads) {
+        if(loaderThreads < 1) {
+            throw new IllegalArgumentException("loaderThreads must be >= 1");
+        }
+        this.loaderThreads = loaderThreads;
+    }
+
     public void loadModel(CodeModel codeModel, InputStream inputStream) throws CodeStorageException {
+        loadModel(codeModel, inputStream, format);
+    }
+
+    /**
+     * Loads a model from an {@link InputStream} with the given format.
+     * <i>N-Triples</i> streams are detected as <i>gzip</i> compressed
+     * from their content and parsed in chunks by {@link #getLoaderThreads()} threads.
+     *
+     * @param codeModel
+     * @param inputStream
+     * @param format
+     */
+    public void loadModel(CodeModel codeModel, InputStream inputStream, Format format)
+    throws CodeStorageException {
         Model jenaModel;
         try {
             jenaModel = ((JenaCodeModel) codeModel).getJenaModel();
         } catch (ClassCastException cce) {
             throw new JenaCodeStorageException("Expected " + JenaCodeModel.class + " here", cce);
         }
+        if(format != Format.RDF_XML) {
+            try {
+                final BufferedReader reader = new BufferedReader(
+                        new InputStreamReader( openNTriplesInputStream(inputStream), "UTF-8" ), BUFFER_SIZE
+                );
+                if(loaderThreads > 1) {
+                    new ParallelNTriplesLoader(loaderThreads).load(reader, jenaModel.getGraph());
+                } else {
+                    NTriplesSerializer.read(reader, jenaModel.getGraph());
+                }
+            } catch (Exception e) {
+                throw new JenaCodeStorageException("Error while reading model.", e);
+            }
+            return;
+        }
         try {
             RDFReader reader = jenaModel.getReader();
             reader.read(jenaModel, inputStream, null);
@@ -58,12 +213,44 @@ public class JenaCodeStorage extends CodeStorage {
     }
 
     public void saveModel(CodeModel codeModel, OutputStream outputStream) throws CodeStorageException {
+        saveModel(codeModel, outputStream, format);
+    }
+
+    /**
+     * Saves a model to an {@link java.io.OutputStream} with the given format.
+     * The <i>N-Triples</i> formats stream the triples one by one.
+     *
+     * @param codeModel
+     * @param outputStream
+     * @param format
+     */
+    public void saveModel(CodeModel codeModel, OutputStream outputStream, Format format)
+    throws CodeStorageException {
         Model jenaModel;
         try {
             jenaModel = ((JenaCodeModel) codeModel).getJenaModel();
         } catch (ClassCastException cce) {
             throw new JenaCodeStorageException("Expected " + JenaCodeModel.class + " here", cce);
         }
+        if(format != Format.RDF_XML) {
+            try {
+                GZIPOutputStream gzip = null;
+                OutputStream target = outputStream;
+                if(format == Format.N_TRIPLES_GZIP) {
+                    gzip   = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+                    target = gzip;
+                }
+                final Writer writer = new BufferedWriter( new OutputStreamWriter(target, "US-ASCII"), BUFFER_SIZE );
+                NTriplesSerializer.write(jenaModel.getGraph(), writer);
+                if(gzip != null) {
+                    gzip.finish();
+                }
+                outputStream.flush();
+            } catch (Exception e) {
+                throw new JenaCodeStorageException("Error while writing model.", e);
+            }
+            return;
+        }
         try {
             RDFWriter writer = jenaModel.getWriter();
             writer.write(jenaModel, outputStream, null);
@@ -72,7 +259,13 @@ public class JenaCodeStorage extends CodeStorage {
         }
     }
 
-    public void saveModel(CodeModel codeModel,  Map<String, String> parameters) {
+    /**
+     * Saves the model on the file specified by the {@link #FS_FILENAME} parameter,
+     * the format is given by the {@link #FS_FORMAT} parameter or guessed from the file name.
+     *
+     * @see com.asemantics.rdfcoder.storage.JenaCodeStorage.Format#guessFormat(String)
+     */
+    public void saveModel(CodeModel codeModel,  Map<String, String> parameters) throws CodeStorageException {
         if( ! ( codeModel instanceof JenaCodeModel ) ) {
             throw new IllegalArgumentException("codeModel must be instaceof JenaCodeModel");
         }
@@ -84,9 +277,14 @@ public class JenaCodeStorage extends CodeStorage {
         if( RDFCoder.assertions() ) {
             JenaCodeModel.checkModel(jenaCodeModel.getJenaModel());
         }
+        final Format fileFormat = getFormat(parameters);
         FileOutputStream fos = openFileOutputStream(parameters);
         try {
-        jenaCodeModel.getJenaModel().write( fos );
+            if(fileFormat == Format.RDF_XML) {
+                jenaCodeModel.getJenaModel().write( fos );
+            } else {
+                saveModel(jenaCodeModel, fos, fileFormat);
+            }
         } finally {
             try {
                 fos.close();
@@ -97,7 +295,13 @@ public class JenaCodeStorage extends CodeStorage {
     }
 
 
-    public void loadModel(CodeModel codeModel, Map parameters) {
+    /**
+     * Loads the model from the file specified by the {@link #FS_FILENAME} parameter,
+     * the format is given by the {@link #FS_FORMAT} parameter or guessed from the file name.
+     *
+     * @see com.asemantics.rdfcoder.storage.JenaCodeStorage.Format#guessFormat(String)
+     */
+    public void loadModel(CodeModel codeModel, Map parameters) throws CodeStorageException {
         if( ! ( codeModel instanceof JenaCodeModel ) ) {
             throw new IllegalArgumentException("codeModel must be instaceof JenaCodeModel");
         }
@@ -106,9 +310,14 @@ public class JenaCodeStorage extends CodeStorage {
         }
 
         JenaCodeModel jenaCodeModel = (JenaCodeModel) codeModel;
+        final Format fileFormat = getFormat(parameters);
         FileInputStream fis = openFileInputStream(parameters);
         try {
-            jenaCodeModel.getJenaModel().read( fis, null );
+            if(fileFormat == Format.RDF_XML) {
+                jenaCodeModel.getJenaModel().read( fis, null );
+            } else {
+                loadModel(jenaCodeModel, fis, fileFormat);
+            }
         } finally {
             try {
                 fis.close();
@@ -126,4 +335,28 @@ public class JenaCodeStorage extends CodeStorage {
     public boolean supportsFile() {
         return true;
     }
+
+    private static Format getFormat(Map<String,String> parameters) {
+        final String formatId = parameters.get(FS_FORMAT);
+        if(formatId != null) {
+            return Format.getFormat(formatId);
+        }
+        final String fileName = parameters.get(FS_FILENAME);
+        return fileName == null ? Format.RDF_XML : Format.guessFormat(fileName);
+    }
+
+    /**
+     * Wraps the stream with a gzip decoder if it starts with the gzip magic number.
+     */
+    private static InputStream openNTriplesInputStream(InputStream inputStream) throws IOException {
+        final BufferedInputStream bis = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        bis.mark(2);
+        final int b0 = bis.read();
+        final int b1 = bis.read();
+        bis.reset();
+        if( b0 == (GZIPInputStream.GZIP_MAGIC & 0xFF) && b1 == (GZIPInputStream.GZIP_MAGIC >> 8) ) {
+            return new GZIPInputStream(bis, BUFFER_SIZE);
+        }
+        return bis;
+    }
 }
@@ -18,6 +18,7 @@
 
 package com.asemantics.rdfcoder.storage;
 
+import com.asemantics.rdfcoder.model.QueryCancelledException;
 import com.asemantics.rdfcoder.model.QueryResult;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.hp.hpl.jena.query.Query;
@@ -25,7 +26,6 @@ import com.hp.hpl.jena.query.QueryExecution;
 import com.hp.hpl.jena.query.QuerySolution;
 import com.hp.hpl.jena.query.ResultSet;
 import com.hp.hpl.jena.query.ResultSetFormatter;
-import com.hp.hpl.jena.query.core.ResultBinding;
 import com.hp.hpl.jena.rdf.model.RDFNode;
 
 import java.io.IOException;
@@ -38,6 +38,42 @@ import java.util.List;
  */
 public class JenaQueryResult implements QueryResult {
 
+    /**
+     * Number of rows written between two flushes of the streamed views.
+     */
+    public static final int FLUSH_INTERVAL = 1000;
+
+    /**
+     * Returns the cancellation causing an execution error,
+     * the Jena query stages rethrow the errors wrapped.
+     *
+     * @param t the execution error.
+     * @return the cancellation, <code>null</code> if the error has a different cause.
+     */
+    static QueryCancelledException getCancellation(Throwable t) {
+        while(t != null) {
+            if(t instanceof QueryCancelledException) {
+                return (QueryCancelledException) t;
+            }
+            t = t.getCause();
+        }
+        return null;
+    }
+
+    /**
+     * Aborts the execution of a cancelled query.
+     * The Jena pipeline may fail while closing after a stage failure, such error is ignored.
+     *
+     * @param qe the cancelled execution.
+     */
+    static void abort(QueryExecution qe) {
+        try {
+            qe.abort();
+        } catch (RuntimeException re) {
+            // The execution is already broken.
+        }
+    }
+
     private QueryExecution queryExecution;
 
     private Query query;
@@ -50,6 +86,18 @@ public class JenaQueryResult implements QueryResult {
 
     private boolean closed = false;
 
+    /**
+     * <code>true</code> if the execution has been interrupted by its {@link com.asemantics.rdfcoder.model.QueryHandle}.
+     */
+    private boolean cancelled = false;
+
+    /**
+     * Constructor.
+     *
+     * @param qe the query execution, <code>null</code> for results not read from the model.
+     * @param qry the executed query.
+     * @param rs the query results.
+     */
     protected JenaQueryResult(QueryExecution qe, Query qry, ResultSet rs) {
         queryExecution = qe;
         query = qry;
@@ -72,7 +120,7 @@ public class JenaQueryResult implements QueryResult {
             throw new IllegalStateException();
         }
 
-        return resultSet.hasNext();
+        return hasNextSolution();
     }
 
     public void next() {
@@ -80,7 +128,7 @@ public class JenaQueryResult implements QueryResult {
             throw new IllegalStateException();
         }
         
-        querySolution = resultSet.nextSolution();
+        querySolution = nextSolution();
         if(querySolution == null) {
             throw new IllegalStateException();
         }
@@ -96,17 +144,36 @@ public class JenaQueryResult implements QueryResult {
         querySolution = null;
         resultSet     = null;
         query         = null;
-        queryExecution.close();
-        queryExecution = null;
-        closed = true;
+        closed        = true;
+        if(queryExecution != null) {
+            final QueryExecution qe = queryExecution;
+            queryExecution = null;
+            if(cancelled) {
+                abort(qe);
+            } else {
+                qe.close();
+            }
+        }
     }
 
     public void toTabularView(PrintStream ps) {
-         ResultSetFormatter.out(ps, resultSet, query);
+        try {
+            ResultSetFormatter.out(ps, resultSet, query);
+        } catch (RuntimeException re) {
+            throw interrupted(re);
+        }
     }
 
     @Override
     public void toJSONView(JsonGenerator generator) throws IOException {
+        toJSONView(generator, NO_LIMIT);
+    }
+
+    @Override
+    public int toJSONView(JsonGenerator generator, int maxRows) throws IOException {
+        if(closed) {
+            throw new IllegalStateException();
+        }
         String[] vars = getVariables();
         generator.writeStartObject();
         generator.writeFieldName("query");
@@ -118,17 +185,62 @@ public class JenaQueryResult implements QueryResult {
         generator.writeFieldName("data");
         generator.writeStartArray();
         RDFNode v;
-        while(resultSet.hasNext()) {
-            ResultBinding rb = (ResultBinding) resultSet.nextSolution();
+        int rows = 0;
+        while( (maxRows == NO_LIMIT || rows < maxRows) && hasNextSolution() ) {
+            QuerySolution qs = nextSolution();
             generator.writeStartArray();
             for(String var : vars) {
-                v = rb.get(var);
+                v = qs.get(var);
                 generator.writeObject(v != null ? v.toString() : null);
             }
             generator.writeEndArray();
+            if(++rows % FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
         }
         generator.writeEndArray();
+        generator.writeFieldName("truncated");
+        generator.writeBoolean( hasNextSolution() );
         generator.writeEndObject();
+        generator.flush();
+        return rows;
+    }
+
+    public int toDelimitedView(PrintStream ps, DelimitedFormat format, int maxRows) {
+        if(closed) {
+            throw new IllegalStateException();
+        }
+        final char separator    = format == DelimitedFormat.CSV ? ',' : '\t';
+        final String lineEnd    = format == DelimitedFormat.CSV ? "\r\n" : "\n";
+        final String[] vars     = getVariables();
+        final StringBuilder sb  = new StringBuilder();
+        for(int i = 0; i < vars.length; i++) {
+            if(i > 0) {
+                sb.append(separator);
+            }
+            appendField(sb, format, vars[i]);
+        }
+        ps.print( sb.append(lineEnd) );
+        int rows = 0;
+        while( (maxRows == NO_LIMIT || rows < maxRows) && hasNextSolution() ) {
+            QuerySolution qs = nextSolution();
+            sb.setLength(0);
+            for(int i = 0; i < vars.length; i++) {
+                if(i > 0) {
+                    sb.append(separator);
+                }
+                RDFNode v = qs.get(vars[i]);
+                if(v != null) {
+                    appendField(sb, format, v.toString());
+                }
+            }
+            ps.print( sb.append(lineEnd) );
+            if(++rows % FLUSH_INTERVAL == 0) {
+                ps.flush();
+            }
+        }
+        ps.flush();
+        return rows;
     }
 
     public void finalize() {
@@ -152,4 +264,80 @@ public class JenaQueryResult implements QueryResult {
         sb.append("}");
         return sb.toString();
     }
+
+    /**
+     * Releases the query execution if the given error is due to its cancellation.
+     *
+     * @return the error to be thrown.
+     */
+    private RuntimeException interrupted(RuntimeException re) {
+        final QueryCancelledException qce = getCancellation(re);
+        if(qce == null) {
+            return re;
+        }
+        cancelled = true;
+        close();
+        return qce;
+    }
+
+    /**
+     * Reads the result set releasing the query execution if it has been cancelled.
+     */
+    private boolean hasNextSolution() {
+        try {
+            return resultSet.hasNext();
+        } catch (RuntimeException re) {
+            throw interrupted(re);
+        }
+    }
+
+    private QuerySolution nextSolution() {
+        try {
+            return resultSet.nextSolution();
+        } catch (RuntimeException re) {
+            throw interrupted(re);
+        }
+    }
+
+    /**
+     * Appends a value escaped according to the given format.
+     */
+    private static void appendField(StringBuilder sb, DelimitedFormat format, String value) {
+        if(format == DelimitedFormat.CSV) {
+            if(value.indexOf(',') == -1 && value.indexOf('"') == -1
+                    && value.indexOf('\n') == -1 && value.indexOf('\r') == -1) {
+                sb.append(value);
+                return;
+            }
+            sb.append('"');
+            for(int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if(c == '"') {
+                    sb.append('"');
+                }
+                sb.append(c);
+            }
+            sb.append('"');
+        } else {
+            for(int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                switch (c) {
+                    case '\t':
+                        sb.append("\\t");
+                        break;
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    case '\\':
+                        sb.append("\\\\");
+                        break;
+                    default:
+                        sb.append(c);
+                }
+            }
+        }
+    }
 }
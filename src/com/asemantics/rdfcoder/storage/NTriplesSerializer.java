@@ -0,0 +1,464 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.hp.hpl.jena.datatypes.TypeMapper;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.AnonId;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Streams the triples of a Jena {@link Graph} to and from the line oriented
+ * <i>N-Triples</i> format, one triple per line, without materializing
+ * any intermediate representation of the whole graph.
+ * Output is pure <i>ASCII</i>, other characters are written as <i>\\u</i> escapes.
+ * Blank node labels are encoded so that they are reloaded with the same identifier.
+ */
+class NTriplesSerializer {
+
+    /**
+     * Number of parsed triples added to the graph with a single bulk update.
+     */
+    private static final int BULK_SIZE = 4096;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private NTriplesSerializer() {}
+
+    /**
+     * Writes all the triples of the given graph.
+     *
+     * @param graph the source graph.
+     * @param writer the target writer, not closed.
+     * @return the number of written triples.
+     * @throws IOException
+     */
+    static long write(Graph graph, Writer writer) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        long count = 0;
+        final ExtendedIterator iterator = graph.find(Node.ANY, Node.ANY, Node.ANY);
+        try {
+            while(iterator.hasNext()) {
+                final Triple triple = (Triple) iterator.next();
+                line.setLength(0);
+                appendNode(line, triple.getSubject());
+                line.append(' ');
+                appendNode(line, triple.getPredicate());
+                line.append(' ');
+                appendNode(line, triple.getObject());
+                line.append(" .\n");
+                writer.append(line);
+                count++;
+            }
+        } finally {
+            iterator.close();
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Reads the triples from the given reader adding them to the graph.
+     *
+     * @param reader the source reader, not closed.
+     * @param graph the target graph.
+     * @return the number of read triples.
+     * @throws IOException if an I/O or syntax error occurs.
+     */
+    static long read(BufferedReader reader, Graph graph) throws IOException {
+        final List<Triple> bulk = new ArrayList<Triple>(BULK_SIZE);
+        final LineParser parser = new LineParser(null, 0);
+        long count = 0;
+        String line;
+        while( (line = reader.readLine()) != null ) {
+            final Triple triple = parser.parse(line);
+            if(triple == null) {
+                continue;
+            }
+            bulk.add(triple);
+            count++;
+            if(bulk.size() == BULK_SIZE) {
+                graph.getBulkUpdateHandler().add(bulk);
+                bulk.clear();
+            }
+        }
+        if( ! bulk.isEmpty() ) {
+            graph.getBulkUpdateHandler().add(bulk);
+        }
+        return count;
+    }
+
+    /**
+     * Parses a chunk of lines.
+     *
+     * @param lines the lines to be parsed.
+     * @param firstLineNumber number of the first line of the chunk, used in error messages.
+     * @param nodes the table used to share nodes, can be <code>null</code>.
+     * @return the parsed triples.
+     * @throws IOException if a syntax error occurs.
+     */
+    static List<Triple> parse(List<String> lines, int firstLineNumber, NodeTable nodes) throws IOException {
+        final List<Triple> triples = new ArrayList<Triple>(lines.size());
+        final LineParser parser = new LineParser(nodes, firstLineNumber - 1);
+        for(String line : lines) {
+            final Triple triple = parser.parse(line);
+            if(triple != null) {
+                triples.add(triple);
+            }
+        }
+        return triples;
+    }
+
+    /**
+     * Thread safe table sharing the nodes created by concurrent parsers.
+     * Node creation in Jena is serialized on a global lock, the table
+     * ensures that it happens once per distinct label.
+     */
+    static class NodeTable {
+
+        private final ConcurrentMap<String,Node> uris     = new ConcurrentHashMap<String,Node>();
+
+        private final ConcurrentMap<String,Node> literals = new ConcurrentHashMap<String,Node>();
+
+        private final ConcurrentMap<String,Node> blanks   = new ConcurrentHashMap<String,Node>();
+
+        Node uri(String uri) {
+            Node node = uris.get(uri);
+            if(node == null) {
+                node = JenaCodeModel.toURINode(uri);
+                final Node previous = uris.putIfAbsent(uri, node);
+                if(previous != null) {
+                    node = previous;
+                }
+            }
+            return node;
+        }
+
+        Node literal(String lexical) {
+            Node node = literals.get(lexical);
+            if(node == null) {
+                node = Node.createLiteral(lexical);
+                final Node previous = literals.putIfAbsent(lexical, node);
+                if(previous != null) {
+                    node = previous;
+                }
+            }
+            return node;
+        }
+
+        Node blank(String label) {
+            Node node = blanks.get(label);
+            if(node == null) {
+                node = Node.createAnon( new AnonId(label) );
+                final Node previous = blanks.putIfAbsent(label, node);
+                if(previous != null) {
+                    node = previous;
+                }
+            }
+            return node;
+        }
+
+        /**
+         * @return the number of distinct nodes.
+         */
+        int size() {
+            return uris.size() + literals.size() + blanks.size();
+        }
+    }
+
+    private static void appendNode(StringBuilder sb, Node node) throws IOException {
+        if(node.isURI()) {
+            sb.append('<');
+            appendEscaped(sb, node.getURI());
+            sb.append('>');
+        } else if(node.isLiteral()) {
+            sb.append('"');
+            appendEscaped(sb, node.getLiteralLexicalForm());
+            sb.append('"');
+            final String language = node.getLiteralLanguage();
+            final String datatype = node.getLiteralDatatypeURI();
+            if(language != null && language.length() > 0) {
+                sb.append('@').append(language);
+            } else if(datatype != null) {
+                sb.append("^^<");
+                appendEscaped(sb, datatype);
+                sb.append('>');
+            }
+        } else if(node.isBlank()) {
+            sb.append("_:");
+            appendBlankLabel(sb, node.getBlankNodeLabel());
+        } else {
+            throw new IOException("Unsupported node: " + node);
+        }
+    }
+
+    private static void appendEscaped(StringBuilder sb, String value) {
+        final int length = value.length();
+        for(int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            switch(c) {
+                case '\\': sb.append("\\\\"); break;
+                case '"' : sb.append("\\\""); break;
+                case '\n': sb.append("\\n");  break;
+                case '\r': sb.append("\\r");  break;
+                case '\t': sb.append("\\t");  break;
+                default:
+                    if(c < 0x20 || c > 0x7E || c == '>') {
+                        appendHex(sb.append("\\u"), c);
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+    }
+
+    /**
+     * Blank labels must be alphanumeric: the label is prefixed with <i>b</i>
+     * and every other character (and <i>x</i> itself) is written as <i>x</i> plus four hex digits.
+     */
+    private static void appendBlankLabel(StringBuilder sb, String label) {
+        sb.append('b');
+        final int length = label.length();
+        for(int i = 0; i < length; i++) {
+            final char c = label.charAt(i);
+            if( c != 'x' && ( (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ) ) {
+                sb.append(c);
+            } else {
+                appendHex(sb.append('x'), c);
+            }
+        }
+    }
+
+    private static void appendHex(StringBuilder sb, char c) {
+        sb.append( HEX[(c >> 12) & 0xF] ).append( HEX[(c >> 8) & 0xF] )
+          .append( HEX[(c >> 4 ) & 0xF] ).append( HEX[ c       & 0xF] );
+    }
+
+    /**
+     * Parses a single <i>N-Triples</i> line.
+     */
+    private static class LineParser {
+
+        private final StringBuilder buffer = new StringBuilder();
+
+        private final NodeTable nodes;
+
+        private String line;
+
+        private int index;
+
+        private int lineNumber;
+
+        LineParser(NodeTable nodes, int lineNumber) {
+            this.nodes      = nodes;
+            this.lineNumber = lineNumber;
+        }
+
+        /**
+         * @return the parsed triple or <code>null</code> if the line is empty or a comment.
+         */
+        Triple parse(String l) throws IOException {
+            line  = l;
+            index = 0;
+            lineNumber++;
+            skipSpaces();
+            if(index == line.length() || line.charAt(index) == '#') {
+                return null;
+            }
+            final Node subject = parseSubject();
+            skipSpaces();
+            final Node predicate = parseURI();
+            skipSpaces();
+            final Node object = parseObject();
+            skipSpaces();
+            expect('.');
+            skipSpaces();
+            if(index != line.length() && line.charAt(index) != '#') {
+                throw error("unexpected content after triple");
+            }
+            return new Triple(subject, predicate, object);
+        }
+
+        private Node parseSubject() throws IOException {
+            return peek() == '_' ? parseBlank() : parseURI();
+        }
+
+        private Node parseObject() throws IOException {
+            switch( peek() ) {
+                case '_': return parseBlank();
+                case '"': return parseLiteral();
+                default : return parseURI();
+            }
+        }
+
+        private Node parseURI() throws IOException {
+            expect('<');
+            final String uri = readUntil('>');
+            return nodes == null ? JenaCodeModel.toURINode(uri) : nodes.uri(uri);
+        }
+
+        private Node parseBlank() throws IOException {
+            expect('_');
+            expect(':');
+            final int begin = index;
+            while( index < line.length() && Character.isLetterOrDigit( line.charAt(index) ) ) {
+                index++;
+            }
+            if(begin == index) {
+                throw error("empty blank node label");
+            }
+            final String label = decodeBlankLabel( line.substring(begin, index) );
+            return nodes == null ? Node.createAnon( new AnonId(label) ) : nodes.blank(label);
+        }
+
+        private Node parseLiteral() throws IOException {
+            expect('"');
+            final String lexical = readUntil('"');
+            if(index < line.length() && line.charAt(index) == '@') {
+                index++;
+                final int begin = index;
+                while( index < line.length() && ( Character.isLetterOrDigit(line.charAt(index)) || line.charAt(index) == '-' ) ) {
+                    index++;
+                }
+                return Node.createLiteral(lexical, line.substring(begin, index), false);
+            }
+            if(index + 1 < line.length() && line.charAt(index) == '^' && line.charAt(index + 1) == '^') {
+                index += 2;
+                expect('<');
+                final String datatype = readUntil('>');
+                return Node.createLiteral(lexical, null, TypeMapper.getInstance().getSafeTypeByName(datatype));
+            }
+            return nodes == null ? Node.createLiteral(lexical) : nodes.literal(lexical);
+        }
+
+        /**
+         * Reads and unescapes the content up to the given unescaped terminator, which is consumed.
+         */
+        private String readUntil(char terminator) throws IOException {
+            buffer.setLength(0);
+            while(index < line.length()) {
+                final char c = line.charAt(index++);
+                if(c == terminator) {
+                    return buffer.toString();
+                }
+                if(c != '\\') {
+                    buffer.append(c);
+                    continue;
+                }
+                if(index == line.length()) {
+                    throw error("truncated escape sequence");
+                }
+                final char e = line.charAt(index++);
+                switch(e) {
+                    case 't' : buffer.append('\t'); break;
+                    case 'n' : buffer.append('\n'); break;
+                    case 'r' : buffer.append('\r'); break;
+                    case 'b' : buffer.append('\b'); break;
+                    case 'f' : buffer.append('\f'); break;
+                    case '"' : buffer.append('"');  break;
+                    case '\'': buffer.append('\''); break;
+                    case '\\': buffer.append('\\'); break;
+                    case 'u' : buffer.append( (char) readHex(4) ); break;
+                    case 'U' : buffer.appendCodePoint( readHex(8) ); break;
+                    default:
+                        throw error("invalid escape sequence '\\" + e + "'");
+                }
+            }
+            throw error("missing '" + terminator + "'");
+        }
+
+        private int readHex(int digits) throws IOException {
+            if(index + digits > line.length()) {
+                throw error("truncated hex sequence");
+            }
+            try {
+                final int value = Integer.parseInt( line.substring(index, index + digits), 16 );
+                index += digits;
+                return value;
+            } catch (NumberFormatException nfe) {
+                throw error("invalid hex sequence");
+            }
+        }
+
+        /**
+         * Reverts {@link NTriplesSerializer#appendBlankLabel(StringBuilder, String)};
+         * labels not produced by it are returned as they are.
+         */
+        private String decodeBlankLabel(String label) {
+            if(label.charAt(0) != 'b') {
+                return label;
+            }
+            buffer.setLength(0);
+            for(int i = 1; i < label.length(); i++) {
+                final char c = label.charAt(i);
+                if(c != 'x') {
+                    buffer.append(c);
+                    continue;
+                }
+                if(i + 5 > label.length()) {
+                    return label;
+                }
+                try {
+                    buffer.append( (char) Integer.parseInt(label.substring(i + 1, i + 5), 16) );
+                } catch (NumberFormatException nfe) {
+                    return label;
+                }
+                i += 4;
+            }
+            return buffer.toString();
+        }
+
+        private char peek() throws IOException {
+            if(index == line.length()) {
+                throw error("unexpected end of line");
+            }
+            return line.charAt(index);
+        }
+
+        private void expect(char c) throws IOException {
+            if(peek() != c) {
+                throw error("expected '" + c + "'");
+            }
+            index++;
+        }
+
+        private void skipSpaces() {
+            while(index < line.length() && (line.charAt(index) == ' ' || line.charAt(index) == '\t')) {
+                index++;
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException(
+                    String.format("N-Triples syntax error at line %d, column %d: %s", lineNumber, index + 1, message)
+            );
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import java.util.Arrays;
+
+/**
+ * Maps every node label of a {@link DictionaryCodeModel} to a dense <i>int</i> identifier.
+ * Resources, literals and blank nodes with the same label receive different identifiers.
+ * The lookup table is an open addressing hash over the identifiers, so no boxed keys are allocated.
+ */
+class NodeDictionary {
+
+    /**
+     * Resource node kind.
+     */
+    static final byte RESOURCE = 0;
+
+    /**
+     * Literal node kind.
+     */
+    static final byte LITERAL  = 1;
+
+    /**
+     * Blank node kind.
+     */
+    static final byte BLANK    = 2;
+
+    /**
+     * Returned by lookup methods when a node is not present,
+     * distinct from {@link TripleTable#ANY}.
+     */
+    static final int NOT_FOUND = -2;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Node labels indexed by identifier.
+     */
+    private String[] labels;
+
+    /**
+     * Node kinds indexed by identifier.
+     */
+    private byte[] kinds;
+
+    /**
+     * Hash table containing <code>identifier + 1</code>, <code>0</code> marks a free slot.
+     */
+    private int[] table;
+
+    /**
+     * Number of encoded nodes.
+     */
+    private int size;
+
+    NodeDictionary() {
+        clear();
+    }
+
+    /**
+     * Returns the identifier of a node.
+     *
+     * @param label the node label.
+     * @param kind the node kind.
+     * @return the node identifier or {@link #NOT_FOUND}.
+     */
+    int lookup(String label, byte kind) {
+        final int mask = table.length - 1;
+        int slot = hash(label, kind) & mask;
+        int entry;
+        while( (entry = table[slot]) != 0 ) {
+            final int id = entry - 1;
+            if(kinds[id] == kind && labels[id].equals(label)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Returns the identifier of a node, encoding it if not yet present.
+     *
+     * @param label the node label.
+     * @param kind the node kind.
+     * @return the node identifier.
+     */
+    int encode(String label, byte kind) {
+        final int mask = table.length - 1;
+        int slot = hash(label, kind) & mask;
+        int entry;
+        while( (entry = table[slot]) != 0 ) {
+            final int id = entry - 1;
+            if(kinds[id] == kind && labels[id].equals(label)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if(size == labels.length) {
+            labels = Arrays.copyOf(labels, size * 2);
+            kinds  = Arrays.copyOf(kinds , size * 2);
+        }
+        final int id = size++;
+        labels[id] = label;
+        kinds[id]  = kind;
+        table[slot] = id + 1;
+        if(size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * @param id a node identifier.
+     * @return the node label.
+     */
+    String label(int id) {
+        return labels[id];
+    }
+
+    /**
+     * @param id a node identifier.
+     * @return the node kind.
+     */
+    byte kind(int id) {
+        return kinds[id];
+    }
+
+    /**
+     * @return the number of encoded nodes.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the nodes.
+     */
+    void clear() {
+        labels = new String[INITIAL_CAPACITY];
+        kinds  = new byte[INITIAL_CAPACITY];
+        table  = new int[INITIAL_CAPACITY * 2];
+        size   = 0;
+    }
+
+    private void rehash(int capacity) {
+        final int[] newTable = new int[capacity];
+        final int mask = capacity - 1;
+        for(int id = 0; id < size; id++) {
+            int slot = hash(labels[id], kinds[id]) & mask;
+            while(newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+
+    private static int hash(String label, byte kind) {
+        final int h = label.hashCode() * 31 + kind;
+        return h ^ (h >>> 16);
+    }
+
+}
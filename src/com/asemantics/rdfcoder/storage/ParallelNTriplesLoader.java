@@ -0,0 +1,172 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Triple;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads an <i>N-Triples</i> stream by splitting it in chunks of lines
+ * parsed on a pool of worker threads. Workers share the nodes through a
+ * {@link NTriplesSerializer.NodeTable}, the parsed chunks are added to the
+ * graph by the calling thread only, in the same order of the input.
+ * At most two chunks per worker are kept in memory.
+ */
+class ParallelNTriplesLoader {
+
+    /**
+     * Default number of lines of a chunk.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private static final AtomicInteger poolCounter = new AtomicInteger();
+
+    private final int threads;
+
+    private final int chunkSize;
+
+    ParallelNTriplesLoader(int threads, int chunkSize) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("threads must be >= 1");
+        }
+        if(chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be >= 1");
+        }
+        this.threads   = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    ParallelNTriplesLoader(int threads) {
+        this(threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Reads the triples from the given reader adding them to the graph.
+     *
+     * @param reader the source reader, not closed.
+     * @param graph the target graph.
+     * @return the number of read triples.
+     * @throws IOException if an I/O or syntax error occurs.
+     */
+    long load(BufferedReader reader, Graph graph) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new LoaderThreadFactory());
+        final NTriplesSerializer.NodeTable nodes = new NTriplesSerializer.NodeTable();
+        final Deque<Future<List<Triple>>> pending = new ArrayDeque<Future<List<Triple>>>();
+        final int maxPending = threads * 2;
+        long count = 0;
+        try {
+            List<String> chunk = new ArrayList<String>(chunkSize);
+            int lineNumber = 0;
+            int chunkFirstLine = 1;
+            String line;
+            while( (line = reader.readLine()) != null ) {
+                lineNumber++;
+                chunk.add(line);
+                if(chunk.size() == chunkSize) {
+                    pending.add( executor.submit( new ChunkParser(chunk, chunkFirstLine, nodes) ) );
+                    chunk = new ArrayList<String>(chunkSize);
+                    chunkFirstLine = lineNumber + 1;
+                    if(pending.size() >= maxPending) {
+                        count += apply(pending.poll(), graph);
+                    }
+                }
+            }
+            if( ! chunk.isEmpty() ) {
+                pending.add( executor.submit( new ChunkParser(chunk, chunkFirstLine, nodes) ) );
+            }
+            while( ! pending.isEmpty() ) {
+                count += apply(pending.poll(), graph);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return count;
+    }
+
+    /**
+     * Waits for a parsed chunk and adds it to the graph.
+     */
+    private static int apply(Future<List<Triple>> future, Graph graph) throws IOException {
+        final List<Triple> triples;
+        try {
+            triples = future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading triples.");
+        } catch (ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if(cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Error while parsing triples.", cause);
+        }
+        graph.getBulkUpdateHandler().add(triples);
+        return triples.size();
+    }
+
+    private static class ChunkParser implements Callable<List<Triple>> {
+
+        private final List<String> lines;
+
+        private final int firstLine;
+
+        private final NTriplesSerializer.NodeTable nodes;
+
+        ChunkParser(List<String> lines, int firstLine, NTriplesSerializer.NodeTable nodes) {
+            this.lines     = lines;
+            this.firstLine = firstLine;
+            this.nodes     = nodes;
+        }
+
+        public List<Triple> call() throws IOException {
+            return NTriplesSerializer.parse(lines, firstLine, nodes);
+        }
+    }
+
+    private static class LoaderThreadFactory implements ThreadFactory {
+
+        private final int pool = poolCounter.incrementAndGet();
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "rdfcoder-loader-" + pool + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the parsed <i>SPARQL</i> queries by query text,
+ * evicting the least recently used ones.
+ * The cached {@link Query} objects are shared by all the executions of the same text
+ * and must not be modified.
+ *
+ * @see JenaCodeModel#performQuery(String)
+ * @see DictionaryCodeModel#performQuery(String)
+ */
+public class SPARQLQueryCache {
+
+    /**
+     * Default maximum number of cached queries.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+
+    /**
+     * Parsed queries in access order.
+     */
+    private final LinkedHashMap<String,Query> queries;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximum number of cached queries.
+     */
+    public SPARQLQueryCache(final int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+        this.capacity = capacity;
+        queries = new LinkedHashMap<String,Query>(Math.min(capacity, 256) * 2, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,Query> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Constructor with default capacity.
+     */
+    public SPARQLQueryCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns the parsed query for the given text, parsing it if not cached.
+     * Queries with syntax errors are not cached.
+     *
+     * @param sparqlQry the query text.
+     * @return the parsed query.
+     * @throws com.hp.hpl.jena.query.QueryException if the query is invalid.
+     */
+    public Query getQuery(String sparqlQry) {
+        synchronized (this) {
+            final Query query = queries.get(sparqlQry);
+            if(query != null) {
+                hits++;
+                return query;
+            }
+            misses++;
+        }
+        // Parsing outside the lock, concurrent misses on the same text may parse it twice.
+        final Query query = QueryFactory.create(sparqlQry);
+        synchronized (this) {
+            queries.put(sparqlQry, query);
+        }
+        return query;
+    }
+
+    /**
+     * @return the maximum number of cached queries.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of requests answered by the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of requests which required a parsing.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of cached queries.
+     */
+    public synchronized int size() {
+        return queries.size();
+    }
+
+    /**
+     * Discards all the cached queries, the counters are preserved.
+     */
+    public synchronized void clear() {
+        queries.clear();
+    }
+
+    public synchronized String toString() {
+        return String.format(
+                "%s{size: %d, capacity: %d, hits: %d, misses: %d}",
+                this.getClass().getName(), queries.size(), capacity, hits, misses
+        );
+    }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.hp.hpl.jena.query.QuerySolution;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.query.resultset.ResultSetMem;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Cache of the materialized <i>SPARQL</i> results by query text,
+ * valid for a single {@link com.asemantics.rdfcoder.model.CodeModel#getModificationCount() model version}:
+ * all the results are discarded as soon as the model changes.
+ * The weight of a result is the number of its cells, results heavier than the whole budget
+ * are not cached and the least recently used results are evicted to respect the budget.
+ *
+ * @see JenaCodeModel#setResultCache(SPARQLResultCache)
+ * @see DictionaryCodeModel#setResultCache(SPARQLResultCache)
+ */
+public class SPARQLResultCache {
+
+    /**
+     * Default maximum number of cached results.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    /**
+     * Default maximum number of cached cells.
+     */
+    public static final int DEFAULT_MAX_WEIGHT = 100000;
+
+    /**
+     * A materialized result with its weight.
+     */
+    private static class Entry {
+
+        private final CachedResultSet resultSet;
+
+        private final int weight;
+
+        Entry(CachedResultSet resultSet, int weight) {
+            this.resultSet = resultSet;
+            this.weight    = weight;
+        }
+    }
+
+    private final int maxEntries;
+
+    private final int maxWeight;
+
+    /**
+     * Results in access order.
+     */
+    private final LinkedHashMap<String,Entry> entries = new LinkedHashMap<String,Entry>(64, 0.75f, true);
+
+    /**
+     * Model version the cached results refer to.
+     */
+    private long version = -1;
+
+    private int weight;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * Constructor.
+     *
+     * @param maxEntries the maximum number of cached results.
+     * @param maxWeight the maximum number of cached cells.
+     */
+    public SPARQLResultCache(int maxEntries, int maxWeight) {
+        if(maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be >= 1");
+        }
+        if(maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be >= 1");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight  = maxWeight;
+    }
+
+    /**
+     * Constructor with default limits.
+     */
+    public SPARQLResultCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * Returns a new cursor on the cached result of a query.
+     *
+     * @param sparqlQry the query text.
+     * @param modelVersion the current modification count of the queried model.
+     * @return the result set, <code>null</code> if not cached.
+     */
+    public synchronized ResultSet get(String sparqlQry, long modelVersion) {
+        validate(modelVersion);
+        final Entry entry = entries.get(sparqlQry);
+        if(entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ResultSetMem(entry.resultSet);
+    }
+
+    /**
+     * Materializes the result of a query and caches it if within the weight budget.
+     * Results exceeding the budget are returned as the materialized rows followed by the remaining ones.
+     *
+     * @param sparqlQry the query text.
+     * @param modelVersion the modification count of the queried model before the query execution.
+     * @param results the live query results.
+     * @return the result set to be consumed in place of the given one.
+     */
+    public ResultSet put(String sparqlQry, long modelVersion, ResultSet results) {
+        @SuppressWarnings("unchecked") // ARQ's ResultSet API is untyped.
+        final List<String> vars = results.getResultVars();
+        final int rowWeight = Math.max(1, vars.size());
+        final List<QuerySolution> rows = new ArrayList<QuerySolution>();
+        int resultWeight = rowWeight;
+        while(results.hasNext()) {
+            if(resultWeight > maxWeight) {
+                return new ReplayResultSet(rows, results);
+            }
+            rows.add( results.nextSolution() );
+            resultWeight += rowWeight;
+        }
+        final CachedResultSet resultSet =
+                new CachedResultSet(vars, rows, results.isOrdered(), results.isDistinct());
+        synchronized (this) {
+            validate(modelVersion);
+            if(modelVersion == version) {
+                final Entry previous = entries.put(sparqlQry, new Entry(resultSet, resultWeight));
+                if(previous != null) {
+                    weight -= previous.weight;
+                }
+                weight += resultWeight;
+                evict();
+            }
+        }
+        return new ResultSetMem(resultSet);
+    }
+
+    /**
+     * @return the maximum number of cached results.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return the maximum number of cached cells.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @return the number of queries answered by the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of queries evaluated on the model.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of cached results.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of cached cells.
+     */
+    public synchronized int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Discards all the cached results, the counters are preserved.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized String toString() {
+        return String.format(
+                "%s{size: %d, weight: %d, hits: %d, misses: %d}",
+                this.getClass().getName(), entries.size(), weight, hits, misses
+        );
+    }
+
+    /**
+     * Discards the cached results if the model has changed, results computed on an older version are ignored.
+     */
+    private void validate(long modelVersion) {
+        if(modelVersion > version) {
+            clear();
+            version = modelVersion;
+        }
+    }
+
+    private void evict() {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while( (entries.size() > maxEntries || weight > maxWeight) && iterator.hasNext() ) {
+            weight -= iterator.next().weight;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * In memory result set built from a list of rows, the copies share the rows.
+     */
+    private static class CachedResultSet extends ResultSetMem {
+
+        CachedResultSet(List<String> vars, List<QuerySolution> solutions, boolean ordered, boolean distinct) {
+            this.varNames = vars;
+            this.rows     = solutions;
+            this.ordered  = ordered;
+            this.distinct = distinct;
+            reset();
+        }
+    }
+
+    /**
+     * Result set returning the materialized rows followed by the remaining live ones.
+     */
+    private static class ReplayResultSet implements ResultSet {
+
+        private final List<QuerySolution> rows;
+
+        private final ResultSet remaining;
+
+        private int rowNumber;
+
+        ReplayResultSet(List<QuerySolution> rows, ResultSet remaining) {
+            this.rows      = rows;
+            this.remaining = remaining;
+        }
+
+        public boolean hasNext() {
+            return rowNumber < rows.size() || remaining.hasNext();
+        }
+
+        public Object next() {
+            return nextSolution();
+        }
+
+        public QuerySolution nextSolution() {
+            if(rowNumber < rows.size()) {
+                return rows.get(rowNumber++);
+            }
+            if( ! remaining.hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            rowNumber++;
+            return remaining.nextSolution();
+        }
+
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        @SuppressWarnings("rawtypes") // ARQ's ResultSet API is untyped.
+        public List getResultVars() {
+            return remaining.getResultVars();
+        }
+
+        public boolean isOrdered() {
+            return remaining.isOrdered();
+        }
+
+        public boolean isDistinct() {
+            return remaining.isDistinct();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
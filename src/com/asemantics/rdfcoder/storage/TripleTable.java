@@ -0,0 +1,598 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+
+/**
+ * Set of <i>int</i> encoded triples indexed by <i>SPO</i>, <i>POS</i> and <i>OSP</i> orders.
+ * <p>
+ * The triples are kept in three primitive arrays: the first {@link #sorted} positions are
+ * physically ordered by <i>SPO</i> and the <i>POS</i> and <i>OSP</i> orders are permutations
+ * of them. Newly added triples are appended to an unsorted tail that is merged into the indexes
+ * when it grows too large. Removed triples are marked as deleted and dropped on the next merge.
+ */
+class TripleTable {
+
+    /**
+     * Wildcard value for lookup methods.
+     */
+    static final int ANY = -1;
+
+    private static final int SPO = 0;
+    private static final int POS = 1;
+    private static final int OSP = 2;
+
+    /**
+     * Max tail size scanned linearly during a search.
+     */
+    private static final int MAX_SCANNED_TAIL = 4096;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private int[] s;
+    private int[] p;
+    private int[] o;
+
+    /**
+     * Number of stored positions, including deleted ones.
+     */
+    private int size;
+
+    /**
+     * Number of positions ordered by SPO.
+     */
+    private int sorted;
+
+    /**
+     * POS permutation of the sorted positions.
+     */
+    private int[] pos;
+
+    /**
+     * OSP permutation of the sorted positions.
+     */
+    private int[] osp;
+
+    /**
+     * Deleted positions.
+     */
+    private final BitSet deleted = new BitSet();
+
+    private int deletedCount;
+
+    /**
+     * Hash table of the tail positions, containing <code>position + 1</code>.
+     */
+    private int[] tailTable;
+
+    /**
+     * Incremented every time the positions are reorganized.
+     */
+    private int structureVersion;
+
+    /**
+     * Incremented every time the content changes.
+     */
+    private long modificationCount;
+
+    TripleTable() {
+        clear();
+    }
+
+    /**
+     * @return the number of triples.
+     */
+    int size() {
+        return size - deletedCount;
+    }
+
+    /**
+     * @return the number of content changes since the creation of the table.
+     */
+    long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Adds a triple.
+     *
+     * @return <code>true</code> if the triple was not already present.
+     */
+    boolean add(int subject, int predicate, int object) {
+        int position = find(subject, predicate, object);
+        if(position != ANY) {
+            if(deleted.get(position)) {
+                deleted.clear(position);
+                deletedCount--;
+                modificationCount++;
+                return true;
+            }
+            return false;
+        }
+
+        if(size == s.length) {
+            final int capacity = size + (size >> 1) + 1;
+            s = Arrays.copyOf(s, capacity);
+            p = Arrays.copyOf(p, capacity);
+            o = Arrays.copyOf(o, capacity);
+        }
+        s[size] = subject;
+        p[size] = predicate;
+        o[size] = object;
+        insertTail(size);
+        size++;
+        modificationCount++;
+
+        if(size - sorted > Math.max(MAX_SCANNED_TAIL, sorted >> 1)) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Removes a triple.
+     *
+     * @return <code>true</code> if the triple was present.
+     */
+    boolean remove(int subject, int predicate, int object) {
+        int position = find(subject, predicate, object);
+        if(position == ANY || deleted.get(position)) {
+            return false;
+        }
+        deleted.set(position);
+        deletedCount++;
+        modificationCount++;
+        if(deletedCount > Math.max(MAX_SCANNED_TAIL, size >> 1)) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if the triple is present.
+     */
+    boolean contains(int subject, int predicate, int object) {
+        int position = find(subject, predicate, object);
+        return position != ANY && ! deleted.get(position);
+    }
+
+    /**
+     * Counts the triples matching the given pattern. The count of the indexed
+     * triples is computed from the index range when there are no deleted triples.
+     *
+     * @return the number of matching triples.
+     */
+    int count(int subject, int predicate, int object) {
+        if(subject == ANY && predicate == ANY && object == ANY) {
+            return size();
+        }
+        final Cursor cursor = search(subject, predicate, object);
+        int count = 0;
+        if(deletedCount == 0) {
+            count = cursor.to - cursor.index;
+            cursor.index = cursor.to;
+        }
+        while(cursor.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Merges the pending tail and drops the deleted triples, so that a full
+     * {@link #search(int, int, int)} returns the triples in <i>SPO</i> order.
+     */
+    void optimize() {
+        if(sorted < size || deletedCount > 0) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes all the triples.
+     */
+    void clear() {
+        s = new int[INITIAL_CAPACITY];
+        p = new int[INITIAL_CAPACITY];
+        o = new int[INITIAL_CAPACITY];
+        pos = new int[0];
+        osp = new int[0];
+        size = 0;
+        sorted = 0;
+        deleted.clear();
+        deletedCount = 0;
+        tailTable = new int[INITIAL_CAPACITY];
+        structureVersion++;
+        modificationCount++;
+    }
+
+    /**
+     * Returns a cursor over the triples matching the given pattern.
+     *
+     * @param subject the subject identifier or {@link #ANY}.
+     * @param predicate the predicate identifier or {@link #ANY}.
+     * @param object the object identifier or {@link #ANY}.
+     * @return the cursor on the matching triples.
+     */
+    Cursor search(int subject, int predicate, int object) {
+        if(size - sorted > MAX_SCANNED_TAIL) {
+            compact();
+        }
+
+        final int order;
+        final int k0, k1, k2;
+        if(subject != ANY) {
+            if(predicate != ANY) {
+                order = SPO; k0 = subject; k1 = predicate; k2 = object;
+            } else if(object != ANY) {
+                order = OSP; k0 = object; k1 = subject; k2 = ANY;
+            } else {
+                order = SPO; k0 = subject; k1 = ANY; k2 = ANY;
+            }
+        } else if(predicate != ANY) {
+            order = POS; k0 = predicate; k1 = object; k2 = ANY;
+        } else if(object != ANY) {
+            order = OSP; k0 = object; k1 = ANY; k2 = ANY;
+        } else {
+            order = SPO; k0 = ANY; k1 = ANY; k2 = ANY;
+        }
+
+        final int length = k0 == ANY ? 0 : k1 == ANY ? 1 : k2 == ANY ? 2 : 3;
+        final int from = lowerBound(order, k0, k1, k2, length);
+        final int to   = upperBound(order, k0, k1, k2, length, from);
+        return new Cursor(order, from, to, subject, predicate, object);
+    }
+
+    /**
+     * Iterates over the triples matching a pattern.
+     * The cursor becomes invalid if the table is modified structurally.
+     */
+    class Cursor {
+
+        private final int[] permutation;
+        private final int to;
+        private final int subject;
+        private final int predicate;
+        private final int object;
+        private final int version;
+
+        private int index;
+        private int tailIndex;
+        private int current;
+
+        private Cursor(int order, int from, int to, int subject, int predicate, int object) {
+            this.permutation = order == POS ? pos : order == OSP ? osp : null;
+            this.index       = from;
+            this.to          = to;
+            this.subject     = subject;
+            this.predicate   = predicate;
+            this.object      = object;
+            this.version     = structureVersion;
+            this.tailIndex   = sorted;
+        }
+
+        /**
+         * Moves to the next matching triple.
+         *
+         * @return <code>false</code> if there are no more triples.
+         */
+        boolean next() {
+            if(version != structureVersion) {
+                throw new ConcurrentModificationException("The triple table has been reorganized.");
+            }
+            while(index < to) {
+                final int position = permutation == null ? index : permutation[index];
+                index++;
+                if( ! deleted.get(position) ) {
+                    current = position;
+                    return true;
+                }
+            }
+            while(tailIndex < size) {
+                final int position = tailIndex++;
+                if( deleted.get(position) ) {
+                    continue;
+                }
+                if(
+                        (subject   == ANY || s[position] == subject  ) &&
+                        (predicate == ANY || p[position] == predicate) &&
+                        (object    == ANY || o[position] == object   )
+                ) {
+                    current = position;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int subject() {
+            return s[current];
+        }
+
+        int predicate() {
+            return p[current];
+        }
+
+        int object() {
+            return o[current];
+        }
+    }
+
+    /**
+     * Returns the position of a triple, deleted or not.
+     */
+    private int find(int subject, int predicate, int object) {
+        int from = lowerBound(SPO, subject, predicate, object, 3);
+        if(from < sorted && s[from] == subject && p[from] == predicate && o[from] == object) {
+            return from;
+        }
+        final int mask = tailTable.length - 1;
+        int slot = hash(subject, predicate, object) & mask;
+        int entry;
+        while( (entry = tailTable[slot]) != 0 ) {
+            final int position = entry - 1;
+            if(s[position] == subject && p[position] == predicate && o[position] == object) {
+                return position;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ANY;
+    }
+
+    private void insertTail(int position) {
+        if( (size - sorted + 1) * 2 > tailTable.length ) {
+            final int[] newTable = new int[tailTable.length * 2];
+            for(int tail = sorted; tail < position; tail++) {
+                insertTail(newTable, tail);
+            }
+            tailTable = newTable;
+        }
+        insertTail(tailTable, position);
+    }
+
+    private void insertTail(int[] table, int position) {
+        final int mask = table.length - 1;
+        int slot = hash(s[position], p[position], o[position]) & mask;
+        while(table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position + 1;
+    }
+
+    /**
+     * Merges the tail into the indexes and drops the deleted triples.
+     */
+    private void compact() {
+        int[] tail = new int[size - sorted];
+        int tailLength = 0;
+        for(int position = sorted; position < size; position++) {
+            if( ! deleted.get(position) ) {
+                tail[tailLength++] = position;
+            }
+        }
+
+        // Merges the SPO ordered main positions with the sorted tail, skipping duplicates.
+        sort(tail, tailLength, SPO);
+        final int[] mapping = new int[size];
+        Arrays.fill(mapping, ANY);
+        final int capacity = Math.max(size - deletedCount, INITIAL_CAPACITY);
+        final int[] ns = new int[capacity];
+        final int[] np = new int[capacity];
+        final int[] no = new int[capacity];
+        int n = 0;
+        int main = 0;
+        int t = 0;
+        while(main < sorted || t < tailLength) {
+            if(main < sorted && deleted.get(main)) {
+                main++;
+                continue;
+            }
+            final int position;
+            if(t >= tailLength || (main < sorted && compare(SPO, main, tail[t]) <= 0)) {
+                position = main++;
+            } else {
+                position = tail[t++];
+            }
+            if(n > 0 && ns[n - 1] == s[position] && np[n - 1] == p[position] && no[n - 1] == o[position]) {
+                continue;
+            }
+            ns[n] = s[position];
+            np[n] = p[position];
+            no[n] = o[position];
+            mapping[position] = n++;
+        }
+
+        final int[] newPos = mergePermutation(POS, pos, tail, tailLength, mapping, ns, np, no, n);
+        final int[] newOsp = mergePermutation(OSP, osp, tail, tailLength, mapping, ns, np, no, n);
+
+        s = ns;
+        p = np;
+        o = no;
+        pos = newPos;
+        osp = newOsp;
+        size = n;
+        sorted = n;
+        deleted.clear();
+        deletedCount = 0;
+        tailTable = new int[INITIAL_CAPACITY];
+        structureVersion++;
+    }
+
+    private int[] mergePermutation(
+            int order, int[] permutation, int[] tail, int tailLength, int[] mapping,
+            int[] ns, int[] np, int[] no, int n
+    ) {
+        sort(tail, tailLength, order);
+        final int[] result = new int[n];
+        int r = 0;
+        int i = 0;
+        int t = 0;
+        int left  = nextMapped(permutation, sorted, i, mapping);
+        int right = nextMapped(tail, tailLength, t, mapping);
+        while(left < sorted || right < tailLength) {
+            final int candidate;
+            if(right >= tailLength) {
+                candidate = mapping[permutation[left]];
+                left = nextMapped(permutation, sorted, left + 1, mapping);
+            } else if(left >= sorted) {
+                candidate = mapping[tail[right]];
+                right = nextMapped(tail, tailLength, right + 1, mapping);
+            } else {
+                final int a = mapping[permutation[left]];
+                final int b = mapping[tail[right]];
+                if(compare(order, ns, np, no, a, b) <= 0) {
+                    candidate = a;
+                    left = nextMapped(permutation, sorted, left + 1, mapping);
+                } else {
+                    candidate = b;
+                    right = nextMapped(tail, tailLength, right + 1, mapping);
+                }
+            }
+            result[r++] = candidate;
+        }
+        return result;
+    }
+
+    private static int nextMapped(int[] positions, int length, int from, int[] mapping) {
+        while(from < length && mapping[positions[from]] == ANY) {
+            from++;
+        }
+        return from;
+    }
+
+    private int lowerBound(int order, int k0, int k1, int k2, int length) {
+        int low = 0;
+        int high = sorted;
+        while(low < high) {
+            final int mid = (low + high) >>> 1;
+            if(comparePrefix(order, positionAt(order, mid), k0, k1, k2, length) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(int order, int k0, int k1, int k2, int length, int from) {
+        int low = from;
+        int high = sorted;
+        while(low < high) {
+            final int mid = (low + high) >>> 1;
+            if(comparePrefix(order, positionAt(order, mid), k0, k1, k2, length) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int positionAt(int order, int index) {
+        return order == POS ? pos[index] : order == OSP ? osp[index] : index;
+    }
+
+    private int comparePrefix(int order, int position, int k0, int k1, int k2, int length) {
+        if(length == 0) {
+            return 0;
+        }
+        int c = Integer.compare(key(order, 0, s, p, o, position), k0);
+        if(c != 0 || length == 1) {
+            return c;
+        }
+        c = Integer.compare(key(order, 1, s, p, o, position), k1);
+        if(c != 0 || length == 2) {
+            return c;
+        }
+        return Integer.compare(key(order, 2, s, p, o, position), k2);
+    }
+
+    private int compare(int order, int a, int b) {
+        return compare(order, s, p, o, a, b);
+    }
+
+    private static int compare(int order, int[] s, int[] p, int[] o, int a, int b) {
+        for(int k = 0; k < 3; k++) {
+            final int c = Integer.compare(key(order, k, s, p, o, a), key(order, k, s, p, o, b));
+            if(c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private static int key(int order, int k, int[] s, int[] p, int[] o, int position) {
+        switch(order) {
+            case SPO:
+                return k == 0 ? s[position] : k == 1 ? p[position] : o[position];
+            case POS:
+                return k == 0 ? p[position] : k == 1 ? o[position] : s[position];
+            default:
+                return k == 0 ? o[position] : k == 1 ? s[position] : p[position];
+        }
+    }
+
+    /**
+     * Merge sort of a positions array by the given order.
+     */
+    private void sort(int[] positions, int length, int order) {
+        if(length < 2) {
+            return;
+        }
+        mergeSort(positions, Arrays.copyOf(positions, length), 0, length, order);
+    }
+
+    private void mergeSort(int[] dst, int[] src, int from, int to, int order) {
+        if(to - from <= INSERTION_SORT_THRESHOLD) {
+            for(int i = from + 1; i < to; i++) {
+                final int value = dst[i];
+                int j = i - 1;
+                while(j >= from && compare(order, dst[j], value) > 0) {
+                    dst[j + 1] = dst[j];
+                    j--;
+                }
+                dst[j + 1] = value;
+            }
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        mergeSort(src, dst, from, mid, order);
+        mergeSort(src, dst, mid, to, order);
+        for(int i = from, l = from, r = mid; i < to; i++) {
+            if(r >= to || (l < mid && compare(order, src[l], src[r]) <= 0)) {
+                dst[i] = src[l++];
+            } else {
+                dst[i] = src[r++];
+            }
+        }
+    }
+
+    private static int hash(int subject, int predicate, int object) {
+        int h = subject * 0x9E3779B1;
+        h = (h ^ predicate) * 0x9E3779B1;
+        h = (h ^ object) * 0x9E3779B1;
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -68,7 +68,7 @@ public class CommandLineTest {
 
     @Test
     public void testRetrieveCommands() {
-        Assert.assertEquals("Unexpected number of commands.", 17, commandLine.getCommands().length);
+        Assert.assertEquals("Unexpected number of commands.", 21, commandLine.getCommands().length);
     }
 
     @Test
@@ -223,6 +223,27 @@ public class CommandLineTest {
         printStreamWrapper.assertContent("| o");
     }
 
+    @Test
+    public void testQueryModelCommandDelimited() throws IOException {
+        commandLine.processLine("loadclasspath junit jar:lib/junit-4.4.jar");
+        printStreamWrapper.clear();
+        Assert.assertTrue( commandLine.processLine("querymodel \"select ?s where {?s ?p ?o}\" -f csv -l 3") );
+        Assert.assertEquals("Unexpected number of lines.", 4, printStreamWrapper.getLines().size());
+        printStreamWrapper.assertContent("s\r");
+        printStreamWrapper.dumpLines();
+    }
+
+    @Test
+    public void testQueryModelCommandTimeout() throws IOException {
+        commandLine.processLine("loadclasspath junit jar:lib/junit-4.4.jar");
+        printStreamWrapper.clear();
+        Assert.assertTrue( commandLine.processLine(
+                "querymodel \"select * where {?s1 ?p1 ?o1 . ?s2 ?p2 ?o2 . ?s3 ?p3 ?o3}\" --timeout 100"
+        ) );
+        printStreamWrapper.dumpLines();
+        printStreamWrapper.assertContent("Query timed out after 100 ms.");
+    }
+
     @Test
     public void testInspectModelCommand() throws IllegalAccessException, InvocationTargetException, IOException {
         Assert.assertTrue(commandLine.processLine("loadclasspath uml jar:lib/UmlGraph.jar"));
@@ -278,6 +299,51 @@ public class CommandLineTest {
         printStreamWrapper.assertContent("unresolved [0]");
     }
 
+    @Test
+    public void testEntitiesCommand() throws IOException {
+        Assert.assertTrue(commandLine.processLine("loadclasspath junit jar:lib/junit-4.4.jar"));
+        printStreamWrapper.clear();
+        Assert.assertTrue(commandLine.processLine("entities junit.framework"));
+        printStreamWrapper.dumpLines();
+        printStreamWrapper.assertContent("jpackage:junit.framework.jclass:TestCase");
+        printStreamWrapper.clear();
+        Assert.assertTrue(commandLine.processLine("entities junit.framework.TestCase"));
+        printStreamWrapper.assertContent("jpackage:junit.framework.jclass:TestCase.jmethod:run");
+    }
+
+    @Test
+    public void testSymbolsCommand() throws IOException {
+        Assert.assertTrue(commandLine.processLine("loadclasspath junit jar:lib/junit-4.4.jar"));
+        printStreamWrapper.clear();
+        Assert.assertTrue(commandLine.processLine("symbols TeCa"));
+        printStreamWrapper.assertContent("jpackage:junit.framework.jclass:TestCase");
+        printStreamWrapper.clear();
+        Assert.assertTrue(commandLine.processLine("symbols assertEq 5"));
+        printStreamWrapper.assertContent("jmethod:assertEquals");
+    }
+
+    @Test
+    public void testDependenciesCommand() throws IOException {
+        Assert.assertTrue(commandLine.processLine("loadclasspath junit jar:lib/junit-4.4.jar"));
+        printStreamWrapper.clear();
+        Assert.assertTrue(commandLine.processLine("dependencies packages"));
+        printStreamWrapper.assertContent("packages: ");
+        printStreamWrapper.assertContent("junit.framework (fan-in ");
+        printStreamWrapper.clear();
+        Assert.assertTrue(commandLine.processLine("dependencies classes"));
+        printStreamWrapper.assertContent("junit.framework.TestCase");
+    }
+
+    @Test
+    public void testStatsCommand() throws IOException {
+        Assert.assertTrue(commandLine.processLine("loadclasspath junit jar:lib/junit-4.4.jar"));
+        printStreamWrapper.clear();
+        Assert.assertTrue(commandLine.processLine("stats"));
+        printStreamWrapper.assertContent("triples: ");
+        printStreamWrapper.assertContent("JClass: ");
+        printStreamWrapper.assertContent("JMethod: ");
+    }
+
     /**
      * Provides a wrapper to the print stream.
      */
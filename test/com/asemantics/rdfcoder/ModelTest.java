@@ -0,0 +1,113 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder;
+
+import com.asemantics.rdfcoder.model.CodeModelBase;
+import com.asemantics.rdfcoder.repository.Repository;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.Model} class.
+ */
+public class ModelTest {
+
+    private static final String TEST_MODEL_NAME = "model_test";
+
+    private static final int TRIPLES = 100;
+
+    private RDFCoder coder;
+
+    private Model model;
+
+    @Before
+    public void setUp() {
+        coder = new RDFCoder("target_test/model_repo");
+        model = coder.createModel(TEST_MODEL_NAME);
+        CodeModelBase cmb = model.getCodeModelBase();
+        for(int i = 0; i < TRIPLES; i++) {
+            cmb.addTriple("http://test/s" + i, "http://test/p", "http://test/o" + (i + 1));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        coder.deleteModel(TEST_MODEL_NAME);
+        model = null;
+        coder = null;
+    }
+
+    @Test
+    public void testSaveLoadNTriples() throws IOException {
+        File location = saveAndLoad(Repository.ResourceType.N_TRIPLES);
+        Assert.assertTrue("Unexpected resource name.", location.getName().endsWith(".nt"));
+        Assert.assertFalse("A .nt resource must be plain N-Triples.", isGzip(location));
+    }
+
+    @Test
+    public void testSaveLoadNTriplesGzip() throws IOException {
+        File location = saveAndLoad(Repository.ResourceType.N_TRIPLES_GZIP);
+        Assert.assertTrue("Unexpected resource name.", location.getName().endsWith(".nt.gz"));
+        Assert.assertTrue("A .nt.gz resource must be gzipped.", isGzip(location));
+    }
+
+    @Test
+    public void testSaveLoadBinaryModel() throws IOException {
+        File location = saveAndLoad(Repository.ResourceType.BINARY_MODEL);
+        Assert.assertTrue("Unexpected resource name.", location.getName().endsWith(".rdfbin"));
+    }
+
+    /**
+     * Saves the test model with the given storage type, reloads it
+     * and verifies its content.
+     *
+     * @return the location of the saved resource.
+     */
+    private File saveAndLoad(Repository.ResourceType type) {
+        model.setStorageType(type);
+        model.save();
+        Repository.Resource resource = model.retrieveResource( model.getModelResourceName() );
+        Assert.assertEquals("Unexpected resource type.", type, resource.getType());
+
+        model.clear();
+        Assert.assertEquals(0, model.getCodeModelBase().countTriples(null, null, null));
+        model.load(TEST_MODEL_NAME);
+        CodeModelBase cmb = model.getCodeModelBase();
+        Assert.assertEquals("Unexpected number of triples.", TRIPLES, cmb.countTriples(null, null, null));
+        Assert.assertTrue(cmb.containsTriple("http://test/s0", "http://test/p", "http://test/o1"));
+        return resource.getLocation();
+    }
+
+    private boolean isGzip(File file) throws IOException {
+        InputStream is = new FileInputStream(file);
+        try {
+            return is.read() == 0x1f && is.read() == 0x8b;
+        } finally {
+            is.close();
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model;
+
+import com.asemantics.rdfcoder.model.java.JavaCodeModel;
+import com.asemantics.rdfcoder.storage.JenaCoderFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.model.IdentifierIndex} class.
+ */
+public class IdentifierIndexTest {
+
+    private IdentifierIndex index;
+
+    @Before
+    public void setUp() {
+        index = new IdentifierIndex();
+        index.add( IdentifierReader.readPackage("com") );
+        index.add( IdentifierReader.readPackage("com.foo") );
+        index.add( IdentifierReader.readPackage("com.foo.bar") );
+        index.add( IdentifierReader.readFullyQualifiedClass("com.foo.Hash") );
+        index.add( IdentifierReader.readFullyQualifiedClass("com.foo.HashMap") );
+        index.add( IdentifierReader.readFullyQualifiedClass("com.foo.bar.Baz") );
+        index.add( IdentifierReader.readFullyQualifiedMethod("com.foo.HashMap.put") );
+        index.add( IdentifierReader.readFullyQualifiedInterface("com.other.Map") );
+    }
+
+    @Test
+    public void testAddAndContains() {
+        Assert.assertEquals(8, index.size());
+        Assert.assertFalse( index.add(IdentifierReader.readFullyQualifiedClass("com.foo.Hash")) );
+        Assert.assertEquals(8, index.size());
+        Assert.assertTrue( index.contains(IdentifierReader.readFullyQualifiedClass("com.foo.HashMap")) );
+        Assert.assertFalse( index.contains(IdentifierReader.readPackage("com.other")) );
+        Assert.assertFalse( index.contains(IdentifierReader.readFullyQualifiedInterface("com.foo.HashMap")) );
+    }
+
+    @Test
+    public void testGetChildren() {
+        Assert.assertEquals(
+                Arrays.asList(
+                        IdentifierReader.readFullyQualifiedClass("com.foo.Hash"),
+                        IdentifierReader.readFullyQualifiedClass("com.foo.HashMap"),
+                        IdentifierReader.readPackage("com.foo.bar")
+                ),
+                index.getChildren( IdentifierReader.readPackage("com.foo") )
+        );
+        // com.other is not an entity, its content is reported in place.
+        Assert.assertEquals(
+                Arrays.asList(
+                        IdentifierReader.readPackage("com.foo"),
+                        IdentifierReader.readFullyQualifiedInterface("com.other.Map")
+                ),
+                index.getChildren( IdentifierReader.readPackage("com") )
+        );
+        Assert.assertTrue( index.getChildren(IdentifierReader.readPackage("org")).isEmpty() );
+    }
+
+    @Test
+    public void testGetDescendants() {
+        List<Identifier> descendants = index.getDescendants( IdentifierReader.readPackage("com.foo") );
+        Assert.assertEquals(5, descendants.size());
+        Assert.assertTrue( descendants.contains(IdentifierReader.readFullyQualifiedMethod("com.foo.HashMap.put")) );
+        Assert.assertTrue( descendants.contains(IdentifierReader.readFullyQualifiedClass("com.foo.bar.Baz")) );
+        Assert.assertFalse( descendants.contains(IdentifierReader.readPackage("com.foo")) );
+    }
+
+    @Test
+    public void testFind() {
+        Assert.assertEquals(
+                Arrays.asList( IdentifierReader.readFullyQualifiedClass("com.foo.HashMap") ),
+                index.find("com.foo.HashMap")
+        );
+        Assert.assertEquals(
+                Arrays.asList( IdentifierReader.readFullyQualifiedMethod("com.foo.HashMap.put") ),
+                index.find("com.foo.HashMap.put")
+        );
+        Assert.assertTrue( index.find("com.foo.Has").isEmpty() );
+    }
+
+    @Test
+    public void testComplete() {
+        Assert.assertEquals( Arrays.asList("com.foo.Hash", "com.foo.HashMap"), index.complete("com.foo.Has", 10) );
+        Assert.assertEquals( Arrays.asList("com.foo.Hash"), index.complete("com.foo.Has", 1) );
+        Assert.assertEquals( Arrays.asList("com.foo", "com.other"), index.complete("com.", 10) );
+        Assert.assertEquals( Arrays.asList("com"), index.complete("c", 10) );
+        Assert.assertTrue( index.complete("org.", 10).isEmpty() );
+    }
+
+    @Test
+    public void testRebuild() {
+        CodeModel model = new JenaCoderFactory().createCodeModel();
+        model.addTriple(
+                IdentifierReader.readFullyQualifiedClass("com.foo.HashMap").getIdentifier(),
+                CodeModel.TYPE,
+                JavaCodeModel.JCLASS
+        );
+        model.addTriple(
+                IdentifierReader.readFullyQualifiedMethod("com.foo.HashMap.put").getIdentifier(),
+                CodeModel.TYPE,
+                JavaCodeModel.JSIGNATURE
+        );
+        index.clear();
+        Assert.assertTrue( index.isEmpty() );
+        Assert.assertEquals(1, index.rebuild(model, JavaCodeModel.INDEXED_CLASSES));
+        Assert.assertEquals( Arrays.asList("com.foo.HashMap"), index.complete("com.foo.", 10) );
+    }
+
+}
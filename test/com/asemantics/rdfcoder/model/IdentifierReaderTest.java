@@ -206,4 +206,56 @@ public class IdentifierReaderTest {
         );
     }
 
+    /**
+     * Tests that the parsed identifiers render back to the source string.
+     */
+    @Test
+    public void testReadIdentifierRoundTrip() {
+        final String[] identifiers = {
+                "http://www.rdfcoder.org/2007/1.0#jpackage:p1.p2.jclass:C1.jmethod:m1",
+                "http://www.rdfcoder.org/2007/1.0#jpackage:.jclass:C1",
+                "http://path/to/prefix#q1:p1..p3",
+                "asset:"
+        };
+        for(String identifier : identifiers) {
+            IdentifierReader.clearCache();
+            Assert.assertEquals(identifier, IdentifierReader.readIdentifier(identifier).getIdentifier());
+        }
+    }
+
+    /**
+     * Tests that invalid identifiers are rejected.
+     */
+    @Test
+    public void testReadInvalidIdentifier() {
+        final String[] identifiers = {
+                "http://path/to/prefix#p1.p2",
+                "http://path/to/prefix#:p1",
+                "http://path/to/prefix#q1:q2:p1"
+        };
+        for(String identifier : identifiers) {
+            try {
+                IdentifierReader.readIdentifier(identifier);
+                Assert.fail("Expected error for identifier " + identifier);
+            } catch (IllegalArgumentException iae) {
+                // OK.
+            }
+        }
+    }
+
+    /**
+     * Tests that the parsed identifiers are cached.
+     */
+    @Test
+    public void testReadIdentifierCache() {
+        final String identifier = "http://path/to/prefix#q1:p1.q2:p2";
+        Identifier first = IdentifierReader.readIdentifier(identifier);
+        Assert.assertSame(first, IdentifierReader.readIdentifier(identifier));
+        for(int i = 0; i < IdentifierReader.CACHE_SIZE * 2; i++) {
+            IdentifierReader.readIdentifier(identifier + i);
+        }
+        Identifier reloaded = IdentifierReader.readIdentifier(identifier);
+        Assert.assertEquals(first, reloaded);
+    }
+
 }
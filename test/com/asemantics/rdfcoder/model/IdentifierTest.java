@@ -24,6 +24,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Test case for {@link com.asemantics.rdfcoder.model.Identifier} class.
@@ -181,4 +183,53 @@ public class IdentifierTest {
         Assert.assertEquals("Unexpected size.", TEST_FRAGMENTS.length, identifier.size() );
     }
 
+    /**
+     * Tests that sub identifiers are equal to the corresponding built ones.
+     */
+    @Test
+    public void testSubIdentifiersEquality() {
+        Identifier parent = identifier.getParent();
+        Identifier built  = identifier.copy().popFragment().build();
+        Assert.assertEquals(built, parent);
+        Assert.assertEquals(built.hashCode(), parent.hashCode());
+        Assert.assertEquals(built.getIdentifier(), parent.getIdentifier());
+        Assert.assertEquals(
+                "http://test/prefix#qualifier2:fragment2",
+                identifier.getSections(1, 2).getIdentifier()
+        );
+        Assert.assertEquals(identifier.getTail(), identifier.getSections(2, 3));
+        Assert.assertEquals("fragment2", identifier.getSections(1, 3).getFragment(0).getFragment());
+        Assert.assertFalse(identifier.getSections(0, 2).equals(identifier.getSections(1, 3)));
+    }
+
+    /**
+     * Tests that the identifier is not affected by changes to the source array.
+     */
+    @Test
+    public void testImmutability() {
+        IdentifierFragment[] fragments = TEST_FRAGMENTS.clone();
+        Identifier id = new Identifier(TEST_PREFIX, fragments);
+        fragments[0] = new IdentifierFragment("other", "qualifier1");
+        Assert.assertEquals(identifier, id);
+        Assert.assertSame(id.getIdentifier(), id.getIdentifier());
+    }
+
+    /**
+     * Tests the distribution of the hash codes over similar identifiers.
+     */
+    @Test
+    public void testHashCodeDistribution() {
+        Set<Integer> hashes = new HashSet<Integer>();
+        final int size = 100;
+        for(int i = 0; i < size; i++) {
+            for(int j = 0; j < size; j++) {
+                hashes.add(
+                        IdentifierReader.readPackage("p" + i + ".p" + j)
+                                .copy().pushFragment("C" + j, "jclass").build().hashCode()
+                );
+            }
+        }
+        Assert.assertTrue("Too many collisions: " + hashes.size(), hashes.size() > size * size * 99 / 100);
+    }
+
 }
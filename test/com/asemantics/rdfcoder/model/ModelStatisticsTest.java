@@ -0,0 +1,93 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model;
+
+import com.asemantics.rdfcoder.model.java.JavaCodeModel;
+import com.asemantics.rdfcoder.model.java.JavaQueryModelImpl;
+import com.asemantics.rdfcoder.storage.DictionaryCoderFactory;
+import com.asemantics.rdfcoder.storage.JenaCoderFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.model.ModelStatistics} class.
+ */
+public class ModelStatisticsTest {
+
+    private static final String S1 = "http://test/s1";
+    private static final String S2 = "http://test/s2";
+    private static final String S3 = "http://test/s3";
+
+    @Test
+    public void testJenaIncrementalCounters() {
+        checkIncrementalCounters( new JenaCoderFactory().createCodeModel() );
+    }
+
+    @Test
+    public void testDictionaryIncrementalCounters() {
+        checkIncrementalCounters( new DictionaryCoderFactory().createCodeModel() );
+    }
+
+    @Test
+    public void testRebuildWhenModifiedExternally() {
+        final CodeModelBase model = new JenaCoderFactory().createCodeModel();
+        final JavaQueryModelImpl queryModel = new JavaQueryModelImpl(model);
+        model.addTriple(S1, CodeModel.TYPE, JavaCodeModel.JPACKAGE);
+        Assert.assertEquals(1, queryModel.getModelStatistics().getEntitiesCount(JavaCodeModel.JPACKAGE));
+        model.clearAll();
+        Assert.assertFalse( model.getModelStatistics().isSynchronized(model) );
+        Assert.assertEquals(0, queryModel.getModelStatistics().getEntitiesCount(JavaCodeModel.JPACKAGE));
+        Assert.assertEquals(0, queryModel.getModelStatistics().getTriplesCount());
+    }
+
+    private void checkIncrementalCounters(CodeModelBase model) {
+        final ModelStatistics statistics = model.getModelStatistics();
+        Assert.assertFalse("The counters must be initially unsynchronized.", statistics.isSynchronized(model));
+        statistics.rebuild(model);
+
+        model.addTriple(S1, CodeModel.TYPE, JavaCodeModel.JCLASS);
+        model.addTriple(S1, CodeModel.TYPE, JavaCodeModel.JCLASS);
+        model.addTriple(S2, CodeModel.TYPE, JavaCodeModel.JCLASS);
+        model.addTripleLiteral(S1, JavaCodeModel.HAS_VISIBILITY, "public");
+        Assert.assertTrue(statistics.isSynchronized(model));
+        Assert.assertEquals(3, statistics.getTriplesCount());
+        Assert.assertEquals(2, statistics.getEntitiesCount(JavaCodeModel.JCLASS));
+
+        model.removeTriple(S1, CodeModel.TYPE, JavaCodeModel.JCLASS);
+        model.removeTriple(S1, CodeModel.TYPE, JavaCodeModel.JCLASS);
+        Assert.assertEquals(2, statistics.getTriplesCount());
+        Assert.assertEquals(1, statistics.getEntitiesCount(JavaCodeModel.JCLASS));
+
+        final TripleBatch batch = new TripleBatch();
+        batch.addTriple(S3, CodeModel.TYPE, JavaCodeModel.JMETHOD);
+        batch.addTriple(S3, CodeModel.TYPE, JavaCodeModel.JMETHOD);
+        batch.addTriple(S2, CodeModel.TYPE, JavaCodeModel.JCLASS);
+        batch.addTripleCollection(S3, JavaCodeModel.HAS_MODIFIERS, new String[]{"static", "final"});
+        model.addTriples(batch);
+        Assert.assertTrue(statistics.isSynchronized(model));
+        Assert.assertEquals(1, statistics.getEntitiesCount(JavaCodeModel.JMETHOD));
+        Assert.assertEquals(1, statistics.getEntitiesCount(JavaCodeModel.JCLASS));
+
+        final ModelStatistics rebuilt = new ModelStatistics();
+        rebuilt.rebuild(model);
+        Assert.assertEquals(rebuilt.getTriplesCount(), statistics.getTriplesCount());
+        Assert.assertEquals(rebuilt.getEntitiesCounts(), statistics.getEntitiesCounts());
+    }
+
+}
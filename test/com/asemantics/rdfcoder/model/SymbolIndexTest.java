@@ -0,0 +1,139 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model;
+
+import com.asemantics.rdfcoder.model.java.JavaCodeModel;
+import com.asemantics.rdfcoder.storage.JenaCoderFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.model.SymbolIndex} class.
+ */
+public class SymbolIndexTest {
+
+    private static final Identifier HASH_SET_MAP   = IdentifierReader.readFullyQualifiedClass("com.foo.HashSetMap");
+    private static final Identifier HASH_MAP       = IdentifierReader.readFullyQualifiedClass("com.foo.HashMap");
+    private static final Identifier URL_CONNECTION = IdentifierReader.readFullyQualifiedClass("com.foo.URLConnection");
+    private static final Identifier PUT            = IdentifierReader.readFullyQualifiedMethod("com.foo.HashMap.put");
+    private static final Identifier OTHER_PUT      = IdentifierReader.readFullyQualifiedMethod("com.foo.HashSetMap.put");
+    private static final Identifier MAP            = IdentifierReader.readFullyQualifiedInterface("com.other.Map");
+
+    private IdentifierIndex identifierIndex;
+
+    private SymbolIndex index;
+
+    @Before
+    public void setUp() {
+        identifierIndex = new IdentifierIndex();
+        index = identifierIndex.getSymbolIndex();
+        for(Identifier identifier : Arrays.asList(HASH_SET_MAP, HASH_MAP, URL_CONNECTION, PUT, OTHER_PUT, MAP)) {
+            identifierIndex.add(identifier);
+        }
+    }
+
+    @Test
+    public void testAdd() {
+        Assert.assertEquals(6, index.size());
+        Assert.assertEquals(5, index.getNamesCount());
+        identifierIndex.add(HASH_MAP);
+        Assert.assertEquals(6, index.size());
+        identifierIndex.add( HASH_MAP.copy().pushFragment("_1", "jconstructor").build() );
+        Assert.assertEquals("Constructors must not be indexed.", 6, index.size());
+        identifierIndex.clear();
+        Assert.assertEquals(0, index.size());
+        Assert.assertTrue( index.search("Map", 10).isEmpty() );
+    }
+
+    @Test
+    public void testSubstringSearch() {
+        Assert.assertEquals(
+                Arrays.asList(MAP, HASH_MAP, HASH_SET_MAP),
+                index.search("map", 10)
+        );
+        Assert.assertEquals( Arrays.asList(PUT, OTHER_PUT), index.search("PUT", 10) );
+        Assert.assertEquals( Arrays.asList(URL_CONNECTION), index.search("nnec", 10) );
+        Assert.assertEquals( Collections.<Identifier>emptyList(), index.search("xyz", 10) );
+    }
+
+    @Test
+    public void testHumpSearch() {
+        Assert.assertEquals( Arrays.asList(HASH_SET_MAP), index.search("HSM", 10) );
+        Assert.assertEquals( Arrays.asList(HASH_SET_MAP), index.search("HaSeMa", 10) );
+        Assert.assertEquals( Arrays.asList(HASH_MAP), index.search("HM", 10) );
+        Assert.assertEquals( Arrays.asList(HASH_SET_MAP), index.search("HS", 10) );
+        Assert.assertEquals( Arrays.asList(URL_CONNECTION), index.search("UC", 10) );
+    }
+
+    @Test
+    public void testRanking() {
+        Assert.assertEquals(
+                "Expected prefix matches before hump matches.",
+                Arrays.asList(HASH_MAP, HASH_SET_MAP),
+                index.search("Hash", 10)
+        );
+        Assert.assertEquals( Arrays.asList(MAP), index.search("map", 1) );
+        Assert.assertTrue( index.search("map", 0).isEmpty() );
+    }
+
+    @Test
+    public void testSplitHumps() {
+        Assert.assertEquals( Arrays.asList("Hash", "Set", "Map"), SymbolIndex.splitHumps("HashSetMap", false) );
+        Assert.assertEquals( Arrays.asList("URL", "Connection"), SymbolIndex.splitHumps("URLConnection", false) );
+        Assert.assertEquals( Arrays.asList("get", "Value2", "X"), SymbolIndex.splitHumps("getValue2X", false) );
+        Assert.assertEquals( Arrays.asList("MAX_", "VALUE"), SymbolIndex.splitHumps("MAX_VALUE", false) );
+        Assert.assertEquals( Arrays.asList("H", "S", "M"), SymbolIndex.splitHumps("HSM", true) );
+    }
+
+    @Test
+    public void testModelChanges() {
+        final CodeModel model = new JenaCoderFactory().createCodeModel();
+        model.addTriple(HASH_MAP.getIdentifier(), CodeModel.TYPE, JavaCodeModel.JCLASS);
+        model.addTriple(HASH_SET_MAP.getIdentifier(), CodeModel.TYPE, JavaCodeModel.JCLASS);
+        identifierIndex.rebuild(model, JavaCodeModel.INDEXED_CLASSES);
+        Assert.assertTrue( identifierIndex.isSynchronized(model) );
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals( Arrays.asList(HASH_MAP, HASH_SET_MAP), index.search("hash", 10) );
+
+        // Entities written through the updates are added.
+        final boolean synchronizedBefore = identifierIndex.isSynchronized(model);
+        model.addTriple(MAP.getIdentifier(), CodeModel.TYPE, JavaCodeModel.JINTERFACE);
+        identifierIndex.update(
+                model, synchronizedBefore,
+                MAP.getIdentifier(), CodeModel.TYPE, JavaCodeModel.JINTERFACE, JavaCodeModel.INDEXED_CLASSES
+        );
+        Assert.assertTrue( identifierIndex.isSynchronized(model) );
+        Assert.assertEquals( Arrays.asList(MAP, HASH_MAP, HASH_SET_MAP), index.search("map", 10) );
+
+        // Entities removed or added by other means are found after a rebuild.
+        model.removeTriple(HASH_MAP.getIdentifier(), CodeModel.TYPE, JavaCodeModel.JCLASS);
+        model.addTriple(URL_CONNECTION.getIdentifier(), CodeModel.TYPE, JavaCodeModel.JCLASS);
+        Assert.assertFalse( identifierIndex.isSynchronized(model) );
+        identifierIndex.rebuild(model, JavaCodeModel.INDEXED_CLASSES);
+        Assert.assertTrue( identifierIndex.isSynchronized(model) );
+        Assert.assertEquals(3, index.size());
+        Assert.assertEquals( Arrays.asList(HASH_SET_MAP), index.search("hash", 10) );
+        Assert.assertEquals( Arrays.asList(URL_CONNECTION), index.search("UC", 10) );
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.CodeModelBase;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.model.QueryModelException;
+import com.asemantics.rdfcoder.model.QueryModelTest;
+import com.asemantics.rdfcoder.parser.ParserException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.model.java.CachingJavaQueryModel} class.
+ */
+public class CachingJavaQueryModelTest {
+
+    private CodeModelBase codeModel;
+
+    private JavaQueryModelImpl decorated;
+
+    private CachingJavaQueryModel cachingQueryModel;
+
+    @Before
+    public void setUp() throws ParserException, IOException {
+        codeModel = QueryModelTest.createQueryModel();
+        decorated = new JavaQueryModelImpl(codeModel);
+        cachingQueryModel = new CachingJavaQueryModel(decorated);
+    }
+
+    @Test
+    public void testResultsAreCached() throws QueryModelException {
+        JClass[] first = cachingQueryModel.getClasses();
+        JClass[] second = cachingQueryModel.getClasses();
+        Assert.assertEquals(1, cachingQueryModel.getCacheMisses());
+        Assert.assertEquals(1, cachingQueryModel.getCacheHits());
+        Assert.assertNotSame(first, second);
+        Assert.assertTrue( Arrays.equals(first, second) );
+        Assert.assertEquals(first.length + 1, cachingQueryModel.getCacheWeight());
+
+        final JClass clazz = cachingQueryModel.getClazz(
+                IdentifierReader.readFullyQualifiedClass("org.jivesoftware.smack.ChatManager")
+        );
+        Assert.assertSame(cachingQueryModel, clazz.getQueryModel());
+        Assert.assertEquals(
+                Arrays.asList( decorated.getMethodsInto(clazz.getIdentifier()) ).size(),
+                clazz.getMethods().length
+        );
+        final long hits = cachingQueryModel.getCacheHits();
+        clazz.getMethods();
+        Assert.assertEquals(hits + 1, cachingQueryModel.getCacheHits());
+        Assert.assertEquals(decorated.toString(), cachingQueryModel.toString());
+    }
+
+    @Test
+    public void testInvalidation() {
+        final int classes = cachingQueryModel.getClasses().length;
+        codeModel.addTriple(
+                IdentifierReader.readFullyQualifiedClass("org.jivesoftware.smack.NewClass").getIdentifier(),
+                CodeModel.TYPE,
+                JavaCodeModel.JCLASS
+        );
+        Assert.assertEquals(classes + 1, cachingQueryModel.getClasses().length);
+        Assert.assertEquals(2, cachingQueryModel.getCacheMisses());
+        Assert.assertEquals(0, cachingQueryModel.getCacheHits());
+    }
+
+    @Test
+    public void testEviction() throws QueryModelException {
+        final int maxWeight = 8;
+        cachingQueryModel = new CachingJavaQueryModel(decorated, maxWeight);
+        for(JClass clazz : decorated.getClasses()) {
+            cachingQueryModel.getModifiers( clazz.getIdentifier() );
+            cachingQueryModel.getVisibility( clazz.getIdentifier() );
+            Assert.assertTrue( cachingQueryModel.getCacheWeight() <= maxWeight );
+        }
+        Assert.assertTrue( cachingQueryModel.getCacheSize() > 0 );
+
+        // Results heavier than the bound are not cached.
+        cachingQueryModel.getClasses();
+        cachingQueryModel.getClasses();
+        Assert.assertEquals(0, cachingQueryModel.getCacheHits());
+    }
+
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.CodeModelBase;
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.storage.JenaCoderFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.model.java.DependencyGraph} class.
+ */
+public class DependencyGraphTest {
+
+    private static final JavaCodeModel.JModifier[] NO_MODIFIERS = new JavaCodeModel.JModifier[0];
+
+    private static final Identifier A     = IdentifierReader.readFullyQualifiedClass("a.A");
+    private static final Identifier INNER = A.copy().pushFragment("Inner", JavaCodeModel.CLASS_KEY).build();
+    private static final Identifier B     = IdentifierReader.readFullyQualifiedClass("b.B");
+    private static final Identifier C     = IdentifierReader.readFullyQualifiedClass("c.C");
+    private static final Identifier D     = IdentifierReader.readFullyQualifiedClass("d.D");
+
+    private CodeModelBase model;
+
+    private DependencyGraph graph;
+
+    /**
+     * Builds the dependencies <i>a.A -&gt; b.B -&gt; c.C -&gt; a.A</i> and <i>d.D -&gt; a.A</i>.
+     */
+    @Before
+    public void setUp() {
+        final JenaCoderFactory factory = new JenaCoderFactory();
+        model = factory.createCodeModel();
+        final JavaCodeHandler handler = factory.createHandlerOnModel(model);
+        handler.startParsing("lib", "location");
+        handler.startPackage( IdentifierReader.readPackage("a") );
+        handler.startClass(NO_MODIFIERS, JavaCodeModel.JVisibility.PUBLIC, A, null, null);
+        handler.endClass();
+        handler.startClass(NO_MODIFIERS, JavaCodeModel.JVisibility.PUBLIC, INNER, B, null);
+        handler.endClass();
+        handler.endPackage();
+        handler.startPackage( IdentifierReader.readPackage("b") );
+        handler.startClass(NO_MODIFIERS, JavaCodeModel.JVisibility.PUBLIC, B, null, null);
+        handler.attribute(
+                NO_MODIFIERS,
+                JavaCodeModel.JVisibility.PRIVATE,
+                B.copy().pushFragment("c", JavaCodeModel.ATTRIBUTE_KEY).build(),
+                new JavaCodeModel.ObjectType(C),
+                null
+        );
+        handler.endClass();
+        handler.endPackage();
+        handler.startPackage( IdentifierReader.readPackage("c") );
+        handler.startClass(NO_MODIFIERS, JavaCodeModel.JVisibility.PUBLIC, C, null, null);
+        handler.method(
+                NO_MODIFIERS,
+                JavaCodeModel.JVisibility.PUBLIC,
+                C.copy().pushFragment("create", JavaCodeModel.METHOD_KEY).build(),
+                1,
+                new String[]{"count"},
+                new JavaCodeModel.JType[]{ JavaCodeModel.INT },
+                new JavaCodeModel.ObjectType(A),
+                new JavaCodeModel.ExceptionType[0]
+        );
+        handler.endClass();
+        handler.endPackage();
+        handler.startPackage( IdentifierReader.readPackage("d") );
+        handler.startClass(NO_MODIFIERS, JavaCodeModel.JVisibility.PUBLIC, D, A, null);
+        handler.endClass();
+        handler.endPackage();
+        handler.endParsing();
+        graph = DependencyGraph.build(model);
+    }
+
+    @Test
+    public void testEdges() {
+        Assert.assertEquals(4, graph.getNodesCount(DependencyGraph.Level.CLASS));
+        Assert.assertEquals(4, graph.getEdgesCount(DependencyGraph.Level.CLASS));
+        Assert.assertEquals(4, graph.getNodesCount(DependencyGraph.Level.PACKAGE));
+        Assert.assertArrayEquals(
+                "The nested class must be collapsed into its top level class.",
+                new String[]{"b.B"},
+                graph.getDependencies(DependencyGraph.Level.CLASS, "a.A")
+        );
+        Assert.assertArrayEquals(
+                new String[]{"c", "d"},
+                graph.getDependents(DependencyGraph.Level.PACKAGE, "a")
+        );
+        Assert.assertFalse( graph.contains(DependencyGraph.Level.CLASS, "a.A.Inner") );
+        Assert.assertEquals(model.getModificationCount(), graph.getModificationCount());
+    }
+
+    @Test
+    public void testAnalysis() {
+        final DependencyAnalysis analysis = graph.analyze(DependencyGraph.Level.PACKAGE);
+        Assert.assertSame("The analysis must be computed once.", analysis, graph.analyze(DependencyGraph.Level.PACKAGE));
+        final String[][] cycles = analysis.getCycles();
+        Assert.assertEquals(1, cycles.length);
+        Assert.assertArrayEquals(new String[]{"a", "b", "c"}, cycles[0]);
+        Assert.assertEquals(2, analysis.getComponentsCount());
+        Assert.assertEquals(2, analysis.getLayersCount());
+        Assert.assertEquals(0, analysis.getLayer("b"));
+        Assert.assertEquals(1, analysis.getLayer("d"));
+        Assert.assertEquals(-1, analysis.getLayer("e"));
+        Assert.assertEquals(2, analysis.getFanIn("a"));
+        Assert.assertEquals(1, analysis.getFanOut("a"));
+        Assert.assertEquals(1.0, analysis.getInstability("d"), 0);
+        Assert.assertArrayEquals(new String[]{"a"}, analysis.getTopByFanIn(1));
+    }
+
+    @Test
+    public void testParallelComponents() {
+        // Rings of nodes chained by a single edge, exceeding the sequential threshold.
+        final int rings = 64;
+        final int ringSize = 100;
+        final int size = rings * ringSize;
+        Assert.assertTrue(size > StronglyConnectedComponents.SEQUENTIAL_THRESHOLD);
+        final int[][] successors = new int[size][];
+        for(int n = 0; n < size; n++) {
+            final int next = (n / ringSize) * ringSize + (n + 1) % ringSize;
+            successors[n] = n % ringSize == 0 && n + ringSize < size ? new int[]{next, n + ringSize} : new int[]{next};
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final StronglyConnectedComponents components = compute(successors, pool);
+            Assert.assertEquals(rings, components.getComponentsCount());
+            final int[] component = components.getComponents();
+            final Set<Integer> distinct = new HashSet<Integer>();
+            for(int n = 0; n < size; n++) {
+                Assert.assertEquals(component[(n / ringSize) * ringSize], component[n]);
+                distinct.add(component[n]);
+            }
+            Assert.assertEquals(rings, distinct.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testIsolatedNodesComponents() {
+        final int size = 20000;
+        final int[][] successors = new int[size][];
+        for(int n = 0; n < size; n++) {
+            successors[n] = new int[0];
+        }
+        assertSingleNodeComponents(successors);
+    }
+
+    @Test
+    public void testChainComponents() {
+        final int size = 20000;
+        final int[][] successors = new int[size][];
+        for(int n = 0; n < size; n++) {
+            successors[n] = n + 1 < size ? new int[]{n + 1} : new int[0];
+        }
+        assertSingleNodeComponents(successors);
+    }
+
+    @Test
+    public void testSparseDAGComponents() {
+        final int size = 20000;
+        final Random random = new Random(7);
+        final int[][] successors = new int[size][];
+        for(int n = 0; n < size; n++) {
+            final Set<Integer> next = new HashSet<Integer>();
+            for(int e = 0; e < 3 && n + 1 < size; e++) {
+                next.add(n + 1 + random.nextInt(size - n - 1));
+            }
+            successors[n] = toArray(next);
+        }
+        assertSingleNodeComponents(successors);
+    }
+
+    @Test
+    public void testChainedCyclesComponents() {
+        // Pairs of nodes in a cycle, every pair depending on the next one.
+        final int pairs = 10000;
+        final int size = pairs * 2;
+        final int[][] successors = new int[size][];
+        for(int n = 0; n < size; n++) {
+            successors[n] = n % 2 == 0
+                    ? (n + 2 < size ? new int[]{n + 1, n + 2} : new int[]{n + 1})
+                    : new int[]{n - 1};
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final StronglyConnectedComponents components = compute(successors, pool);
+            Assert.assertEquals(pairs, components.getComponentsCount());
+            final int[] component = components.getComponents();
+            final Set<Integer> distinct = new HashSet<Integer>();
+            for(int n = 0; n < size; n += 2) {
+                Assert.assertEquals(component[n], component[n + 1]);
+                distinct.add(component[n]);
+            }
+            Assert.assertEquals(pairs, distinct.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRandomGraphComponents() {
+        final int size = 20000;
+        final Random random = new Random(11);
+        final int[][] successors = new int[size][];
+        for(int n = 0; n < size; n++) {
+            final Set<Integer> next = new HashSet<Integer>();
+            for(int e = random.nextInt(3); e > 0; e--) {
+                next.add(random.nextInt(size));
+            }
+            next.remove(n);
+            successors[n] = toArray(next);
+        }
+        final int[] expected = referenceComponents(successors);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final StronglyConnectedComponents components = compute(successors, pool);
+            final int[] component = components.getComponents();
+            final Map<Integer,Integer> mapping = new HashMap<Integer,Integer>();
+            for(int n = 0; n < size; n++) {
+                final Integer mapped = mapping.get(component[n]);
+                if(mapped == null) {
+                    mapping.put(component[n], expected[n]);
+                } else {
+                    Assert.assertEquals("Unexpected component of node " + n, mapped.intValue(), expected[n]);
+                }
+            }
+            Assert.assertEquals(new HashSet<Integer>(mapping.values()).size(), mapping.size());
+            Assert.assertEquals(mapping.size(), components.getComponentsCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Components computed with the Kosaraju algorithm, as a reference.
+     */
+    private int[] referenceComponents(int[][] successors) {
+        final int size = successors.length;
+        final List<List<Integer>> predecessors = new ArrayList<List<Integer>>();
+        for(int n = 0; n < size; n++) {
+            predecessors.add(new ArrayList<Integer>());
+        }
+        for(int n = 0; n < size; n++) {
+            for(int s : successors[n]) {
+                predecessors.get(s).add(n);
+            }
+        }
+        final boolean[] visited = new boolean[size];
+        final int[] order = new int[size];
+        int ordered = 0;
+        final int[] stackNodes = new int[size];
+        final int[] stackEdges = new int[size];
+        for(int root = 0; root < size; root++) {
+            if(visited[root]) {
+                continue;
+            }
+            int depth = 0;
+            stackNodes[0] = root;
+            stackEdges[0] = 0;
+            visited[root] = true;
+            while(depth >= 0) {
+                final int n = stackNodes[depth];
+                if(stackEdges[depth] < successors[n].length) {
+                    final int next = successors[n][ stackEdges[depth]++ ];
+                    if( ! visited[next] ) {
+                        visited[next] = true;
+                        depth++;
+                        stackNodes[depth] = next;
+                        stackEdges[depth] = 0;
+                    }
+                } else {
+                    order[ordered++] = n;
+                    depth--;
+                }
+            }
+        }
+        final int[] component = new int[size];
+        Arrays.fill(component, -1);
+        int components = 0;
+        final int[] queue = new int[size];
+        for(int i = size - 1; i >= 0; i--) {
+            final int root = order[i];
+            if(component[root] != -1) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            component[root] = components;
+            while(head < tail) {
+                final int n = queue[head++];
+                for(int p : predecessors.get(n)) {
+                    if(component[p] == -1) {
+                        component[p] = components;
+                        queue[tail++] = p;
+                    }
+                }
+            }
+            components++;
+        }
+        return component;
+    }
+
+    private void assertSingleNodeComponents(int[][] successors) {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final StronglyConnectedComponents components = compute(successors, pool);
+            Assert.assertEquals(successors.length, components.getComponentsCount());
+            final Set<Integer> distinct = new HashSet<Integer>();
+            for(int c : components.getComponents()) {
+                distinct.add(c);
+            }
+            Assert.assertEquals(successors.length, distinct.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Builds the adjacency arrays of a graph and computes its components.
+     */
+    private StronglyConnectedComponents compute(int[][] successors, ForkJoinPool pool) {
+        final int size = successors.length;
+        int edges = 0;
+        for(int[] s : successors) {
+            edges += s.length;
+        }
+        final int[] offsets = new int[size + 1];
+        final int[] targets = new int[edges];
+        final int[] reverseCounts = new int[size + 1];
+        for(int n = 0, e = 0; n < size; n++) {
+            offsets[n] = e;
+            for(int s : successors[n]) {
+                targets[e++] = s;
+                reverseCounts[s + 1]++;
+            }
+        }
+        offsets[size] = edges;
+        for(int n = 1; n <= size; n++) {
+            reverseCounts[n] += reverseCounts[n - 1];
+        }
+        final int[] reverseOffsets = reverseCounts.clone();
+        final int[] reverseTargets = new int[edges];
+        for(int n = 0; n < size; n++) {
+            for(int s : successors[n]) {
+                reverseTargets[ reverseCounts[s]++ ] = n;
+            }
+        }
+        return StronglyConnectedComponents.compute(offsets, targets, reverseOffsets, reverseTargets, pool);
+    }
+
+    private int[] toArray(Set<Integer> values) {
+        final int[] result = new int[values.size()];
+        int i = 0;
+        for(int value : values) {
+            result[i++] = value;
+        }
+        return result;
+    }
+
+}
@@ -19,10 +19,12 @@
 package com.asemantics.rdfcoder.model.java;
 
 import com.asemantics.rdfcoder.model.Asset;
+import com.asemantics.rdfcoder.model.CodeModel;
 import com.asemantics.rdfcoder.model.CodeModelBase;
 import com.asemantics.rdfcoder.model.Identifier;
 import com.asemantics.rdfcoder.model.IdentifierReader;
 import com.asemantics.rdfcoder.model.QueryModelException;
+import com.asemantics.rdfcoder.model.TripleIterator;
 import com.asemantics.rdfcoder.storage.JenaCoderFactory;
 import org.apache.log4j.Logger;
 import org.junit.After;
@@ -30,6 +32,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
+
 /**
  * Test case for the
  * {@link com.asemantics.rdfcoder.model.java.JavaCodeHandlerImpl}.
@@ -413,4 +417,138 @@ public class JavaCodeHandlerImplTest {
         checkQueryModelContent(qm, logger);
     }
 
+    /**
+     * Tests a handler event sequence generated inside a compilation unit,
+     * where triples are committed to the model as a single batch.
+     *
+     * @throws QueryModelException
+     */
+    @Test
+    public void testHandlerInCompilationUnit() throws QueryModelException {
+        jch.startParsing("test_lib", "test_location");
+        jch.startCompilationUnit("test_unit");
+        jch.startPackage( IdentifierReader.readPackage("p0") );
+        jch.startPackage( IdentifierReader.readPackage("p0.p1") );
+        jch.startPackage( IdentifierReader.readPackage("p0.p1.p2") );
+        jch.startPackage( IdentifierReader.readPackage("p0.p1.p2.p3") );
+        simulateClass1Sequence(jch);
+        simulateClass2Sequence(jch);
+        Assert.assertEquals("Triples must be batched until the end of the compilation unit.",
+                0, qm.getClasses().length);
+        jch.endPackage();
+        jch.endPackage();
+        jch.endPackage();
+        jch.endPackage();
+        jch.endCompilationUnit();
+        jch.endParsing();
+
+        checkQueryModelContent(qm, logger);
+    }
+
+    /**
+     * Tests that with deferred type resolution the triples referring a temporary
+     * identifier reach the model only once the identifier has been resolved.
+     *
+     * @throws QueryModelException
+     */
+    @Test
+    public void testDeferredTypeResolution() throws QueryModelException {
+        final JavaCodeHandlerImpl handler = (JavaCodeHandlerImpl) jch;
+        handler.setDeferredTypeResolution(true);
+        handler.startParsing("test_lib", "test_location");
+        handler.startPackage( IdentifierReader.readPackage("p0") );
+        handler.startClass(
+                new JavaCodeModel.JModifier[0],
+                JavaCodeModel.JVisibility.PUBLIC,
+                IdentifierReader.readPackage("p0")
+                        .copy()
+                        .pushFragment("class1", JavaCodeModel.CLASS_KEY)
+                        .build(),
+                null,
+                null
+        );
+        final Identifier tempIdentifier = handler.generateTempUniqueIdentifier();
+        final JavaCodeModel.ObjectType type = new JavaCodeModel.ObjectType(null);
+        type.setInternalIdentifier(tempIdentifier);
+        handler.attribute(
+                new JavaCodeModel.JModifier[]{JavaCodeModel.JModifier.FINAL},
+                JavaCodeModel.JVisibility.PRIVATE,
+                IdentifierReader.readPackage("p0")
+                        .copy()
+                        .pushFragment("class1", JavaCodeModel.CLASS_KEY)
+                        .pushFragment("attribute1", JavaCodeModel.ATTRIBUTE_KEY)
+                        .build(),
+                type,
+                null
+        );
+        handler.endClass();
+        handler.endPackage();
+        handler.endParsing();
+
+        Assert.assertEquals(1, handler.getDeferredTriplesCount());
+        Assert.assertEquals(0, cmb.countTriples(null, JavaCodeModel.ATTRIBUTE_TYPE, null));
+
+        final Identifier qualifiedType = IdentifierReader.readFullyQualifiedClass("p1.Type1");
+        Assert.assertEquals(
+                1,
+                handler.replaceIdentifiersWithQualifiedTypes( Collections.singletonMap(tempIdentifier, qualifiedType) )
+        );
+        Assert.assertEquals(0, handler.getDeferredTriplesCount());
+        TripleIterator ti = cmb.searchTriples(null, JavaCodeModel.ATTRIBUTE_TYPE, null);
+        try {
+            Assert.assertTrue(ti.next());
+            Assert.assertEquals(qualifiedType.getIdentifier(), ti.getObject());
+            Assert.assertFalse(ti.next());
+        } finally {
+            ti.close();
+        }
+    }
+
+    /**
+     * Tests that the handler keeps the model identifier index up to date.
+     *
+     * @throws QueryModelException
+     */
+    @Test
+    public void testIdentifierIndex() throws QueryModelException {
+        simulateHandlerSequence(jch);
+        final Identifier pack = IdentifierReader.readPackage("p0.p1.p2.p3");
+        Assert.assertTrue( cmb.getIdentifierIndex().contains(pack) );
+        Assert.assertTrue( cmb.getIdentifierIndex().isSynchronized(cmb) );
+        Assert.assertEquals(3, qm.getEntitiesInto(pack).length);
+        Assert.assertEquals(10, qm.getEntitiesUnder(pack).length);
+        Assert.assertEquals(1, qm.findEntities("p0.p1.p2.p3.class2.class3").length);
+        Assert.assertArrayEquals(
+                new String[] {"p0.p1.p2.p3.class1", "p0.p1.p2.p3.class2"},
+                qm.completeEntityName("p0.p1.p2.p3.cl", 10)
+        );
+
+        // The index is rebuilt on demand after a clear.
+        cmb.getIdentifierIndex().clear();
+        Assert.assertEquals(10, qm.getEntitiesUnder(pack).length);
+    }
+
+    /**
+     * Tests that the entity queries follow the model modifications
+     * performed after the first query.
+     */
+    @Test
+    public void testIdentifierIndexModelChanges() {
+        final Identifier pack   = IdentifierReader.readPackage("p1");
+        final Identifier class1 = IdentifierReader.readFullyQualifiedClass("p1.C1");
+        final Identifier class2 = IdentifierReader.readFullyQualifiedClass("p1.C2");
+        cmb.addTriple(class1.getIdentifier(), CodeModel.TYPE, JavaCodeModel.JCLASS);
+        Assert.assertArrayEquals( new Identifier[]{class1}, qm.getEntitiesUnder(pack) );
+        Assert.assertArrayEquals( new Identifier[]{class1}, qm.searchSymbols("C", 10) );
+
+        cmb.addTriple(class2.getIdentifier(), CodeModel.TYPE, JavaCodeModel.JCLASS);
+        cmb.removeTriple(class1.getIdentifier(), CodeModel.TYPE, JavaCodeModel.JCLASS);
+        Assert.assertFalse( qm.classExists(class1) );
+        Assert.assertArrayEquals( new Identifier[]{class2}, qm.getEntitiesUnder(pack) );
+        Assert.assertArrayEquals( new Identifier[]{class2}, qm.getEntitiesInto(pack) );
+        Assert.assertEquals(0, qm.findEntities("p1.C1").length);
+        Assert.assertArrayEquals( new String[]{"p1.C2"}, qm.completeEntityName("p1.C", 10) );
+        Assert.assertArrayEquals( new Identifier[]{class2}, qm.searchSymbols("C", 10) );
+    }
+
 }
@@ -18,6 +18,7 @@
 
 package com.asemantics.rdfcoder.model.java;
 
+import com.asemantics.rdfcoder.model.Identifier;
 import com.asemantics.rdfcoder.model.IdentifierReader;
 import com.asemantics.rdfcoder.model.QueryModelException;
 import com.asemantics.rdfcoder.model.QueryModelTest;
@@ -28,9 +29,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Test case for the {@link com.asemantics.rdfcoder.model.java.JavaQueryModelImpl} class.
@@ -51,6 +55,21 @@ public class JavaQueryModelImplTest {
         javaQueryModel = null;
     }
 
+    @Test
+    public void testToString() {
+        Assert.assertEquals(
+                String.format(
+                        "%s{packages: %s, classes: %s, interfaces: %s, enumerations: %s}",
+                        JavaQueryModelImpl.class.getName(),
+                        javaQueryModel.getPackages().length,
+                        javaQueryModel.getClasses().length,
+                        javaQueryModel.getInterfaces().length,
+                        javaQueryModel.getEnumerations().length
+                ),
+                javaQueryModel.toString()
+        );
+    }
+
     @Test
     public void testPackageExists() {
         Assert.assertTrue(
@@ -380,4 +399,118 @@ public class JavaQueryModelImplTest {
         );
     }
 
+    @Test
+    public void testParentsResolution() throws QueryModelException {
+        for(JClass clazz : javaQueryModel.getClasses()) {
+            Assert.assertEquals(clazz.getIdentifier().getParent(), clazz.getParent().getIdentifier());
+            Assert.assertEquals(clazz.getIdentifier().size(), clazz.getPath().length);
+        }
+        JMethod interfaceMethod = javaQueryModel.getMethod(
+                IdentifierReader.readFullyQualifiedInterface("org.jivesoftware.smack.PacketListener")
+                        .copy()
+                        .pushFragment("processPacket", JavaCodeModel.METHOD_KEY)
+                        .build()
+        );
+        Assert.assertTrue( interfaceMethod.getParent() instanceof JInterface );
+
+        JClass clazz = javaQueryModel.getClazz(
+                IdentifierReader.readFullyQualifiedClass("org.jivesoftware.smack.ChatManager")
+        );
+        Assert.assertSame(clazz.getParent(), clazz.getParentPackage());
+        Assert.assertEquals(
+                IdentifierReader.readPackage("org.jivesoftware.smack"),
+                clazz.getParentPackage().getIdentifier()
+        );
+    }
+
+    @Test
+    public void testDescribeClass() throws QueryModelException {
+        final JClass clazz = javaQueryModel.getClazz(
+                IdentifierReader.readFullyQualifiedClass("org.jivesoftware.smack.ChatManager")
+        );
+        final TypeDescription description = javaQueryModel.describeClass( clazz.getIdentifier() );
+        Assert.assertEquals(clazz.getIdentifier(), description.getIdentifier());
+        Assert.assertEquals("ChatManager", description.getName());
+        Assert.assertEquals(JavaCodeModel.JCLASS, description.getRdfType());
+        Assert.assertEquals(clazz.getVisibility(), description.getVisibility());
+        Assert.assertTrue( Arrays.equals(clazz.getModifiers(), description.getModifiers()) );
+        Assert.assertEquals(
+                javaQueryModel.getAttributesInto( clazz.getIdentifier() ).length,
+                description.getAttributes().length
+        );
+        Assert.assertEquals(
+                javaQueryModel.getMethodsInto( clazz.getIdentifier() ).length,
+                description.getMethods().length
+        );
+
+        TypeDescription.Attribute prefix = null;
+        for(TypeDescription.Attribute attribute : description.getAttributes()) {
+            if("prefix".equals( attribute.getName() )) {
+                prefix = attribute;
+            }
+        }
+        Assert.assertNotNull("Expected attribute.", prefix);
+        Assert.assertTrue(
+                Arrays.equals( new JavaCodeModel.JModifier[]{ JavaCodeModel.JModifier.STATIC }, prefix.getModifiers() )
+        );
+        Assert.assertEquals(
+                String.valueOf( javaQueryModel.getAttributeType( prefix.getIdentifier() ) ),
+                String.valueOf( prefix.getType() )
+        );
+
+        for(TypeDescription.Method method : description.getMethods()) {
+            Assert.assertEquals(
+                    javaQueryModel.getSignatures( method.getIdentifier() ).length,
+                    method.getSignatures().length
+            );
+            for(TypeDescription.Signature signature : method.getSignatures()) {
+                Assert.assertEquals(
+                        String.valueOf( javaQueryModel.getReturnType( signature.getIdentifier() ) ),
+                        String.valueOf( signature.getReturnType() )
+                );
+            }
+        }
+    }
+
+    @Test(expected = QueryModelException.class)
+    public void testDescribeMissingClass() throws QueryModelException {
+        javaQueryModel.describeClass( IdentifierReader.readFullyQualifiedClass("org.jivesoftware.smack.Missing") );
+    }
+
+    @Test
+    public void testIterateClasses() {
+        final List<Identifier> classes = new ArrayList<Identifier>();
+        for(JClass clazz : javaQueryModel.getClasses()) {
+            classes.add( clazz.getIdentifier() );
+        }
+        final List<Identifier> iterated = new ArrayList<Identifier>();
+        final QueryIterator<JClass> iterator = javaQueryModel.iterateClasses(0, QueryIterator.NO_LIMIT);
+        while(iterator.hasNext()) {
+            iterated.add( iterator.next().getIdentifier() );
+        }
+        Assert.assertTrue( iterator.isClosed() );
+        Assert.assertEquals(classes, iterated);
+
+        final QueryIterator<JClass> page = javaQueryModel.iterateClasses(2, 3);
+        final List<Identifier> paged = new ArrayList<Identifier>();
+        for(JClass clazz : page.stream().collect( Collectors.<JClass>toList() )) {
+            paged.add( clazz.getIdentifier() );
+        }
+        Assert.assertEquals(classes.subList(2, 5), paged);
+        Assert.assertTrue( page.isClosed() );
+    }
+
+    @Test
+    public void testIterateMethodsInto() throws QueryModelException {
+        final Identifier chatManager = IdentifierReader.readFullyQualifiedClass("org.jivesoftware.smack.ChatManager");
+        final QueryIterator<JMethod> iterator = javaQueryModel.iterateMethodsInto(chatManager, 0, 1);
+        Assert.assertTrue( iterator.hasNext() );
+        Assert.assertEquals(chatManager, iterator.next().getParent().getIdentifier());
+        Assert.assertFalse( iterator.hasNext() );
+        Assert.assertEquals(
+                javaQueryModel.getMethodsInto(chatManager).length,
+                javaQueryModel.iterateMethodsInto(chatManager, 0, QueryIterator.NO_LIMIT).stream().count()
+        );
+    }
+
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.model.QueryModelException;
+import com.asemantics.rdfcoder.model.TripleIterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.model.java.QueryIterator} class.
+ */
+public class QueryIteratorTest {
+
+    private static final int SIZE = 10;
+
+    private ListTripleIterator tripleIterator = new ListTripleIterator(SIZE);
+
+    @Test
+    public void testIterateAll() {
+        final List<String> names = toList( createIterator(0, QueryIterator.NO_LIMIT) );
+        Assert.assertEquals(SIZE, names.size());
+        Assert.assertEquals("C0", names.get(0));
+        Assert.assertTrue(tripleIterator.closed);
+    }
+
+    @Test
+    public void testOffsetAndLimit() {
+        final QueryIterator<String> iterator = createIterator(3, 4);
+        Assert.assertEquals(Arrays.asList("C3", "C4", "C5", "C6"), toList(iterator));
+        Assert.assertTrue(tripleIterator.closed);
+        Assert.assertEquals("The search must stop at the limit.", 7, tripleIterator.position);
+        Assert.assertEquals("Only the returned entities must be created.", 4, tripleIterator.created);
+
+        tripleIterator = new ListTripleIterator(SIZE);
+        Assert.assertTrue( toList( createIterator(SIZE, QueryIterator.NO_LIMIT) ).isEmpty() );
+        Assert.assertTrue(tripleIterator.closed);
+
+        tripleIterator = new ListTripleIterator(SIZE);
+        Assert.assertFalse( createIterator(0, 0).hasNext() );
+        Assert.assertTrue(tripleIterator.closed);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextAfterEnd() {
+        final QueryIterator<String> iterator = createIterator(SIZE - 1, QueryIterator.NO_LIMIT);
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        try {
+            createIterator(-1, QueryIterator.NO_LIMIT);
+            Assert.fail("Expected exception.");
+        } catch (IllegalArgumentException iae) {
+            Assert.assertTrue(tripleIterator.closed);
+        }
+    }
+
+    @Test
+    public void testStream() {
+        final Stream<String> stream = createIterator(0, QueryIterator.NO_LIMIT).stream();
+        Assert.assertEquals(
+                Arrays.asList("C0", "C1"),
+                stream.limit(2).collect( Collectors.<String>toList() )
+        );
+        Assert.assertFalse(tripleIterator.closed);
+        stream.close();
+        Assert.assertTrue(tripleIterator.closed);
+    }
+
+    private QueryIterator<String> createIterator(int offset, int limit) {
+        final ListTripleIterator current = tripleIterator;
+        return new QueryIterator<String>(current, true, offset, limit) {
+            protected String create(Identifier identifier) throws QueryModelException {
+                current.created++;
+                return identifier.getTailFragment().getFragment();
+            }
+        };
+    }
+
+    private static List<String> toList(QueryIterator<String> iterator) {
+        final List<String> result = new ArrayList<String>();
+        while(iterator.hasNext()) {
+            result.add( iterator.next() );
+        }
+        return result;
+    }
+
+    /**
+     * Triple iterator over a sequence of class declarations.
+     */
+    private static class ListTripleIterator implements TripleIterator {
+
+        private final int size;
+        private int position;
+        private int created;
+        private boolean closed;
+
+        ListTripleIterator(int size) {
+            this.size = size;
+        }
+
+        public boolean next() {
+            if(closed) {
+                throw new IllegalStateException("Iterator closed.");
+            }
+            if(position == size) {
+                return false;
+            }
+            position++;
+            return true;
+        }
+
+        public String getSubject() {
+            return IdentifierReader.readFullyQualifiedClass("p.C" + (position - 1)).getIdentifier();
+        }
+
+        public String getPredicate() {
+            return JavaCodeModel.TYPE;
+        }
+
+        public String getObject() {
+            return JavaCodeModel.JCLASS;
+        }
+
+        public void close() {
+            closed = true;
+        }
+    }
+
+}
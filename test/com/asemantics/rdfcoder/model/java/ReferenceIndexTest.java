@@ -0,0 +1,123 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.CodeModelBase;
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.storage.JenaCoderFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.model.java.ReferenceIndex} class.
+ */
+public class ReferenceIndexTest {
+
+    private static final JavaCodeModel.JModifier[] NO_MODIFIERS = new JavaCodeModel.JModifier[0];
+
+    private static final Identifier TARGET    = IdentifierReader.readFullyQualifiedClass("p.Target");
+    private static final Identifier USER      = IdentifierReader.readFullyQualifiedClass("p.User");
+    private static final Identifier SUBCLASS  = IdentifierReader.readFullyQualifiedClass("p.Subclass");
+    private static final Identifier FIELD     = USER.copy().pushFragment("field", JavaCodeModel.ATTRIBUTE_KEY).build();
+    private static final Identifier METHOD    = USER.copy().pushFragment("convert", JavaCodeModel.METHOD_KEY).build();
+    private static final Identifier EXCEPTION = IdentifierReader.readFullyQualifiedClass("p.Failure");
+
+    private CodeModelBase model;
+
+    private JavaCodeHandler handler;
+
+    @Before
+    public void setUp() {
+        final JenaCoderFactory factory = new JenaCoderFactory();
+        model   = factory.createCodeModel();
+        handler = factory.createHandlerOnModel(model);
+        handler.startParsing("lib", "location");
+        handler.startPackage( IdentifierReader.readPackage("p") );
+        handler.startClass(NO_MODIFIERS, JavaCodeModel.JVisibility.PUBLIC, USER, null, null);
+        handler.attribute(
+                NO_MODIFIERS, JavaCodeModel.JVisibility.PRIVATE, FIELD, new JavaCodeModel.ObjectType(TARGET), null
+        );
+        handler.method(
+                NO_MODIFIERS,
+                JavaCodeModel.JVisibility.PUBLIC,
+                METHOD,
+                1,
+                new String[]{"source", "count"},
+                new JavaCodeModel.JType[]{ new JavaCodeModel.ObjectType(TARGET), JavaCodeModel.INT },
+                new JavaCodeModel.ObjectType(TARGET),
+                new JavaCodeModel.ExceptionType[]{ new JavaCodeModel.ExceptionType(EXCEPTION) }
+        );
+        handler.endClass();
+        handler.startClass(NO_MODIFIERS, JavaCodeModel.JVisibility.PUBLIC, SUBCLASS, TARGET, null);
+        handler.endClass();
+        handler.endPackage();
+        handler.endParsing();
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        final ReferenceIndex index = model.getReferenceIndex();
+        Assert.assertTrue("The handler must keep the index synchronized.", index.isSynchronized(model));
+        Assert.assertEquals(5, index.size());
+
+        final TypeReference[] references = index.getReferencesTo(TARGET);
+        Assert.assertEquals(4, references.length);
+        Assert.assertEquals(SUBCLASS, references[0].getContainer());
+        Assert.assertEquals(TypeReference.Kind.EXTENDS_CLASS, references[0].getKind());
+        for(int i = 1; i < references.length; i++) {
+            Assert.assertEquals(USER, references[i].getContainer());
+        }
+        Assert.assertEquals(FIELD, references[1].getMember());
+        Assert.assertEquals(TypeReference.Kind.ATTRIBUTE_TYPE, references[1].getKind());
+        Assert.assertEquals(METHOD, references[2].getMember());
+        Assert.assertEquals(TypeReference.Kind.PARAMETER_TYPE, references[2].getKind());
+        Assert.assertEquals(METHOD, references[3].getMember());
+        Assert.assertEquals(TypeReference.Kind.RETURN_TYPE, references[3].getKind());
+
+        final TypeReference[] thrown = index.getReferencesTo(EXCEPTION);
+        Assert.assertEquals(1, thrown.length);
+        Assert.assertEquals(TypeReference.Kind.THROWS, thrown[0].getKind());
+        Assert.assertEquals(METHOD, thrown[0].getMember());
+    }
+
+    @Test
+    public void testMatchByName() {
+        Assert.assertEquals(
+                4,
+                model.getReferenceIndex().getReferencesTo( IdentifierReader.readFullyQualifiedInterface("p.Target") ).length
+        );
+    }
+
+    @Test
+    public void testRebuild() {
+        final Identifier other = IdentifierReader.readFullyQualifiedClass("p.Other");
+        model.addTriple(other.getIdentifier(), JavaCodeModel.EXTENDS_CLASS, TARGET.getIdentifier());
+        final ReferenceIndex index = model.getReferenceIndex();
+        Assert.assertFalse( index.isSynchronized(model) );
+
+        final JavaQueryModelImpl queryModel = new JavaQueryModelImpl(model);
+        final TypeReference[] references = queryModel.getReferencesTo(TARGET);
+        Assert.assertTrue( index.isSynchronized(model) );
+        Assert.assertEquals(5, references.length);
+        Assert.assertEquals(other, references[0].getContainer());
+    }
+
+}
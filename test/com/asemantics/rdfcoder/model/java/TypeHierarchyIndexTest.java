@@ -0,0 +1,139 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.model.java;
+
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.storage.JenaCoderFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.model.java.TypeHierarchyIndex} class.
+ */
+public class TypeHierarchyIndexTest {
+
+    private static final Identifier COLLECTION     = IdentifierReader.readFullyQualifiedInterface("p.Collection");
+    private static final Identifier LIST           = IdentifierReader.readFullyQualifiedInterface("p.List");
+    private static final Identifier SET            = IdentifierReader.readFullyQualifiedInterface("p.Set");
+    private static final Identifier ABSTRACT_LIST  = IdentifierReader.readFullyQualifiedClass("p.AbstractList");
+    private static final Identifier ARRAY_LIST     = IdentifierReader.readFullyQualifiedClass("p.ArrayList");
+    private static final Identifier MY_LIST        = IdentifierReader.readFullyQualifiedClass("p.MyList");
+    private static final Identifier HASH_SET       = IdentifierReader.readFullyQualifiedClass("p.HashSet");
+    private static final Identifier OBJECT         = IdentifierReader.readFullyQualifiedClass("p.Object");
+
+    private CodeModel model;
+
+    @Before
+    public void setUp() {
+        model = new JenaCoderFactory().createCodeModel();
+        addRelation(LIST         , JavaCodeModel.EXTENDS_INT   , COLLECTION);
+        addRelation(SET          , JavaCodeModel.EXTENDS_INT   , COLLECTION);
+        addRelation(ABSTRACT_LIST, JavaCodeModel.IMPLEMENTS_INT, LIST);
+        addRelation(ABSTRACT_LIST, JavaCodeModel.EXTENDS_CLASS , OBJECT);
+        addRelation(ARRAY_LIST   , JavaCodeModel.EXTENDS_CLASS , ABSTRACT_LIST);
+        addRelation(MY_LIST      , JavaCodeModel.EXTENDS_CLASS , ARRAY_LIST);
+        addRelation(HASH_SET     , JavaCodeModel.IMPLEMENTS_INT, SET);
+        addRelation(HASH_SET     , JavaCodeModel.EXTENDS_CLASS , OBJECT);
+    }
+
+    @Test
+    public void testBuild() {
+        TypeHierarchyIndex index = TypeHierarchyIndex.build(model);
+        Assert.assertEquals(8, index.getTypesCount());
+        Assert.assertEquals(8, index.getRelationsCount());
+        Assert.assertEquals(model.getModificationCount(), index.getModificationCount());
+        Assert.assertTrue( index.contains(HASH_SET) );
+        Assert.assertFalse( index.contains(IdentifierReader.readFullyQualifiedClass("p.Other")) );
+    }
+
+    @Test
+    public void testQueries() {
+        TypeHierarchyIndex index = TypeHierarchyIndex.build(model);
+        checkQueries(index);
+        index.precomputeClosures();
+        Assert.assertTrue( index.isClosuresPrecomputed() );
+        checkQueries(index);
+    }
+
+    @Test
+    public void testCycles() {
+        addRelation(COLLECTION, JavaCodeModel.EXTENDS_INT, LIST);
+        TypeHierarchyIndex index = TypeHierarchyIndex.build(model);
+        index.precomputeClosures();
+        Assert.assertEquals(
+                set(LIST, SET, ABSTRACT_LIST, ARRAY_LIST, MY_LIST, HASH_SET),
+                set(index.getAllSubtypes(COLLECTION))
+        );
+        Assert.assertEquals( set(COLLECTION), set(index.getAllSupertypes(LIST)) );
+    }
+
+    @Test
+    public void testQueryModel() {
+        JavaQueryModelImpl queryModel = new JavaQueryModelImpl(model);
+        Assert.assertEquals(
+                set(ABSTRACT_LIST, ARRAY_LIST, MY_LIST),
+                set(queryModel.getAllImplementors(LIST))
+        );
+        TypeHierarchyIndex index = queryModel.getTypeHierarchyIndex();
+        Assert.assertSame(index, queryModel.getTypeHierarchyIndex());
+
+        final Identifier linkedList = IdentifierReader.readFullyQualifiedClass("p.LinkedList");
+        addRelation(linkedList, JavaCodeModel.EXTENDS_CLASS, ABSTRACT_LIST);
+        Assert.assertNotSame(index, queryModel.getTypeHierarchyIndex());
+        Assert.assertEquals(
+                set(ABSTRACT_LIST, ARRAY_LIST, MY_LIST, linkedList),
+                set(queryModel.getAllImplementors(LIST))
+        );
+    }
+
+    private void checkQueries(TypeHierarchyIndex index) {
+        Assert.assertEquals(
+                set(LIST, SET, ABSTRACT_LIST, ARRAY_LIST, MY_LIST, HASH_SET),
+                set(index.getAllSubtypes(COLLECTION))
+        );
+        Assert.assertEquals(
+                set(ABSTRACT_LIST, ARRAY_LIST, MY_LIST, HASH_SET),
+                set(index.getAllImplementors(COLLECTION))
+        );
+        Assert.assertEquals( set(ARRAY_LIST, MY_LIST), set(index.getAllSubtypes(ABSTRACT_LIST)) );
+        Assert.assertEquals(
+                set(ARRAY_LIST, ABSTRACT_LIST, OBJECT, LIST, COLLECTION),
+                set(index.getAllSupertypes(MY_LIST))
+        );
+        Assert.assertEquals( 0, index.getAllSubtypes(MY_LIST).length );
+        Assert.assertEquals( 0, index.getAllSupertypes(COLLECTION).length );
+        Assert.assertEquals( 0, index.getAllSubtypes(IdentifierReader.readFullyQualifiedClass("p.Other")).length );
+    }
+
+    private void addRelation(Identifier subtype, String relation, Identifier supertype) {
+        model.addTriple(subtype.getIdentifier(), relation, supertype.getIdentifier());
+    }
+
+    private static Set<Identifier> set(Identifier... identifiers) {
+        return new HashSet<Identifier>( Arrays.asList(identifiers) );
+    }
+
+}
@@ -19,6 +19,9 @@
 package com.asemantics.rdfcoder.repository;
 
 import static com.asemantics.rdfcoder.repository.Repository.ResourceType.BINARY;
+import static com.asemantics.rdfcoder.repository.Repository.ResourceType.BINARY_MODEL;
+import static com.asemantics.rdfcoder.repository.Repository.ResourceType.N_TRIPLES;
+import static com.asemantics.rdfcoder.repository.Repository.ResourceType.N_TRIPLES_GZIP;
 import static com.asemantics.rdfcoder.repository.Repository.ResourceType.XML;
 import org.junit.After;
 import org.junit.Assert;
@@ -75,6 +78,19 @@ public class RepositoryTest {
         }
     }
 
+    @Test
+    public void testResourceType() {
+        Assert.assertEquals(BINARY      , Repository.ResourceType.getType("jre_ot_jre.bin"));
+        Assert.assertEquals(XML         , Repository.ResourceType.getType("model_default.xml"));
+        Assert.assertEquals(BINARY_MODEL, Repository.ResourceType.getType("model_default.rdfbin"));
+        Assert.assertEquals(N_TRIPLES   , Repository.ResourceType.getType("model_default.nt"));
+        Assert.assertEquals(N_TRIPLES_GZIP, Repository.ResourceType.getType("model_default.nt.gz"));
+        Assert.assertNull(Repository.ResourceType.getType("model_default.gz"));
+        Assert.assertNull(Repository.ResourceType.getType("model_binary"));
+        Assert.assertNull(Repository.ResourceType.getType(".model_default.lck"));
+        Assert.assertEquals("model_default", Repository.ResourceType.getResourceName("model_default.rdfbin"));
+    }
+
     @Test
     public void testCheckResource() throws RepositoryException, IOException {
         testAddResource();
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.CodeModelBase;
+import com.asemantics.rdfcoder.model.QueryModelTest;
+import com.asemantics.rdfcoder.model.TripleIterator;
+import com.asemantics.rdfcoder.model.java.JavaCodeModel;
+import com.asemantics.rdfcoder.parser.ParserException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.storage.BinaryCodeStorage} class.
+ */
+public class BinaryCodeStorageTest {
+
+    private static final int TEST_SIZE = 10000;
+
+    @Test
+    public void testJenaRoundTrip() throws CodeStorageException {
+        JenaCodeModel model = new JenaCoderFactory().createCodeModel();
+        fill(model);
+        JenaCodeModel loaded = new JenaCoderFactory().createCodeModel();
+        roundTrip(new BinaryCodeStorage(), model, loaded);
+        Assert.assertEquals(collect(model, null, null, null), collect(loaded, null, null, null));
+        Assert.assertEquals(model.countTriples(null, null, null), loaded.countTriples(null, null, null));
+    }
+
+    @Test
+    public void testDictionaryRoundTrip() throws CodeStorageException {
+        DictionaryCodeModel model = new DictionaryCoderFactory().createCodeModel();
+        fill(model);
+        model.removeTriple("proto:subject_1", "proto:predicate_1", "proto:object_1");
+        DictionaryCodeModel loaded = new DictionaryCoderFactory().createCodeModel();
+        roundTrip(new BinaryCodeStorage(false), model, loaded);
+        Assert.assertEquals(model.getTriplesCount(), loaded.getTriplesCount());
+        Assert.assertEquals(collect(model, null, null, null), collect(loaded, null, null, null));
+    }
+
+    /**
+     * Snapshots are interchangeable between the backends.
+     */
+    @Test
+    public void testCrossBackend() throws CodeStorageException, IOException, ParserException {
+        CodeModelBase model = QueryModelTest.createQueryModel();
+        DictionaryCodeModel loaded = new DictionaryCoderFactory().createCodeModel();
+        roundTrip(new BinaryCodeStorage(), model, loaded);
+        Assert.assertEquals(
+                collect(model, null, JavaCodeModel.CONTAINS_CLASS, null),
+                collect(loaded, null, JavaCodeModel.CONTAINS_CLASS, null)
+        );
+        Assert.assertEquals(model.countTriples(null, null, null), loaded.countTriples(null, null, null));
+    }
+
+    @Test
+    public void testCompression() throws CodeStorageException {
+        JenaCodeModel model = new JenaCoderFactory().createCodeModel();
+        fill(model);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        new BinaryCodeStorage(false).saveModel(model, plain);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        new BinaryCodeStorage(true).saveModel(model, compressed);
+        Assert.assertTrue(compressed.size() < plain.size());
+    }
+
+    @Test(expected = CodeStorageException.class)
+    public void testInvalidStream() throws CodeStorageException {
+        new BinaryCodeStorage().loadModel(
+                new JenaCoderFactory().createCodeModel(),
+                new ByteArrayInputStream("<rdf:RDF/>".getBytes())
+        );
+    }
+
+    private static void fill(CodeModel model) {
+        for(int i = 0; i < TEST_SIZE; i++) {
+            model.addTriple("proto:subject_" + (i % 1000), "proto:predicate_" + (i % 10), "proto:object_" + i);
+        }
+        model.addTripleLiteral("proto:subject_0", "proto:literal", "literal \u00e8 value");
+        model.addTripleCollection("proto:subject_0", "proto:collection", new String[] {"val1", "val2"});
+    }
+
+    private static void roundTrip(BinaryCodeStorage storage, CodeModel source, CodeModel target)
+    throws CodeStorageException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        storage.saveModel(source, baos);
+        storage.loadModel(target, new ByteArrayInputStream(baos.toByteArray()));
+    }
+
+    private static Set<String> collect(CodeModel cm, String s, String p, String o) {
+        Set<String> result = new TreeSet<String>();
+        TripleIterator ti = cm.searchTriples(s, p, o);
+        try {
+            while(ti.next()) {
+                result.add(ti.getSubject() + " " + ti.getPredicate() + " " + ti.getObject());
+            }
+        } finally {
+            ti.close();
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.CodeModel;
+import com.asemantics.rdfcoder.model.CodeModelBase;
+import com.asemantics.rdfcoder.model.CoderFactory;
+import com.asemantics.rdfcoder.model.QueryResult;
+import com.asemantics.rdfcoder.model.SPARQLException;
+import com.asemantics.rdfcoder.model.TripleBatch;
+import com.asemantics.rdfcoder.model.TripleIterator;
+import com.asemantics.rdfcoder.model.java.JavaCodeHandler;
+import com.asemantics.rdfcoder.model.java.JavaCodeModel;
+import com.asemantics.rdfcoder.parser.ObjectsTable;
+import com.asemantics.rdfcoder.parser.ParserException;
+import com.asemantics.rdfcoder.parser.bytecode.JavaBytecodeJarParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.storage.DictionaryCodeModel} class.
+ */
+public class DictionaryCodeModelTest {
+
+    private static final String TEST_FILE  = "target_test/dictionary_impl_test.xml";
+
+    private static final int TEST_SIZE = 10000;
+
+    private DictionaryCoderFactory factory;
+
+    private DictionaryCodeModel model;
+
+    @Before
+    public void setUp() {
+        factory = new DictionaryCoderFactory();
+        model   = factory.createCodeModel();
+    }
+
+    @Test
+    public void testAddAndSearch() {
+        model.addTriple("proto:s1", "proto:p1", "proto:o1");
+        model.addTriple("proto:s1", "proto:p2", "proto:o2");
+        model.addTriple("proto:s2", "proto:p1", "proto:o1");
+        model.addTriple("proto:s2", "proto:p1", "proto:o1");
+        model.addTripleLiteral("proto:s2", "proto:p1", "literal1");
+
+        Assert.assertEquals(4, model.getTriplesCount());
+        Assert.assertEquals(2, count(model, "proto:s1", null, null));
+        Assert.assertEquals(3, count(model, null, "proto:p1", null));
+        Assert.assertEquals(2, count(model, null, null, "proto:o1"));
+        Assert.assertEquals("Literal objects must not match resource searches.",
+                0, count(model, null, null, "literal1"));
+        Assert.assertEquals(1, count(model, "proto:s2", null, "proto:o1"));
+        Assert.assertEquals(0, count(model, "proto:unknown", null, null));
+
+        model.removeTripleLiteral("proto:s2", "proto:p1", "literal1");
+        model.removeTriple("proto:s1", "proto:p2", "proto:o2");
+        Assert.assertEquals(2, model.getTriplesCount());
+        Assert.assertEquals(0, count(model, null, "proto:p2", null));
+
+        model.clearAll();
+        Assert.assertEquals(0, count(model, null, null, null));
+    }
+
+    /**
+     * Compares every search pattern with the {@link JenaCodeModel} on the same random data.
+     */
+    @Test
+    public void testCompareWithJena() {
+        JenaCodeModel jenaModel = new JenaCoderFactory().createCodeModel();
+        Random random = new Random(7);
+        for(int i = 0; i < TEST_SIZE; i++) {
+            String s = "proto:s_" + random.nextInt(500);
+            String p = "proto:p_" + random.nextInt(20);
+            String o = "proto:o_" + random.nextInt(500);
+            if(random.nextInt(10) == 0) {
+                model.removeTriple(s, p, o);
+                jenaModel.removeTriple(s, p, o);
+            } else {
+                model.addTriple(s, p, o);
+                jenaModel.addTriple(s, p, o);
+            }
+        }
+
+        Assert.assertEquals(collect(jenaModel, null, null, null), collect(model, null, null, null));
+        for(int i = 0; i < 200; i++) {
+            String s = random.nextBoolean() ? "proto:s_" + random.nextInt(500) : null;
+            String p = random.nextBoolean() ? "proto:p_" + random.nextInt(20)  : null;
+            String o = random.nextBoolean() ? "proto:o_" + random.nextInt(500) : null;
+            Assert.assertEquals(collect(jenaModel, s, p, o), collect(model, s, p, o));
+            Assert.assertEquals(jenaModel.countTriples(s, p, o), model.countTriples(s, p, o));
+            Assert.assertEquals(jenaModel.containsTriple(s, p, o), model.containsTriple(s, p, o));
+        }
+    }
+
+    /**
+     * Parses the same library with both backends and compares the generated models.
+     */
+    @Test
+    public void testParsedLibraryMatchesJena() throws IOException, ParserException {
+        CodeModelBase jenaModel = parse( new JenaCoderFactory() );
+        CodeModelBase dictionaryModel = parse( factory );
+        Assert.assertEquals(count(jenaModel, null, null, null), count(dictionaryModel, null, null, null));
+        Assert.assertEquals(
+                collect(jenaModel, null, CodeModel.TYPE, null),
+                collect(dictionaryModel, null, CodeModel.TYPE, null)
+        );
+        Assert.assertEquals(
+                collect(jenaModel, null, JavaCodeModel.CONTAINS_CLASS, null),
+                collect(dictionaryModel, null, JavaCodeModel.CONTAINS_CLASS, null)
+        );
+    }
+
+    @Test
+    public void testWriteAndRead() throws CodeStorageException {
+        for(int i = 0; i < TEST_SIZE; i++) {
+            model.addTriple("proto:subject_" + i, "proto:predicate_" + (i % 10), "proto:object_" + i);
+        }
+        final int triples = model.getTriplesCount();
+
+        CodeStorage storage = factory.createCodeStorage();
+        Map<String,String> params = new HashMap<String,String>();
+        params.put(CodeStorage.FS_FILENAME, TEST_FILE);
+        storage.saveModel(model, params);
+
+        DictionaryCodeModel loaded = factory.createCodeModel();
+        storage.loadModel(loaded, params);
+        Assert.assertEquals(triples, loaded.getTriplesCount());
+        Assert.assertEquals(
+                collect(model, null, "proto:predicate_3", null),
+                collect(loaded, null, "proto:predicate_3", null)
+        );
+    }
+
+    @Test
+    public void testQuery() throws SPARQLException {
+        for(int i = 0; i < 300; i++) {
+            model.addTriple("proto:subject_" + i, "proto:predicate_" + (i % 3), "proto:object_" + i);
+        }
+        QueryResult queryResult = model.performQuery(
+                "select ?s ?o where {?s <proto:predicate_1> ?o}"
+        );
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            queryResult.toTabularView( new PrintStream(baos) );
+        } finally {
+            queryResult.close();
+        }
+        Assert.assertTrue( baos.toString().contains("proto:object_298") );
+        Assert.assertFalse( baos.toString().contains("proto:object_299") );
+    }
+
+    @Test
+    public void testAddTriples() {
+        TripleBatch batch = new TripleBatch();
+        for(int i = 0; i < 100; i++) {
+            batch.addTriple("proto:subject_" + i, "proto:predicate", "proto:object_" + i);
+            batch.addTripleLiteral("proto:subject_" + i, "proto:literal", "literal_" + i);
+        }
+        batch.addTripleCollection("proto:subject_0", "proto:collection", new String[] {"val1", "val2"});
+        model.addTriples(batch);
+
+        Assert.assertEquals(100 * 2 + 4, model.getTriplesCount());
+        Assert.assertEquals(100, count(model, null, "proto:predicate", null));
+        Assert.assertEquals(1, count(model, "proto:subject_0", "proto:collection", null));
+    }
+
+    @Test
+    public void testAddTripleCollection() {
+        model.addTripleCollection("test-sub", "test-pre", new String[] {"val1", "val2", "val3"});
+        Assert.assertEquals(5, model.getTriplesCount());
+        Assert.assertEquals(1, count(model, "test-sub", "test-pre", null));
+    }
+
+    @Test
+    public void testModificationCount() {
+        long count = model.getModificationCount();
+        model.addTriple("proto:subject", "proto:predicate", "proto:object");
+        Assert.assertEquals(count + 1, model.getModificationCount());
+        // Adding an existing triple doesn't change the model.
+        model.addTriple("proto:subject", "proto:predicate", "proto:object");
+        Assert.assertEquals(count + 1, model.getModificationCount());
+        model.removeTriple("proto:subject", "proto:predicate", "proto:object");
+        Assert.assertEquals(count + 2, model.getModificationCount());
+        model.clearAll();
+        Assert.assertTrue(model.getModificationCount() > count + 2);
+    }
+
+    private static CodeModelBase parse(CoderFactory<JavaCodeHandler> coderFactory)
+    throws IOException, ParserException {
+        CodeModelBase codeModelBase = coderFactory.createCodeModel();
+        JavaCodeHandler javaCodeHandler = coderFactory.createHandlerOnModel(codeModelBase);
+        JavaBytecodeJarParser parser = new JavaBytecodeJarParser();
+        parser.initialize( javaCodeHandler, new ObjectsTable() );
+        File lib = new File("target_test/target.jar");
+        javaCodeHandler.startParsing("test_model", lib.getAbsolutePath());
+        parser.parseFile( lib );
+        javaCodeHandler.endParsing();
+        parser.dispose();
+        return codeModelBase;
+    }
+
+    private static int count(CodeModel cm, String s, String p, String o) {
+        return collect(cm, s, p, o).size();
+    }
+
+    private static Set<String> collect(CodeModel cm, String s, String p, String o) {
+        Set<String> result = new TreeSet<String>();
+        TripleIterator ti = cm.searchTriples(s, p, o);
+        try {
+            while(ti.next()) {
+                result.add(ti.getSubject() + " " + ti.getPredicate() + " " + ti.getObject());
+            }
+        } finally {
+            ti.close();
+        }
+        return result;
+    }
+
+}
@@ -19,18 +19,32 @@
 package com.asemantics.rdfcoder.storage;
 
 import com.asemantics.rdfcoder.model.CodeModelException;
+import com.asemantics.rdfcoder.model.Identifier;
+import com.asemantics.rdfcoder.model.IdentifierReader;
+import com.asemantics.rdfcoder.model.QueryModelTest;
 import com.asemantics.rdfcoder.model.QueryResult;
 import com.asemantics.rdfcoder.model.SPARQLException;
+import com.asemantics.rdfcoder.model.TripleBatch;
 import com.asemantics.rdfcoder.model.TripleIterator;
 import com.asemantics.rdfcoder.model.java.JavaCodeModel;
+import com.asemantics.rdfcoder.parser.ParserException;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -40,6 +54,8 @@ public class JenaCodeModelTest {
 
     private static final String TEST_FILE  = "target_test/jena_impl_test.xml";
 
+    private static final String TEST_NT_FILE  = "target_test/jena_impl_test.nt.gz";
+
     /**
      * Resource object triples.
      */
@@ -128,9 +144,219 @@ public class JenaCodeModelTest {
         }
     }
 
+    @Test
+    public void testAddTriples() {
+        TripleBatch batch = new TripleBatch();
+        for(int i = 0; i < 100; i++) {
+            batch.addTriple("proto:subject_" + i, "proto:predicate", "proto:object_" + i);
+            batch.addTripleLiteral("proto:subject_" + i, "proto:literal", "literal_" + i);
+        }
+        batch.addTripleCollection("proto:subject_0", "proto:collection", new String[] {"val1", "val2"});
+        jenaCodeModel.addTriples(batch);
+
+        Assert.assertEquals(100, count(null, "proto:predicate", null));
+        Assert.assertEquals(100, count(null, "proto:literal", null));
+        Assert.assertEquals(1, count("proto:subject_0", "proto:collection", null));
+        Assert.assertEquals(100 * 2 + 4, count(null, null, null));
+    }
+
+    @Test
+    public void testCountAndContainsTriples() {
+        for(int i = 0; i < 100; i++) {
+            jenaCodeModel.addTriple("proto:subject_" + (i % 10), "proto:predicate", "proto:object_" + i);
+            jenaCodeModel.addTripleLiteral("proto:subject_" + (i % 10), "proto:literal", "proto:object_" + i);
+        }
+        Assert.assertEquals(200, jenaCodeModel.countTriples(null, null, null));
+        Assert.assertEquals(20 , jenaCodeModel.countTriples("proto:subject_3", null, null));
+        Assert.assertEquals(10 , jenaCodeModel.countTriples("proto:subject_3", "proto:predicate", null));
+        Assert.assertEquals(1  , jenaCodeModel.countTriples(null, null, "proto:object_7"));
+        Assert.assertEquals(0  , jenaCodeModel.countTriples("proto:unknown", null, null));
+
+        Assert.assertTrue ( jenaCodeModel.containsTriple("proto:subject_7", "proto:predicate", "proto:object_7") );
+        Assert.assertTrue ( jenaCodeModel.containsTriple(null, "proto:literal", null) );
+        Assert.assertFalse( jenaCodeModel.containsTriple("proto:subject_7", "proto:predicate", "proto:object_8") );
+        Assert.assertFalse(
+                "Literal objects must not match.",
+                jenaCodeModel.containsTriple("proto:subject_7", "proto:literal", "proto:object_7")
+        );
+    }
+
+    /**
+     * Verifies that flyweight and statement iterators return the same labels.
+     */
+    @Test
+    public void testFlyweightIteration() throws IOException, ParserException {
+        JenaCodeModel parsed = (JenaCodeModel) QueryModelTest.createQueryModel();
+        parsed.addTripleCollection("proto:subject", "proto:collection", new String[] {"val1", "val2"});
+        Assert.assertTrue(parsed.isFlyweightIteration());
+        List<String> flyweight = collect(parsed, null, null, null);
+        List<String> flyweightByType = collect(parsed, null, JavaCodeModel.TYPE, JavaCodeModel.JCLASS);
+        parsed.setFlyweightIteration(false);
+        Assert.assertEquals(collect(parsed, null, null, null), flyweight);
+        Assert.assertEquals(collect(parsed, null, JavaCodeModel.TYPE, JavaCodeModel.JCLASS), flyweightByType);
+        Assert.assertFalse(flyweightByType.isEmpty());
+    }
+
+    @Test
+    public void testNTriplesWriteAndRead() throws CodeStorageException {
+        for(int i = 0; i < RES_OBJ_TRIPLES; i++) {
+            jenaCodeModel.addTriple("proto:subject_" + i, "proto:predicate_" + (i % 10), "proto:object_" + i);
+        }
+        jenaCodeModel.addTripleLiteral("proto:subject_0", "proto:literal", "quoted \"value\"\n\\ \u00e8 > end");
+        jenaCodeModel.addTripleCollection("proto:subject_0", "proto:collection", new String[] {"val1", "val2"});
+
+        JenaCodeStorage storage = jcmf.createCodeStorage();
+        for(JenaCodeStorage.Format format : new JenaCodeStorage.Format[] {
+                JenaCodeStorage.Format.N_TRIPLES, JenaCodeStorage.Format.N_TRIPLES_GZIP
+        }) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            storage.saveModel(jenaCodeModel, baos, format);
+            JenaCodeModel loaded = jcmf.createCodeModel();
+            // Compression is detected from content.
+            storage.loadModel(loaded, new ByteArrayInputStream(baos.toByteArray()), JenaCodeStorage.Format.N_TRIPLES);
+            Assert.assertEquals(collect(jenaCodeModel, null, null, null), collect(loaded, null, null, null));
+        }
+
+        // The file format is guessed from the extension.
+        Map<String,String> ntParams = new HashMap<String,String>();
+        ntParams.put(CodeStorage.FS_FILENAME, TEST_NT_FILE);
+        storage.saveModel(jenaCodeModel, ntParams);
+        JenaCodeModel loaded = jcmf.createCodeModel();
+        storage.loadModel(loaded, ntParams);
+        Assert.assertEquals(jenaCodeModel.countTriples(null, null, null), loaded.countTriples(null, null, null));
+    }
+
+    @Test
+    public void testParallelNTriplesRead() throws CodeStorageException, IOException {
+        for(int i = 0; i < RES_OBJ_TRIPLES; i++) {
+            jenaCodeModel.addTriple("proto:subject_" + (i % 100), "proto:predicate_" + (i % 10), "proto:object_" + i);
+        }
+        jenaCodeModel.addTripleCollection("proto:subject_0", "proto:collection", new String[] {"val1", "val2"});
+        JenaCodeStorage storage = jcmf.createCodeStorage();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        storage.saveModel(jenaCodeModel, baos, JenaCodeStorage.Format.N_TRIPLES);
+
+        JenaCodeModel loaded = jcmf.createCodeModel();
+        long count = new ParallelNTriplesLoader(4, 100).load(
+                new BufferedReader( new StringReader(baos.toString()) ), loaded.getJenaModel().getGraph()
+        );
+        Assert.assertEquals(jenaCodeModel.countTriples(null, null, null), count);
+        Assert.assertEquals(collect(jenaCodeModel, null, null, null), collect(loaded, null, null, null));
+    }
+
+    @Test
+    public void testParallelNTriplesSyntaxError() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < 1000; i++) {
+            sb.append( i == 700 ? "<proto:s> <proto:p>\n" : "<proto:s> <proto:p> <proto:o_" + i + "> .\n" );
+        }
+        try {
+            new ParallelNTriplesLoader(4, 64).load(
+                    new BufferedReader( new StringReader(sb.toString()) ), jenaCodeModel.getJenaModel().getGraph()
+            );
+            Assert.fail("Expected syntax error.");
+        } catch (IOException ioe) {
+            Assert.assertTrue(ioe.getMessage(), ioe.getMessage().contains("line 701"));
+        }
+    }
+
+    @Test(expected = JenaCodeStorageException.class)
+    public void testNTriplesSyntaxError() throws CodeStorageException {
+        jcmf.createCodeStorage().loadModel(
+                jenaCodeModel,
+                new ByteArrayInputStream("<proto:s> <proto:p> \"unterminated .\n".getBytes()),
+                JenaCodeStorage.Format.N_TRIPLES
+        );
+    }
+
+    @Test
+    public void testReplaceIdentifiersWithQualifiedTypes() {
+        Identifier temp1 = jenaCodeModel.generateTempUniqueIdentifier();
+        Identifier temp2 = jenaCodeModel.generateTempUniqueIdentifier();
+        Identifier type1 = IdentifierReader.readFullyQualifiedClass("p1.C1");
+        Identifier type2 = IdentifierReader.readFullyQualifiedClass("p2.C2");
+        jenaCodeModel.addTriple(temp1.getIdentifier(), "proto:predicate", "proto:object");
+        jenaCodeModel.addTriple("proto:subject", "proto:predicate", temp1.getIdentifier());
+        jenaCodeModel.addTriple(temp1.getIdentifier(), "proto:refers", temp2.getIdentifier());
+        jenaCodeModel.addTriple("proto:subject", "proto:other", "proto:object");
+        jenaCodeModel.addTripleLiteral("proto:attribute", "proto:type", temp2.getIdentifier());
+
+        Map<Identifier,Identifier> replacements = new HashMap<Identifier,Identifier>();
+        replacements.put(temp1, type1);
+        replacements.put(temp2, type2);
+        Assert.assertEquals(4, jenaCodeModel.replaceIdentifiersWithQualifiedTypes(replacements));
+
+        Assert.assertEquals(5, jenaCodeModel.countTriples(null, null, null));
+        Assert.assertFalse(jenaCodeModel.containsTriple("proto:attribute", "proto:type", type2.getIdentifier()));
+        Assert.assertEquals(
+                Collections.singletonList("proto:attribute proto:type " + type2.getIdentifier()),
+                collect(jenaCodeModel, "proto:attribute", "proto:type", null)
+        );
+        Assert.assertEquals(0, jenaCodeModel.countTriples(temp1.getIdentifier(), null, null));
+        Assert.assertEquals(0, jenaCodeModel.countTriples(null, null, temp2.getIdentifier()));
+        Assert.assertTrue(jenaCodeModel.containsTriple(type1.getIdentifier(), "proto:predicate", "proto:object"));
+        Assert.assertTrue(jenaCodeModel.containsTriple("proto:subject", "proto:predicate", type1.getIdentifier()));
+        Assert.assertTrue(jenaCodeModel.containsTriple(type1.getIdentifier(), "proto:refers", type2.getIdentifier()));
+        Assert.assertTrue(jenaCodeModel.containsTriple("proto:subject", "proto:other", "proto:object"));
+    }
+
     @Test
     public void testAddTripleCollection() {
         jenaCodeModel.addTripleCollection("test-sub", "test-pre", new String[] {"val1", "val2", "val3"});
     }
 
+    @Test
+    public void testModificationCount() {
+        long count = jenaCodeModel.getModificationCount();
+        jenaCodeModel.addTriple("proto:subject", "proto:predicate", "proto:object");
+        Assert.assertTrue( jenaCodeModel.getModificationCount() > count );
+
+        count = jenaCodeModel.getModificationCount();
+        jenaCodeModel.searchTriples(null, null, null).close();
+        Assert.assertEquals( count, jenaCodeModel.getModificationCount() );
+
+        // Direct changes of the graph are detected too.
+        jenaCodeModel.getJenaModel().getGraph().getBulkUpdateHandler().add(
+                Collections.singletonList(
+                        Triple.create(Node.createURI("proto:s"), Node.createURI("proto:p"), Node.createURI("proto:o"))
+                )
+        );
+        Assert.assertTrue( jenaCodeModel.getModificationCount() > count );
+
+        count = jenaCodeModel.getModificationCount();
+        jenaCodeModel.removeTriple("proto:subject", "proto:predicate", "proto:object");
+        Assert.assertTrue( jenaCodeModel.getModificationCount() > count );
+
+        count = jenaCodeModel.getModificationCount();
+        jenaCodeModel.clearAll();
+        Assert.assertTrue( jenaCodeModel.getModificationCount() > count );
+    }
+
+    private static List<String> collect(JenaCodeModel model, String s, String p, String o) {
+        List<String> result = new ArrayList<String>();
+        TripleIterator ti = model.searchTriples(s, p, o);
+        try {
+            while( ti.next() ) {
+                result.add(ti.getSubject() + " " + ti.getPredicate() + " " + ti.getObject());
+            }
+        } finally {
+            ti.close();
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private int count(String s, String p, String o) {
+        TripleIterator ti = jenaCodeModel.searchTriples(s, p, o);
+        int counter = 0;
+        try {
+            while( ti.next() ) {
+                counter++;
+            }
+        } finally {
+            ti.close();
+        }
+        return counter;
+    }
+
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.QueryResult;
+import com.asemantics.rdfcoder.model.SPARQLException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Test case for the streamed views of the {@link com.asemantics.rdfcoder.storage.JenaQueryResult} class.
+ */
+public class JenaQueryResultTest {
+
+    private static final String QUERY = "select ?s ?o where {?s <proto:p> ?o} order by ?s";
+
+    private JenaCodeModel model;
+
+    @Before
+    public void setUp() {
+        model = new JenaCoderFactory().createCodeModel();
+        for(int i = 0; i < 2500; i++) {
+            model.addTriple("proto:subject_" + i, "proto:p", "proto:object_" + i);
+        }
+    }
+
+    @Test
+    public void testJSONView() throws SPARQLException, IOException {
+        final String all = toJSON(QueryResult.NO_LIMIT, 2500);
+        Assert.assertTrue( all.contains("\"bindings\":[\"s\",\"o\"]") );
+        Assert.assertTrue( all.contains("[\"proto:subject_999\",\"proto:object_999\"]") );
+        Assert.assertTrue( all.endsWith("\"truncated\":false}") );
+
+        final String limited = toJSON(10, 10);
+        Assert.assertTrue( limited.contains("[\"proto:subject_0\",\"proto:object_0\"]") );
+        Assert.assertFalse( limited.contains("proto:subject_999") );
+        Assert.assertTrue( limited.endsWith("\"truncated\":true}") );
+    }
+
+    @Test
+    public void testCSVView() throws SPARQLException {
+        model.addTripleLiteral("proto:subject_a", "proto:p", "a, \"quoted\" value");
+        final String csv = toDelimited(QueryResult.DelimitedFormat.CSV, QueryResult.NO_LIMIT, 2501);
+        Assert.assertTrue( csv.startsWith("s,o\r\nproto:subject_0,proto:object_0\r\n") );
+        Assert.assertTrue( csv.contains("proto:subject_a,\"a, \"\"quoted\"\" value\"\r\n") );
+    }
+
+    @Test
+    public void testTSVView() throws SPARQLException {
+        model.addTripleLiteral("proto:subject_a", "proto:p", "a\tmulti\nline\\value");
+        final String tsv = toDelimited(QueryResult.DelimitedFormat.TSV, QueryResult.NO_LIMIT, 2501);
+        Assert.assertTrue( tsv.contains("proto:subject_a\ta\\tmulti\\nline\\\\value\n") );
+
+        final String limited = toDelimited(QueryResult.DelimitedFormat.TSV, 2, 2);
+        Assert.assertEquals("s\to\nproto:subject_0\tproto:object_0\nproto:subject_1\tproto:object_1\n", limited);
+    }
+
+    private String toJSON(int maxRows, int expectedRows) throws SPARQLException, IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final QueryResult result = model.performQuery(QUERY);
+        try {
+            final JsonGenerator generator = new JsonFactory().createGenerator(baos);
+            Assert.assertEquals(expectedRows, result.toJSONView(generator, maxRows));
+        } finally {
+            result.close();
+        }
+        return baos.toString();
+    }
+
+    private String toDelimited(QueryResult.DelimitedFormat format, int maxRows, int expectedRows)
+    throws SPARQLException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final QueryResult result = model.performQuery(QUERY);
+        try {
+            Assert.assertEquals(expectedRows, result.toDelimitedView(new PrintStream(baos), format, maxRows));
+        } finally {
+            result.close();
+        }
+        return baos.toString();
+    }
+
+}
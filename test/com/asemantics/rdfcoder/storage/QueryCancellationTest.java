@@ -0,0 +1,119 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.QueryCancelledException;
+import com.asemantics.rdfcoder.model.QueryHandle;
+import com.asemantics.rdfcoder.model.QueryResult;
+import com.asemantics.rdfcoder.model.SPARQLException;
+import com.asemantics.rdfcoder.model.SPARQLQuerableCodeModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for the execution of queries controlled by a {@link com.asemantics.rdfcoder.model.QueryHandle}.
+ */
+public class QueryCancellationTest {
+
+    /**
+     * Cross product of the whole model with itself, never producing a result.
+     */
+    private static final String CROSS_PRODUCT_QUERY =
+            "select ?s1 ?s2 where {?s1 ?p1 ?o1 . ?s2 ?p2 ?o2 . ?s3 ?p3 ?o3 . filter(?o1 = ?s3)}";
+
+    @Test
+    public void testJenaTimeout() throws SPARQLException {
+        checkTimeout( new JenaCoderFactory().createCodeModel() );
+    }
+
+    @Test
+    public void testDictionaryTimeout() throws SPARQLException {
+        checkTimeout( new DictionaryCoderFactory().createCodeModel() );
+    }
+
+    @Test
+    public void testCancel() throws SPARQLException, InterruptedException {
+        final JenaCodeModel model = new JenaCoderFactory().createCodeModel();
+        fill(model, 200);
+        final QueryHandle handle = new QueryHandle();
+        final Thread canceller = new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ie) {
+                    // Cancel anyway.
+                }
+                handle.cancel();
+            }
+        };
+        canceller.start();
+        try {
+            consume( model.performQuery(CROSS_PRODUCT_QUERY, handle) );
+            Assert.fail("The query must be cancelled.");
+        } catch (QueryCancelledException qce) {
+            Assert.assertFalse( qce.isTimedOut() );
+            Assert.assertTrue( handle.isCancelled() );
+        }
+        canceller.join();
+    }
+
+    @Test
+    public void testCompletedWithinTimeout() throws SPARQLException {
+        final JenaCodeModel model = new JenaCoderFactory().createCodeModel();
+        fill(model, 10);
+        Assert.assertEquals(
+                10,
+                consume( model.performQuery("select ?s where {?s <proto:p> ?o}", new QueryHandle(60000)) )
+        );
+    }
+
+    private void checkTimeout(SPARQLQuerableCodeModel model) throws SPARQLException {
+        fill(model, 200);
+        final long start = System.currentTimeMillis();
+        try {
+            consume( model.performQuery(CROSS_PRODUCT_QUERY, new QueryHandle(200)) );
+            Assert.fail("The query must time out.");
+        } catch (QueryCancelledException qce) {
+            Assert.assertTrue( qce.isTimedOut() );
+        }
+        Assert.assertTrue("The query must stop soon after the timeout.", System.currentTimeMillis() - start < 10000);
+        // The model is still usable.
+        Assert.assertEquals(1, consume( model.performQuery("select ?o where {<proto:subject_0> ?p ?o}") ));
+    }
+
+    private void fill(SPARQLQuerableCodeModel model, int size) {
+        for(int i = 0; i < size; i++) {
+            model.addTriple("proto:subject_" + i, "proto:p", "proto:object_" + i);
+        }
+    }
+
+    private int consume(QueryResult result) {
+        int rows = 0;
+        try {
+            while(result.hasNext()) {
+                result.next();
+                rows++;
+            }
+        } finally {
+            result.close();
+        }
+        return rows;
+    }
+
+}
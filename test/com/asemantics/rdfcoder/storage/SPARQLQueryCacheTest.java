@@ -0,0 +1,92 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.QueryResult;
+import com.asemantics.rdfcoder.model.SPARQLException;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.storage.SPARQLQueryCache} class.
+ */
+public class SPARQLQueryCacheTest {
+
+    private static final String QUERY_1 = "select ?s where {?s <proto:p1> ?o}";
+    private static final String QUERY_2 = "select ?s where {?s <proto:p2> ?o}";
+    private static final String QUERY_3 = "select ?s where {?s <proto:p3> ?o}";
+
+    @Test
+    public void testHitsAndEviction() {
+        final SPARQLQueryCache cache = new SPARQLQueryCache(2);
+        final Query query1 = cache.getQuery(QUERY_1);
+        Assert.assertSame(query1, cache.getQuery(QUERY_1));
+        cache.getQuery(QUERY_2);
+        // Query 1 is the most recently used, query 2 is evicted.
+        cache.getQuery(QUERY_1);
+        cache.getQuery(QUERY_3);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertSame(query1, cache.getQuery(QUERY_1));
+        Assert.assertEquals(3, cache.getHits());
+        Assert.assertEquals(3, cache.getMisses());
+        cache.getQuery(QUERY_2);
+        Assert.assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testInvalidQueryNotCached() {
+        final SPARQLQueryCache cache = new SPARQLQueryCache();
+        for(int i = 0; i < 2; i++) {
+            try {
+                cache.getQuery("select where");
+                Assert.fail("Expected parse error.");
+            } catch (QueryException qe) {
+                // OK.
+            }
+        }
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testRepeatedModelQuery() throws SPARQLException {
+        final JenaCodeModel model = new JenaCoderFactory().createCodeModel();
+        for(int i = 0; i < 10; i++) {
+            model.addTriple("proto:subject_" + i, "proto:p" + (i % 2), "proto:object_" + i);
+        }
+        for(int run = 0; run < 3; run++) {
+            final QueryResult result = model.performQuery(QUERY_1);
+            int count = 0;
+            try {
+                while(result.hasNext()) {
+                    result.next();
+                    count++;
+                }
+            } finally {
+                result.close();
+            }
+            Assert.assertEquals("The cached query must return the same results.", 5, count);
+        }
+        Assert.assertEquals(2, model.getQueryCache().getHits());
+        Assert.assertEquals(1, model.getQueryCache().getMisses());
+    }
+
+}
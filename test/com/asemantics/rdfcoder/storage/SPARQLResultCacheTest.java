@@ -0,0 +1,111 @@
+/*
+ * Copyright 2007-2017 Michele Mostarda ( michele.mostarda@gmail.com ).
+ * All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the 'License');
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an 'AS IS' BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.asemantics.rdfcoder.storage;
+
+import com.asemantics.rdfcoder.model.QueryResult;
+import com.asemantics.rdfcoder.model.SPARQLException;
+import com.asemantics.rdfcoder.model.SPARQLQuerableCodeModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Test case for the {@link com.asemantics.rdfcoder.storage.SPARQLResultCache} class.
+ */
+public class SPARQLResultCacheTest {
+
+    private static final String QUERY_1 = "select ?s ?o where {?s <proto:p1> ?o}";
+    private static final String QUERY_2 = "select ?s where {?s <proto:p0> ?o}";
+
+    @Test
+    public void testJenaInvalidation() throws SPARQLException {
+        final JenaCodeModel model = new JenaCoderFactory().createCodeModel();
+        final SPARQLResultCache cache = new SPARQLResultCache();
+        model.setResultCache(cache);
+        checkInvalidation(model, cache);
+    }
+
+    @Test
+    public void testDictionaryInvalidation() throws SPARQLException {
+        final DictionaryCodeModel model = new DictionaryCoderFactory().createCodeModel();
+        final SPARQLResultCache cache = new SPARQLResultCache();
+        model.setResultCache(cache);
+        checkInvalidation(model, cache);
+    }
+
+    @Test
+    public void testBudgets() throws SPARQLException {
+        final JenaCodeModel model = new JenaCoderFactory().createCodeModel();
+        fill(model, 20);
+        // Query 1 returns 10 rows of 2 cells.
+        model.setResultCache( new SPARQLResultCache(1, 10) );
+        Assert.assertEquals("Results exceeding the budget must be complete.", 10, run(model, QUERY_1).size());
+        Assert.assertEquals(0, model.getResultCache().size());
+
+        model.setResultCache( new SPARQLResultCache(1, 100) );
+        run(model, QUERY_1);
+        Assert.assertEquals(22, model.getResultCache().getWeight());
+        run(model, QUERY_2);
+        Assert.assertEquals("The least recently used result must be evicted.", 1, model.getResultCache().size());
+        Assert.assertEquals(11, model.getResultCache().getWeight());
+        run(model, QUERY_1);
+        Assert.assertEquals(0, model.getResultCache().getHits());
+        run(model, QUERY_1);
+        Assert.assertEquals(1, model.getResultCache().getHits());
+    }
+
+    private void checkInvalidation(SPARQLQuerableCodeModel model, SPARQLResultCache cache) throws SPARQLException {
+        fill(model, 10);
+        final Set<String> first = run(model, QUERY_1);
+        Assert.assertEquals(5, first.size());
+        Assert.assertEquals(first, run(model, QUERY_1));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+
+        model.addTriple("proto:subject_new", "proto:p1", "proto:object_new");
+        final Set<String> updated = run(model, QUERY_1);
+        Assert.assertEquals("The model change must invalidate the result.", 6, updated.size());
+        Assert.assertEquals(2, cache.getMisses());
+        Assert.assertEquals(updated, run(model, QUERY_1));
+        Assert.assertEquals(2, cache.getHits());
+    }
+
+    private void fill(SPARQLQuerableCodeModel model, int size) {
+        for(int i = 0; i < size; i++) {
+            model.addTriple("proto:subject_" + i, "proto:p" + (i % 2), "proto:object_" + i);
+        }
+    }
+
+    private Set<String> run(SPARQLQuerableCodeModel model, String query) throws SPARQLException {
+        final Set<String> rows = new TreeSet<String>();
+        final QueryResult result = model.performQuery(query);
+        try {
+            while(result.hasNext()) {
+                result.next();
+                rows.add( result.getVariable("s") );
+            }
+        } finally {
+            result.close();
+        }
+        return rows;
+    }
+
+}